@@ -0,0 +1,39 @@
+package com.bandanize.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Exposes which database the application is connected to.
+ * Production runs on PostgreSQL, while tests use an in-memory H2 database, so
+ * services use this to choose between PostgreSQL-specific SQL (upserts, etc.)
+ * and a portable fallback.
+ */
+@Component
+public class DatabaseFeatures {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseFeatures.class);
+
+    private final boolean postgres;
+
+    public DatabaseFeatures(DataSource dataSource) {
+        String productName = "unknown";
+        try (Connection connection = dataSource.getConnection()) {
+            productName = connection.getMetaData().getDatabaseProductName();
+        } catch (SQLException e) {
+            logger.warn("Could not detect database product: {}", e.getMessage());
+        }
+        this.postgres = "PostgreSQL".equalsIgnoreCase(productName);
+        logger.info("Database detected: {} (PostgreSQL features {})", productName,
+                postgres ? "enabled" : "disabled");
+    }
+
+    public boolean isPostgres() {
+        return postgres;
+    }
+}
@@ -0,0 +1,77 @@
+package com.bandanize.backend.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class HibernateConfig {
+
+    // Second-level cache regions, see the @Cache annotations on the entities
+    public static final String USER_REGION = "users";
+    public static final String USER_BY_USERNAME_REGION = "users.by-username";
+    public static final String USER_RRSS_REGION = "users.rrss";
+    public static final String BAND_REGION = "bands";
+    public static final String BAND_USERS_REGION = "bands.users";
+    public static final String BAND_RRSS_REGION = "bands.rrss";
+
+    private static final List<String> REGIONS = List.of(USER_REGION, USER_BY_USERNAME_REGION, USER_RRSS_REGION,
+            BAND_REGION, BAND_USERS_REGION, BAND_RRSS_REGION);
+
+    @Bean
+    public HibernatePropertiesCustomizer jsonFormatMapperCustomizer() {
+        return properties -> properties.put(AvailableSettings.JSON_FORMAT_MAPPER, new JsonFormatMapper());
+    }
+
+    /**
+     * The in-memory (Caffeine) second-level cache regions. The cache is local
+     * to each node, so entries expire after a while to bound how long a change
+     * made on another node goes unseen. Each application context gets its own
+     * manager.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${app.cache.entity-ttl-seconds:300}") long ttlSeconds,
+            @Value("${app.cache.entity-max-size:10000}") long maxSize) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("bandanize-hibernate-" + UUID.randomUUID()),
+                        HibernateConfig.class.getClassLoader());
+        for (String region : REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+            cacheManager.createCache(region, configuration);
+        }
+        return cacheManager;
+    }
+
+    /**
+     * Turns on the second-level cache, backed by {@link #hibernateCacheManager},
+     * and the statistics behind the {@code hibernate.*} metrics (cache hits and
+     * misses per region).
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            // Every region is created above
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+}
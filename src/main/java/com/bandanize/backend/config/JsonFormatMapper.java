@@ -0,0 +1,27 @@
+package com.bandanize.backend.config;
+
+import org.hibernate.type.format.AbstractJsonFormatMapper;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.reflect.Type;
+
+/**
+ * Reads and writes JSON columns ({@code @JdbcTypeCode(SqlTypes.JSON)}) with
+ * the application's Jackson; Hibernate would otherwise look for Jackson 2 on
+ * the classpath. Registered in {@link HibernateConfig}.
+ */
+public class JsonFormatMapper extends AbstractJsonFormatMapper {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    @Override
+    protected <T> T fromString(CharSequence json, Type type) {
+        return objectMapper.readValue(json.toString(), objectMapper.getTypeFactory().constructType(type));
+    }
+
+    @Override
+    protected <T> String toString(T value, Type type) {
+        return objectMapper.writerFor(objectMapper.getTypeFactory().constructType(type)).writeValueAsString(value);
+    }
+}
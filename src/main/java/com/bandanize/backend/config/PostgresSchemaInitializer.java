@@ -0,0 +1,74 @@
+package com.bandanize.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Applies PostgreSQL-specific schema objects that Hibernate's
+ * {@code ddl-auto=update} cannot express (generated columns, GIN indexes, ...).
+ * Runs once at startup after Hibernate has created/updated the tables. Every
+ * statement must be idempotent.
+ */
+@Component
+public class PostgresSchemaInitializer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresSchemaInitializer.class);
+
+    private static final List<String> STATEMENTS = List.of(
+            // Chat full-text search
+            "ALTER TABLE chat_message_model ADD COLUMN IF NOT EXISTS search_vector tsvector "
+                    + "GENERATED ALWAYS AS (to_tsvector('simple', coalesce(message, ''))) STORED",
+            "CREATE INDEX IF NOT EXISTS idx_chat_message_search ON chat_message_model USING GIN (search_vector)",
+            "CREATE INDEX IF NOT EXISTS idx_chat_message_band_timestamp "
+                    + "ON chat_message_model (band_id, \"timestamp\" DESC, id DESC)",
+            // Hibernate creates the enum check once and never updates it; the enum is validated in Java
+            "ALTER TABLE notifications DROP CONSTRAINT IF EXISTS notifications_type_check",
+            // Notification metadata kept in a side table before it became a jsonb column
+            "DO $$ BEGIN IF to_regclass('notification_metadata') IS NOT NULL THEN "
+                    + "UPDATE notifications n SET metadata = m.data FROM (SELECT notification_id, "
+                    + "jsonb_object_agg(key_name, value_content) AS data FROM notification_metadata "
+                    + "GROUP BY notification_id) m WHERE n.id = m.notification_id AND n.metadata IS NULL; "
+                    + "DROP TABLE notification_metadata; END IF; END $$",
+            // One-off data migrations that are done
+            "CREATE TABLE IF NOT EXISTS schema_backfills (name varchar(64) PRIMARY KEY)",
+            // Unread counters, recomputed once for every (band, recipient) from the notifications. Nodes
+            // already serving may be counting new notifications meanwhile: the lock holds their increments
+            // until this commits, so each counter ends up as the recount plus whatever came after it.
+            "DO $$ BEGIN IF NOT EXISTS (SELECT 1 FROM schema_backfills WHERE name = 'notification_unread_counts') "
+                    + "THEN LOCK TABLE notification_unread_counts IN EXCLUSIVE MODE; "
+                    + "INSERT INTO notification_unread_counts (band_id, recipient_id, unread_count) "
+                    + "SELECT project_id, recipient_id, COUNT(*) FROM notifications WHERE is_read = false "
+                    + "GROUP BY project_id, recipient_id ON CONFLICT (recipient_id, band_id) "
+                    + "DO UPDATE SET unread_count = EXCLUDED.unread_count; "
+                    + "INSERT INTO schema_backfills (name) VALUES ('notification_unread_counts') "
+                    + "ON CONFLICT DO NOTHING; END IF; END $$");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseFeatures databaseFeatures;
+
+    public PostgresSchemaInitializer(JdbcTemplate jdbcTemplate, DatabaseFeatures databaseFeatures) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseFeatures = databaseFeatures;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!databaseFeatures.isPostgres()) {
+            return;
+        }
+        for (String statement : STATEMENTS) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (DataAccessException e) {
+                logger.warn("Schema statement failed: {} -> {}", statement, e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.bandanize.backend.config;
+
+import com.bandanize.backend.controllers.TabEditWebSocketHandler;
+import com.bandanize.backend.filters.TabEditHandshakeInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import java.util.Arrays;
+
+/**
+ * Registers the WebSocket endpoints. They accept the same origins as the REST
+ * API's CORS configuration.
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Value("${app.cors.allowed-origins:http://localhost:5173}")
+    private String[] allowedOrigins;
+
+    private final TabEditWebSocketHandler tabEditWebSocketHandler;
+    private final TabEditHandshakeInterceptor tabEditHandshakeInterceptor;
+
+    public WebSocketConfig(TabEditWebSocketHandler tabEditWebSocketHandler,
+            TabEditHandshakeInterceptor tabEditHandshakeInterceptor) {
+        this.tabEditWebSocketHandler = tabEditWebSocketHandler;
+        this.tabEditHandshakeInterceptor = tabEditHandshakeInterceptor;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        String[] origins = Arrays.stream(allowedOrigins)
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toArray(String[]::new);
+        registry.addHandler(tabEditWebSocketHandler, "/ws/tabs/{tabId}")
+                .addInterceptors(tabEditHandshakeInterceptor)
+                .setAllowedOriginPatterns(origins);
+    }
+}
@@ -25,13 +25,21 @@ public class BandController {
     private final BandService bandService;
     private final com.bandanize.backend.services.UserService userService;
     private final ChatService chatService;
+    private final com.bandanize.backend.services.BandSearchService bandSearchService;
+    private final com.bandanize.backend.services.BandExportService bandExportService;
+    private final com.bandanize.backend.services.BandImportService bandImportService;
 
     @Autowired
     public BandController(BandService bandService, com.bandanize.backend.services.UserService userService,
-            ChatService chatService) {
+            ChatService chatService, com.bandanize.backend.services.BandSearchService bandSearchService,
+            com.bandanize.backend.services.BandExportService bandExportService,
+            com.bandanize.backend.services.BandImportService bandImportService) {
         this.bandService = bandService;
         this.userService = userService;
         this.chatService = chatService;
+        this.bandSearchService = bandSearchService;
+        this.bandExportService = bandExportService;
+        this.bandImportService = bandImportService;
     }
 
     /**
@@ -234,6 +242,81 @@ public class BandController {
         return ResponseEntity.ok("Chat marked as read");
     }
 
+    /**
+     * Searches the band chat history.
+     *
+     * @param bandId The ID of the band.
+     * @param q      The search text.
+     * @param before Cursor returned by the previous page (optional).
+     * @param limit  Maximum number of results (default 20, max 50).
+     * @return ResponseEntity with a page of highlighted results, newest first.
+     */
+    @GetMapping("/{bandId}/chat/search")
+    public ResponseEntity<com.bandanize.backend.dtos.ChatSearchPageDTO> searchChat(@PathVariable Long bandId,
+            @RequestParam String q, @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(chatService.searchMessages(bandId, q, before, limit));
+    }
+
+    /**
+     * Searches the band's songs, tabs, song lists and events.
+     *
+     * @param bandId The ID of the band.
+     * @param q      The search text.
+     * @param type   Optional result type: SONG, TABLATURE, SONG_LIST or EVENT.
+     * @param page   Zero-based page number.
+     * @param size   Page size (default 20, max 50).
+     * @return ResponseEntity with a page of results, best match first.
+     */
+    @GetMapping("/{bandId}/search")
+    public ResponseEntity<com.bandanize.backend.dtos.BandSearchPageDTO> search(@PathVariable Long bandId,
+            @RequestParam String q, @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(bandSearchService.search(bandId, q, type, page, size));
+    }
+
+    /**
+     * Downloads all of the band's data and uploaded media as a ZIP archive.
+     * The archive is generated while it is sent, so the download starts right
+     * away whatever the size of the band. Only members can export.
+     *
+     * @param bandId      The ID of the band.
+     * @param userDetails The authenticated user.
+     * @param response    The response the archive is written to.
+     */
+    @GetMapping("/{bandId}/export")
+    public void exportBand(@PathVariable Long bandId, @AuthenticationPrincipal UserDetails userDetails,
+            jakarta.servlet.http.HttpServletResponse response) throws java.io.IOException {
+        com.bandanize.backend.dtos.UserDTO user = userService.getUserByUsername(userDetails.getUsername());
+        String fileName = bandExportService.prepareExport(bandId, user.getId());
+
+        response.setContentType("application/zip");
+        response.setHeader(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
+                org.springframework.http.ContentDisposition.attachment()
+                        .filename(fileName, java.nio.charset.StandardCharsets.UTF_8).build().toString());
+        bandExportService.export(bandId, response.getOutputStream());
+        response.flushBuffer();
+    }
+
+    /**
+     * Creates a new band, owned by the authenticated user, from an archive
+     * produced by {@link #exportBand}. The request body is the ZIP file itself
+     * and is read as a stream.
+     *
+     * @param userDetails The authenticated user.
+     * @param request     The request whose body is the archive.
+     * @return ResponseEntity with the new band's ID and what was imported.
+     */
+    @PostMapping(value = "/import", consumes = { "application/zip", "application/x-zip-compressed",
+            "application/octet-stream" })
+    public ResponseEntity<com.bandanize.backend.dtos.BandImportResultDTO> importBand(
+            @AuthenticationPrincipal UserDetails userDetails, jakarta.servlet.http.HttpServletRequest request)
+            throws java.io.IOException {
+        com.bandanize.backend.dtos.UserDTO user = userService.getUserByUsername(userDetails.getUsername());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(bandImportService.importBand(user.getId(), request.getInputStream()));
+    }
+
     /**
      * Retrieves the secure calendar token for the band.
      *
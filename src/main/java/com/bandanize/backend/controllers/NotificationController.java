@@ -17,11 +17,18 @@ public class NotificationController {
     @Autowired
     private com.bandanize.backend.services.UserService userService;
 
+    /**
+     * The user's notifications in the project, newest first.
+     *
+     * @param before Id of the last notification of the previous page (optional).
+     * @param limit  Maximum number of notifications (default 50, max 100).
+     */
     @GetMapping
     public List<com.bandanize.backend.dtos.NotificationDTO> getNotifications(@PathVariable Long projectId,
+            @RequestParam(required = false) Long before, @RequestParam(defaultValue = "50") int limit,
             @org.springframework.security.core.annotation.AuthenticationPrincipal org.springframework.security.core.userdetails.UserDetails userDetails) {
         com.bandanize.backend.dtos.UserDTO user = userService.getUserByUsername(userDetails.getUsername());
-        return notificationService.getProjectNotifications(projectId, user.getId());
+        return notificationService.getProjectNotifications(projectId, user.getId(), before, limit);
     }
 
     @GetMapping("/unread-count")
@@ -26,6 +26,15 @@ public class SongController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private com.bandanize.backend.services.ChordChartService chordChartService;
+
+    @Autowired
+    private com.bandanize.backend.services.SetlistPdfService setlistPdfService;
+
+    @Autowired
+    private com.bandanize.backend.services.SongImportService songImportService;
+
     private Long getCurrentUserId(Principal principal) {
         return userRepository.findByUsername(principal.getName())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found")).getId();
@@ -43,6 +52,40 @@ public class SongController {
         return ResponseEntity.ok(songService.getSongListsByBand(bandId));
     }
 
+    /**
+     * Lightweight version of {@link #getSongLists}: list, song and tab headers
+     * without tab content or files. Fetch a tab's content with
+     * {@code GET /api/tabs/{tabId}}.
+     */
+    @GetMapping("/bands/{bandId}/songlists/index")
+    public ResponseEntity<List<com.bandanize.backend.dtos.SongListIndexDTO>> getSongListIndex(
+            @PathVariable Long bandId) {
+        return ResponseEntity.ok(songService.getSongListIndex(bandId));
+    }
+
+    /**
+     * Downloads the song list as a printable setlist PDF. Served from a cache
+     * until the list, its songs or tabs change; the ETag is the content hash.
+     */
+    @GetMapping("/songlists/{listId}/setlist.pdf")
+    public ResponseEntity<org.springframework.core.io.Resource> exportSetlistPdf(@PathVariable Long listId,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        com.bandanize.backend.services.SetlistPdfService.SetlistPdf pdf = setlistPdfService.export(listId);
+        String etag = "\"" + pdf.hash() + "\"";
+        if (etag.equals(ifNoneMatch)) {
+            pdf.close();
+            return ResponseEntity.status(org.springframework.http.HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(org.springframework.http.MediaType.APPLICATION_PDF)
+                .contentLength(pdf.size())
+                .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
+                        org.springframework.http.ContentDisposition.attachment()
+                                .filename(pdf.fileName(), java.nio.charset.StandardCharsets.UTF_8).build().toString())
+                .body(new org.springframework.core.io.InputStreamResource(pdf.content()));
+    }
+
     @PutMapping("/songlists/{listId}")
     public ResponseEntity<SongListModel> updateSongList(@PathVariable Long listId, @RequestBody SongListModel details) {
         return ResponseEntity.ok(songService.updateSongList(listId, details));
@@ -66,6 +109,30 @@ public class SongController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Bulk-imports songs (with their tabs) at the end of the list. The body is
+     * streamed: JSON lines ({@code application/x-ndjson}), one song per line,
+     * or CSV ({@code text/csv}) with a header row. Responds when the import is
+     * done; meanwhile {@code GET} on the same path reports its progress.
+     */
+    @PostMapping(value = "/songlists/{listId}/import", consumes = { "application/x-ndjson", "application/jsonl",
+            "text/csv" })
+    public ResponseEntity<com.bandanize.backend.dtos.SongImportProgressDTO> importSongs(@PathVariable Long listId,
+            jakarta.servlet.http.HttpServletRequest request, Principal principal) throws java.io.IOException {
+        com.bandanize.backend.services.SongImportService.Format format = request.getContentType()
+                .toLowerCase(java.util.Locale.ROOT).startsWith("text/csv")
+                        ? com.bandanize.backend.services.SongImportService.Format.CSV
+                        : com.bandanize.backend.services.SongImportService.Format.JSON_LINES;
+        return ResponseEntity.ok(songImportService.importSongs(listId, getCurrentUserId(principal),
+                request.getInputStream(), format));
+    }
+
+    @GetMapping("/songlists/{listId}/import")
+    public ResponseEntity<com.bandanize.backend.dtos.SongImportProgressDTO> getImportProgress(
+            @PathVariable Long listId) {
+        return ResponseEntity.ok(songImportService.getProgress(listId));
+    }
+
     // --- Songs ---
     @PostMapping("/songlists/{listId}/songs")
     public ResponseEntity<SongModel> addSong(@PathVariable Long listId, @RequestBody SongModel song,
@@ -79,6 +146,13 @@ public class SongController {
         return ResponseEntity.ok(songService.updateSong(songId, updates));
     }
 
+    @PutMapping("/songs/{songId}/position")
+    public ResponseEntity<Void> moveSong(@PathVariable Long songId,
+            @RequestBody com.bandanize.backend.dtos.SongPositionDTO position) {
+        songService.moveSong(songId, position.getAfterId(), position.getBeforeId());
+        return ResponseEntity.ok().build();
+    }
+
     @DeleteMapping("/songs/{songId}")
     public ResponseEntity<Void> deleteSong(@PathVariable Long songId) {
         songService.deleteSong(songId);
@@ -91,6 +165,24 @@ public class SongController {
         return ResponseEntity.ok(songService.addTablature(songId, tab));
     }
 
+    @GetMapping("/tabs/{tabId}")
+    public ResponseEntity<TablatureModel> getTablature(@PathVariable Long tabId) {
+        return ResponseEntity.ok(songService.getTablature(tabId));
+    }
+
+    /**
+     * Returns the tab as a chord chart transposed to {@code key} (sounding key)
+     * with chord shapes for {@code capo}; {@code format} is {@code text}
+     * (chord-over-lyrics) or {@code chordpro}.
+     */
+    @GetMapping("/tabs/{tabId}/chart")
+    public ResponseEntity<com.bandanize.backend.dtos.ChordChartDTO> getChordChart(@PathVariable Long tabId,
+            @RequestParam(required = false) String key,
+            @RequestParam(defaultValue = "0") int capo,
+            @RequestParam(required = false) String format) {
+        return ResponseEntity.ok(chordChartService.getChart(tabId, key, capo, format));
+    }
+
     @PutMapping("/tabs/{tabId}")
     public ResponseEntity<TablatureModel> updateTablature(@PathVariable Long tabId,
             @RequestBody TablatureModel details) {
@@ -99,6 +191,16 @@ public class SongController {
         return ResponseEntity.ok(songService.updateTablature(tabId, details));
     }
 
+    /**
+     * Applies text edits to a tab's content against a base version; responds
+     * 409 if the tab changed since.
+     */
+    @PatchMapping("/tabs/{tabId}/content")
+    public ResponseEntity<com.bandanize.backend.dtos.TabVersionDTO> patchTablatureContent(@PathVariable Long tabId,
+            @RequestBody com.bandanize.backend.dtos.TabContentPatchDTO patch) {
+        return ResponseEntity.ok(songService.patchTablatureContent(tabId, patch));
+    }
+
     @DeleteMapping("/tabs/{tabId}")
     public ResponseEntity<Void> deleteTablature(@PathVariable Long tabId) {
         songService.deleteTablature(tabId);
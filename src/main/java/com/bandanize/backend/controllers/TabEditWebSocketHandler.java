@@ -0,0 +1,70 @@
+package com.bandanize.backend.controllers;
+
+import com.bandanize.backend.dtos.TabEditMessageDTO;
+import com.bandanize.backend.filters.TabEditHandshakeInterceptor;
+import com.bandanize.backend.services.TabCollaborationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * WebSocket endpoint {@code /ws/tabs/{tabId}} for collaborative tab editing.
+ * Messages are JSON {@link TabEditMessageDTO}s; the protocol is described in
+ * {@link TabCollaborationService}.
+ */
+@Component
+public class TabEditWebSocketHandler extends TextWebSocketHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TabEditWebSocketHandler.class);
+
+    private static final int SEND_TIME_LIMIT_MS = 10_000;
+    private static final int SEND_BUFFER_LIMIT_BYTES = 512 * 1024;
+
+    private final TabCollaborationService tabCollaborationService;
+    private final ObjectMapper objectMapper;
+
+    public TabEditWebSocketHandler(TabCollaborationService tabCollaborationService, ObjectMapper objectMapper) {
+        this.tabCollaborationService = tabCollaborationService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        try {
+            // Edits of other editors are relayed from their threads, so sends must be serialized
+            tabCollaborationService.join(tabId(session),
+                    new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT_BYTES));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to open tab editing session: {}", e.getMessage());
+            session.close(CloseStatus.SERVER_ERROR);
+        }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        TabEditMessageDTO edit;
+        try {
+            edit = objectMapper.readValue(message.getPayload(), TabEditMessageDTO.class);
+        } catch (JacksonException e) {
+            logger.debug("Malformed tab editing message: {}", e.getMessage());
+            return;
+        }
+        tabCollaborationService.receive(tabId(session), session.getId(), edit);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        tabCollaborationService.leave(tabId(session), session.getId());
+    }
+
+    private static Long tabId(WebSocketSession session) {
+        return (Long) session.getAttributes().get(TabEditHandshakeInterceptor.TAB_ID_ATTRIBUTE);
+    }
+}
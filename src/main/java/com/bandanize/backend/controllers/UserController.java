@@ -2,6 +2,7 @@ package com.bandanize.backend.controllers;
 
 import com.bandanize.backend.dtos.UserDTO;
 import com.bandanize.backend.models.UserModel;
+import com.bandanize.backend.services.NotificationService;
 import com.bandanize.backend.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -11,6 +12,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST Controller for managing Users.
@@ -21,10 +23,12 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final NotificationService notificationService;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, NotificationService notificationService) {
         this.userService = userService;
+        this.notificationService = notificationService;
     }
 
     /**
@@ -76,6 +80,19 @@ public class UserController {
         return ResponseEntity.ok(userDTO);
     }
 
+    /**
+     * Unread notification counts of the current user in all of their bands.
+     *
+     * @param userDetails The authenticated user details.
+     * @return Counts by band ID; bands with nothing unread are left out.
+     */
+    @GetMapping("/me/unread-notifications")
+    public ResponseEntity<Map<Long, Long>> getUnreadNotificationCounts(
+            @AuthenticationPrincipal UserDetails userDetails) {
+        UserDTO userDTO = userService.getUserByUsername(userDetails.getUsername());
+        return ResponseEntity.ok(notificationService.getUnreadCounts(userDTO.getId()));
+    }
+
     /**
      * Retrieves a user by their ID.
      *
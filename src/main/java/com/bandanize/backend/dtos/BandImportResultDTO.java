@@ -0,0 +1,84 @@
+package com.bandanize.backend.dtos;
+
+/**
+ * Outcome of importing a band archive: the new band and how many rows of
+ * each kind were created. {@code skippedRows} counts rows that referred to
+ * something missing from the archive.
+ */
+public class BandImportResultDTO {
+    private Long bandId;
+    private int songLists;
+    private int songs;
+    private int tabs;
+    private int events;
+    private int chatMessages;
+    private int mediaFiles;
+    private int skippedRows;
+
+    public BandImportResultDTO() {
+    }
+
+    public Long getBandId() {
+        return bandId;
+    }
+
+    public void setBandId(Long bandId) {
+        this.bandId = bandId;
+    }
+
+    public int getSongLists() {
+        return songLists;
+    }
+
+    public void setSongLists(int songLists) {
+        this.songLists = songLists;
+    }
+
+    public int getSongs() {
+        return songs;
+    }
+
+    public void setSongs(int songs) {
+        this.songs = songs;
+    }
+
+    public int getTabs() {
+        return tabs;
+    }
+
+    public void setTabs(int tabs) {
+        this.tabs = tabs;
+    }
+
+    public int getEvents() {
+        return events;
+    }
+
+    public void setEvents(int events) {
+        this.events = events;
+    }
+
+    public int getChatMessages() {
+        return chatMessages;
+    }
+
+    public void setChatMessages(int chatMessages) {
+        this.chatMessages = chatMessages;
+    }
+
+    public int getMediaFiles() {
+        return mediaFiles;
+    }
+
+    public void setMediaFiles(int mediaFiles) {
+        this.mediaFiles = mediaFiles;
+    }
+
+    public int getSkippedRows() {
+        return skippedRows;
+    }
+
+    public void setSkippedRows(int skippedRows) {
+        this.skippedRows = skippedRows;
+    }
+}
@@ -0,0 +1,55 @@
+package com.bandanize.backend.dtos;
+
+import java.util.List;
+
+/**
+ * A page of band search results, best match first.
+ */
+public class BandSearchPageDTO {
+    private List<BandSearchResultDTO> results;
+    private int page;
+    private int size;
+    private long total;
+
+    public BandSearchPageDTO() {
+    }
+
+    public BandSearchPageDTO(List<BandSearchResultDTO> results, int page, int size, long total) {
+        this.results = results;
+        this.page = page;
+        this.size = size;
+        this.total = total;
+    }
+
+    public List<BandSearchResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BandSearchResultDTO> results) {
+        this.results = results;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+}
@@ -0,0 +1,86 @@
+package com.bandanize.backend.dtos;
+
+/**
+ * A single band search hit.
+ * {@code type} is one of SONG, TABLATURE, SONG_LIST or EVENT; {@code songListId}
+ * and {@code songId} locate the hit for navigation when they apply.
+ */
+public class BandSearchResultDTO {
+    private String type;
+    private Long id;
+    private String title;
+    private String subtitle;
+    private Long songListId;
+    private Long songId;
+    private float score;
+
+    public BandSearchResultDTO() {
+    }
+
+    public BandSearchResultDTO(String type, Long id, String title, String subtitle, Long songListId, Long songId,
+            float score) {
+        this.type = type;
+        this.id = id;
+        this.title = title;
+        this.subtitle = subtitle;
+        this.songListId = songListId;
+        this.songId = songId;
+        this.score = score;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getSubtitle() {
+        return subtitle;
+    }
+
+    public void setSubtitle(String subtitle) {
+        this.subtitle = subtitle;
+    }
+
+    public Long getSongListId() {
+        return songListId;
+    }
+
+    public void setSongListId(Long songListId) {
+        this.songListId = songListId;
+    }
+
+    public Long getSongId() {
+        return songId;
+    }
+
+    public void setSongId(Long songId) {
+        this.songId = songId;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    public void setScore(float score) {
+        this.score = score;
+    }
+}
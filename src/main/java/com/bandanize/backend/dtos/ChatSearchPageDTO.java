@@ -0,0 +1,37 @@
+package com.bandanize.backend.dtos;
+
+import java.util.List;
+
+/**
+ * A page of chat search results, newest first.
+ * Pass {@code nextCursor} as the {@code before} parameter to fetch the next
+ * page; it is null when there are no more results.
+ */
+public class ChatSearchPageDTO {
+    private List<ChatSearchResultDTO> results;
+    private Long nextCursor;
+
+    public ChatSearchPageDTO() {
+    }
+
+    public ChatSearchPageDTO(List<ChatSearchResultDTO> results, Long nextCursor) {
+        this.results = results;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ChatSearchResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<ChatSearchResultDTO> results) {
+        this.results = results;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
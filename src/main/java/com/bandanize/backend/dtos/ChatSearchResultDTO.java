@@ -0,0 +1,69 @@
+package com.bandanize.backend.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * A chat message matching a search query.
+ * {@code highlight} is an HTML-escaped snippet of the message where the
+ * matched terms are wrapped in {@code <mark>} tags.
+ */
+public class ChatSearchResultDTO {
+    private Long id;
+    private Long senderId;
+    private String senderName;
+    @com.fasterxml.jackson.annotation.JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime timestamp;
+    private String highlight;
+
+    public ChatSearchResultDTO() {
+    }
+
+    public ChatSearchResultDTO(Long id, Long senderId, String senderName, LocalDateTime timestamp,
+            String highlight) {
+        this.id = id;
+        this.senderId = senderId;
+        this.senderName = senderName;
+        this.timestamp = timestamp;
+        this.highlight = highlight;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSenderId() {
+        return senderId;
+    }
+
+    public void setSenderId(Long senderId) {
+        this.senderId = senderId;
+    }
+
+    public String getSenderName() {
+        return senderName;
+    }
+
+    public void setSenderName(String senderName) {
+        this.senderName = senderName;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getHighlight() {
+        return highlight;
+    }
+
+    public void setHighlight(String highlight) {
+        this.highlight = highlight;
+    }
+}
@@ -0,0 +1,107 @@
+package com.bandanize.backend.dtos;
+
+import java.util.List;
+
+/**
+ * A tab rendered as a chord chart in the requested key. {@code key} is the
+ * sounding key; with a capo the chords are shapes in {@code shapesKey}.
+ */
+public class ChordChartDTO {
+    private Long tabId;
+    private Long version;
+    private String originalKey;
+    private String key;
+    private int capo;
+    private String shapesKey;
+    private String format;
+    private String content;
+    private List<String> chords;
+
+    public ChordChartDTO() {
+    }
+
+    public ChordChartDTO(Long tabId, Long version, String originalKey, String key, int capo, String shapesKey,
+            String format, String content, List<String> chords) {
+        this.tabId = tabId;
+        this.version = version;
+        this.originalKey = originalKey;
+        this.key = key;
+        this.capo = capo;
+        this.shapesKey = shapesKey;
+        this.format = format;
+        this.content = content;
+        this.chords = chords;
+    }
+
+    public Long getTabId() {
+        return tabId;
+    }
+
+    public void setTabId(Long tabId) {
+        this.tabId = tabId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getOriginalKey() {
+        return originalKey;
+    }
+
+    public void setOriginalKey(String originalKey) {
+        this.originalKey = originalKey;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public int getCapo() {
+        return capo;
+    }
+
+    public void setCapo(int capo) {
+        this.capo = capo;
+    }
+
+    public String getShapesKey() {
+        return shapesKey;
+    }
+
+    public void setShapesKey(String shapesKey) {
+        this.shapesKey = shapesKey;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public List<String> getChords() {
+        return chords;
+    }
+
+    public void setChords(List<String> chords) {
+        this.chords = chords;
+    }
+}
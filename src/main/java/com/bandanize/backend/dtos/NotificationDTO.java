@@ -13,12 +13,18 @@ public class NotificationDTO {
     private String message;
     @com.fasterxml.jackson.annotation.JsonProperty("isRead")
     private boolean isRead;
+    private int count;
 
     public NotificationDTO() {
     }
 
     public NotificationDTO(Long id, String type, Map<String, String> metadata, LocalDateTime createdAt,
             UserSummaryDTO actor, String title, String message, boolean isRead) {
+        this(id, type, metadata, createdAt, actor, title, message, isRead, 1);
+    }
+
+    public NotificationDTO(Long id, String type, Map<String, String> metadata, LocalDateTime createdAt,
+            UserSummaryDTO actor, String title, String message, boolean isRead, int count) {
         this.id = id;
         this.type = type;
         this.metadata = metadata;
@@ -27,6 +33,7 @@ public class NotificationDTO {
         this.title = title;
         this.message = message;
         this.isRead = isRead;
+        this.count = count;
     }
 
     public Long getId() {
@@ -92,4 +99,12 @@ public class NotificationDTO {
     public void setRead(boolean read) {
         isRead = read;
     }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
 }
@@ -0,0 +1,75 @@
+package com.bandanize.backend.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Song summary with the headers of its tabs, without files or tab content.
+ */
+public class SongHeaderDTO {
+    private Long id;
+    private String name;
+    private Integer bpm;
+    private String songKey;
+    private Integer orderIndex;
+    private List<TabHeaderDTO> tablatures = new ArrayList<>();
+
+    public SongHeaderDTO() {
+    }
+
+    public SongHeaderDTO(Long id, String name, Integer bpm, String songKey, Integer orderIndex) {
+        this.id = id;
+        this.name = name;
+        this.bpm = bpm;
+        this.songKey = songKey;
+        this.orderIndex = orderIndex;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getBpm() {
+        return bpm;
+    }
+
+    public void setBpm(Integer bpm) {
+        this.bpm = bpm;
+    }
+
+    public String getSongKey() {
+        return songKey;
+    }
+
+    public void setSongKey(String songKey) {
+        this.songKey = songKey;
+    }
+
+    public Integer getOrderIndex() {
+        return orderIndex;
+    }
+
+    public void setOrderIndex(Integer orderIndex) {
+        this.orderIndex = orderIndex;
+    }
+
+    public List<TabHeaderDTO> getTablatures() {
+        return tablatures;
+    }
+
+    public void setTablatures(List<TabHeaderDTO> tablatures) {
+        this.tablatures = tablatures;
+    }
+}
@@ -0,0 +1,55 @@
+package com.bandanize.backend.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A song in a bulk import: one JSON line, or one CSV row.
+ */
+public class SongImportDTO {
+    private String name;
+    private Integer bpm;
+    private String songKey;
+    private String originalBand;
+    private List<TabImportDTO> tabs = new ArrayList<>();
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getBpm() {
+        return bpm;
+    }
+
+    public void setBpm(Integer bpm) {
+        this.bpm = bpm;
+    }
+
+    public String getSongKey() {
+        return songKey;
+    }
+
+    public void setSongKey(String songKey) {
+        this.songKey = songKey;
+    }
+
+    public String getOriginalBand() {
+        return originalBand;
+    }
+
+    public void setOriginalBand(String originalBand) {
+        this.originalBand = originalBand;
+    }
+
+    public List<TabImportDTO> getTabs() {
+        return tabs;
+    }
+
+    public void setTabs(List<TabImportDTO> tabs) {
+        this.tabs = tabs != null ? tabs : new ArrayList<>();
+    }
+}
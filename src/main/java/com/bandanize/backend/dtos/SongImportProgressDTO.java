@@ -0,0 +1,93 @@
+package com.bandanize.backend.dtos;
+
+import java.util.List;
+
+/**
+ * Progress, and once finished the outcome, of a bulk import into a song list.
+ * {@code errors} holds the first problems found (rows that were skipped);
+ * {@code errorCount} counts them all.
+ */
+public class SongImportProgressDTO {
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private Long songListId;
+    private Status status;
+    private long rowsRead;
+    private int songsImported;
+    private int tabsImported;
+    private int errorCount;
+    private List<String> errors;
+
+    public SongImportProgressDTO() {
+    }
+
+    public SongImportProgressDTO(Long songListId, Status status, long rowsRead, int songsImported, int tabsImported,
+            int errorCount, List<String> errors) {
+        this.songListId = songListId;
+        this.status = status;
+        this.rowsRead = rowsRead;
+        this.songsImported = songsImported;
+        this.tabsImported = tabsImported;
+        this.errorCount = errorCount;
+        this.errors = errors;
+    }
+
+    public Long getSongListId() {
+        return songListId;
+    }
+
+    public void setSongListId(Long songListId) {
+        this.songListId = songListId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public int getSongsImported() {
+        return songsImported;
+    }
+
+    public void setSongsImported(int songsImported) {
+        this.songsImported = songsImported;
+    }
+
+    public int getTabsImported() {
+        return tabsImported;
+    }
+
+    public void setTabsImported(int tabsImported) {
+        this.tabsImported = tabsImported;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(int errorCount) {
+        this.errorCount = errorCount;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
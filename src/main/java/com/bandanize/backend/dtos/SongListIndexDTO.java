@@ -0,0 +1,55 @@
+package com.bandanize.backend.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Song list with the headers of its songs, as shown on the repertoire page.
+ */
+public class SongListIndexDTO {
+    private Long id;
+    private String name;
+    private Integer orderIndex;
+    private List<SongHeaderDTO> songs = new ArrayList<>();
+
+    public SongListIndexDTO() {
+    }
+
+    public SongListIndexDTO(Long id, String name, Integer orderIndex) {
+        this.id = id;
+        this.name = name;
+        this.orderIndex = orderIndex;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getOrderIndex() {
+        return orderIndex;
+    }
+
+    public void setOrderIndex(Integer orderIndex) {
+        this.orderIndex = orderIndex;
+    }
+
+    public List<SongHeaderDTO> getSongs() {
+        return songs;
+    }
+
+    public void setSongs(List<SongHeaderDTO> songs) {
+        this.songs = songs;
+    }
+}
@@ -0,0 +1,27 @@
+package com.bandanize.backend.dtos;
+
+/**
+ * Target position of a moved song, given by its new neighbors.
+ * {@code afterId} is the song that will precede it (null for the start of the
+ * list) and {@code beforeId} the song that will follow it (null for the end).
+ */
+public class SongPositionDTO {
+    private Long afterId;
+    private Long beforeId;
+
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    public void setAfterId(Long afterId) {
+        this.afterId = afterId;
+    }
+
+    public Long getBeforeId() {
+        return beforeId;
+    }
+
+    public void setBeforeId(Long beforeId) {
+        this.beforeId = beforeId;
+    }
+}
@@ -0,0 +1,29 @@
+package com.bandanize.backend.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Edits to a tab's content, all expressed against the content at
+ * {@code baseVersion}. Edits must be sorted by position and must not overlap.
+ */
+public class TabContentPatchDTO {
+    private Long baseVersion;
+    private List<TextEditDTO> edits = new ArrayList<>();
+
+    public Long getBaseVersion() {
+        return baseVersion;
+    }
+
+    public void setBaseVersion(Long baseVersion) {
+        this.baseVersion = baseVersion;
+    }
+
+    public List<TextEditDTO> getEdits() {
+        return edits;
+    }
+
+    public void setEdits(List<TextEditDTO> edits) {
+        this.edits = edits;
+    }
+}
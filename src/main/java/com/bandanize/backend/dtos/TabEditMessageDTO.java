@@ -0,0 +1,104 @@
+package com.bandanize.backend.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Message of the collaborative tab editing channel.
+ * <ul>
+ * <li>{@code init} (server): current {@code content} and {@code revision}.</li>
+ * <li>{@code op} (client): {@code edits} made against {@code revision}, tagged
+ * with a client-chosen {@code opId}.</li>
+ * <li>{@code ack} (server): the client's {@code opId} was applied as
+ * {@code revision}.</li>
+ * <li>{@code op} (server): another editor's {@code edits}, already transformed,
+ * producing {@code revision}.</li>
+ * <li>{@code reset} (server): discard local state and start over from
+ * {@code content} at {@code revision}.</li>
+ * <li>{@code error} (server): the message could not be processed.</li>
+ * </ul>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TabEditMessageDTO {
+    private String type;
+    private Long revision;
+    private String opId;
+    private List<TextEditDTO> edits;
+    private String content;
+    private Long userId;
+    private String username;
+    private String message;
+
+    public TabEditMessageDTO() {
+    }
+
+    public TabEditMessageDTO(String type, Long revision) {
+        this.type = type;
+        this.revision = revision;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+
+    public String getOpId() {
+        return opId;
+    }
+
+    public void setOpId(String opId) {
+        this.opId = opId;
+    }
+
+    public List<TextEditDTO> getEdits() {
+        return edits;
+    }
+
+    public void setEdits(List<TextEditDTO> edits) {
+        this.edits = edits;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
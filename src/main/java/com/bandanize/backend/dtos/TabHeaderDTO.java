@@ -0,0 +1,54 @@
+package com.bandanize.backend.dtos;
+
+/**
+ * Tablature summary without its content or files.
+ * The content is served by {@code GET /api/tabs/{tabId}}.
+ */
+public class TabHeaderDTO {
+    private Long id;
+    private String name;
+    private String instrument;
+    private String instrumentIcon;
+
+    public TabHeaderDTO() {
+    }
+
+    public TabHeaderDTO(Long id, String name, String instrument, String instrumentIcon) {
+        this.id = id;
+        this.name = name;
+        this.instrument = instrument;
+        this.instrumentIcon = instrumentIcon;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public void setInstrument(String instrument) {
+        this.instrument = instrument;
+    }
+
+    public String getInstrumentIcon() {
+        return instrumentIcon;
+    }
+
+    public void setInstrumentIcon(String instrumentIcon) {
+        this.instrumentIcon = instrumentIcon;
+    }
+}
@@ -0,0 +1,63 @@
+package com.bandanize.backend.dtos;
+
+/**
+ * A tab in a bulk import.
+ */
+public class TabImportDTO {
+    private String name;
+    private String instrument;
+    private String instrumentIcon;
+    private String tuning;
+    private String content;
+
+    public TabImportDTO() {
+    }
+
+    public TabImportDTO(String name, String instrument, String instrumentIcon, String tuning, String content) {
+        this.name = name;
+        this.instrument = instrument;
+        this.instrumentIcon = instrumentIcon;
+        this.tuning = tuning;
+        this.content = content;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public void setInstrument(String instrument) {
+        this.instrument = instrument;
+    }
+
+    public String getInstrumentIcon() {
+        return instrumentIcon;
+    }
+
+    public void setInstrumentIcon(String instrumentIcon) {
+        this.instrumentIcon = instrumentIcon;
+    }
+
+    public String getTuning() {
+        return tuning;
+    }
+
+    public void setTuning(String tuning) {
+        this.tuning = tuning;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+}
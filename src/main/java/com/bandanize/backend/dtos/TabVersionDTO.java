@@ -0,0 +1,34 @@
+package com.bandanize.backend.dtos;
+
+/**
+ * Version of a tab after a successful edit; send it as the next
+ * {@code baseVersion}.
+ */
+public class TabVersionDTO {
+    private Long id;
+    private Long version;
+
+    public TabVersionDTO() {
+    }
+
+    public TabVersionDTO(Long id, Long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
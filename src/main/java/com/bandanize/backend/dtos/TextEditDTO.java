@@ -0,0 +1,44 @@
+package com.bandanize.backend.dtos;
+
+/**
+ * Replaces {@code deleteCount} characters at {@code position} of the base text
+ * with {@code insert}.
+ */
+public class TextEditDTO {
+    private int position;
+    private int deleteCount;
+    private String insert;
+
+    public TextEditDTO() {
+    }
+
+    public TextEditDTO(int position, int deleteCount, String insert) {
+        this.position = position;
+        this.deleteCount = deleteCount;
+        this.insert = insert;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    public int getDeleteCount() {
+        return deleteCount;
+    }
+
+    public void setDeleteCount(int deleteCount) {
+        this.deleteCount = deleteCount;
+    }
+
+    public String getInsert() {
+        return insert;
+    }
+
+    public void setInsert(String insert) {
+        this.insert = insert;
+    }
+}
@@ -0,0 +1,10 @@
+package com.bandanize.backend.exceptions;
+
+/**
+ * Thrown when a client edits a stale version of a resource.
+ */
+public class VersionConflictException extends RuntimeException {
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
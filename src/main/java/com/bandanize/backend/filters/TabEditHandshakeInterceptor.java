@@ -0,0 +1,88 @@
+package com.bandanize.backend.filters;
+
+import com.bandanize.backend.models.UserModel;
+import com.bandanize.backend.repositories.TablatureRepository;
+import com.bandanize.backend.repositories.UserRepository;
+import com.bandanize.backend.services.JwtService;
+import com.bandanize.backend.services.TabCollaborationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Authenticates the handshake of the tab editing channel.
+ * Browsers cannot set headers on WebSocket requests, so the JWT is passed as
+ * the {@code token} query parameter. The user must belong to the band that
+ * owns the tab.
+ */
+@Component
+public class TabEditHandshakeInterceptor implements HandshakeInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TabEditHandshakeInterceptor.class);
+
+    public static final String TAB_ID_ATTRIBUTE = "tabId";
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TablatureRepository tablatureRepository;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        var uri = UriComponentsBuilder.fromUri(request.getURI()).build();
+        String token = uri.getQueryParams().getFirst("token");
+        List<String> segments = uri.getPathSegments();
+
+        Long tabId;
+        try {
+            tabId = Long.parseLong(segments.get(segments.size() - 1));
+        } catch (RuntimeException e) {
+            response.setStatusCode(HttpStatus.BAD_REQUEST);
+            return false;
+        }
+
+        UserModel user = null;
+        if (token != null) {
+            try {
+                user = userRepository.findByUsername(jwtService.extractUsername(token))
+                        .filter(found -> found.isEnabled() && jwtService.validateToken(token, found))
+                        .orElse(null);
+            } catch (Exception e) {
+                logger.debug("Tab editing handshake with invalid token: {}", e.getMessage());
+            }
+        }
+        if (user == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        if (!tablatureRepository.isBandMember(tabId, user.getId())) {
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+            return false;
+        }
+
+        attributes.put(TAB_ID_ATTRIBUTE, tabId);
+        attributes.put(TabCollaborationService.USER_ID_ATTRIBUTE, user.getId());
+        attributes.put(TabCollaborationService.USERNAME_ATTRIBUTE, user.getUsername());
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+            Exception exception) {
+    }
+}
@@ -1,12 +1,21 @@
 package com.bandanize.backend.models;
 
+import com.bandanize.backend.config.HibernateConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 @Entity
+// Deleted bands stay hidden until the background purge removes their rows
+@org.hibernate.annotations.SQLRestriction("deleted_at IS NULL")
+// Band headers and members are read on nearly every request. Writes that bypass
+// Hibernate must evict the band, see BandDeletionRepository.
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateConfig.BAND_REGION)
 public class BandModel {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,6 +33,7 @@ public class BandModel {
     private String city;
 
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateConfig.BAND_RRSS_REGION)
     @CollectionTable(name = "band_rrss", joinColumns = @JoinColumn(name = "band_id"))
     @MapKeyColumn(name = "platform")
     @Column(name = "url")
@@ -34,6 +44,7 @@ public class BandModel {
     private UserModel owner;
 
     @ManyToMany(cascade = { CascadeType.PERSIST, CascadeType.MERGE }, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateConfig.BAND_USERS_REGION)
     @JoinTable(name = "band_user", joinColumns = @JoinColumn(name = "band_id"), inverseJoinColumns = @JoinColumn(name = "user_id"))
     private List<UserModel> users = new ArrayList<>();
 
@@ -65,6 +76,9 @@ public class BandModel {
     @Column(unique = true)
     private String calendarToken;
 
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    private LocalDateTime deletedAt;
+
     // Getters y setters
     public Long getId() {
         return id;
@@ -193,4 +207,12 @@ public class BandModel {
     public void setCalendarToken(String calendarToken) {
         this.calendarToken = calendarToken;
     }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.bandanize.backend.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores long texts gzip-compressed (Base64 encoded, prefixed with
+ * {@code gz:}) in a text column. Texts below the threshold, or that do not
+ * shrink, are stored as they are, so existing rows keep working unchanged.
+ * Texts that happen to start with the prefix are always compressed to keep
+ * the format unambiguous.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, String> {
+
+    static final int THRESHOLD = 1024;
+    private static final String PREFIX = "gz:";
+
+    @Override
+    public String convertToDatabaseColumn(String text) {
+        if (text == null || (text.length() < THRESHOLD && !text.startsWith(PREFIX))) {
+            return text;
+        }
+        String compressed = PREFIX + Base64.getEncoder().encodeToString(gzip(text));
+        return compressed.length() < text.length() || text.startsWith(PREFIX) ? compressed : text;
+    }
+
+    @Override
+    public String convertToEntityAttribute(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX)) {
+            return stored;
+        }
+        try {
+            byte[] bytes = Base64.getDecoder().decode(stored.substring(PREFIX.length()));
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            // Plain text written before compression existed that starts with the prefix
+            return stored;
+        }
+    }
+
+    private static byte[] gzip(String text) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(text.length() / 4 + 32);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
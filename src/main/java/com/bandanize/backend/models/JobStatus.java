@@ -0,0 +1,8 @@
+package com.bandanize.backend.models;
+
+public enum JobStatus {
+    PENDING,
+    RUNNING,
+    DONE,
+    DEAD
+}
@@ -1,11 +1,17 @@
 package com.bandanize.backend.models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
 import java.util.Map;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        // The inbox: a member's notifications in a band, newest first
+        @Index(name = "idx_notifications_inbox", columnList = "project_id, recipient_id, created_at DESC, id DESC"),
+        // Retention
+        @Index(name = "idx_notifications_created_at", columnList = "created_at") })
 public class Notification {
 
     @Id
@@ -28,10 +34,8 @@ public class Notification {
     @Column(nullable = false)
     private NotificationType type;
 
-    @ElementCollection
-    @CollectionTable(name = "notification_metadata", joinColumns = @JoinColumn(name = "notification_id"))
-    @MapKeyColumn(name = "key_name")
-    @Column(name = "value_content")
+    // A JSON object (jsonb on PostgreSQL), loaded with the row
+    @JdbcTypeCode(SqlTypes.JSON)
     private Map<String, String> metadata;
 
     @Column(nullable = false)
@@ -44,6 +48,14 @@ public class Notification {
 
     private LocalDateTime createdAt;
 
+    /**
+     * How many events this row stands for; above one it is a digest of
+     * repeated events of the same type by the same actor, and
+     * {@link #createdAt} is the latest of them.
+     */
+    @Column(nullable = false, columnDefinition = "integer default 1")
+    private int occurrences = 1;
+
     public Notification() {
         this.createdAt = LocalDateTime.now();
     }
@@ -57,7 +69,8 @@ public class Notification {
         EVENT_CREATED,
         EVENT_MODIFIED,
         FILE_ADDED,
-        TAB_CREATED
+        TAB_CREATED,
+        SONGS_IMPORTED
     }
 
     // Getters and Setters
@@ -126,6 +139,14 @@ public class Notification {
         isRead = read;
     }
 
+    public int getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(int occurrences) {
+        this.occurrences = occurrences;
+    }
+
     public String getMessage() {
         return message;
     }
@@ -0,0 +1,64 @@
+package com.bandanize.backend.models;
+
+import jakarta.persistence.*;
+
+/**
+ * How many unread notifications a member has in a band, kept in step with the
+ * notifications table in the same transactions that insert notifications or
+ * mark them as read, so polling the count is a single-row read.
+ * Read and written with plain SQL by
+ * {@link com.bandanize.backend.repositories.NotificationCounterRepository}.
+ */
+@Entity
+@Table(name = "notification_unread_counts", uniqueConstraints = {
+        @UniqueConstraint(columnNames = { "recipient_id", "band_id" })
+})
+public class NotificationUnreadCount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "band_id", nullable = false)
+    private BandModel band;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "recipient_id", nullable = false)
+    private UserModel recipient;
+
+    @Column(nullable = false)
+    private long unreadCount;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public BandModel getBand() {
+        return band;
+    }
+
+    public void setBand(BandModel band) {
+        this.band = band;
+    }
+
+    public UserModel getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(UserModel recipient) {
+        this.recipient = recipient;
+    }
+
+    public long getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(long unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+}
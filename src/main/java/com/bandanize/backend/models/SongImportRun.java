@@ -0,0 +1,109 @@
+package com.bandanize.backend.models;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * The running or last bulk import into a song list, see
+ * {@link com.bandanize.backend.services.SongImportService}.
+ * The row is claimed before an import starts, so only one import per list
+ * runs across all nodes, and is updated after every chunk, so progress can be
+ * polled on any node. A running import that stops updating its row (the node
+ * died) is taken over by the next import after a while.
+ * Read and written with plain SQL by
+ * {@link com.bandanize.backend.repositories.SongImportRepository}.
+ */
+@Entity
+@Table(name = "song_imports")
+public class SongImportRun {
+
+    // Not a foreign key, so deleting the list does not have to clean it up
+    @Id
+    private Long songListId;
+
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    @Column(nullable = false)
+    private long rowsRead;
+
+    @Column(nullable = false)
+    private int songsImported;
+
+    @Column(nullable = false)
+    private int tabsImported;
+
+    @Column(nullable = false)
+    private int errorCount;
+
+    // JSON array of the first errors
+    @Column(columnDefinition = "TEXT")
+    private String errors;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public Long getSongListId() {
+        return songListId;
+    }
+
+    public void setSongListId(Long songListId) {
+        this.songListId = songListId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public int getSongsImported() {
+        return songsImported;
+    }
+
+    public void setSongsImported(int songsImported) {
+        this.songsImported = songsImported;
+    }
+
+    public int getTabsImported() {
+        return tabsImported;
+    }
+
+    public void setTabsImported(int tabsImported) {
+        this.tabsImported = tabsImported;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(int errorCount) {
+        this.errorCount = errorCount;
+    }
+
+    public String getErrors() {
+        return errors;
+    }
+
+    public void setErrors(String errors) {
+        this.errors = errors;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
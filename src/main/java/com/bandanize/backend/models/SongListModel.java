@@ -21,7 +21,7 @@ public class SongListModel {
     private BandModel band;
 
     @OneToMany(mappedBy = "songList", cascade = CascadeType.ALL, orphanRemoval = true)
-    @OrderBy("orderIndex ASC")
+    @OrderBy("sortKey ASC NULLS FIRST, orderIndex ASC, id ASC")
     @JsonManagedReference
     private List<SongModel> songs = new ArrayList<>();
 
@@ -3,6 +3,7 @@ package com.bandanize.backend.models;
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -20,6 +21,11 @@ public class SongModel {
     @Column(name = "order_index")
     private Integer orderIndex;
 
+    // Fractional ordering key (see OrderingKeys); assigned by the server
+    @Column(name = "sort_key", length = 64)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String sortKey;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "song_list_id")
     @JsonBackReference
@@ -81,6 +87,14 @@ public class SongModel {
         this.orderIndex = orderIndex;
     }
 
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public void setSortKey(String sortKey) {
+        this.sortKey = sortKey;
+    }
+
     public SongListModel getSongList() {
         return songList;
     }
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@org.hibernate.annotations.DynamicUpdate
 public class TablatureModel {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -16,9 +17,17 @@ public class TablatureModel {
     private String instrumentIcon;
     private String tuning;
 
+    // Compressed when long, and only loaded when read (requires bytecode enhancement)
+    @Basic(fetch = FetchType.LAZY)
+    @Convert(converter = CompressedTextConverter.class)
     @Column(columnDefinition = "TEXT")
     private String content;
 
+    // Optimistic locking: incremented on every update, checked by edits against a base version
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "song_id")
     @JsonBackReference
@@ -68,14 +77,33 @@ public class TablatureModel {
         this.tuning = tuning;
     }
 
+    @com.fasterxml.jackson.annotation.JsonIgnore
     public String getContent() {
         return content;
     }
 
+    /**
+     * Content for JSON responses: omitted when it has not been loaded, so that
+     * tabs nested in bands and song lists are serialized without their bodies.
+     */
+    @com.fasterxml.jackson.annotation.JsonProperty("content")
+    @com.fasterxml.jackson.annotation.JsonInclude(com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL)
+    public String getLoadedContent() {
+        return org.hibernate.Hibernate.isPropertyInitialized(this, "content") ? content : null;
+    }
+
     public void setContent(String content) {
         this.content = content;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public SongModel getSong() {
         return song;
     }
@@ -1,6 +1,11 @@
 package com.bandanize.backend.models;
 
+import com.bandanize.backend.config.HibernateConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
@@ -11,11 +16,15 @@ import java.util.List;
 import java.util.Map;
 
 @Entity
+// Read on every authenticated request (by username) and rarely written
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateConfig.USER_REGION)
+@NaturalIdCache(region = HibernateConfig.USER_BY_USERNAME_REGION)
 public class UserModel implements UserDetails {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId(mutable = true)
     @Column(unique = true, nullable = false)
     private String username;
 
@@ -29,6 +38,7 @@ public class UserModel implements UserDetails {
     private String photo = "";
 
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateConfig.USER_RRSS_REGION)
     @CollectionTable(name = "user_rrss", joinColumns = @JoinColumn(name = "user_id"))
     @MapKeyColumn(name = "platform")
     @Column(name = "url")
@@ -0,0 +1,166 @@
+package com.bandanize.backend.repositories;
+
+import com.bandanize.backend.models.BandModel;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Set-based deletes of everything that belongs to a band, child tables first.
+ * Large tables are deleted in id-bounded slices: the caller asks for the upper
+ * id of the next slice ({@code find*Bound}) and deletes up to it, so each
+ * statement touches a bounded number of rows and no id lists are passed
+ * around.
+ * The band and its members are evicted from the second-level cache whenever
+ * their rows are written here.
+ */
+@Repository
+public class BandDeletionRepository {
+
+    private static final String BAND_SONGS = "SELECT s.id FROM song_model s "
+            + "JOIN song_list_model l ON l.id = s.song_list_id WHERE l.band_id = ? AND s.id <= ?";
+    private static final String BAND_TABS = "SELECT t.id FROM tablature_model t WHERE t.song_id IN (" + BAND_SONGS
+            + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache cache;
+
+    public BandDeletionRepository(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    /**
+     * @return false if the band does not exist or is already marked.
+     */
+    public boolean markDeleted(Long bandId, LocalDateTime now) {
+        boolean marked = jdbcTemplate.update("UPDATE band_model SET deleted_at = ? WHERE id = ? AND deleted_at IS NULL",
+                now, bandId) > 0;
+        evictBand(bandId);
+        return marked;
+    }
+
+    public void deleteMemberships(Long bandId) {
+        jdbcTemplate.update("DELETE FROM band_user WHERE band_id = ?", bandId);
+        evictBand(bandId);
+    }
+
+    public void deleteInvitations(Long bandId) {
+        jdbcTemplate.update("DELETE FROM band_invitation_model WHERE band_id = ?", bandId);
+    }
+
+    // --- Songs and tabs ---
+
+    public Long findSongBound(Long bandId, int batchSize) {
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM (SELECT s.id FROM song_model s "
+                + "JOIN song_list_model l ON l.id = s.song_list_id WHERE l.band_id = ? ORDER BY s.id LIMIT ?) slice",
+                Long.class, bandId, batchSize);
+    }
+
+    /**
+     * URLs of the files attached to the band's songs and tabs up to
+     * {@code maxSongId}.
+     */
+    public List<String> findSongFileUrls(Long bandId, Long maxSongId) {
+        return jdbcTemplate.queryForList("SELECT url FROM song_files WHERE song_id IN (" + BAND_SONGS + ") "
+                + "UNION ALL SELECT url FROM tablature_files WHERE tablature_id IN (" + BAND_TABS + ")",
+                String.class, bandId, maxSongId, bandId, maxSongId);
+    }
+
+    /**
+     * Deletes the band's songs up to {@code maxSongId} with their tabs and
+     * files.
+     */
+    public int deleteSongs(Long bandId, Long maxSongId) {
+        jdbcTemplate.update("DELETE FROM tablature_files WHERE tablature_id IN (" + BAND_TABS + ")", bandId,
+                maxSongId);
+        jdbcTemplate.update("DELETE FROM tablature_model WHERE song_id IN (" + BAND_SONGS + ")", bandId, maxSongId);
+        jdbcTemplate.update("DELETE FROM song_files WHERE song_id IN (" + BAND_SONGS + ")", bandId, maxSongId);
+        return jdbcTemplate.update("DELETE FROM song_model WHERE id IN (" + BAND_SONGS + ")", bandId, maxSongId);
+    }
+
+    public List<Long> findSongListIds(Long bandId) {
+        return jdbcTemplate.queryForList("SELECT id FROM song_list_model WHERE band_id = ?", Long.class, bandId);
+    }
+
+    public void deleteSongLists(Long bandId) {
+        jdbcTemplate.update("DELETE FROM song_list_model WHERE band_id = ?", bandId);
+    }
+
+    // --- Chat, notifications and events ---
+
+    public Long findChatMessageBound(Long bandId, int batchSize) {
+        return findBound("chat_message_model", "band_id", bandId, batchSize);
+    }
+
+    public int deleteChatMessages(Long bandId, Long maxId) {
+        return jdbcTemplate.update("DELETE FROM chat_message_model WHERE band_id = ? AND id <= ?", bandId, maxId);
+    }
+
+    public Long findNotificationBound(Long bandId, int batchSize) {
+        return findBound("notifications", "project_id", bandId, batchSize);
+    }
+
+    public int deleteNotifications(Long bandId, Long maxId) {
+        return jdbcTemplate.update("DELETE FROM notifications WHERE project_id = ? AND id <= ?", bandId, maxId);
+    }
+
+    public Long findEventBound(Long bandId, int batchSize) {
+        return findBound("events", "band_id", bandId, batchSize);
+    }
+
+    public int deleteEvents(Long bandId, Long maxId) {
+        return jdbcTemplate.update("DELETE FROM events WHERE band_id = ? AND id <= ?", bandId, maxId);
+    }
+
+    // --- The band itself ---
+
+    public String findPhoto(Long bandId) {
+        List<String> photos = jdbcTemplate.queryForList("SELECT photo FROM band_model WHERE id = ?", String.class,
+                bandId);
+        return photos.isEmpty() ? null : photos.get(0);
+    }
+
+    /**
+     * Deletes the band row and the small per-band tables that are left.
+     */
+    public void deleteBand(Long bandId) {
+        jdbcTemplate.update("DELETE FROM chat_read_status WHERE band_id = ?", bandId);
+        jdbcTemplate.update("DELETE FROM notification_unread_counts WHERE band_id = ?", bandId);
+        jdbcTemplate.update("DELETE FROM band_invitation_model WHERE band_id = ?", bandId);
+        jdbcTemplate.update("DELETE FROM band_rrss WHERE band_id = ?", bandId);
+        jdbcTemplate.update("DELETE FROM band_user WHERE band_id = ?", bandId);
+        jdbcTemplate.update("DELETE FROM band_model WHERE id = ?", bandId);
+        evictBand(bandId);
+    }
+
+    // Now, and again after commit so a read in between cannot put the old state back
+    private void evictBand(Long bandId) {
+        Runnable evict = () -> {
+            cache.evictEntityData(BandModel.class, bandId);
+            cache.evictCollectionData(BandModel.class.getName() + ".users", bandId);
+            cache.evictCollectionData(BandModel.class.getName() + ".rrss", bandId);
+        };
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    private Long findBound(String table, String bandColumn, Long bandId, int batchSize) {
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM (SELECT id FROM " + table + " WHERE " + bandColumn
+                + " = ? ORDER BY id LIMIT ?) slice", Long.class, bandId, batchSize);
+    }
+}
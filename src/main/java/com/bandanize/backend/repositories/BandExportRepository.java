@@ -0,0 +1,128 @@
+package com.bandanize.backend.repositories;
+
+import com.bandanize.backend.models.CompressedTextConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Row-by-row reads of everything that belongs to a band, for the export.
+ * Queries run with a fetch size, so the driver pulls rows from the database in
+ * pages instead of materializing the whole result (on PostgreSQL this needs an
+ * open transaction, which the caller provides), and each row is handed to the
+ * consumer as soon as it is read. Rows are maps of lowerCamelCase column labels
+ * to values, with timestamps as {@code LocalDateTime} and tab content
+ * decompressed.
+ */
+@Repository
+public class BandExportRepository {
+
+    static final int FETCH_SIZE = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CompressedTextConverter contentConverter = new CompressedTextConverter();
+
+    public BandExportRepository(JdbcTemplate jdbcTemplate) {
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(FETCH_SIZE);
+        this.jdbcTemplate = streaming;
+    }
+
+    public boolean isMember(Long bandId, Long userId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM band_user WHERE band_id = ? AND user_id = ?", Integer.class, bandId, userId);
+        return count != null && count > 0;
+    }
+
+    public void streamBand(Long bandId, Consumer<Map<String, Object>> consumer) {
+        stream("SELECT id, name, description, genre, city, photo, owner_id AS \"ownerId\" "
+                + "FROM band_model WHERE id = ?", consumer, bandId);
+    }
+
+    public void streamBandLinks(Long bandId, Consumer<Map<String, Object>> consumer) {
+        stream("SELECT platform, url FROM band_rrss WHERE band_id = ? ORDER BY platform", consumer, bandId);
+    }
+
+    public void streamMembers(Long bandId, Consumer<Map<String, Object>> consumer) {
+        stream("SELECT u.id, u.username, u.name FROM user_model u JOIN band_user bu ON bu.user_id = u.id "
+                + "WHERE bu.band_id = ? ORDER BY u.id", consumer, bandId);
+    }
+
+    public void streamSongLists(Long bandId, Consumer<Map<String, Object>> consumer) {
+        stream("SELECT id, name, order_index AS \"orderIndex\" FROM song_list_model WHERE band_id = ? "
+                + "ORDER BY order_index, id", consumer, bandId);
+    }
+
+    public void streamSongs(Long bandId, Consumer<Map<String, Object>> consumer) {
+        stream("SELECT s.id, s.song_list_id AS \"songListId\", s.name, s.bpm, s.song_key AS \"songKey\", "
+                + "s.original_band AS \"originalBand\", s.order_index AS \"orderIndex\", s.sort_key AS \"sortKey\" "
+                + "FROM song_model s JOIN song_list_model l ON l.id = s.song_list_id WHERE l.band_id = ? "
+                + "ORDER BY s.song_list_id, s.sort_key NULLS FIRST, s.order_index, s.id", consumer, bandId);
+    }
+
+    public void streamSongFiles(Long bandId, Consumer<Map<String, Object>> consumer) {
+        stream("SELECT f.song_id AS \"songId\", f.name, f.type, f.url FROM song_files f "
+                + "JOIN song_model s ON s.id = f.song_id JOIN song_list_model l ON l.id = s.song_list_id "
+                + "WHERE l.band_id = ? ORDER BY f.song_id", consumer, bandId);
+    }
+
+    public void streamTablatures(Long bandId, Consumer<Map<String, Object>> consumer) {
+        stream("SELECT t.id, t.song_id AS \"songId\", t.name, t.instrument, t.instrument_icon AS \"instrumentIcon\", "
+                + "t.tuning, t.content, t.version FROM tablature_model t JOIN song_model s ON s.id = t.song_id "
+                + "JOIN song_list_model l ON l.id = s.song_list_id WHERE l.band_id = ? ORDER BY t.song_id, t.id",
+                consumer, bandId);
+    }
+
+    public void streamTablatureFiles(Long bandId, Consumer<Map<String, Object>> consumer) {
+        stream("SELECT f.tablature_id AS \"tablatureId\", f.name, f.type, f.url FROM tablature_files f "
+                + "JOIN tablature_model t ON t.id = f.tablature_id JOIN song_model s ON s.id = t.song_id "
+                + "JOIN song_list_model l ON l.id = s.song_list_id WHERE l.band_id = ? ORDER BY f.tablature_id",
+                consumer, bandId);
+    }
+
+    public void streamEvents(Long bandId, Consumer<Map<String, Object>> consumer) {
+        stream("SELECT id, name, description, date, event_type AS \"type\", location, "
+                + "creator_id AS \"creatorId\", created_at AS \"createdAt\" FROM events WHERE band_id = ? "
+                + "ORDER BY date, id", consumer, bandId);
+    }
+
+    public void streamChatMessages(Long bandId, Consumer<Map<String, Object>> consumer) {
+        stream("SELECT m.id, m.user_id AS \"senderId\", u.username AS \"senderUsername\", m.message, m.timestamp "
+                + "FROM chat_message_model m LEFT JOIN user_model u ON u.id = m.user_id WHERE m.band_id = ? "
+                + "ORDER BY m.id", consumer, bandId);
+    }
+
+    private void stream(String sql, Consumer<Map<String, Object>> consumer, Object... args) {
+        jdbcTemplate.query(sql, rs -> {
+            consumer.accept(mapRow(rs));
+        }, args);
+    }
+
+    private Map<String, Object> mapRow(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            String label = meta.getColumnLabel(i);
+            if (label.equals(label.toUpperCase(Locale.ROOT))) {
+                // Unquoted labels come back upper case from some databases
+                label = label.toLowerCase(Locale.ROOT);
+            }
+            Object value = rs.getObject(i);
+            if (value instanceof Timestamp timestamp) {
+                value = timestamp.toLocalDateTime();
+            } else if ("content".equalsIgnoreCase(label) && value instanceof String content) {
+                value = contentConverter.convertToEntityAttribute(content);
+            }
+            row.put(label, value);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,140 @@
+package com.bandanize.backend.repositories;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batched inserts for band archive imports: one JDBC batch per call, with the
+ * generated ids returned in input order where the caller needs to remap
+ * references. Tabs are written with {@link SongImportRepository#insertTabs}.
+ */
+@Repository
+public class BandImportRepository {
+
+    public record SongListRow(String name, Integer orderIndex) {
+    }
+
+    public record SongRow(Long songListId, String name, Integer bpm, String songKey, String originalBand,
+            Integer orderIndex, String sortKey) {
+    }
+
+    /**
+     * A {@code MediaFile} of a song or tab.
+     */
+    public record FileRow(Long ownerId, String name, String type, String url) {
+    }
+
+    public record EventRow(String name, String description, LocalDateTime date, String type, String location,
+            Long creatorId, LocalDateTime createdAt) {
+    }
+
+    public record ChatMessageRow(Long senderId, String message, LocalDateTime timestamp) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BandImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Long> insertSongLists(Long bandId, List<SongListRow> lists) {
+        List<Object[]> rows = new ArrayList<>(lists.size());
+        for (SongListRow list : lists) {
+            rows.add(new Object[] { bandId, list.name(), list.orderIndex() });
+        }
+        return insertReturningIds("INSERT INTO song_list_model (band_id, name, order_index) VALUES (?, ?, ?)", rows);
+    }
+
+    public List<Long> insertSongs(List<SongRow> songs) {
+        List<Object[]> rows = new ArrayList<>(songs.size());
+        for (SongRow song : songs) {
+            rows.add(new Object[] { song.songListId(), song.name(), song.bpm(), song.songKey(), song.originalBand(),
+                    song.orderIndex(), song.sortKey() });
+        }
+        return insertReturningIds("INSERT INTO song_model "
+                + "(song_list_id, name, bpm, song_key, original_band, order_index, sort_key) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    public void insertSongFiles(List<FileRow> files) {
+        insertFiles("INSERT INTO song_files (song_id, name, type, url) VALUES (?, ?, ?, ?)", files);
+    }
+
+    public void insertTablatureFiles(List<FileRow> files) {
+        insertFiles("INSERT INTO tablature_files (tablature_id, name, type, url) VALUES (?, ?, ?, ?)", files);
+    }
+
+    public List<Long> insertEvents(Long bandId, List<EventRow> events) {
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (EventRow event : events) {
+            rows.add(new Object[] { bandId, event.name(), event.description(), event.date(), event.type(),
+                    event.location(), event.creatorId(), event.createdAt() });
+        }
+        return insertReturningIds("INSERT INTO events "
+                + "(band_id, name, description, date, event_type, location, creator_id, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    public void insertChatMessages(Long bandId, List<ChatMessageRow> messages) {
+        List<Object[]> rows = new ArrayList<>(messages.size());
+        for (ChatMessageRow message : messages) {
+            rows.add(new Object[] { bandId, message.senderId(), message.message(), message.timestamp() });
+        }
+        batch("INSERT INTO chat_message_model (band_id, user_id, message, timestamp) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    private void insertFiles(String sql, List<FileRow> files) {
+        List<Object[]> rows = new ArrayList<>(files.size());
+        for (FileRow file : files) {
+            rows.add(new Object[] { file.ownerId(), file.name(), file.type(), file.url() });
+        }
+        batch(sql, rows);
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    private List<Long> insertReturningIds(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql, new String[] { "id" })) {
+                for (Object[] row : rows) {
+                    for (int i = 0; i < row.length; i++) {
+                        StatementCreatorUtils.setParameterValue(statement, i + 1, SqlTypeValue.TYPE_UNKNOWN, row[i]);
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                return generatedIds(statement, rows.size());
+            }
+        });
+    }
+
+    private static List<Long> generatedIds(PreparedStatement statement, int expected) throws SQLException {
+        List<Long> ids = new ArrayList<>(expected);
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            while (keys.next()) {
+                ids.add(keys.getLong(1));
+            }
+        }
+        if (ids.size() != expected) {
+            throw new IllegalStateException("Expected " + expected + " generated ids, got " + ids.size());
+        }
+        return ids;
+    }
+}
@@ -14,7 +14,10 @@ public interface BandInvitationRepository extends JpaRepository<BandInvitationMo
 
     Optional<BandInvitationModel> findByBandIdAndInvitedUserId(Long bandId, Long userId);
 
-    void deleteByInvitedUser(com.bandanize.backend.models.UserModel invitedUser);
+    @org.springframework.data.jpa.repository.Modifying(flushAutomatically = true, clearAutomatically = true)
+    @org.springframework.transaction.annotation.Transactional
+    @org.springframework.data.jpa.repository.Query("DELETE FROM BandInvitationModel b WHERE b.invitedUser.id = :userId")
+    void deleteByInvitedUserId(@org.springframework.data.repository.query.Param("userId") Long userId);
 
     @org.springframework.data.jpa.repository.Modifying(flushAutomatically = true, clearAutomatically = true)
     @org.springframework.transaction.annotation.Transactional
@@ -15,4 +15,24 @@ public interface BandRepository extends JpaRepository<BandModel, Long> {
     List<BandModel> findByOwner(com.bandanize.backend.models.UserModel owner);
 
     Optional<BandModel> findByCalendarToken(String calendarToken);
+
+    /**
+     * IDs of the bands after {@code afterId}, in ID order, for walking every
+     * band a page at a time.
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT b.id FROM BandModel b WHERE b.id > :afterId ORDER BY b.id ASC")
+    List<Long> findIdsAfter(@org.springframework.data.repository.query.Param("afterId") Long afterId,
+            org.springframework.data.domain.Pageable pageable);
+
+    @org.springframework.data.jpa.repository.Query("SELECT b.id FROM BandModel b WHERE b.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@org.springframework.data.repository.query.Param("ownerId") Long ownerId);
+
+    /**
+     * Detaches bands from their owner, including bands that are deleted but
+     * not purged yet (which JPQL queries do not see).
+     */
+    @org.springframework.data.jpa.repository.Modifying(flushAutomatically = true, clearAutomatically = true)
+    @org.springframework.transaction.annotation.Transactional
+    @org.springframework.data.jpa.repository.Query(value = "UPDATE band_model SET owner_id = NULL WHERE owner_id = :ownerId", nativeQuery = true)
+    void clearOwner(@org.springframework.data.repository.query.Param("ownerId") Long ownerId);
 }
\ No newline at end of file
@@ -10,10 +10,66 @@ import java.util.List;
 public interface ChatMessageRepository extends JpaRepository<ChatMessageModel, Long> {
     List<ChatMessageModel> findByBandIdOrderByTimestampAsc(Long bandId);
 
-    List<ChatMessageModel> findBySender(com.bandanize.backend.models.UserModel sender);
+    /**
+     * Detaches a user's messages from them in one statement; the messages stay
+     * in the chat without a sender.
+     *
+     * @return The number of messages updated.
+     */
+    @org.springframework.data.jpa.repository.Modifying(flushAutomatically = true, clearAutomatically = true)
+    @org.springframework.transaction.annotation.Transactional
+    @org.springframework.data.jpa.repository.Query("UPDATE ChatMessageModel m SET m.sender = null WHERE m.sender.id = :userId")
+    int anonymizeSender(@org.springframework.data.repository.query.Param("userId") Long userId);
 
     ChatMessageModel findTopByBandIdOrderByTimestampDesc(Long bandId);
 
+    // --- Full-text search (PostgreSQL, backed by the search_vector GIN index) ---
+    // Row layout: id, sender id, sender name, timestamp, highlighted snippet
+
+    String FTS_SELECT = "SELECT m.id, u.id AS sender_id, u.name AS sender_name, m.\"timestamp\", "
+            + "ts_headline('simple', m.message, q, :headlineOptions) "
+            + "FROM chat_message_model m "
+            + "CROSS JOIN websearch_to_tsquery('simple', :query) q "
+            + "LEFT JOIN user_model u ON u.id = m.user_id "
+            + "WHERE m.band_id = :bandId AND m.search_vector @@ q ";
+
+    String FTS_ORDER = "ORDER BY m.\"timestamp\" DESC, m.id DESC LIMIT :limit";
+
+    @org.springframework.data.jpa.repository.Query(value = FTS_SELECT + FTS_ORDER, nativeQuery = true)
+    List<Object[]> searchFullText(@org.springframework.data.repository.query.Param("bandId") Long bandId,
+            @org.springframework.data.repository.query.Param("query") String query,
+            @org.springframework.data.repository.query.Param("headlineOptions") String headlineOptions,
+            @org.springframework.data.repository.query.Param("limit") int limit);
+
+    @org.springframework.data.jpa.repository.Query(value = FTS_SELECT
+            + "AND (m.\"timestamp\", m.id) < (SELECT c.\"timestamp\", c.id FROM chat_message_model c WHERE c.id = :beforeId) "
+            + FTS_ORDER, nativeQuery = true)
+    List<Object[]> searchFullTextBefore(@org.springframework.data.repository.query.Param("bandId") Long bandId,
+            @org.springframework.data.repository.query.Param("query") String query,
+            @org.springframework.data.repository.query.Param("headlineOptions") String headlineOptions,
+            @org.springframework.data.repository.query.Param("beforeId") Long beforeId,
+            @org.springframework.data.repository.query.Param("limit") int limit);
+
+    // --- Portable substring search, used when not running on PostgreSQL ---
+
+    @org.springframework.data.jpa.repository.Query("SELECT m FROM ChatMessageModel m LEFT JOIN FETCH m.sender "
+            + "WHERE m.band.id = :bandId AND LOWER(m.message) LIKE LOWER(CONCAT('%', :query, '%')) "
+            + "ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatMessageModel> searchBySubstring(@org.springframework.data.repository.query.Param("bandId") Long bandId,
+            @org.springframework.data.repository.query.Param("query") String query,
+            org.springframework.data.domain.Pageable pageable);
+
+    @org.springframework.data.jpa.repository.Query("SELECT m FROM ChatMessageModel m LEFT JOIN FETCH m.sender "
+            + "WHERE m.band.id = :bandId AND LOWER(m.message) LIKE LOWER(CONCAT('%', :query, '%')) "
+            + "AND (m.timestamp < :beforeTimestamp OR (m.timestamp = :beforeTimestamp AND m.id < :beforeId)) "
+            + "ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatMessageModel> searchBySubstringBefore(
+            @org.springframework.data.repository.query.Param("bandId") Long bandId,
+            @org.springframework.data.repository.query.Param("query") String query,
+            @org.springframework.data.repository.query.Param("beforeTimestamp") java.time.LocalDateTime beforeTimestamp,
+            @org.springframework.data.repository.query.Param("beforeId") Long beforeId,
+            org.springframework.data.domain.Pageable pageable);
+
     @org.springframework.data.jpa.repository.Modifying(flushAutomatically = true, clearAutomatically = true)
     @org.springframework.transaction.annotation.Transactional
     @org.springframework.data.jpa.repository.Query("DELETE FROM ChatMessageModel c WHERE c.band.id = :bandId")
@@ -15,7 +15,25 @@ public interface ChatReadStatusRepository extends JpaRepository<ChatReadStatus,
     @org.springframework.data.jpa.repository.Query("DELETE FROM ChatReadStatus c WHERE c.band.id = :bandId")
     void deleteByBandId(@org.springframework.data.repository.query.Param("bandId") Long bandId);
 
+    @org.springframework.data.jpa.repository.Modifying(flushAutomatically = true, clearAutomatically = true)
+    @org.springframework.transaction.annotation.Transactional
+    @org.springframework.data.jpa.repository.Query("DELETE FROM ChatReadStatus c WHERE c.user.id = :userId")
+    void deleteByUserId(@org.springframework.data.repository.query.Param("userId") Long userId);
+
+    /**
+     * Inserts or advances the read marker for a (band, user) pair in a single
+     * statement (PostgreSQL only). Pairs whose band or user no longer exists are
+     * skipped instead of failing on the foreign keys.
+     */
     @org.springframework.data.jpa.repository.Modifying
     @org.springframework.transaction.annotation.Transactional
-    void deleteByUserId(Long userId);
+    @org.springframework.data.jpa.repository.Query(value = "INSERT INTO chat_read_status (band_id, user_id, last_read_at) "
+            + "SELECT :bandId, :userId, :lastReadAt "
+            + "WHERE EXISTS (SELECT 1 FROM band_model WHERE id = :bandId) "
+            + "AND EXISTS (SELECT 1 FROM user_model WHERE id = :userId) "
+            + "ON CONFLICT (user_id, band_id) DO UPDATE "
+            + "SET last_read_at = GREATEST(chat_read_status.last_read_at, EXCLUDED.last_read_at)", nativeQuery = true)
+    int upsertLastReadAt(@org.springframework.data.repository.query.Param("bandId") Long bandId,
+            @org.springframework.data.repository.query.Param("userId") Long userId,
+            @org.springframework.data.repository.query.Param("lastReadAt") java.time.LocalDateTime lastReadAt);
 }
@@ -10,12 +10,23 @@ import java.util.List;
 public interface EventRepository extends JpaRepository<EventModel, Long> {
     List<EventModel> findByBandIdOrderByDateAsc(Long bandId);
 
+    /**
+     * Searchable fields of a band's events: id, band id, name and location.
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT e.id, e.band.id, e.name, e.location FROM EventModel e "
+            + "WHERE e.band.id = :bandId")
+    List<Object[]> findSearchRowsByBandId(@org.springframework.data.repository.query.Param("bandId") Long bandId);
+
+    @org.springframework.data.jpa.repository.Query("SELECT e.id FROM EventModel e WHERE e.creator.id = :creatorId")
+    List<Long> findIdsByCreatorId(@org.springframework.data.repository.query.Param("creatorId") Long creatorId);
+
     @org.springframework.data.jpa.repository.Modifying(flushAutomatically = true, clearAutomatically = true)
     @org.springframework.transaction.annotation.Transactional
     @org.springframework.data.jpa.repository.Query("DELETE FROM EventModel e WHERE e.band.id = :bandId")
     void deleteByBandId(@org.springframework.data.repository.query.Param("bandId") Long bandId);
 
-    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Modifying(flushAutomatically = true, clearAutomatically = true)
     @org.springframework.transaction.annotation.Transactional
-    void deleteByCreatorId(Long creatorId);
+    @org.springframework.data.jpa.repository.Query("DELETE FROM EventModel e WHERE e.creator.id = :creatorId")
+    void deleteByCreatorId(@org.springframework.data.repository.query.Param("creatorId") Long creatorId);
 }
@@ -0,0 +1,148 @@
+package com.bandanize.backend.repositories;
+
+import com.bandanize.backend.config.DatabaseFeatures;
+import com.bandanize.backend.models.JobStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The background job table, see {@link com.bandanize.backend.models.Job}.
+ */
+@Repository
+public class JobRepository {
+
+    public record NewJob(String type, String payload, String idempotencyKey) {
+    }
+
+    public record ClaimedJob(Long id, String type, String payload, int attempts) {
+    }
+
+    private static final String COLUMNS = "(type, payload, idempotency_key, status, attempts, run_at, created_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseFeatures databaseFeatures;
+
+    public JobRepository(JdbcTemplate jdbcTemplate, DatabaseFeatures databaseFeatures) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseFeatures = databaseFeatures;
+    }
+
+    /**
+     * Inserts the jobs, due at {@code runAt}. A job whose idempotency key is
+     * already in the table (queued, running, or finished recently) is skipped.
+     *
+     * @return The number of jobs inserted.
+     */
+    public int enqueue(Collection<NewJob> jobs, LocalDateTime runAt) {
+        if (jobs.isEmpty()) {
+            return 0;
+        }
+        String sql;
+        List<Object[]> rows = new ArrayList<>(jobs.size());
+        if (databaseFeatures.isPostgres()) {
+            sql = "INSERT INTO jobs " + COLUMNS + " VALUES (?, ?, ?, 'PENDING', 0, ?, ?) "
+                    + "ON CONFLICT (idempotency_key) DO NOTHING";
+            for (NewJob job : jobs) {
+                rows.add(new Object[] { job.type(), job.payload(), job.idempotencyKey(), runAt, runAt });
+            }
+        } else {
+            // Portable fallback (H2)
+            sql = "INSERT INTO jobs " + COLUMNS + " SELECT CAST(? AS VARCHAR(64)), CAST(? AS VARCHAR), "
+                    + "CAST(? AS VARCHAR(255)), 'PENDING', 0, CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP) "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM jobs WHERE idempotency_key = ?)";
+            for (NewJob job : jobs) {
+                rows.add(new Object[] { job.type(), job.payload(), job.idempotencyKey(), runAt, runAt,
+                        job.idempotencyKey() });
+            }
+        }
+        int inserted = 0;
+        for (int count : jdbcTemplate.batchUpdate(sql, rows)) {
+            // Some drivers report SUCCESS_NO_INFO (-2) for batched statements
+            inserted += count == java.sql.Statement.SUCCESS_NO_INFO ? 1 : count;
+        }
+        return inserted;
+    }
+
+    /**
+     * Claims up to {@code limit} due jobs of the given types for
+     * {@code workerId} until {@code lockedUntil}, counting the attempt. Jobs
+     * whose lease has expired are claimed again. Rows locked by another node's
+     * claim are skipped instead of waited for. Must run in a transaction.
+     */
+    public List<ClaimedJob> claim(Collection<String> types, String workerId, int limit, LocalDateTime now,
+            LocalDateTime lockedUntil) {
+        if (types.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<Object> args = new ArrayList<>(types);
+        args.add(now);
+        args.add(now);
+        args.add(limit);
+        List<ClaimedJob> due = jdbcTemplate.query("SELECT id, type, payload, attempts FROM jobs "
+                + "WHERE type IN (" + String.join(", ", Collections.nCopies(types.size(), "?")) + ") "
+                + "AND ((status = 'PENDING' AND run_at <= ?) OR (status = 'RUNNING' AND locked_until < ?)) "
+                + "ORDER BY run_at, id LIMIT ? FOR UPDATE SKIP LOCKED",
+                (rs, rowNum) -> new ClaimedJob(rs.getLong("id"), rs.getString("type"), rs.getString("payload"),
+                        rs.getInt("attempts") + 1),
+                args.toArray());
+        if (!due.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(due.size());
+            for (ClaimedJob job : due) {
+                rows.add(new Object[] { job.attempts(), workerId, lockedUntil, job.id() });
+            }
+            jdbcTemplate.batchUpdate("UPDATE jobs SET status = 'RUNNING', attempts = ?, locked_by = ?, "
+                    + "locked_until = ? WHERE id = ?", rows);
+        }
+        return due;
+    }
+
+    /**
+     * Records the outcome of a job claimed by {@code workerId}. These do
+     * nothing once the lease expired and another worker claimed the job.
+     *
+     * @return Whether the worker still held the job.
+     */
+    public boolean markDone(Long id, String workerId, LocalDateTime now) {
+        return jdbcTemplate.update("UPDATE jobs SET status = 'DONE', locked_by = NULL, locked_until = NULL, "
+                + "finished_at = ? WHERE id = ? AND locked_by = ?", now, id, workerId) > 0;
+    }
+
+    public boolean reschedule(Long id, String workerId, LocalDateTime runAt, String lastError) {
+        return jdbcTemplate.update("UPDATE jobs SET status = 'PENDING', run_at = ?, locked_by = NULL, "
+                + "locked_until = NULL, last_error = ? WHERE id = ? AND locked_by = ?", runAt, lastError, id,
+                workerId) > 0;
+    }
+
+    public boolean markDead(Long id, String workerId, LocalDateTime now, String lastError) {
+        return jdbcTemplate.update("UPDATE jobs SET status = 'DEAD', locked_by = NULL, locked_until = NULL, "
+                + "finished_at = ?, last_error = ? WHERE id = ? AND locked_by = ?", now, lastError, id,
+                workerId) > 0;
+    }
+
+    /**
+     * Deletes jobs that finished successfully before {@code before}.
+     */
+    public int deleteDone(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM jobs WHERE status = 'DONE' AND finished_at < ?", before);
+    }
+
+    public Map<JobStatus, Long> countByStatus() {
+        Map<JobStatus, Long> counts = new EnumMap<>(JobStatus.class);
+        for (JobStatus status : JobStatus.values()) {
+            counts.put(status, 0L);
+        }
+        jdbcTemplate.query("SELECT status, COUNT(*) FROM jobs GROUP BY status",
+                rs -> {
+                    counts.put(JobStatus.valueOf(rs.getString(1)), rs.getLong(2));
+                });
+        return counts;
+    }
+}
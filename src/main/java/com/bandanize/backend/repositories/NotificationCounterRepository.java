@@ -0,0 +1,115 @@
+package com.bandanize.backend.repositories;
+
+import com.bandanize.backend.config.DatabaseFeatures;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The unread notification counters, see
+ * {@link com.bandanize.backend.models.NotificationUnreadCount}.
+ * Every method must run in the transaction that changes the notifications it
+ * accounts for.
+ */
+@Repository
+public class NotificationCounterRepository {
+
+    // Unread notifications of the counter's (band, recipient) pair that match a further condition on n
+    private static final String UNREAD_OF_PAIR = "FROM notifications n WHERE n.project_id = c.band_id "
+            + "AND n.recipient_id = c.recipient_id AND n.is_read = false AND ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseFeatures databaseFeatures;
+
+    public NotificationCounterRepository(JdbcTemplate jdbcTemplate, DatabaseFeatures databaseFeatures) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseFeatures = databaseFeatures;
+    }
+
+    /**
+     * Counts one more unread notification in the band for each recipient.
+     */
+    public void increment(Long bandId, Collection<Long> recipientIds) {
+        if (recipientIds.isEmpty()) {
+            return;
+        }
+        String sql;
+        if (databaseFeatures.isPostgres()) {
+            sql = "INSERT INTO notification_unread_counts (band_id, recipient_id, unread_count) VALUES (?, ?, 1) "
+                    + "ON CONFLICT (recipient_id, band_id) "
+                    + "DO UPDATE SET unread_count = notification_unread_counts.unread_count + 1";
+        } else {
+            // Portable fallback (H2)
+            sql = "MERGE INTO notification_unread_counts c "
+                    + "USING (SELECT CAST(? AS BIGINT) AS band_id, CAST(? AS BIGINT) AS recipient_id) s "
+                    + "ON c.band_id = s.band_id AND c.recipient_id = s.recipient_id "
+                    + "WHEN MATCHED THEN UPDATE SET unread_count = c.unread_count + 1 "
+                    + "WHEN NOT MATCHED THEN INSERT (band_id, recipient_id, unread_count) "
+                    + "VALUES (s.band_id, s.recipient_id, 1)";
+        }
+        List<Object[]> rows = new ArrayList<>(recipientIds.size());
+        for (Long recipientId : recipientIds) {
+            rows.add(new Object[] { bandId, recipientId });
+        }
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+
+    public void reset(Long bandId, Long recipientId) {
+        jdbcTemplate.update("UPDATE notification_unread_counts SET unread_count = 0 "
+                + "WHERE band_id = ? AND recipient_id = ? AND unread_count <> 0", bandId, recipientId);
+    }
+
+    /**
+     * The recipient's non-zero counts in the bands they belong to, by band id.
+     */
+    public Map<Long, Long> findByRecipient(Long recipientId) {
+        Map<Long, Long> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT c.band_id, c.unread_count FROM notification_unread_counts c "
+                + "JOIN band_user bu ON bu.band_id = c.band_id AND bu.user_id = c.recipient_id "
+                + "JOIN band_model b ON b.id = c.band_id "
+                + "WHERE c.recipient_id = ? AND c.unread_count > 0 AND b.deleted_at IS NULL",
+                rs -> {
+                    counts.put(rs.getLong(1), rs.getLong(2));
+                }, recipientId);
+        return counts;
+    }
+
+    /**
+     * Takes the unread ones among the notifications out of the counts; call
+     * before deleting them.
+     */
+    public void subtractUnread(Collection<Long> notificationIds) {
+        if (notificationIds.isEmpty()) {
+            return;
+        }
+        String ids = String.join(",", Collections.nCopies(notificationIds.size(), "?"));
+        subtract("n.id IN (" + ids + ")", notificationIds.toArray());
+    }
+
+    /**
+     * Takes the unread notifications caused by {@code actorId} out of the
+     * counts; call before deleting them.
+     */
+    public void subtractUnreadByActor(Long actorId) {
+        subtract("n.actor_id = ?", actorId);
+    }
+
+    private void subtract(String condition, Object... args) {
+        Object[] bothArgs = new Object[args.length * 2];
+        System.arraycopy(args, 0, bothArgs, 0, args.length);
+        System.arraycopy(args, 0, bothArgs, args.length, args.length);
+        jdbcTemplate.update("UPDATE notification_unread_counts c SET unread_count = GREATEST(0, c.unread_count - "
+                + "(SELECT COUNT(*) " + UNREAD_OF_PAIR + condition + ")) "
+                + "WHERE EXISTS (SELECT 1 " + UNREAD_OF_PAIR + condition + ")", bothArgs);
+    }
+
+    public void deleteByRecipient(Long recipientId) {
+        jdbcTemplate.update("DELETE FROM notification_unread_counts WHERE recipient_id = ?", recipientId);
+    }
+}
@@ -1,17 +1,60 @@
 package com.bandanize.backend.repositories;
 
 import com.bandanize.backend.models.Notification;
-import com.bandanize.backend.models.UserModel;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findByBandIdAndRecipientIdOrderByCreatedAtDesc(Long bandId, Long recipientId);
+    @org.springframework.data.jpa.repository.Query("SELECT n FROM Notification n LEFT JOIN FETCH n.actor "
+            + "WHERE n.band.id = :bandId AND n.recipient.id = :recipientId "
+            + "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInbox(@org.springframework.data.repository.query.Param("bandId") Long bandId,
+            @org.springframework.data.repository.query.Param("recipientId") Long recipientId,
+            org.springframework.data.domain.Pageable pageable);
 
-    long countByBandIdAndRecipientIdAndIsReadFalse(Long bandId, Long recipientId);
+    @org.springframework.data.jpa.repository.Query("SELECT n FROM Notification n LEFT JOIN FETCH n.actor "
+            + "WHERE n.band.id = :bandId AND n.recipient.id = :recipientId "
+            + "AND (n.createdAt < :beforeCreatedAt OR (n.createdAt = :beforeCreatedAt AND n.id < :beforeId)) "
+            + "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxBefore(@org.springframework.data.repository.query.Param("bandId") Long bandId,
+            @org.springframework.data.repository.query.Param("recipientId") Long recipientId,
+            @org.springframework.data.repository.query.Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+            @org.springframework.data.repository.query.Param("beforeId") Long beforeId,
+            org.springframework.data.domain.Pageable pageable);
+
+    /**
+     * An unread notification a new event can be folded into.
+     */
+    interface OpenDigest {
+        Long getId();
+
+        Long getRecipientId();
+    }
+
+    /**
+     * Per recipient, the latest unread notification of {@code type} by
+     * {@code actorId} in the band that is newer than {@code since}.
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT MAX(n.id) AS id, n.recipient.id AS recipientId FROM Notification n WHERE n.band.id = :bandId AND n.actor.id = :actorId AND n.type = :type AND n.isRead = false AND n.createdAt >= :since GROUP BY n.recipient.id")
+    List<OpenDigest> findOpenDigests(@org.springframework.data.repository.query.Param("bandId") Long bandId,
+            @org.springframework.data.repository.query.Param("actorId") Long actorId,
+            @org.springframework.data.repository.query.Param("type") Notification.NotificationType type,
+            @org.springframework.data.repository.query.Param("since") LocalDateTime since);
+
+    /**
+     * Counts one more event on each of the notifications and moves them to
+     * {@code now}.
+     */
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.transaction.annotation.Transactional
+    @org.springframework.data.jpa.repository.Query("UPDATE Notification n SET n.occurrences = n.occurrences + 1, n.createdAt = :now WHERE n.id IN :ids")
+    int addOccurrence(@org.springframework.data.repository.query.Param("ids") Collection<Long> ids,
+            @org.springframework.data.repository.query.Param("now") LocalDateTime now);
 
     @org.springframework.data.jpa.repository.Modifying
     @org.springframework.transaction.annotation.Transactional
@@ -19,16 +62,22 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     void markAllAsRead(@org.springframework.data.repository.query.Param("bandId") Long bandId,
             @org.springframework.data.repository.query.Param("recipientId") Long recipientId);
 
+    @org.springframework.data.jpa.repository.Query("SELECT n.id FROM Notification n WHERE n.createdAt < :before")
+    List<Long> findIdsCreatedBefore(@org.springframework.data.repository.query.Param("before") LocalDateTime before,
+            org.springframework.data.domain.Pageable pageable);
+
     @org.springframework.data.jpa.repository.Modifying(flushAutomatically = true, clearAutomatically = true)
     @org.springframework.transaction.annotation.Transactional
-    @org.springframework.data.jpa.repository.Query("DELETE FROM Notification n WHERE n.band.id = :bandId")
-    void deleteByBandId(@org.springframework.data.repository.query.Param("bandId") Long bandId);
+    @org.springframework.data.jpa.repository.Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int deleteByIds(@org.springframework.data.repository.query.Param("ids") Collection<Long> ids);
 
-    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Modifying(flushAutomatically = true, clearAutomatically = true)
     @org.springframework.transaction.annotation.Transactional
-    void deleteByRecipient(UserModel user);
+    @org.springframework.data.jpa.repository.Query("DELETE FROM Notification n WHERE n.band.id = :bandId")
+    void deleteByBandId(@org.springframework.data.repository.query.Param("bandId") Long bandId);
 
-    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Modifying(flushAutomatically = true, clearAutomatically = true)
     @org.springframework.transaction.annotation.Transactional
-    void deleteByActor(UserModel user);
+    @org.springframework.data.jpa.repository.Query("DELETE FROM Notification n WHERE n.recipient.id = :userId OR n.actor.id = :userId")
+    void deleteByRecipientOrActor(@org.springframework.data.repository.query.Param("userId") Long userId);
 }
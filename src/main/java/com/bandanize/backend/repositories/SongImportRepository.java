@@ -0,0 +1,181 @@
+package com.bandanize.backend.repositories;
+
+import com.bandanize.backend.models.CompressedTextConverter;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Batched inserts for bulk imports. Each call writes its rows with a single
+ * JDBC batch instead of one {@code persist} and flush per entity, and returns
+ * the generated ids in input order. Also keeps the import runs, see
+ * {@link com.bandanize.backend.models.SongImportRun}.
+ */
+@Repository
+public class SongImportRepository {
+
+    /**
+     * A song row to insert.
+     */
+    public record SongRow(String name, Integer bpm, String songKey, String originalBand, Integer orderIndex,
+            String sortKey) {
+    }
+
+    /**
+     * A tab row to insert; {@code content} is stored through
+     * {@link CompressedTextConverter}, like the entity does.
+     */
+    public record TabRow(Long songId, String name, String instrument, String instrumentIcon, String tuning,
+            String content) {
+    }
+
+    /**
+     * The state of an import run; {@code errors} is a JSON array.
+     */
+    public record ImportRunRow(String status, long rowsRead, int songsImported, int tabsImported, int errorCount,
+            String errors, LocalDateTime updatedAt) {
+    }
+
+    private static final String INSERT_SONG = "INSERT INTO song_model "
+            + "(name, bpm, song_key, original_band, song_list_id, order_index, sort_key) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_TAB = "INSERT INTO tablature_model "
+            + "(name, instrument, instrument_icon, tuning, content, song_id, version) VALUES (?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CompressedTextConverter contentConverter = new CompressedTextConverter();
+
+    public SongImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Claims the import run of a list, resetting its progress, unless an
+     * import into the list is running and updated its row after
+     * {@code staleBefore}. Runs in its own statements, so it must not be
+     * called inside a transaction.
+     *
+     * @return Whether the run was claimed.
+     */
+    public boolean claimImportRun(Long listId, LocalDateTime now, LocalDateTime staleBefore) {
+        int updated = jdbcTemplate.update("UPDATE song_imports SET status = 'RUNNING', rows_read = 0, "
+                + "songs_imported = 0, tabs_imported = 0, error_count = 0, errors = '[]', updated_at = ? "
+                + "WHERE song_list_id = ? AND (status <> 'RUNNING' OR updated_at < ?)", now, listId, staleBefore);
+        if (updated > 0) {
+            return true;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO song_imports (song_list_id, status, rows_read, songs_imported, "
+                    + "tabs_imported, error_count, errors, updated_at) VALUES (?, 'RUNNING', 0, 0, 0, 0, '[]', ?)",
+                    listId, now);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Running (or just claimed) elsewhere
+            return false;
+        }
+    }
+
+    public void updateImportRun(Long listId, ImportRunRow run) {
+        jdbcTemplate.update("UPDATE song_imports SET status = ?, rows_read = ?, songs_imported = ?, "
+                + "tabs_imported = ?, error_count = ?, errors = ?, updated_at = ? WHERE song_list_id = ?",
+                run.status(), run.rowsRead(), run.songsImported(), run.tabsImported(), run.errorCount(),
+                run.errors(), run.updatedAt(), listId);
+    }
+
+    public Optional<ImportRunRow> findImportRun(Long listId) {
+        return jdbcTemplate.query("SELECT status, rows_read, songs_imported, tabs_imported, error_count, errors, "
+                + "updated_at FROM song_imports WHERE song_list_id = ?",
+                (rs, rowNum) -> new ImportRunRow(rs.getString(1), rs.getLong(2), rs.getInt(3), rs.getInt(4),
+                        rs.getInt(5), rs.getString(6), rs.getTimestamp(7).toLocalDateTime()),
+                listId).stream().findFirst();
+    }
+
+    public int countSongs(Long listId) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM song_model WHERE song_list_id = ?",
+                Integer.class, listId);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Inserts the songs into a list.
+     *
+     * @return The generated song ids, in the order of {@code songs}.
+     */
+    public List<Long> insertSongs(Long listId, List<SongRow> songs) {
+        if (songs.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SONG, new String[] { "id" })) {
+                for (SongRow song : songs) {
+                    statement.setString(1, song.name());
+                    setInteger(statement, 2, song.bpm());
+                    statement.setString(3, song.songKey());
+                    statement.setString(4, song.originalBand());
+                    statement.setLong(5, listId);
+                    setInteger(statement, 6, song.orderIndex());
+                    statement.setString(7, song.sortKey());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                return generatedIds(statement, songs.size());
+            }
+        });
+    }
+
+    /**
+     * Inserts the tabs.
+     *
+     * @return The generated tab ids, in the order of {@code tabs}.
+     */
+    public List<Long> insertTabs(List<TabRow> tabs) {
+        if (tabs.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_TAB, new String[] { "id" })) {
+                for (TabRow tab : tabs) {
+                    statement.setString(1, tab.name());
+                    statement.setString(2, tab.instrument());
+                    statement.setString(3, tab.instrumentIcon());
+                    statement.setString(4, tab.tuning());
+                    statement.setString(5, contentConverter.convertToDatabaseColumn(tab.content()));
+                    statement.setLong(6, tab.songId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                return generatedIds(statement, tabs.size());
+            }
+        });
+    }
+
+    private static void setInteger(PreparedStatement statement, int index, Integer value)
+            throws java.sql.SQLException {
+        if (value != null) {
+            statement.setInt(index, value);
+        } else {
+            statement.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private static List<Long> generatedIds(PreparedStatement statement, int expected) throws java.sql.SQLException {
+        List<Long> ids = new ArrayList<>(expected);
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            while (keys.next()) {
+                ids.add(keys.getLong(1));
+            }
+        }
+        if (ids.size() != expected) {
+            throw new IllegalStateException("Expected " + expected + " generated ids, got " + ids.size());
+        }
+        return ids;
+    }
+}
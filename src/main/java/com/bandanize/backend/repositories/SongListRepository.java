@@ -9,4 +9,27 @@ import java.util.List;
 @Repository
 public interface SongListRepository extends JpaRepository<SongListModel, Long> {
     List<SongListModel> findByBandId(Long bandId);
+
+    /**
+     * Song list headers of a band, in display order.
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT new com.bandanize.backend.dtos.SongListIndexDTO("
+            + "l.id, l.name, l.orderIndex) FROM SongListModel l WHERE l.band.id = :bandId "
+            + "ORDER BY l.orderIndex ASC, l.id ASC")
+    List<com.bandanize.backend.dtos.SongListIndexDTO> findIndexByBandId(
+            @org.springframework.data.repository.query.Param("bandId") Long bandId);
+
+    /**
+     * Searchable fields of a band's song lists: id, band id and name.
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT l.id, l.band.id, l.name FROM SongListModel l "
+            + "WHERE l.band.id = :bandId")
+    List<Object[]> findSearchRowsByBandId(@org.springframework.data.repository.query.Param("bandId") Long bandId);
+
+    /**
+     * Name of a song list and of its band.
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT l.name, b.name FROM SongListModel l JOIN l.band b "
+            + "WHERE l.id = :listId")
+    List<Object[]> findNameAndBandName(@org.springframework.data.repository.query.Param("listId") Long listId);
 }
@@ -0,0 +1,197 @@
+package com.bandanize.backend.repositories;
+
+import com.bandanize.backend.config.DatabaseFeatures;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Set-based updates of the display order of songs and song lists.
+ * Writes the new positions with plain SQL keyed by id instead of loading the
+ * aggregate and letting dirty checking issue one UPDATE per row. On PostgreSQL
+ * the whole reorder is a single {@code UPDATE ... FROM unnest(ids, positions)};
+ * elsewhere it is a single JDBC batch.
+ * Songs are ordered by their fractional {@code sort_key} (then
+ * {@code order_index} and id); {@code order_index} is kept as a dense position
+ * for clients.
+ */
+@Repository
+public class SongOrderRepository {
+
+    /**
+     * Ordering columns of a song.
+     */
+    public record SongPosition(Long id, Long songListId, String sortKey, Integer orderIndex) {
+    }
+
+    // Current display order; songs without a key (legacy rows) come first, by their old index.
+    // The entity mapping (SongListModel.songs) and the JPQL queries in SongRepository use the same order
+    private static final String SONG_ORDER = "ORDER BY CASE WHEN sort_key IS NULL THEN 0 ELSE 1 END, sort_key, "
+            + "order_index, id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseFeatures databaseFeatures;
+
+    public SongOrderRepository(JdbcTemplate jdbcTemplate, DatabaseFeatures databaseFeatures) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseFeatures = databaseFeatures;
+    }
+
+    public List<Long> findSongListIds(Long bandId) {
+        return jdbcTemplate.queryForList("SELECT id FROM song_list_model WHERE band_id = ?", Long.class, bandId);
+    }
+
+    /**
+     * Locks the song list row until the end of the transaction, serializing
+     * concurrent moves and rebalances within the same list.
+     */
+    public void lockSongList(Long listId) {
+        jdbcTemplate.queryForList("SELECT id FROM song_list_model WHERE id = ? FOR UPDATE", Long.class, listId);
+    }
+
+    public Optional<SongPosition> findSongPosition(Long songId) {
+        return jdbcTemplate.query("SELECT id, song_list_id, sort_key, order_index FROM song_model WHERE id = ?",
+                (rs, rowNum) -> mapPosition(rs), songId).stream().findFirst();
+    }
+
+    /**
+     * Returns the songs of a list in their current display order.
+     */
+    public List<SongPosition> findSongPositions(Long listId) {
+        return jdbcTemplate.query("SELECT id, song_list_id, sort_key, order_index FROM song_model "
+                + "WHERE song_list_id = ? " + SONG_ORDER, (rs, rowNum) -> mapPosition(rs), listId);
+    }
+
+    /**
+     * Smallest key in the list greater than {@code key}, ignoring one song.
+     */
+    public String findNextSongKey(Long listId, String key, Long excludedSongId) {
+        return jdbcTemplate.queryForObject("SELECT MIN(sort_key) FROM song_model "
+                + "WHERE song_list_id = ? AND sort_key > ? AND id <> ?", String.class, listId, key, excludedSongId);
+    }
+
+    /**
+     * Greatest key in the list smaller than {@code key}, ignoring one song.
+     */
+    public String findPreviousSongKey(Long listId, String key, Long excludedSongId) {
+        return jdbcTemplate.queryForObject("SELECT MAX(sort_key) FROM song_model "
+                + "WHERE song_list_id = ? AND sort_key < ? AND id <> ?", String.class, listId, key, excludedSongId);
+    }
+
+    /**
+     * Greatest key in the list, ignoring one song (pass null to ignore none).
+     */
+    public String findLastSongKey(Long listId, Long excludedSongId) {
+        return jdbcTemplate.queryForObject("SELECT MAX(sort_key) FROM song_model WHERE song_list_id = ? AND id <> ?",
+                String.class, listId, excludedSongId != null ? excludedSongId : -1L);
+    }
+
+    public void updateSongKey(Long songId, String sortKey) {
+        jdbcTemplate.update("UPDATE song_model SET sort_key = ? WHERE id = ?", sortKey, songId);
+    }
+
+    /**
+     * Writes the sort key and order index of each song in a single batch.
+     */
+    public void updateSongPositions(List<SongPosition> positions) {
+        List<Object[]> batch = new ArrayList<>(positions.size());
+        for (SongPosition position : positions) {
+            batch.add(new Object[] { position.sortKey(), position.orderIndex(), position.id() });
+        }
+        jdbcTemplate.batchUpdate("UPDATE song_model SET sort_key = ?, order_index = ? WHERE id = ?", batch);
+    }
+
+    /**
+     * Returns the lists that need rebalancing: songs without a (valid-length)
+     * key, duplicate keys, or an {@code order_index} that no longer matches the
+     * key order.
+     */
+    public List<Long> findSongListsNeedingRebalance(int maxKeyLength) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT song_list_id FROM ("
+                + "SELECT song_list_id, sort_key, order_index, "
+                + "ROW_NUMBER() OVER (PARTITION BY song_list_id ORDER BY sort_key, id) - 1 AS position, "
+                + "LAG(sort_key) OVER (PARTITION BY song_list_id ORDER BY sort_key, id) AS previous_key "
+                + "FROM song_model WHERE song_list_id IS NOT NULL) r "
+                + "WHERE sort_key IS NULL OR LENGTH(sort_key) > ? OR order_index IS NULL "
+                + "OR order_index <> position OR sort_key = previous_key", Long.class, maxKeyLength);
+    }
+
+    /**
+     * Sets the order of the songs in a list: {@code order_index} to each song's
+     * position and {@code sort_key} to the matching key. Only rows belonging to
+     * the list are touched.
+     *
+     * @return The number of updated rows.
+     */
+    public int reorderSongs(Long listId, List<Long> songIds, List<String> sortKeys) {
+        return reorder("song_model", "song_list_id", listId, songIds, sortKeys);
+    }
+
+    /**
+     * Sets {@code order_index} of each song list to its position in
+     * {@code listIds}. Only rows belonging to the band are touched.
+     *
+     * @return The number of updated rows.
+     */
+    public int reorderSongLists(Long bandId, List<Long> listIds) {
+        return reorder("song_list_model", "band_id", bandId, listIds, null);
+    }
+
+    private int reorder(String table, String parentColumn, Long parentId, List<Long> ids, List<String> sortKeys) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String keyAssignment = sortKeys != null ? ", sort_key = v.sort_key" : "";
+        if (databaseFeatures.isPostgres()) {
+            String sql = "UPDATE " + table + " t SET order_index = v.position" + keyAssignment + " "
+                    + "FROM unnest(?::bigint[], ?::int[], ?::text[]) AS v(id, position, sort_key) "
+                    + "WHERE t.id = v.id AND t." + parentColumn + " = ?";
+            Integer[] positions = new Integer[ids.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = i;
+            }
+            String[] keys = sortKeys != null ? sortKeys.toArray(new String[0]) : new String[ids.size()];
+            return jdbcTemplate.execute((Connection connection) -> {
+                Array idArray = connection.createArrayOf("bigint", ids.toArray());
+                Array positionArray = connection.createArrayOf("integer", positions);
+                Array keyArray = connection.createArrayOf("text", keys);
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setArray(1, idArray);
+                    statement.setArray(2, positionArray);
+                    statement.setArray(3, keyArray);
+                    statement.setLong(4, parentId);
+                    return statement.executeUpdate();
+                } finally {
+                    idArray.free();
+                    positionArray.free();
+                    keyArray.free();
+                }
+            });
+        }
+
+        List<Object[]> batch = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            batch.add(sortKeys != null
+                    ? new Object[] { i, sortKeys.get(i), ids.get(i), parentId }
+                    : new Object[] { i, ids.get(i), parentId });
+        }
+        String sql = "UPDATE " + table + " SET order_index = ?" + (sortKeys != null ? ", sort_key = ?" : "")
+                + " WHERE id = ? AND " + parentColumn + " = ?";
+        int updated = 0;
+        for (int count : jdbcTemplate.batchUpdate(sql, batch)) {
+            updated += Math.max(count, 0);
+        }
+        return updated;
+    }
+
+    private static SongPosition mapPosition(java.sql.ResultSet rs) throws java.sql.SQLException {
+        return new SongPosition(rs.getLong("id"), rs.getObject("song_list_id", Long.class), rs.getString("sort_key"),
+                rs.getObject("order_index", Integer.class));
+    }
+}
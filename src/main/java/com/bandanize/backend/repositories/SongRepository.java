@@ -2,8 +2,35 @@ package com.bandanize.backend.repositories;
 
 import com.bandanize.backend.models.SongModel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface SongRepository extends JpaRepository<SongModel, Long> {
+
+    /**
+     * Searchable fields of a band's songs: id, band id, song list id, name and
+     * original band.
+     */
+    @Query("SELECT s.id, l.band.id, l.id, s.name, s.originalBand FROM SongModel s JOIN s.songList l "
+            + "WHERE l.band.id = :bandId")
+    List<Object[]> findSearchRowsByBandId(@Param("bandId") Long bandId);
+
+    /**
+     * Song headers of a band: song list id, song id, name, bpm, key and order
+     * index.
+     */
+    @Query("SELECT l.id, s.id, s.name, s.bpm, s.songKey, s.orderIndex FROM SongModel s JOIN s.songList l "
+            + "WHERE l.band.id = :bandId ORDER BY s.sortKey ASC NULLS FIRST, s.orderIndex ASC, s.id ASC")
+    List<Object[]> findHeaderRowsByBandId(@Param("bandId") Long bandId);
+
+    /**
+     * Songs of a list in display order: id, name, key, BPM and original band.
+     */
+    @Query("SELECT s.id, s.name, s.songKey, s.bpm, s.originalBand FROM SongModel s WHERE s.songList.id = :listId "
+            + "ORDER BY s.sortKey ASC NULLS FIRST, s.orderIndex ASC, s.id ASC")
+    List<Object[]> findSetlistRows(@Param("listId") Long listId);
 }
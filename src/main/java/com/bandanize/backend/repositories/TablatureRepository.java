@@ -2,8 +2,58 @@ package com.bandanize.backend.repositories;
 
 import com.bandanize.backend.models.TablatureModel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface TablatureRepository extends JpaRepository<TablatureModel, Long> {
+
+    /**
+     * Searchable fields of a band's tablatures: id, band id, song list id,
+     * song id, name and content.
+     */
+    @Query("SELECT t.id, l.band.id, l.id, s.id, t.name, t.content FROM TablatureModel t "
+            + "JOIN t.song s JOIN s.songList l WHERE l.band.id = :bandId")
+    List<Object[]> findSearchRowsByBandId(@Param("bandId") Long bandId);
+
+    /**
+     * Tab headers of a band (no content): song id, tab id, name, instrument and
+     * instrument icon.
+     */
+    @Query("SELECT s.id, t.id, t.name, t.instrument, t.instrumentIcon FROM TablatureModel t JOIN t.song s "
+            + "JOIN s.songList l WHERE l.band.id = :bandId ORDER BY t.id ASC")
+    List<Object[]> findHeaderRowsByBandId(@Param("bandId") Long bandId);
+
+    /**
+     * Whether the user is a member of the band owning the tab.
+     */
+    @Query("SELECT COUNT(t) > 0 FROM TablatureModel t JOIN t.song s JOIN s.songList l JOIN l.band b "
+            + "JOIN b.users u WHERE t.id = :tabId AND u.id = :userId")
+    boolean isBandMember(@Param("tabId") Long tabId, @Param("userId") Long userId);
+
+    /**
+     * Version of a tab and key of its song, without loading the content.
+     */
+    @Query("SELECT t.version, s.songKey FROM TablatureModel t JOIN t.song s WHERE t.id = :tabId")
+    List<Object[]> findVersionAndSongKey(@Param("tabId") Long tabId);
+
+    @Query("SELECT t.content, t.version FROM TablatureModel t WHERE t.id = :tabId")
+    List<Object[]> findContentAndVersion(@Param("tabId") Long tabId);
+
+    /**
+     * Tabs of a song list without content: song id, tab id, version, name,
+     * instrument and tuning.
+     */
+    @Query("SELECT s.id, t.id, t.version, t.name, t.instrument, t.tuning FROM TablatureModel t JOIN t.song s "
+            + "WHERE s.songList.id = :listId ORDER BY t.id ASC")
+    List<Object[]> findSetlistRows(@Param("listId") Long listId);
+
+    /**
+     * Tab contents of a song list: tab id and content.
+     */
+    @Query("SELECT t.id, t.content FROM TablatureModel t JOIN t.song s WHERE s.songList.id = :listId")
+    List<Object[]> findContentsBySongListId(@Param("listId") Long listId);
 }
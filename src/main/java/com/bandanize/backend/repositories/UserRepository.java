@@ -10,9 +10,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<UserModel, Long> {
-    Optional<UserModel> findByUsername(String username);
-
+public interface UserRepository extends JpaRepository<UserModel, Long>, UserRepositoryCustom {
     Optional<UserModel> findByEmail(String email);
 
     List<UserModel> findByEmailContaining(String email);
@@ -21,4 +19,12 @@ public interface UserRepository extends JpaRepository<UserModel, Long> {
 
     @Query("SELECT u FROM UserModel u WHERE (LOWER(u.username) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(u.name) LIKE LOWER(CONCAT('%', :query, '%'))) AND u.disabled = false")
     List<UserModel> searchUsers(@Param("query") String query);
+
+    /**
+     * Removes the user from every band in one statement.
+     */
+    @org.springframework.data.jpa.repository.Modifying(flushAutomatically = true, clearAutomatically = true)
+    @org.springframework.transaction.annotation.Transactional
+    @Query(value = "DELETE FROM band_user WHERE user_id = :userId", nativeQuery = true)
+    void removeFromAllBands(@Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.bandanize.backend.repositories;
+
+import com.bandanize.backend.models.UserModel;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Looks the user up by natural id, so repeated lookups (one per
+     * authenticated request) are served from the second-level cache.
+     */
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    Optional<UserModel> findByUsername(String username);
+}
@@ -0,0 +1,132 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.repositories.BandDeletionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Deletes bands in two steps.
+ * {@link #markDeleted} runs in the request: it stamps {@code deleted_at},
+ * which hides the band from every JPA query (see {@code BandModel}), drops
+ * its memberships and invitations, and queues a {@value #JOB_TYPE} job. The
+ * job then purges the rows with set-based deletes, child tables first, in short
+ * transactions of at most {@link #BATCH_SIZE} parent rows each, so no lock is
+ * held for long however big the band is. Uploaded files are queued for
+ * {@link FileCleanupService} in the same transactions that delete the rows
+ * referring to them. A purge that fails halfway is retried by the queue and
+ * resumes where it stopped.
+ */
+@Service
+public class BandDeletionService implements JobHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(BandDeletionService.class);
+
+    static final String JOB_TYPE = "band.purge";
+    static final int BATCH_SIZE = 500;
+
+    private final BandDeletionRepository bandDeletionRepository;
+    private final FileCleanupService fileCleanupService;
+    private final SetlistPdfService setlistPdfService;
+    private final JobQueueService jobQueueService;
+    private final TransactionTemplate transactionTemplate;
+
+    public BandDeletionService(BandDeletionRepository bandDeletionRepository, FileCleanupService fileCleanupService,
+            SetlistPdfService setlistPdfService, JobQueueService jobQueueService,
+            PlatformTransactionManager transactionManager) {
+        this.bandDeletionRepository = bandDeletionRepository;
+        this.fileCleanupService = fileCleanupService;
+        this.setlistPdfService = setlistPdfService;
+        this.jobQueueService = jobQueueService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Marks the band as deleted and queues the purge of its data. Joins the
+     * caller's transaction.
+     *
+     * @return false if the band does not exist or is already being deleted.
+     */
+    public boolean markDeleted(Long bandId) {
+        Boolean marked = transactionTemplate.execute(status -> {
+            if (!bandDeletionRepository.markDeleted(bandId, LocalDateTime.now())) {
+                return false;
+            }
+            bandDeletionRepository.deleteMemberships(bandId);
+            bandDeletionRepository.deleteInvitations(bandId);
+            jobQueueService.enqueue(JOB_TYPE, bandId.toString(), JOB_TYPE + ":" + bandId);
+            return true;
+        });
+        return Boolean.TRUE.equals(marked);
+    }
+
+    @Override
+    public String type() {
+        return JOB_TYPE;
+    }
+
+    /**
+     * @param payload The band id.
+     */
+    @Override
+    public void handle(String payload) {
+        purgeBand(Long.valueOf(payload));
+    }
+
+    /**
+     * Removes all rows of a band marked as deleted.
+     */
+    void purgeBand(Long bandId) {
+        long start = System.currentTimeMillis();
+        int songs = deleteInSlices(bandId, bandDeletionRepository::findSongBound, (id, maxSongId) -> {
+            fileCleanupService.enqueueUrls(bandDeletionRepository.findSongFileUrls(id, maxSongId));
+            return bandDeletionRepository.deleteSongs(id, maxSongId);
+        });
+        List<Long> listIds = bandDeletionRepository.findSongListIds(bandId);
+        transactionTemplate.executeWithoutResult(status -> bandDeletionRepository.deleteSongLists(bandId));
+        listIds.forEach(setlistPdfService::evict);
+
+        int messages = deleteInSlices(bandId, bandDeletionRepository::findChatMessageBound,
+                bandDeletionRepository::deleteChatMessages);
+        deleteInSlices(bandId, bandDeletionRepository::findNotificationBound,
+                bandDeletionRepository::deleteNotifications);
+        deleteInSlices(bandId, bandDeletionRepository::findEventBound, bandDeletionRepository::deleteEvents);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            String photo = bandDeletionRepository.findPhoto(bandId);
+            if (photo != null) {
+                fileCleanupService.enqueueUrls(List.of(photo));
+            }
+            bandDeletionRepository.deleteBand(bandId);
+        });
+        logger.info("Purged band {}: {} songs, {} chat messages in {} ms", bandId, songs, messages,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Repeatedly finds the upper id of the next slice of at most
+     * {@link #BATCH_SIZE} rows and deletes up to it, one transaction per slice.
+     *
+     * @return The number of rows deleted.
+     */
+    private int deleteInSlices(Long bandId, BiFunction<Long, Integer, Long> findBound,
+            BiFunction<Long, Long, Integer> delete) {
+        int total = 0;
+        Long bound;
+        while ((bound = findBound.apply(bandId, BATCH_SIZE)) != null) {
+            Long maxId = bound;
+            Integer deleted = transactionTemplate.execute(status -> delete.apply(bandId, maxId));
+            if (deleted == null || deleted == 0) {
+                throw new IllegalStateException("No rows deleted up to id " + maxId + " of band " + bandId);
+            }
+            total += deleted;
+        }
+        return total;
+    }
+}
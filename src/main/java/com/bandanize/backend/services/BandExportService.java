@@ -0,0 +1,277 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.exceptions.ResourceNotFoundException;
+import com.bandanize.backend.repositories.BandExportRepository;
+import com.bandanize.backend.repositories.BandRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Exports a band (details, members, song lists, songs, tabs, events, chat and
+ * uploaded media) as a ZIP archive written to an output stream.
+ * Data entries are JSON lines read row by row from the database in one
+ * read-only transaction and spooled to a temporary file, so the transaction
+ * (and its connection and snapshot) lasts as long as the reads and not as long
+ * as the client takes to download; the spooled entries and then the media,
+ * copied from storage, are written to the archive after it ends. Memory use
+ * does not grow with the size of the band, apart from the set of media paths
+ * to copy.
+ * <p>
+ * Layout: {@code band.json}, {@code songlists.jsonl}, {@code songs.jsonl},
+ * {@code song-files.jsonl}, {@code tabs.jsonl}, {@code tab-files.jsonl},
+ * {@code events.jsonl}, {@code chat.jsonl}, then {@code media/{folder}/{file}}
+ * for every uploaded file the data refers to.
+ */
+@Service
+public class BandExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BandExportService.class);
+
+    public static final int FORMAT_VERSION = 1;
+
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final Set<String> MEDIA_FOLDERS = Set.of("images", "audio", "videos", "files");
+
+    private final BandRepository bandRepository;
+    private final BandExportRepository bandExportRepository;
+    private final FileStorageService fileStorageService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public BandExportService(BandRepository bandRepository, BandExportRepository bandExportRepository,
+            FileStorageService fileStorageService, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.bandRepository = bandRepository;
+        this.bandExportRepository = bandExportRepository;
+        this.fileStorageService = fileStorageService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // One snapshot for all data entries, so they are consistent with each other
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Checks that the band exists and the user may export it.
+     *
+     * @return The file name for the archive.
+     * @throws AccessDeniedException if the user is not a member of the band.
+     */
+    public String prepareExport(Long bandId, Long userId) {
+        String name = bandRepository.findById(bandId)
+                .orElseThrow(() -> new ResourceNotFoundException("Band not found with id: " + bandId)).getName();
+        if (!bandExportRepository.isMember(bandId, userId)) {
+            throw new AccessDeniedException("Only band members can export the band");
+        }
+        String slug = name != null ? name.replaceAll("[^A-Za-z0-9]+", "-").replaceAll("^-|-$", "") : "";
+        return (slug.isEmpty() ? "band-" + bandId : slug) + "-export.zip";
+    }
+
+    /**
+     * Writes the archive to {@code out}. Does not close {@code out}.
+     */
+    public void export(Long bandId, OutputStream out) throws IOException {
+        Path file = Files.createTempFile("band-export-", ".jsonl");
+        try {
+            Set<String> media = new LinkedHashSet<>();
+            List<SpooledEntry> entries;
+            try (Spool spool = new Spool(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+                transactionTemplate.executeWithoutResult(status -> writeData(bandId, spool, media));
+                entries = spool.entries;
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)) {
+                for (SpooledEntry entry : entries) {
+                    zip.putNextEntry(new ZipEntry(entry.name()));
+                    copy(in, zip, entry.size(), buffer);
+                    zip.closeEntry();
+                }
+            }
+
+            zip.setLevel(Deflater.NO_COMPRESSION); // Media is already compressed
+            for (String path : media) {
+                writeMedia(zip, path, buffer);
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private record SpooledEntry(String name, long size) {
+    }
+
+    /**
+     * The data entries, written one after another to the temporary file.
+     */
+    private static final class Spool extends FilterOutputStream {
+        final List<SpooledEntry> entries = new ArrayList<>();
+        long written;
+
+        Spool(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            written++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            written += len;
+        }
+
+        void entry(String name, Consumer<OutputStream> body) {
+            long start = written;
+            body.accept(this);
+            entries.add(new SpooledEntry(name, written - start));
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out, long size, byte[] buffer) throws IOException {
+        long remaining = size;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read == -1) {
+                throw new EOFException("Export spool file ended early");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    private void writeData(Long bandId, Spool spool, Set<String> media) {
+        Map<String, Object> band = new LinkedHashMap<>();
+        band.put("formatVersion", FORMAT_VERSION);
+        band.put("exportedAt", LocalDateTime.now());
+        bandExportRepository.streamBand(bandId, band::putAll);
+        Map<String, Object> links = new LinkedHashMap<>();
+        bandExportRepository.streamBandLinks(bandId, row -> links.put((String) row.get("platform"), row.get("url")));
+        band.put("rrss", links);
+        List<Map<String, Object>> members = new ArrayList<>();
+        bandExportRepository.streamMembers(bandId, members::add);
+        band.put("members", members);
+        addMedia(media, band.get("photo"));
+        spool.entry("band.json", out -> write(out, band));
+
+        jsonLines(spool, "songlists.jsonl", bandId, bandExportRepository::streamSongLists, null);
+        jsonLines(spool, "songs.jsonl", bandId, bandExportRepository::streamSongs, null);
+        jsonLines(spool, "song-files.jsonl", bandId, bandExportRepository::streamSongFiles,
+                row -> addMedia(media, row.get("url")));
+        jsonLines(spool, "tabs.jsonl", bandId, bandExportRepository::streamTablatures, null);
+        jsonLines(spool, "tab-files.jsonl", bandId, bandExportRepository::streamTablatureFiles,
+                row -> addMedia(media, row.get("url")));
+        jsonLines(spool, "events.jsonl", bandId, bandExportRepository::streamEvents, null);
+        jsonLines(spool, "chat.jsonl", bandId, bandExportRepository::streamChatMessages, null);
+    }
+
+    private void jsonLines(Spool spool, String name, Long bandId,
+            BiConsumer<Long, Consumer<Map<String, Object>>> query, Consumer<Map<String, Object>> inspect) {
+        spool.entry(name, out -> query.accept(bandId, row -> {
+            if (inspect != null) {
+                inspect.accept(row);
+            }
+            write(out, row);
+            try {
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    private void write(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeMedia(ZipOutputStream zip, String path, byte[] buffer) throws IOException {
+        int slash = path.indexOf('/');
+        InputStream in;
+        try {
+            Resource resource = fileStorageService.load(path.substring(slash + 1), path.substring(0, slash));
+            in = resource.getInputStream();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Skipping missing media file {} in export: {}", path, e.getMessage());
+            return;
+        }
+        try (in) {
+            zip.putNextEntry(new ZipEntry("media/" + path));
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                zip.write(buffer, 0, read);
+            }
+            zip.closeEntry();
+        }
+    }
+
+    /**
+     * Records an uploaded file referenced by {@code url}, see
+     * {@link #mediaPath}.
+     */
+    static void addMedia(Set<String> media, Object url) {
+        String path = url instanceof String value ? mediaPath(value) : null;
+        if (path != null) {
+            media.add(path);
+        }
+    }
+
+    /**
+     * Returns the stored file a URL refers to as {@code folder/filename}, or
+     * null if it is not an upload. Upload URLs end in
+     * {@code /uploads/{folder}/{filename}}, optionally behind a host.
+     */
+    static String mediaPath(String url) {
+        String[] parts = url.split("[?#]", 2)[0].split("/");
+        if (parts.length < 2) {
+            return null;
+        }
+        String folder = parts[parts.length - 2];
+        String filename = parts[parts.length - 1];
+        if (!MEDIA_FOLDERS.contains(folder) || filename.isEmpty() || filename.equals("..") || filename.equals(".")) {
+            return null;
+        }
+        return folder + "/" + filename;
+    }
+}
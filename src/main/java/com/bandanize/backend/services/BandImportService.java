@@ -0,0 +1,577 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.dtos.BandImportResultDTO;
+import com.bandanize.backend.models.BandModel;
+import com.bandanize.backend.models.UserModel;
+import com.bandanize.backend.repositories.BandImportRepository;
+import com.bandanize.backend.repositories.BandImportRepository.ChatMessageRow;
+import com.bandanize.backend.repositories.BandImportRepository.EventRow;
+import com.bandanize.backend.repositories.BandImportRepository.FileRow;
+import com.bandanize.backend.repositories.BandImportRepository.SongListRow;
+import com.bandanize.backend.repositories.BandImportRepository.SongRow;
+import com.bandanize.backend.repositories.SongImportRepository;
+import com.bandanize.backend.repositories.SongImportRepository.TabRow;
+import com.bandanize.backend.repositories.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Creates a band from an archive written by {@link BandExportService}, read
+ * as a stream.
+ * Data entries are parsed line by line and written in JDBC batches, one
+ * transaction per batch. Every row gets a new id, and references between
+ * rows are remapped through old-to-new id maps, which are the only state
+ * that grows with the size of the band. Each uploaded file the data refers
+ * to is given a new unique storage name as soon as its URL is read, so rows
+ * can be written with rewritten URLs before the media entries (which come
+ * last) arrive. Media entries are then handed to a bounded pool of upload
+ * threads while the archive keeps being read. Small files are passed in
+ * memory and larger ones through a temp file, and a semaphore caps the
+ * number of files in flight. The uncompressed size of each media file and of
+ * all of them together is capped, so a small archive cannot fill the disk.
+ * The importing user becomes the owner and only member. The archive is
+ * untrusted, so events and chat messages are only attributed to the
+ * importing user, when the archive gives their own username; all others are
+ * imported without an author, like those of deleted users.
+ * If the import fails, the partially created band and its stored media are
+ * deleted.
+ */
+@Service
+public class BandImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BandImportService.class);
+
+    static final int BATCH_SIZE = 500;
+    // Media entries up to this size are passed to the upload pool in memory, larger ones via a temp file
+    static final int IN_MEMORY_MEDIA_LIMIT = 1024 * 1024;
+    static final int MAX_BAND_JSON_BYTES = 1024 * 1024;
+
+    private static final TypeReference<Map<String, Object>> ROW = new TypeReference<>() {
+    };
+
+    private final BandService bandService;
+    private final UserRepository userRepository;
+    private final BandImportRepository bandImportRepository;
+    private final SongImportRepository songImportRepository;
+    private final BandSearchService bandSearchService;
+    private final FileStorageService fileStorageService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService mediaExecutor;
+    private final int mediaThreads;
+    private final long maxMediaFileBytes;
+    private final long maxMediaBytes;
+
+    public BandImportService(BandService bandService, UserRepository userRepository,
+            BandImportRepository bandImportRepository, SongImportRepository songImportRepository,
+            BandSearchService bandSearchService, FileStorageService fileStorageService, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.bands.import-media-threads:4}") int mediaThreads,
+            @Value("${app.bands.import-max-media-file-bytes:1073741824}") long maxMediaFileBytes,
+            @Value("${app.bands.import-max-media-bytes:10737418240}") long maxMediaBytes) {
+        this.bandService = bandService;
+        this.userRepository = userRepository;
+        this.bandImportRepository = bandImportRepository;
+        this.songImportRepository = songImportRepository;
+        this.bandSearchService = bandSearchService;
+        this.fileStorageService = fileStorageService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.mediaThreads = Math.max(1, mediaThreads);
+        this.maxMediaFileBytes = maxMediaFileBytes;
+        this.maxMediaBytes = maxMediaBytes;
+        this.mediaExecutor = Executors.newFixedThreadPool(this.mediaThreads, runnable -> {
+            Thread thread = new Thread(runnable, "band-import-media");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        mediaExecutor.shutdownNow();
+    }
+
+    private final class ImportRun {
+        final Long userId;
+        final String username;
+        Long bandId;
+        // Old id -> new id
+        final Map<Long, Long> songListIds = new HashMap<>();
+        final Map<Long, Long> songIds = new HashMap<>();
+        final Map<Long, Long> tabIds = new HashMap<>();
+        // New song id -> new song list id, for indexing tabs
+        final Map<Long, Long> songLists = new HashMap<>();
+        // Old user id -> username, from the archive's member list
+        final Map<Long, String> memberUsernames = new HashMap<>();
+        // Archived media path (folder/filename) -> new filename
+        final Map<String, String> mediaNames = new HashMap<>();
+        final List<String> storedMedia = Collections.synchronizedList(new ArrayList<>());
+        final List<Future<?>> uploads = new ArrayList<>();
+        final Semaphore uploadSlots = new Semaphore(mediaThreads * 2);
+        // Uncompressed bytes of the media entries read so far
+        long mediaBytes;
+        final BandImportResultDTO result = new BandImportResultDTO();
+
+        ImportRun(Long userId, String username) {
+            this.userId = userId;
+            this.username = username;
+        }
+
+        String rewriteUrl(Object value) {
+            if (!(value instanceof String url)) {
+                return null;
+            }
+            String path = BandExportService.mediaPath(url);
+            if (path == null) {
+                return url;
+            }
+            String newName = mediaNames.computeIfAbsent(path, BandImportService::newMediaName);
+            // Served by this instance now, whatever host or prefix the archive had
+            return "/uploads/" + path.substring(0, path.indexOf('/') + 1) + newName;
+        }
+
+        // Any other username could be a real user here who never wrote it
+        Long authorId(String archivedUsername) {
+            return archivedUsername != null && archivedUsername.equals(username) ? userId : null;
+        }
+    }
+
+    /**
+     * Imports a band archive as a new band owned by the user.
+     *
+     * @throws IllegalArgumentException if the archive is not a band export.
+     */
+    public BandImportResultDTO importBand(Long userId, InputStream body) throws IOException {
+        ImportRun run = new ImportRun(userId, userRepository.findById(userId).map(UserModel::getUsername).orElse(null));
+        try {
+            ZipInputStream zip = new ZipInputStream(body, StandardCharsets.UTF_8);
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    readEntry(run, entry.getName(), zip);
+                }
+            }
+            if (run.bandId == null) {
+                throw new IllegalArgumentException("Not a band archive: band.json is missing");
+            }
+            awaitUploads(run);
+        } catch (ZipException | EOFException e) {
+            discard(run);
+            throw new IllegalArgumentException("Invalid or truncated band archive", e);
+        } catch (IOException | RuntimeException e) {
+            discard(run);
+            throw e;
+        }
+        run.result.setBandId(run.bandId);
+        run.result.setMediaFiles(run.storedMedia.size());
+        logger.info("Imported band {} for user {}: {} songs, {} tabs, {} media files", run.bandId, userId,
+                run.result.getSongs(), run.result.getTabs(), run.result.getMediaFiles());
+        return run.result;
+    }
+
+    private void readEntry(ImportRun run, String name, ZipInputStream zip) throws IOException {
+        if (name.equals("band.json")) {
+            createBand(run, zip);
+            return;
+        }
+        if (name.startsWith("media/")) {
+            uploadMedia(run, name.substring("media/".length()), zip);
+            return;
+        }
+        BiConsumer<ImportRun, List<Map<String, Object>>> writer = switch (name) {
+            case "songlists.jsonl" -> this::writeSongLists;
+            case "songs.jsonl" -> this::writeSongs;
+            case "song-files.jsonl" -> (r, rows) -> writeFiles(r, rows, "songId", r.songIds, true);
+            case "tabs.jsonl" -> this::writeTabs;
+            case "tab-files.jsonl" -> (r, rows) -> writeFiles(r, rows, "tablatureId", r.tabIds, false);
+            case "events.jsonl" -> this::writeEvents;
+            case "chat.jsonl" -> this::writeChatMessages;
+            default -> null;
+        };
+        if (writer == null) {
+            return;
+        }
+        if (run.bandId == null) {
+            throw new IllegalArgumentException("Not a band archive: band.json must be the first entry");
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(zip, StandardCharsets.UTF_8));
+        List<Map<String, Object>> batch = new ArrayList<>(BATCH_SIZE);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            batch.add(parse(line, name));
+            if (batch.size() == BATCH_SIZE) {
+                writeBatch(run, batch, writer);
+            }
+        }
+        writeBatch(run, batch, writer);
+    }
+
+    private void writeBatch(ImportRun run, List<Map<String, Object>> batch,
+            BiConsumer<ImportRun, List<Map<String, Object>>> writer) {
+        if (!batch.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> writer.accept(run, batch));
+            batch.clear();
+        }
+    }
+
+    private Map<String, Object> parse(String json, String entryName) {
+        try {
+            return objectMapper.readValue(json, ROW);
+        } catch (JacksonException e) {
+            throw new IllegalArgumentException("Invalid JSON in " + entryName);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void createBand(ImportRun run, InputStream zip) throws IOException {
+        if (run.bandId != null) {
+            throw new IllegalArgumentException("Not a band archive: duplicate band.json");
+        }
+        byte[] json = zip.readNBytes(MAX_BAND_JSON_BYTES + 1);
+        if (json.length > MAX_BAND_JSON_BYTES) {
+            throw new IllegalArgumentException("band.json is larger than " + MAX_BAND_JSON_BYTES + " bytes");
+        }
+        Map<String, Object> band = parse(new String(json, StandardCharsets.UTF_8), "band.json");
+        Long formatVersion = longValue(band.get("formatVersion"));
+        if (formatVersion == null || formatVersion > BandExportService.FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported band archive version: " + formatVersion);
+        }
+        if (band.get("members") instanceof List<?> members) {
+            for (Object member : members) {
+                if (member instanceof Map<?, ?> row && longValue(row.get("id")) != null) {
+                    run.memberUsernames.put(longValue(row.get("id")), string(row.get("username")));
+                }
+            }
+        }
+
+        BandModel details = new BandModel();
+        details.setName(string(band.get("name")));
+        details.setDescription(string(band.get("description")));
+        details.setGenre(string(band.get("genre")));
+        details.setCity(string(band.get("city")));
+        details.setPhoto(run.rewriteUrl(band.get("photo")));
+        Map<String, String> links = new HashMap<>();
+        if (band.get("rrss") instanceof Map<?, ?> rrss) {
+            ((Map<Object, Object>) rrss).forEach((platform, url) -> links.put(String.valueOf(platform), string(url)));
+        }
+        details.setRrss(links);
+        run.bandId = bandService.createBandWithUser(run.userId, details).getId();
+    }
+
+    private void writeSongLists(ImportRun run, List<Map<String, Object>> rows) {
+        List<SongListRow> lists = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            lists.add(new SongListRow(string(row.get("name")), intValue(row.get("orderIndex"))));
+        }
+        List<Long> ids = bandImportRepository.insertSongLists(run.bandId, lists);
+        for (int i = 0; i < ids.size(); i++) {
+            run.songListIds.put(longValue(rows.get(i).get("id")), ids.get(i));
+            bandSearchService.indexSongList(run.bandId, ids.get(i), lists.get(i).name());
+        }
+        run.result.setSongLists(run.result.getSongLists() + ids.size());
+    }
+
+    private void writeSongs(ImportRun run, List<Map<String, Object>> rows) {
+        List<Map<String, Object>> kept = new ArrayList<>(rows.size());
+        List<SongRow> songs = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Long listId = run.songListIds.get(longValue(row.get("songListId")));
+            if (listId == null) {
+                run.result.setSkippedRows(run.result.getSkippedRows() + 1);
+                continue;
+            }
+            kept.add(row);
+            songs.add(new SongRow(listId, string(row.get("name")), intValue(row.get("bpm")),
+                    string(row.get("songKey")), string(row.get("originalBand")), intValue(row.get("orderIndex")),
+                    string(row.get("sortKey"))));
+        }
+        List<Long> ids = bandImportRepository.insertSongs(songs);
+        for (int i = 0; i < ids.size(); i++) {
+            SongRow song = songs.get(i);
+            run.songIds.put(longValue(kept.get(i).get("id")), ids.get(i));
+            run.songLists.put(ids.get(i), song.songListId());
+            bandSearchService.indexSong(run.bandId, song.songListId(), ids.get(i), song.name(), song.originalBand());
+        }
+        run.result.setSongs(run.result.getSongs() + ids.size());
+    }
+
+    private void writeTabs(ImportRun run, List<Map<String, Object>> rows) {
+        List<Map<String, Object>> kept = new ArrayList<>(rows.size());
+        List<TabRow> tabs = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Long songId = run.songIds.get(longValue(row.get("songId")));
+            if (songId == null) {
+                run.result.setSkippedRows(run.result.getSkippedRows() + 1);
+                continue;
+            }
+            kept.add(row);
+            tabs.add(new TabRow(songId, string(row.get("name")), string(row.get("instrument")),
+                    string(row.get("instrumentIcon")), string(row.get("tuning")), string(row.get("content"))));
+        }
+        List<Long> ids = songImportRepository.insertTabs(tabs);
+        for (int i = 0; i < ids.size(); i++) {
+            TabRow tab = tabs.get(i);
+            run.tabIds.put(longValue(kept.get(i).get("id")), ids.get(i));
+            bandSearchService.indexTablature(run.bandId, run.songLists.get(tab.songId()), tab.songId(), ids.get(i),
+                    tab.name(), tab.content());
+        }
+        run.result.setTabs(run.result.getTabs() + ids.size());
+    }
+
+    private void writeFiles(ImportRun run, List<Map<String, Object>> rows, String ownerColumn, Map<Long, Long> owners,
+            boolean songFiles) {
+        List<FileRow> files = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Long ownerId = owners.get(longValue(row.get(ownerColumn)));
+            if (ownerId == null) {
+                run.result.setSkippedRows(run.result.getSkippedRows() + 1);
+                continue;
+            }
+            files.add(new FileRow(ownerId, string(row.get("name")), string(row.get("type")),
+                    run.rewriteUrl(row.get("url"))));
+        }
+        if (songFiles) {
+            bandImportRepository.insertSongFiles(files);
+        } else {
+            bandImportRepository.insertTablatureFiles(files);
+        }
+    }
+
+    private void writeEvents(ImportRun run, List<Map<String, Object>> rows) {
+        List<EventRow> events = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            LocalDateTime date = dateTime(row.get("date"));
+            String name = string(row.get("name"));
+            if (date == null || name == null) {
+                run.result.setSkippedRows(run.result.getSkippedRows() + 1);
+                continue;
+            }
+            String type = string(row.get("type"));
+            Long creatorId = run.authorId(run.memberUsernames.get(longValue(row.get("creatorId"))));
+            events.add(new EventRow(name, string(row.get("description")), date, type != null ? type : "OTRO",
+                    string(row.get("location")), creatorId, dateTime(row.get("createdAt"))));
+        }
+        List<Long> ids = bandImportRepository.insertEvents(run.bandId, events);
+        for (int i = 0; i < ids.size(); i++) {
+            bandSearchService.indexEvent(run.bandId, ids.get(i), events.get(i).name(), events.get(i).location());
+        }
+        run.result.setEvents(run.result.getEvents() + ids.size());
+    }
+
+    private void writeChatMessages(ImportRun run, List<Map<String, Object>> rows) {
+        List<ChatMessageRow> messages = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            messages.add(new ChatMessageRow(run.authorId(string(row.get("senderUsername"))),
+                    string(row.get("message")), dateTime(row.get("timestamp"))));
+        }
+        bandImportRepository.insertChatMessages(run.bandId, messages);
+        run.result.setChatMessages(run.result.getChatMessages() + messages.size());
+    }
+
+    /**
+     * Hands a media entry to the upload pool if the data refers to it. Blocks
+     * while the maximum number of files is in flight.
+     */
+    private void uploadMedia(ImportRun run, String path, ZipInputStream zip) throws IOException {
+        String newName = run.mediaNames.get(path);
+        if (newName == null) {
+            return;
+        }
+        String folder = path.substring(0, path.indexOf('/'));
+        try {
+            run.uploadSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while importing media", e);
+        }
+        Path spooled = null;
+        try {
+            long limit = Math.min(maxMediaFileBytes, maxMediaBytes - run.mediaBytes);
+            byte[] content = zip.readNBytes((int) Math.min(IN_MEMORY_MEDIA_LIMIT, limit) + 1);
+            long size = content.length;
+            if (content.length > IN_MEMORY_MEDIA_LIMIT) {
+                spooled = Files.createTempFile("band-import-", ".media");
+                try (OutputStream out = Files.newOutputStream(spooled)) {
+                    out.write(content);
+                    size += copy(zip, out, limit + 1 - size);
+                }
+                content = null;
+            }
+            if (size > limit) {
+                throw new IllegalArgumentException(limit == maxMediaFileBytes
+                        ? "Media file " + path + " is larger than " + maxMediaFileBytes + " bytes"
+                        : "Media files are larger than " + maxMediaBytes + " bytes in total");
+            }
+            run.mediaBytes += size;
+            Path file = spooled;
+            byte[] bytes = content;
+            run.uploads.add(mediaExecutor.submit(() -> {
+                try (InputStream in = file != null ? Files.newInputStream(file) : new ByteArrayInputStream(bytes)) {
+                    fileStorageService.store(in, folder, newName);
+                    run.storedMedia.add(folder + "/" + newName);
+                    return null;
+                } finally {
+                    if (file != null) {
+                        Files.deleteIfExists(file);
+                    }
+                    run.uploadSlots.release();
+                }
+            }));
+        } catch (IOException | RuntimeException e) {
+            if (spooled != null) {
+                Files.deleteIfExists(spooled);
+            }
+            run.uploadSlots.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Copies up to {@code max} bytes.
+     *
+     * @return The number of bytes copied.
+     */
+    private static long copy(InputStream in, OutputStream out, long max) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long copied = 0;
+        int read;
+        while (copied < max && (read = in.read(buffer, 0, (int) Math.min(buffer.length, max - copied))) != -1) {
+            out.write(buffer, 0, read);
+            copied += read;
+        }
+        return copied;
+    }
+
+    private void awaitUploads(ImportRun run) throws IOException {
+        for (Future<?> upload : run.uploads) {
+            try {
+                upload.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while importing media", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to store media: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Removes what a failed import already created.
+     */
+    private void discard(ImportRun run) {
+        for (Future<?> upload : run.uploads) {
+            try {
+                upload.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                // Already failing; the files that were stored are deleted below
+            }
+        }
+        if (run.bandId != null) {
+            try {
+                bandService.deleteBand(run.bandId, run.userId);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to delete partially imported band {}: {}", run.bandId, e.getMessage());
+            }
+        }
+        synchronized (run.storedMedia) {
+            for (String path : run.storedMedia) {
+                try {
+                    fileStorageService.delete(path.substring(path.indexOf('/') + 1),
+                            path.substring(0, path.indexOf('/')));
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to delete imported media {}: {}", path, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * New unique storage name for an archived file, keeping its original name
+     * after the previous unique prefix.
+     */
+    static String newMediaName(String path) {
+        String filename = path.substring(path.lastIndexOf('/') + 1);
+        int prefix = filename.indexOf('_');
+        if (prefix == 36) {
+            filename = filename.substring(prefix + 1);
+        }
+        filename = filename.replaceAll("[^A-Za-z0-9._-]", "_").replace("..", "_");
+        return UUID.randomUUID() + "_" + filename;
+    }
+
+    private static String string(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static Long longValue(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            try {
+                return Long.parseLong(text.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static Integer intValue(Object value) {
+        Long number = longValue(value);
+        return number != null ? number.intValue() : null;
+    }
+
+    private static LocalDateTime dateTime(Object value) {
+        if (!(value instanceof String text) || text.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(text);
+        } catch (java.time.format.DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + text);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.dtos.BandSearchPageDTO;
+import com.bandanize.backend.dtos.BandSearchResultDTO;
+import com.bandanize.backend.models.EventModel;
+import com.bandanize.backend.models.SongListModel;
+import com.bandanize.backend.models.SongModel;
+import com.bandanize.backend.models.TablatureModel;
+import com.bandanize.backend.repositories.BandRepository;
+import com.bandanize.backend.repositories.EventRepository;
+import com.bandanize.backend.repositories.SongListRepository;
+import com.bandanize.backend.repositories.SongRepository;
+import com.bandanize.backend.repositories.TablatureRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Band-wide search over song names and original bands, tab names and content,
+ * song list names and event names and locations.
+ * Each band has its own {@link InvertedIndex} held in memory. The indexes are
+ * rebuilt from the database, one band at a time, when the application starts
+ * and are then updated incrementally by the services that modify those
+ * entities; updates are applied after the surrounding transaction commits.
+ * <p>
+ * The indexes are local to each node and only see the writes committed on it,
+ * so they are rebuilt again every {@code app.search.resync-interval-ms} to
+ * pick up changes made on other nodes (and bands deleted there).
+ */
+@Service
+public class BandSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BandSearchService.class);
+
+    public enum DocumentType {
+        SONG, TABLATURE, SONG_LIST, EVENT
+    }
+
+    // Ranking weights: a hit in a name counts more than one in a tab body
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float DETAIL_WEIGHT = 1.5f;
+    private static final float CONTENT_WEIGHT = 1.0f;
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final int REBUILD_PAGE_SIZE = 100;
+    private static final int MAX_REBUILD_ATTEMPTS = 3;
+
+    private record DocumentKey(DocumentType type, Long id) {
+    }
+
+    private record SearchDocument(Long bandId, String title, String subtitle, Long songListId, Long songId) {
+    }
+
+    private final Map<Long, InvertedIndex<DocumentKey>> indexes = new ConcurrentHashMap<>();
+    private final Map<DocumentKey, SearchDocument> documents = new ConcurrentHashMap<>();
+    // Live updates hold the read lock and count themselves in updates; a
+    // rebuilt band is swapped in under the write lock, and only if no update
+    // happened while it was being read
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final AtomicLong updates = new AtomicLong();
+
+    private final BandRepository bandRepository;
+    private final SongListRepository songListRepository;
+    private final SongRepository songRepository;
+    private final TablatureRepository tablatureRepository;
+    private final EventRepository eventRepository;
+
+    public BandSearchService(BandRepository bandRepository, SongListRepository songListRepository,
+            SongRepository songRepository, TablatureRepository tablatureRepository,
+            EventRepository eventRepository) {
+        this.bandRepository = bandRepository;
+        this.songListRepository = songListRepository;
+        this.songRepository = songRepository;
+        this.tablatureRepository = tablatureRepository;
+        this.eventRepository = eventRepository;
+    }
+
+    /**
+     * Loads every searchable entity into the indexes, band by band, and drops
+     * the indexes of bands that no longer exist.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.search.resync-interval-ms:900000}",
+            fixedDelayString = "${app.search.resync-interval-ms:900000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        // Bands created during the walk are not in here, so they are left alone
+        Set<Long> previouslyIndexed = new HashSet<>(indexes.keySet());
+        Set<Long> bandIds = new HashSet<>();
+        Long afterId = 0L;
+        List<Long> page;
+        while (!(page = bandRepository.findIdsAfter(afterId, PageRequest.of(0, REBUILD_PAGE_SIZE))).isEmpty()) {
+            for (Long bandId : page) {
+                rebuildBand(bandId);
+            }
+            bandIds.addAll(page);
+            afterId = page.get(page.size() - 1);
+        }
+        previouslyIndexed.removeAll(bandIds);
+        previouslyIndexed.forEach(this::dropBand);
+        logger.info("Band search index built: {} bands, {} documents in {} ms", bandIds.size(), documents.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    private void rebuildBand(Long bandId) {
+        for (int attempt = 0; attempt < MAX_REBUILD_ATTEMPTS; attempt++) {
+            long seenUpdates = updates.get();
+            Map<DocumentKey, SearchDocument> bandDocuments = new HashMap<>();
+            InvertedIndex<DocumentKey> index = new InvertedIndex<>();
+            for (Object[] row : songListRepository.findSearchRowsByBandId(bandId)) {
+                DocumentKey key = new DocumentKey(DocumentType.SONG_LIST, (Long) row[0]);
+                bandDocuments.put(key, new SearchDocument(bandId, (String) row[2], null, (Long) row[0], null));
+                index.put(key, List.of(new InvertedIndex.Field((String) row[2], TITLE_WEIGHT)));
+            }
+            for (Object[] row : songRepository.findSearchRowsByBandId(bandId)) {
+                DocumentKey key = new DocumentKey(DocumentType.SONG, (Long) row[0]);
+                bandDocuments.put(key,
+                        new SearchDocument(bandId, (String) row[3], (String) row[4], (Long) row[2], (Long) row[0]));
+                index.put(key, songFields((String) row[3], (String) row[4]));
+            }
+            for (Object[] row : tablatureRepository.findSearchRowsByBandId(bandId)) {
+                DocumentKey key = new DocumentKey(DocumentType.TABLATURE, (Long) row[0]);
+                bandDocuments.put(key, new SearchDocument(bandId, (String) row[4], null, (Long) row[2], (Long) row[3]));
+                index.put(key, tablatureFields((String) row[4], (String) row[5]));
+            }
+            for (Object[] row : eventRepository.findSearchRowsByBandId(bandId)) {
+                DocumentKey key = new DocumentKey(DocumentType.EVENT, (Long) row[0]);
+                bandDocuments.put(key, new SearchDocument(bandId, (String) row[2], (String) row[3], null, null));
+                index.put(key, eventFields((String) row[2], (String) row[3]));
+            }
+
+            swapLock.writeLock().lock();
+            try {
+                if (updates.get() != seenUpdates) {
+                    continue;
+                }
+                InvertedIndex<DocumentKey> previous = indexes.get(bandId);
+                if (previous != null) {
+                    previous.removeIf(key -> !bandDocuments.containsKey(key)).forEach(documents::remove);
+                }
+                documents.putAll(bandDocuments);
+                indexes.put(bandId, index);
+                return;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+        logger.debug("Band {} kept changing while its search index was rebuilt; left for the next resync", bandId);
+    }
+
+    private void dropBand(Long bandId) {
+        InvertedIndex<DocumentKey> index = indexes.remove(bandId);
+        if (index != null) {
+            index.removeIf(key -> true).forEach(documents::remove);
+        }
+    }
+
+    /**
+     * Searches a band's songs, tabs, song lists and events.
+     *
+     * @param bandId The ID of the band.
+     * @param query  Free text; the last word also matches as a prefix.
+     * @param type   Optional result type filter (SONG, TABLATURE, SONG_LIST or
+     *               EVENT).
+     * @param page   Zero-based page number.
+     * @param size   Page size (capped at 50).
+     * @return A page of results, best match first.
+     */
+    public BandSearchPageDTO search(Long bandId, String query, String type, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        DocumentType typeFilter = type == null || type.isBlank() ? null
+                : DocumentType.valueOf(type.trim().toUpperCase(Locale.ROOT));
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(0, page);
+
+        InvertedIndex<DocumentKey> index = indexes.get(bandId);
+        if (index == null) {
+            return new BandSearchPageDTO(List.of(), pageNumber, pageSize, 0);
+        }
+
+        List<InvertedIndex.Hit<DocumentKey>> hits = index.search(query).stream()
+                .filter(hit -> typeFilter == null || hit.key().type() == typeFilter)
+                .filter(hit -> documents.containsKey(hit.key()))
+                .toList();
+
+        List<BandSearchResultDTO> results = hits.stream()
+                .skip((long) pageNumber * pageSize)
+                .limit(pageSize)
+                .map(this::toResult)
+                .filter(Objects::nonNull)
+                .toList();
+        return new BandSearchPageDTO(results, pageNumber, pageSize, hits.size());
+    }
+
+    public void indexSongList(SongListModel list) {
+        indexSongList(list.getBand().getId(), list.getId(), list.getName());
+    }
+
+    /**
+     * Indexes a song list given by its fields, for writers that bypass the
+     * entities.
+     */
+    public void indexSongList(Long bandId, Long listId, String name) {
+        DocumentKey key = new DocumentKey(DocumentType.SONG_LIST, listId);
+        SearchDocument document = new SearchDocument(bandId, name, null, listId, null);
+        List<InvertedIndex.Field> fields = List.of(new InvertedIndex.Field(name, TITLE_WEIGHT));
+        afterCommit(() -> put(key, document, fields));
+    }
+
+    public void indexSong(SongModel song) {
+        SongListModel list = song.getSongList();
+        indexSong(list.getBand().getId(), list.getId(), song.getId(), song.getName(), song.getOriginalBand());
+    }
+
+    /**
+     * Indexes a song given by its fields, for writers that bypass the entities.
+     */
+    public void indexSong(Long bandId, Long listId, Long songId, String name, String originalBand) {
+        DocumentKey key = new DocumentKey(DocumentType.SONG, songId);
+        SearchDocument document = new SearchDocument(bandId, name, originalBand, listId, songId);
+        List<InvertedIndex.Field> fields = songFields(name, originalBand);
+        afterCommit(() -> put(key, document, fields));
+    }
+
+    public void indexTablature(TablatureModel tab) {
+        SongModel song = tab.getSong();
+        SongListModel list = song.getSongList();
+        indexTablature(list.getBand().getId(), list.getId(), song.getId(), tab.getId(), tab.getName(),
+                tab.getContent());
+    }
+
+    /**
+     * Indexes a tab given by its fields, for writers that bypass the entities.
+     */
+    public void indexTablature(Long bandId, Long listId, Long songId, Long tabId, String name, String content) {
+        DocumentKey key = new DocumentKey(DocumentType.TABLATURE, tabId);
+        SearchDocument document = new SearchDocument(bandId, name, null, listId, songId);
+        List<InvertedIndex.Field> fields = tablatureFields(name, content);
+        afterCommit(() -> put(key, document, fields));
+    }
+
+    public void indexEvent(EventModel event) {
+        indexEvent(event.getBand().getId(), event.getId(), event.getName(), event.getLocation());
+    }
+
+    /**
+     * Indexes an event given by its fields, for writers that bypass the
+     * entities.
+     */
+    public void indexEvent(Long bandId, Long eventId, String name, String location) {
+        DocumentKey key = new DocumentKey(DocumentType.EVENT, eventId);
+        SearchDocument document = new SearchDocument(bandId, name, location, null, null);
+        List<InvertedIndex.Field> fields = eventFields(name, location);
+        afterCommit(() -> put(key, document, fields));
+    }
+
+    /**
+     * Removes a song list together with its songs and tabs.
+     */
+    public void removeSongList(Long listId) {
+        afterCommit(() -> removeMatching(new DocumentKey(DocumentType.SONG_LIST, listId),
+                document -> listId.equals(document.songListId())));
+    }
+
+    /**
+     * Removes a song together with its tabs.
+     */
+    public void removeSong(Long songId) {
+        afterCommit(() -> removeMatching(new DocumentKey(DocumentType.SONG, songId),
+                document -> songId.equals(document.songId())));
+    }
+
+    public void removeTablature(Long tabId) {
+        DocumentKey key = new DocumentKey(DocumentType.TABLATURE, tabId);
+        afterCommit(() -> removeMatching(key, document -> false));
+    }
+
+    public void removeEvents(Collection<Long> eventIds) {
+        afterCommit(() -> eventIds.forEach(
+                id -> removeMatching(new DocumentKey(DocumentType.EVENT, id), document -> false)));
+    }
+
+    public void removeBand(Long bandId) {
+        afterCommit(() -> dropBand(bandId));
+    }
+
+    private static List<InvertedIndex.Field> songFields(String name, String originalBand) {
+        return List.of(new InvertedIndex.Field(name, TITLE_WEIGHT),
+                new InvertedIndex.Field(originalBand, DETAIL_WEIGHT));
+    }
+
+    private static List<InvertedIndex.Field> tablatureFields(String name, String content) {
+        return List.of(new InvertedIndex.Field(name, TITLE_WEIGHT),
+                new InvertedIndex.Field(content, CONTENT_WEIGHT));
+    }
+
+    private static List<InvertedIndex.Field> eventFields(String name, String location) {
+        return List.of(new InvertedIndex.Field(name, TITLE_WEIGHT),
+                new InvertedIndex.Field(location, DETAIL_WEIGHT));
+    }
+
+    private void put(DocumentKey key, SearchDocument document, List<InvertedIndex.Field> fields) {
+        SearchDocument previous = documents.put(key, document);
+        if (previous != null && !previous.bandId().equals(document.bandId())) {
+            InvertedIndex<DocumentKey> previousIndex = indexes.get(previous.bandId());
+            if (previousIndex != null) {
+                previousIndex.remove(key);
+            }
+        }
+        indexes.computeIfAbsent(document.bandId(), id -> new InvertedIndex<>()).put(key, fields);
+    }
+
+    /**
+     * Removes the document with the given key and, from the same band, every
+     * document matching the predicate.
+     */
+    private void removeMatching(DocumentKey key, Predicate<SearchDocument> dependent) {
+        SearchDocument document = documents.remove(key);
+        if (document == null) {
+            return;
+        }
+        InvertedIndex<DocumentKey> index = indexes.get(document.bandId());
+        if (index == null) {
+            return;
+        }
+        index.remove(key);
+        index.removeIf(candidate -> {
+            SearchDocument candidateDocument = documents.get(candidate);
+            return candidateDocument != null && dependent.test(candidateDocument);
+        }).forEach(documents::remove);
+    }
+
+    private BandSearchResultDTO toResult(InvertedIndex.Hit<DocumentKey> hit) {
+        SearchDocument document = documents.get(hit.key());
+        if (document == null) {
+            return null;
+        }
+        String subtitle = document.subtitle();
+        if (hit.key().type() == DocumentType.TABLATURE) {
+            // Resolved at query time so renaming a song never leaves stale tab results
+            SearchDocument song = documents.get(new DocumentKey(DocumentType.SONG, document.songId()));
+            subtitle = song != null ? song.title() : null;
+        }
+        return new BandSearchResultDTO(hit.key().type().name(), hit.key().id(), document.title(), subtitle,
+                document.songListId(), document.songId(), hit.score());
+    }
+
+    private void afterCommit(Runnable action) {
+        Runnable update = () -> {
+            swapLock.readLock().lock();
+            try {
+                updates.incrementAndGet();
+                action.run();
+            } finally {
+                swapLock.readLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
@@ -6,8 +6,6 @@ import com.bandanize.backend.models.BandModel;
 import com.bandanize.backend.models.UserModel;
 import com.bandanize.backend.repositories.BandRepository;
 import com.bandanize.backend.repositories.UserRepository;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -22,14 +20,13 @@ import java.util.stream.Collectors;
 @Service
 public class BandService {
 
-    private static final Logger logger = LoggerFactory.getLogger(BandService.class);
-
     private final BandRepository bandRepository;
     private final UserRepository userRepository;
     private final com.bandanize.backend.repositories.BandInvitationRepository invitationRepository;
-    private final SongService songService;
-    private final StorageService storageService;
+    private final BandDeletionService bandDeletionService;
     private final EmailService emailService;
+    private final MentionMatcherCache mentionMatcherCache;
+    private final BandSearchService bandSearchService;
 
     @Autowired
     private NotificationService notificationService;
@@ -37,15 +34,17 @@ public class BandService {
     @Autowired
     public BandService(BandRepository bandRepository, UserRepository userRepository,
             com.bandanize.backend.repositories.BandInvitationRepository invitationRepository,
-            SongService songService, StorageService storageService, EmailService emailService,
-            NotificationService notificationService) {
+            BandDeletionService bandDeletionService, EmailService emailService,
+            NotificationService notificationService, MentionMatcherCache mentionMatcherCache,
+            BandSearchService bandSearchService) {
         this.bandRepository = bandRepository;
         this.userRepository = userRepository;
         this.invitationRepository = invitationRepository;
-        this.songService = songService;
-        this.storageService = storageService;
+        this.bandDeletionService = bandDeletionService;
         this.emailService = emailService;
         this.notificationService = notificationService;
+        this.mentionMatcherCache = mentionMatcherCache;
+        this.bandSearchService = bandSearchService;
     }
 
     // ... (rest of methods)
@@ -231,6 +230,7 @@ public class BandService {
         }
 
         bandRepository.save(band); // Cascades to user if set up, ensuring consistent relationship
+        mentionMatcherCache.evict(band.getId());
 
         invitation.setStatus(com.bandanize.backend.models.InvitationStatus.ACCEPTED);
         invitationRepository.save(invitation);
@@ -265,6 +265,7 @@ public class BandService {
 
         bandRepository.save(band);
         userRepository.save(user);
+        mentionMatcherCache.evict(bandId);
     }
 
     @org.springframework.transaction.annotation.Transactional
@@ -304,11 +305,17 @@ public class BandService {
 
         bandRepository.save(band);
         userRepository.save(member);
+        mentionMatcherCache.evict(bandId);
     }
 
     // Method addChatMessage was moved to ChatService and BandController to handle
     // mentions correctly
 
+    /**
+     * Deletes a band. Only the owner can delete it.
+     * The band disappears immediately; its songs, tabs, chat, events and files
+     * are removed in the background, see {@link BandDeletionService}.
+     */
     @org.springframework.transaction.annotation.Transactional
     public void deleteBand(Long bandId, Long requesterUserId) {
         BandModel band = bandRepository.findById(bandId)
@@ -322,42 +329,11 @@ public class BandService {
             }
         }
 
-        // Delete photo if exists
-        if (band.getPhoto() != null && !band.getPhoto().isEmpty()) {
-            // Helper method for cleaning up URL like in SongService?
-            // Let's copy the logic or expose it?
-            // Simpler: duplicate the small logic or assumes it's managed.
-            // Given I injected StorageService, I can call deleteFile.
-            try {
-                String photoUrl = band.getPhoto();
-                if (photoUrl.contains("/uploads/")) {
-                    String[] parts = photoUrl.split("/");
-                    if (parts.length >= 2) {
-                        String filename = parts[parts.length - 1];
-                        String folder = parts[parts.length - 2];
-                        storageService.deleteFile(filename, folder);
-                    }
-                }
-            } catch (Exception e) {
-                logger.warn("Failed to delete band photo: {}", e.getMessage());
-            }
+        if (!bandDeletionService.markDeleted(bandId)) {
+            throw new ResourceNotFoundException("Band not found with id: " + bandId);
         }
-
-        // Clear song lists explicitly to trigger file cleanup
-        List<Long> listIds = band.getSongLists().stream().map(com.bandanize.backend.models.SongListModel::getId)
-                .collect(Collectors.toList());
-        for (Long listId : listIds) {
-            songService.deleteSongList(listId);
-        }
-        band.getSongLists().clear();
-
-        // Clear user associations and flush to ensure join table is clean
-        band.getUsers().clear();
-        bandRepository.saveAndFlush(band);
-
-        // Delete the band - dependencies will be handled by CascadeType.ALL in
-        // BandModel
-        bandRepository.delete(band);
+        mentionMatcherCache.evict(bandId);
+        bandSearchService.removeBand(bandId);
     }
 
     // ... existing convertToDTO ...
@@ -0,0 +1,121 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.config.DatabaseFeatures;
+import com.bandanize.backend.models.BandModel;
+import com.bandanize.backend.models.ChatReadStatus;
+import com.bandanize.backend.models.UserModel;
+import com.bandanize.backend.repositories.BandRepository;
+import com.bandanize.backend.repositories.ChatReadStatusRepository;
+import com.bandanize.backend.repositories.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-coalescing buffer for chat read markers.
+ * The client marks the chat as read every time the chat view gets focus, so
+ * instead of writing each call to {@code chat_read_status} the latest timestamp
+ * per (band, user) is kept in memory and flushed periodically as a single
+ * upsert per pair.
+ */
+@Component
+public class ChatReadStatusBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatReadStatusBuffer.class);
+
+    private record Key(Long bandId, Long userId) {
+    }
+
+    private final Map<Key, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    private final ChatReadStatusRepository chatReadStatusRepository;
+    private final BandRepository bandRepository;
+    private final UserRepository userRepository;
+    private final DatabaseFeatures databaseFeatures;
+    private final TransactionTemplate transactionTemplate;
+
+    public ChatReadStatusBuffer(ChatReadStatusRepository chatReadStatusRepository, BandRepository bandRepository,
+            UserRepository userRepository, DatabaseFeatures databaseFeatures,
+            PlatformTransactionManager transactionManager) {
+        this.chatReadStatusRepository = chatReadStatusRepository;
+        this.bandRepository = bandRepository;
+        this.userRepository = userRepository;
+        this.databaseFeatures = databaseFeatures;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Records that the user has read the band chat up to {@code readAt}.
+     * Repeated calls for the same pair collapse into the most recent timestamp.
+     */
+    public void record(Long bandId, Long userId, LocalDateTime readAt) {
+        pending.merge(new Key(bandId, userId), readAt, (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    /**
+     * Returns the buffered (not yet persisted) read marker for the pair, if any.
+     */
+    public Optional<LocalDateTime> getPending(Long bandId, Long userId) {
+        return Optional.ofNullable(pending.get(new Key(bandId, userId)));
+    }
+
+    @Scheduled(fixedDelayString = "${app.chat.read-status.flush-interval-ms:2000}")
+    public void flush() {
+        for (Map.Entry<Key, LocalDateTime> entry : pending.entrySet()) {
+            Key key = entry.getKey();
+            LocalDateTime readAt = entry.getValue();
+            try {
+                write(key, readAt);
+                // Only drop the entry if no newer mark arrived while writing
+                pending.remove(key, readAt);
+            } catch (DataIntegrityViolationException e) {
+                logger.warn("Dropping chat read marker for band {} / user {}: {}", key.bandId(), key.userId(),
+                        e.getMessage());
+                pending.remove(key, readAt);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to flush chat read marker for band {} / user {}, will retry: {}",
+                        key.bandId(), key.userId(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void write(Key key, LocalDateTime readAt) {
+        if (databaseFeatures.isPostgres()) {
+            chatReadStatusRepository.upsertLastReadAt(key.bandId(), key.userId(), readAt);
+            return;
+        }
+
+        // Portable fallback (H2): find + save inside a single transaction
+        transactionTemplate.executeWithoutResult(status -> {
+            ChatReadStatus readStatus = chatReadStatusRepository.findByBandIdAndUserId(key.bandId(), key.userId())
+                    .orElse(null);
+            if (readStatus == null) {
+                Optional<BandModel> band = bandRepository.findById(key.bandId());
+                Optional<UserModel> user = userRepository.findById(key.userId());
+                if (band.isEmpty() || user.isEmpty()) {
+                    return;
+                }
+                readStatus = new ChatReadStatus(user.get(), band.get(), readAt);
+            } else if (!readAt.isAfter(readStatus.getLastReadAt())) {
+                return;
+            }
+            readStatus.setLastReadAt(readAt);
+            chatReadStatusRepository.save(readStatus);
+        });
+    }
+}
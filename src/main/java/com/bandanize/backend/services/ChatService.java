@@ -25,6 +25,19 @@ public class ChatService {
     private NotificationService notificationService;
     @Autowired
     private com.bandanize.backend.repositories.ChatReadStatusRepository chatReadStatusRepository;
+    @Autowired
+    private ChatReadStatusBuffer chatReadStatusBuffer;
+    @Autowired
+    private MentionMatcherCache mentionMatcherCache;
+    @Autowired
+    private com.bandanize.backend.config.DatabaseFeatures databaseFeatures;
+
+    private static final int MAX_SEARCH_RESULTS = 50;
+    // Control characters used to delimit matches before HTML-escaping the snippet
+    private static final char MATCH_START = '\u0002';
+    private static final char MATCH_END = '\u0003';
+    private static final String HEADLINE_OPTIONS = "StartSel=" + MATCH_START + ", StopSel=" + MATCH_END
+            + ", MaxFragments=2, MaxWords=24, MinWords=8";
 
     public List<ChatMessageModel> getChatHistory(Long bandId) {
         return chatMessageRepository.findByBandIdOrderByTimestampAsc(bandId);
@@ -45,17 +58,14 @@ public class ChatService {
 
         ChatMessageModel savedMessage = chatMessageRepository.save(chatMessage);
 
-        // Check for mentions (Simple implementation: @Name)
-
-        if (message.contains("@")) {
-            // Very basic: iterate over band members and check if their name is the
-            // message
+        // Check for mentions (@Name or @username) with the band's cached automaton
+        java.util.Set<Long> mentionedIds = mentionMatcherCache.get(band).findMentions(message);
+        if (!mentionedIds.isEmpty()) {
             for (UserModel member : band.getUsers()) {
                 if (member.getId().equals(sender.getId()))
                     continue;
 
-                String mention = "@" + member.getName();
-                if (message.contains(mention)) {
+                if (mentionedIds.contains(member.getId())) {
                     notificationService.createChatMentionNotification(band, sender, member);
                 }
             }
@@ -64,27 +74,23 @@ public class ChatService {
         return savedMessage;
     }
 
+    /**
+     * Marks the band chat as read for the user.
+     * The write is buffered and coalesced by {@link ChatReadStatusBuffer}, so
+     * repeated calls within the flush window cost a single upsert.
+     */
     public void markAsRead(Long bandId, Long userId) {
-        com.bandanize.backend.models.ChatReadStatus status = chatReadStatusRepository
-                .findByBandIdAndUserId(bandId, userId)
-                .orElse(new com.bandanize.backend.models.ChatReadStatus());
-
-        if (status.getId() == null) {
-            BandModel band = bandRepository.findById(bandId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Band not found"));
-            UserModel user = userRepository.findById(userId)
-                    .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-            status.setBand(band);
-            status.setUser(user);
+        if (chatReadStatusBuffer.getPending(bandId, userId).isEmpty() && !bandRepository.existsById(bandId)) {
+            throw new ResourceNotFoundException("Band not found");
         }
-
-        status.setLastReadAt(LocalDateTime.now());
-        chatReadStatusRepository.save(status);
+        chatReadStatusBuffer.record(bandId, userId, LocalDateTime.now());
     }
 
     public boolean hasUnreadMessages(Long bandId, Long userId) {
-        LocalDateTime lastRead = chatReadStatusRepository.findByBandIdAndUserId(bandId, userId)
-                .map(com.bandanize.backend.models.ChatReadStatus::getLastReadAt)
+        // A buffered marker is always at least as recent as the persisted one
+        LocalDateTime lastRead = chatReadStatusBuffer.getPending(bandId, userId)
+                .or(() -> chatReadStatusRepository.findByBandIdAndUserId(bandId, userId)
+                        .map(com.bandanize.backend.models.ChatReadStatus::getLastReadAt))
                 .orElse(LocalDateTime.MIN); // If no record, assume unread since beginning of time
 
         // Check if there are any messages after lastRead
@@ -103,4 +109,118 @@ public class ChatService {
 
         return latestMessage.getTimestamp().isAfter(lastRead);
     }
+
+    /**
+     * Searches the band chat, newest messages first.
+     * On PostgreSQL this uses the {@code search_vector} full-text index (word
+     * matching with web-search syntax); elsewhere it falls back to a substring
+     * match.
+     *
+     * @param bandId   The ID of the band.
+     * @param query    The search text.
+     * @param beforeId Cursor from the previous page (null for the first page).
+     * @param limit    Maximum number of results (capped at 50).
+     * @return A page of highlighted results.
+     */
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public com.bandanize.backend.dtos.ChatSearchPageDTO searchMessages(Long bandId, String query, Long beforeId,
+            int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        String trimmedQuery = query.trim();
+
+        List<com.bandanize.backend.dtos.ChatSearchResultDTO> results = databaseFeatures.isPostgres()
+                ? searchFullText(bandId, trimmedQuery, beforeId, pageSize)
+                : searchBySubstring(bandId, trimmedQuery, beforeId, pageSize);
+
+        Long nextCursor = results.size() == pageSize ? results.get(results.size() - 1).getId() : null;
+        return new com.bandanize.backend.dtos.ChatSearchPageDTO(results, nextCursor);
+    }
+
+    private List<com.bandanize.backend.dtos.ChatSearchResultDTO> searchFullText(Long bandId, String query,
+            Long beforeId, int limit) {
+        List<Object[]> rows = beforeId == null
+                ? chatMessageRepository.searchFullText(bandId, query, HEADLINE_OPTIONS, limit)
+                : chatMessageRepository.searchFullTextBefore(bandId, query, HEADLINE_OPTIONS, beforeId, limit);
+
+        return rows.stream()
+                .map(row -> new com.bandanize.backend.dtos.ChatSearchResultDTO(
+                        ((Number) row[0]).longValue(),
+                        row[1] != null ? ((Number) row[1]).longValue() : null,
+                        (String) row[2],
+                        toLocalDateTime(row[3]),
+                        renderHighlight((String) row[4])))
+                .toList();
+    }
+
+    private List<com.bandanize.backend.dtos.ChatSearchResultDTO> searchBySubstring(Long bandId, String query,
+            Long beforeId, int limit) {
+        org.springframework.data.domain.Pageable page = org.springframework.data.domain.PageRequest.of(0, limit);
+        List<ChatMessageModel> messages;
+        if (beforeId == null) {
+            messages = chatMessageRepository.searchBySubstring(bandId, query, page);
+        } else {
+            ChatMessageModel cursor = chatMessageRepository.findById(beforeId).orElse(null);
+            if (cursor == null) {
+                return List.of();
+            }
+            messages = chatMessageRepository.searchBySubstringBefore(bandId, query, cursor.getTimestamp(),
+                    cursor.getId(), page);
+        }
+
+        return messages.stream()
+                .map(message -> new com.bandanize.backend.dtos.ChatSearchResultDTO(
+                        message.getId(),
+                        message.getSender() != null ? message.getSender().getId() : null,
+                        message.getSender() != null ? message.getSender().getName() : null,
+                        message.getTimestamp(),
+                        renderHighlight(markOccurrences(message.getMessage(), query))))
+                .toList();
+    }
+
+    private static String markOccurrences(String text, String query) {
+        if (text == null) {
+            return "";
+        }
+        // Compared in place: lower-casing the whole text can change its length
+        // (e.g. 'İ') and shift the match offsets
+        StringBuilder marked = new StringBuilder(text.length() + 8);
+        int from = 0;
+        int index = 0;
+        while (index <= text.length() - query.length()) {
+            if (text.regionMatches(true, index, query, 0, query.length())) {
+                marked.append(text, from, index)
+                        .append(MATCH_START)
+                        .append(text, index, index + query.length())
+                        .append(MATCH_END);
+                index += query.length();
+                from = index;
+            } else {
+                index++;
+            }
+        }
+        return marked.append(text, from, text.length()).toString();
+    }
+
+    /**
+     * Escapes the snippet for HTML and turns the match delimiters into
+     * {@code <mark>} tags, so message content can never inject markup.
+     */
+    private static String renderHighlight(String snippet) {
+        if (snippet == null) {
+            return "";
+        }
+        return org.springframework.web.util.HtmlUtils.htmlEscape(snippet)
+                .replace(String.valueOf(MATCH_START), "<mark>")
+                .replace(String.valueOf(MATCH_END), "</mark>");
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof java.sql.Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
 }
@@ -0,0 +1,359 @@
+package com.bandanize.backend.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parsed chord chart. Understands ChordPro ({@code [Am]lyrics} and
+ * {@code {key: G}} directives) and plain chord-over-lyrics text, where a line
+ * made only of chords applies to the lyric line below it. Both are parsed
+ * into lines of (chord, lyric) segments, so a chart can be transposed and
+ * rendered in either format. Anything else (tab staves, free text) is kept
+ * verbatim.
+ * Instances are immutable and safe to cache.
+ */
+public final class ChordChart {
+
+    public enum Format {
+        CHORDPRO, TEXT
+    }
+
+    public sealed interface Line permits Directive, ChordLine, TextLine {
+    }
+
+    public record Directive(String name, String value) implements Line {
+    }
+
+    /**
+     * A chord (null for the lyric before the first chord) and the lyric it is
+     * played over.
+     */
+    public record Segment(String chord, String lyric) {
+    }
+
+    public record ChordLine(List<Segment> segments) implements Line {
+    }
+
+    public record TextLine(String text) implements Line {
+    }
+
+    private static final String[] SHARP_NAMES = { "C", "C#", "D", "D#", "E", "F", "F#", "G", "G#", "A", "A#", "B" };
+    private static final String[] FLAT_NAMES = { "C", "Db", "D", "Eb", "E", "F", "Gb", "G", "Ab", "A", "Bb", "B" };
+    // Semitones of C D E F G A B
+    private static final int[] NATURALS = { 0, 2, 4, 5, 7, 9, 11 };
+
+    private static final Pattern CHORD = Pattern.compile(
+            "([A-G][#b]?)((?:maj|min|dim|aug|sus|add|m|M|[0-9]|[+°ø#b()])*)(?:/([A-G][#b]?))?");
+    private static final Pattern KEY = Pattern.compile("([A-G][#b]?)(m)?");
+    private static final Pattern DIRECTIVE = Pattern.compile("\\{\\s*([A-Za-z_-]+)\\s*(?::\\s*(.*?))?\\s*}");
+    private static final Pattern INLINE_CHORD = Pattern.compile("\\[([^\\]]*)]");
+
+    private final List<Line> lines;
+
+    private ChordChart(List<Line> lines) {
+        this.lines = Collections.unmodifiableList(lines);
+    }
+
+    public static ChordChart parse(String content) {
+        List<Line> lines = new ArrayList<>();
+        String[] rows = (content != null ? content : "").split("\r?\n", -1);
+        for (int i = 0; i < rows.length; i++) {
+            String row = rows[i];
+            Matcher directive = DIRECTIVE.matcher(row.trim());
+            if (directive.matches()) {
+                lines.add(new Directive(directive.group(1).toLowerCase(Locale.ROOT), directive.group(2)));
+            } else if (INLINE_CHORD.matcher(row).find()) {
+                lines.add(parseInlineChords(row));
+            } else if (isChordRow(row)) {
+                boolean lyricBelow = i + 1 < rows.length && !rows[i + 1].isBlank() && !isChordRow(rows[i + 1])
+                        && !DIRECTIVE.matcher(rows[i + 1].trim()).matches()
+                        && !INLINE_CHORD.matcher(rows[i + 1]).find();
+                lines.add(alignChords(row, lyricBelow ? rows[++i] : ""));
+            } else {
+                lines.add(new TextLine(row));
+            }
+        }
+        return new ChordChart(lines);
+    }
+
+    public List<Line> lines() {
+        return lines;
+    }
+
+    /**
+     * The key given by a {@code {key: ...}} directive, or null.
+     */
+    public String key() {
+        for (Line line : lines) {
+            if (line instanceof Directive d && "key".equals(d.name()) && d.value() != null && !d.value().isBlank()) {
+                return d.value().trim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Key implied by the first chord (its root, minor if it is a minor chord),
+     * or null if the chart has no chords.
+     */
+    public String firstChordKey() {
+        for (String chord : chords()) {
+            Matcher matcher = CHORD.matcher(chord);
+            if (matcher.matches()) {
+                String quality = matcher.group(2);
+                boolean minor = (quality.startsWith("m") && !quality.startsWith("maj")) || quality.startsWith("min");
+                return matcher.group(1) + (minor ? "m" : "");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Distinct chords in order of first appearance.
+     */
+    public List<String> chords() {
+        Set<String> chords = new LinkedHashSet<>();
+        for (Line line : lines) {
+            if (line instanceof ChordLine chordLine) {
+                for (Segment segment : chordLine.segments()) {
+                    if (segment.chord() != null && CHORD.matcher(segment.chord()).matches()) {
+                        chords.add(segment.chord());
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(chords);
+    }
+
+    /**
+     * Returns the chart with every chord moved by {@code semitones} and the
+     * {@code key} and {@code capo} directives set to the given values (when
+     * not null). Chords are spelled with flats or sharps following
+     * {@code flats}; annotations that are not chords are left alone.
+     */
+    public ChordChart transpose(int semitones, boolean flats, String key, Integer capo) {
+        List<Line> transposed = new ArrayList<>(lines.size());
+        boolean hasKey = false;
+        boolean hasCapo = false;
+        for (Line line : lines) {
+            if (line instanceof ChordLine chordLine) {
+                List<Segment> segments = new ArrayList<>(chordLine.segments().size());
+                for (Segment segment : chordLine.segments()) {
+                    segments.add(new Segment(transposeChord(segment.chord(), semitones, flats), segment.lyric()));
+                }
+                transposed.add(new ChordLine(segments));
+            } else if (line instanceof Directive d && "key".equals(d.name()) && key != null) {
+                transposed.add(new Directive(d.name(), key));
+                hasKey = true;
+            } else if (line instanceof Directive d && "capo".equals(d.name()) && capo != null) {
+                transposed.add(new Directive(d.name(), String.valueOf(capo)));
+                hasCapo = true;
+            } else {
+                transposed.add(line);
+            }
+        }
+        // Keep the chart self-describing when it had no directives for them
+        int header = 0;
+        while (header < transposed.size() && transposed.get(header) instanceof Directive d
+                && !"key".equals(d.name()) && !"capo".equals(d.name())) {
+            header++;
+        }
+        if (capo != null && capo > 0 && !hasCapo) {
+            transposed.add(header, new Directive("capo", String.valueOf(capo)));
+        }
+        if (key != null && !hasKey) {
+            transposed.add(header, new Directive("key", key));
+        }
+        return new ChordChart(transposed);
+    }
+
+    public String render(Format format) {
+        StringBuilder out = new StringBuilder();
+        for (Line line : lines) {
+            if (line instanceof Directive d) {
+                if (format == Format.CHORDPRO) {
+                    out.append('{').append(d.name()).append(d.value() != null ? ": " + d.value() : "").append("}\n");
+                } else if (d.value() != null && !d.value().isBlank()) {
+                    out.append(textDirective(d)).append('\n');
+                }
+            } else if (line instanceof ChordLine chordLine) {
+                if (format == Format.CHORDPRO) {
+                    for (Segment segment : chordLine.segments()) {
+                        if (segment.chord() != null) {
+                            out.append('[').append(segment.chord()).append(']');
+                        }
+                        out.append(segment.lyric());
+                    }
+                    trimEnd(out).append('\n');
+                } else {
+                    renderChordOverLyrics(chordLine, out);
+                }
+            } else {
+                out.append(((TextLine) line).text()).append('\n');
+            }
+        }
+        // Every line was terminated; the text itself is not
+        if (out.length() > 0) {
+            out.setLength(out.length() - 1);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Semitone (0-11) of a key or chord root such as {@code F#} or {@code Bbm}.
+     *
+     * @throws IllegalArgumentException if it is not a key.
+     */
+    public static int semitone(String key) {
+        Matcher matcher = KEY.matcher(key != null ? key.trim() : "");
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid key: " + key);
+        }
+        return noteSemitone(matcher.group(1));
+    }
+
+    public static boolean isKey(String key) {
+        return key != null && KEY.matcher(key.trim()).matches();
+    }
+
+    public static boolean isMinorKey(String key) {
+        Matcher matcher = KEY.matcher(key.trim());
+        return matcher.matches() && matcher.group(2) != null;
+    }
+
+    /**
+     * Whether chords in the given key are conventionally spelled with flats.
+     */
+    public static boolean usesFlats(int semitone, boolean minor) {
+        // Major: F Bb Eb Ab Db Gb; relative minors: D G C F Bb Eb
+        int major = minor ? (semitone + 3) % 12 : semitone;
+        return major == 5 || major == 10 || major == 3 || major == 8 || major == 1 || major == 6;
+    }
+
+    public static String noteName(int semitone, boolean flats) {
+        return (flats ? FLAT_NAMES : SHARP_NAMES)[Math.floorMod(semitone, 12)];
+    }
+
+    static String transposeChord(String chord, int semitones, boolean flats) {
+        if (chord == null) {
+            return null;
+        }
+        Matcher matcher = CHORD.matcher(chord);
+        if (!matcher.matches()) {
+            return chord;
+        }
+        StringBuilder result = new StringBuilder()
+                .append(noteName(noteSemitone(matcher.group(1)) + semitones, flats))
+                .append(matcher.group(2));
+        if (matcher.group(3) != null) {
+            result.append('/').append(noteName(noteSemitone(matcher.group(3)) + semitones, flats));
+        }
+        return result.toString();
+    }
+
+    private static int noteSemitone(String note) {
+        int semitone = NATURALS["CDEFGAB".indexOf(note.charAt(0))];
+        if (note.length() > 1) {
+            semitone += note.charAt(1) == '#' ? 1 : -1;
+        }
+        return Math.floorMod(semitone, 12);
+    }
+
+    private static boolean isChordRow(String row) {
+        String[] tokens = row.trim().split("\\s+");
+        if (tokens[0].isEmpty()) {
+            return false;
+        }
+        boolean hasChord = false;
+        for (String token : tokens) {
+            if (CHORD.matcher(token).matches()) {
+                hasChord = true;
+            } else if (!token.equals("|") && !token.equalsIgnoreCase("N.C.")) {
+                return false;
+            }
+        }
+        return hasChord;
+    }
+
+    private static ChordLine parseInlineChords(String row) {
+        List<Segment> segments = new ArrayList<>();
+        Matcher matcher = INLINE_CHORD.matcher(row);
+        String chord = null;
+        int from = 0;
+        while (matcher.find()) {
+            if (matcher.start() > from || chord != null) {
+                segments.add(new Segment(chord, row.substring(from, matcher.start())));
+            }
+            chord = matcher.group(1);
+            from = matcher.end();
+        }
+        segments.add(new Segment(chord, row.substring(from)));
+        return new ChordLine(segments);
+    }
+
+    /**
+     * Splits the lyric at the columns of the chords above it.
+     */
+    private static ChordLine alignChords(String chordRow, String lyric) {
+        List<Segment> segments = new ArrayList<>();
+        List<Integer> columns = new ArrayList<>();
+        List<String> chords = new ArrayList<>();
+        Matcher token = Pattern.compile("\\S+").matcher(chordRow);
+        while (token.find()) {
+            columns.add(token.start());
+            chords.add(token.group());
+        }
+        // Chords past the end of the lyric still keep their spacing
+        int width = Math.max(lyric.length(), chordRow.length());
+        String padded = lyric + " ".repeat(width - lyric.length());
+        if (columns.get(0) > 0) {
+            segments.add(new Segment(null, padded.substring(0, columns.get(0))));
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            int end = i + 1 < columns.size() ? columns.get(i + 1) : width;
+            segments.add(new Segment(chords.get(i), padded.substring(columns.get(i), end)));
+        }
+        return new ChordLine(segments);
+    }
+
+    private static void renderChordOverLyrics(ChordLine line, StringBuilder out) {
+        StringBuilder chords = new StringBuilder();
+        StringBuilder lyrics = new StringBuilder();
+        for (Segment segment : line.segments()) {
+            if (segment.chord() != null) {
+                // A chord that grew on transposition pushes the lyric instead of colliding with the next chord
+                int column = Math.max(lyrics.length(), chords.length() > 0 ? chords.length() + 1 : 0);
+                lyrics.append(" ".repeat(column - lyrics.length()));
+                chords.append(" ".repeat(column - chords.length())).append(segment.chord());
+            }
+            lyrics.append(segment.lyric());
+        }
+        out.append(chords).append('\n');
+        if (!lyrics.toString().isBlank()) {
+            trimEnd(out.append(lyrics)).append('\n');
+        }
+    }
+
+    private static String textDirective(Directive directive) {
+        return switch (directive.name()) {
+            case "key" -> "Key: " + directive.value();
+            case "capo" -> "Capo: " + directive.value();
+            default -> directive.value();
+        };
+    }
+
+    private static StringBuilder trimEnd(StringBuilder text) {
+        int end = text.length();
+        while (end > 0 && text.charAt(end - 1) == ' ') {
+            end--;
+        }
+        text.setLength(end);
+        return text;
+    }
+}
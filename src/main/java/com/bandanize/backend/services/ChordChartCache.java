@@ -0,0 +1,69 @@
+package com.bandanize.backend.services;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * LRU caches for chord charts: parsed charts by (tab, version) and rendered
+ * transpositions by (tab, version, source key, target key, capo, format).
+ * The tab version changes on every write, so entries never go stale; old
+ * versions simply age out.
+ */
+@Component
+public class ChordChartCache {
+
+    static final int MAX_CHARTS = 256;
+    static final int MAX_RENDERS = 1024;
+
+    public record ChartKey(Long tabId, Long version) {
+    }
+
+    public record RenderKey(Long tabId, Long version, String sourceKey, String targetKey, int capo,
+            ChordChart.Format format) {
+    }
+
+    /**
+     * Rendered chart and its distinct chords.
+     */
+    public record Render(String content, List<String> chords) {
+    }
+
+    private final Map<ChartKey, ChordChart> charts = lru(MAX_CHARTS);
+    private final Map<RenderKey, Render> renders = lru(MAX_RENDERS);
+
+    public ChordChart chart(ChartKey key, Supplier<ChordChart> parser) {
+        return get(charts, key, parser);
+    }
+
+    public Render render(RenderKey key, Supplier<Render> renderer) {
+        return get(renders, key, renderer);
+    }
+
+    private static <K, V> V get(Map<K, V> cache, K key, Supplier<V> loader) {
+        synchronized (cache) {
+            V value = cache.get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        // Computed outside the lock; concurrent misses for the same key just compute twice
+        V value = loader.get();
+        synchronized (cache) {
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    private static <K, V> Map<K, V> lru(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+}
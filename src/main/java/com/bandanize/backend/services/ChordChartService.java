@@ -0,0 +1,104 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.dtos.ChordChartDTO;
+import com.bandanize.backend.exceptions.ResourceNotFoundException;
+import com.bandanize.backend.repositories.TablatureRepository;
+import com.bandanize.backend.services.ChordChartCache.ChartKey;
+import com.bandanize.backend.services.ChordChartCache.Render;
+import com.bandanize.backend.services.ChordChartCache.RenderKey;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Serves tabs as chord charts transposed to a target key and capo.
+ * Only the tab version is read on a cache hit; the content is loaded and
+ * parsed once per version.
+ */
+@Service
+public class ChordChartService {
+
+    private final TablatureRepository tablatureRepository;
+    private final ChordChartCache chordChartCache;
+
+    public ChordChartService(TablatureRepository tablatureRepository, ChordChartCache chordChartCache) {
+        this.tablatureRepository = tablatureRepository;
+        this.chordChartCache = chordChartCache;
+    }
+
+    /**
+     * Renders a tab in the given sounding key and capo. The original key comes
+     * from the chart's {@code {key}} directive, else the song's key, else the
+     * first chord.
+     *
+     * @param key    Target key such as {@code D} or {@code F#m}; null keeps the
+     *               original key.
+     * @param capo   Capo fret (0-11); chords become the shapes to play with it.
+     * @param format {@code text} (chord-over-lyrics, default) or
+     *               {@code chordpro}.
+     */
+    public ChordChartDTO getChart(Long tabId, String key, int capo, String format) {
+        if (capo < 0 || capo > 11) {
+            throw new IllegalArgumentException("Capo must be between 0 and 11");
+        }
+        if (key != null && !ChordChart.isKey(key)) {
+            throw new IllegalArgumentException("Invalid key: " + key);
+        }
+        ChordChart.Format chartFormat = parseFormat(format);
+
+        List<Object[]> header = tablatureRepository.findVersionAndSongKey(tabId);
+        if (header.isEmpty()) {
+            throw new ResourceNotFoundException("Tablature not found");
+        }
+        Long version = (Long) header.get(0)[0];
+        String songKey = (String) header.get(0)[1];
+        ChordChart chart = chordChartCache.chart(new ChartKey(tabId, version), () -> load(tabId));
+
+        String sourceKey = ChordChart.isKey(chart.key()) ? chart.key().trim()
+                : ChordChart.isKey(songKey) ? songKey.trim() : chart.firstChordKey();
+        if (sourceKey == null) {
+            // No chords: nothing to transpose
+            String content = chart.render(chartFormat);
+            return new ChordChartDTO(tabId, version, null, null, capo, null, chartFormat.name().toLowerCase(Locale.ROOT),
+                    content, List.of());
+        }
+        String targetKey = key != null ? key.trim() : sourceKey;
+
+        boolean minor = ChordChart.isMinorKey(targetKey);
+        int shapes = Math.floorMod(ChordChart.semitone(targetKey) - capo, 12);
+        // Without a capo, respect how the caller spelled the key (F# vs Gb)
+        boolean flats = capo == 0 && targetKey.length() > 1 && targetKey.charAt(1) != 'm'
+                ? targetKey.charAt(1) == 'b'
+                : ChordChart.usesFlats(shapes, minor);
+        String shapesKey = ChordChart.noteName(shapes, flats) + (minor ? "m" : "");
+        int shift = Math.floorMod(shapes - ChordChart.semitone(sourceKey), 12);
+
+        Render render = chordChartCache.render(
+                new RenderKey(tabId, version, sourceKey, targetKey, capo, chartFormat), () -> {
+                    ChordChart transposed = chart.transpose(shift, flats, targetKey, capo);
+                    return new Render(transposed.render(chartFormat), transposed.chords());
+                });
+        return new ChordChartDTO(tabId, version, sourceKey, targetKey, capo, shapesKey,
+                chartFormat.name().toLowerCase(Locale.ROOT), render.content(), render.chords());
+    }
+
+    private ChordChart load(Long tabId) {
+        List<Object[]> rows = tablatureRepository.findContentAndVersion(tabId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Tablature not found");
+        }
+        return ChordChart.parse((String) rows.get(0)[0]);
+    }
+
+    private static ChordChart.Format parseFormat(String format) {
+        if (format == null || format.isBlank()) {
+            return ChordChart.Format.TEXT;
+        }
+        try {
+            return ChordChart.Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+}
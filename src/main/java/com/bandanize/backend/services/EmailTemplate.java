@@ -0,0 +1,171 @@
+package com.bandanize.backend.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An email template parsed once into literal text and {@code {{slot}}}
+ * placeholders. Rendering looks each distinct slot up once, escapes its value
+ * once, sizes the output exactly and then only appends.
+ * Slot values are HTML-escaped, except through {@link #writeTextTo} for
+ * plain-text templates such as subjects. A layout embeds an email body through its
+ * {@value #CONTENT_SLOT} slot, see {@link #withContent}.
+ */
+public final class EmailTemplate {
+
+    public static final String CONTENT_SLOT = "content";
+
+    // literals[i] is followed by slots[i]; the last literal has no slot
+    private final String[] literals;
+    private final String[] slots;
+    // Distinct slot names, and the index into them of each slot
+    private final String[] names;
+    private final int[] slotIndexes;
+    private final int literalLength;
+
+    private EmailTemplate(String[] literals, String[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        List<String> distinct = new ArrayList<>();
+        this.slotIndexes = new int[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            int index = distinct.indexOf(slots[i]);
+            if (index < 0) {
+                index = distinct.size();
+                distinct.add(slots[i]);
+            }
+            slotIndexes[i] = index;
+        }
+        this.names = distinct.toArray(new String[0]);
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static EmailTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int from = 0;
+        int open;
+        while ((open = source.indexOf("{{", from)) >= 0) {
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed slot at offset " + open);
+            }
+            String slot = source.substring(open + 2, close).trim();
+            if (slot.isEmpty()) {
+                throw new IllegalArgumentException("Empty slot at offset " + open);
+            }
+            literals.add(source.substring(from, open));
+            slots.add(slot);
+            from = close + 2;
+        }
+        literals.add(source.substring(from));
+        return new EmailTemplate(literals.toArray(new String[0]), slots.toArray(new String[0]));
+    }
+
+    public List<String> getSlots() {
+        return List.of(slots);
+    }
+
+    /**
+     * This template with its {@value #CONTENT_SLOT} slots replaced by
+     * {@code content}, merged into a single template.
+     */
+    public EmailTemplate withContent(EmailTemplate content) {
+        List<String> mergedLiterals = new ArrayList<>();
+        List<String> mergedSlots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            if (CONTENT_SLOT.equals(slots[i])) {
+                literal.append(content.literals[0]);
+                for (int j = 0; j < content.slots.length; j++) {
+                    mergedLiterals.add(literal.toString());
+                    mergedSlots.add(content.slots[j]);
+                    literal.setLength(0);
+                    literal.append(content.literals[j + 1]);
+                }
+            } else {
+                mergedLiterals.add(literal.toString());
+                mergedSlots.add(slots[i]);
+                literal.setLength(0);
+            }
+            literal.append(literals[i + 1]);
+        }
+        mergedLiterals.add(literal.toString());
+        return new EmailTemplate(mergedLiterals.toArray(new String[0]), mergedSlots.toArray(new String[0]));
+    }
+
+    /**
+     * Appends the template to {@code out}. A slot with no value renders
+     * empty.
+     */
+    public void writeTo(StringBuilder out, Map<String, String> values) {
+        write(out, values, true);
+    }
+
+    /**
+     * Like {@link #writeTo}, but for plain text: slot values are written as
+     * they are.
+     */
+    public void writeTextTo(StringBuilder out, Map<String, String> values) {
+        write(out, values, false);
+    }
+
+    private void write(StringBuilder out, Map<String, String> values, boolean html) {
+        String[] escaped = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            String value = values.get(names[i]);
+            escaped[i] = html ? escape(value) : value != null ? value : "";
+        }
+        int length = literalLength;
+        for (int index : slotIndexes) {
+            length += escaped[index].length();
+        }
+        out.ensureCapacity(out.length() + length);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]).append(escaped[slotIndexes[i]]);
+        }
+        out.append(literals[slots.length]);
+    }
+
+    public String render(Map<String, String> values) {
+        StringBuilder out = new StringBuilder(0);
+        writeTo(out, values);
+        return out.toString();
+    }
+
+    /**
+     * @return {@code value} HTML-escaped; the same instance if there is
+     *         nothing to escape, which is the common case.
+     */
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder out = null;
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            String entity = switch (value.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (entity != null) {
+                if (out == null) {
+                    out = new StringBuilder(value.length() + 16);
+                }
+                // Copy runs of safe characters in bulk
+                out.append(value, start, i).append(entity);
+                start = i + 1;
+            }
+        }
+        return out == null ? value : out.append(value, start, value.length()).toString();
+    }
+}
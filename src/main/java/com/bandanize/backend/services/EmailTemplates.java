@@ -0,0 +1,145 @@
+package com.bandanize.backend.services;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The email templates under {@code email-templates/} on the classpath,
+ * compiled once at startup (see {@link EmailTemplate}).
+ * <p>
+ * {@code layout.html} wraps every email through its
+ * {@value EmailTemplate#CONTENT_SLOT} slot. Every other file is an email whose
+ * first line is {@code Subject: ...} (slots allowed) and the rest its body.
+ * Translations sit next to the default as {@code name_en.html},
+ * {@code name_pt_BR.html}, ...; rendering falls back from the most specific
+ * variant to the default one, the layout included.
+ * <p>
+ * Each (email, locale) pair is merged with its layout into one template the
+ * first time it is rendered, and each thread renders into its own reused
+ * buffer.
+ * <p>
+ * This is not a performance change over the string concatenation it
+ * replaced: that is still faster (see {@code EmailTemplateBenchmark}). What
+ * templates buy is escaping, translations and HTML kept out of the code.
+ */
+@Component
+public class EmailTemplates {
+
+    public record RenderedEmail(String subject, String html) {
+    }
+
+    private record Message(EmailTemplate subject, EmailTemplate body) {
+    }
+
+    // A message for one locale, its body already inside the layout
+    private record Variant(EmailTemplate subject, EmailTemplate html) {
+    }
+
+    private static final String LOCATION = "classpath:email-templates/*.html";
+    private static final String LAYOUT = "layout";
+    private static final String SUBJECT_PREFIX = "Subject:";
+    // Buffers that grew past this are not kept
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private final Map<String, EmailTemplate> layouts = new HashMap<>();
+    private final Map<String, Message> messages = new HashMap<>();
+    private final Map<String, Map<Locale, Variant>> variants = new ConcurrentHashMap<>();
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    public EmailTemplates() {
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+                String key = resource.getFilename().substring(0, resource.getFilename().length() - ".html".length());
+                String source;
+                try (InputStream in = resource.getInputStream()) {
+                    source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                }
+                if (key.equals(LAYOUT) || key.startsWith(LAYOUT + "_")) {
+                    layouts.put(key, EmailTemplate.compile(source));
+                } else {
+                    messages.put(key, parseMessage(key, source));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load email templates", e);
+        }
+        if (!layouts.containsKey(LAYOUT)) {
+            throw new IllegalStateException("Missing email template " + LAYOUT + ".html");
+        }
+    }
+
+    private static Message parseMessage(String key, String source) {
+        int newline = source.indexOf('\n');
+        if (!source.startsWith(SUBJECT_PREFIX) || newline < 0) {
+            throw new IllegalStateException("Email template " + key + " must start with a Subject: line");
+        }
+        return new Message(EmailTemplate.compile(source.substring(SUBJECT_PREFIX.length(), newline).trim()),
+                EmailTemplate.compile(source.substring(newline + 1)));
+    }
+
+    /**
+     * Renders the email {@code name} in the closest variant for
+     * {@code locale}, inside the layout.
+     *
+     * @throws IllegalArgumentException if there is no such email.
+     */
+    public RenderedEmail render(String name, Locale locale, Map<String, String> values) {
+        Locale key = locale != null ? locale : Locale.ROOT;
+        Map<Locale, Variant> byLocale = variants.get(name);
+        if (byLocale == null) {
+            // Checked first, so unknown names do not leave entries behind
+            if (!messages.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown email template: " + name);
+            }
+            byLocale = variants.computeIfAbsent(name, n -> new ConcurrentHashMap<>());
+        }
+        Variant variant = byLocale.get(key);
+        if (variant == null) {
+            variant = byLocale.computeIfAbsent(key, l -> {
+                Message message = resolve(messages, name, l);
+                return new Variant(message.subject(), resolve(layouts, LAYOUT, l).withContent(message.body()));
+            });
+        }
+        StringBuilder buffer = buffers.get();
+        try {
+            // Subjects are plain text, not HTML
+            variant.subject().writeTextTo(buffer, values);
+            String subject = buffer.toString();
+            buffer.setLength(0);
+            variant.html().writeTo(buffer, values);
+            return new RenderedEmail(subject, buffer.toString());
+        } finally {
+            buffer.setLength(0);
+            if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+                buffers.remove();
+            }
+        }
+    }
+
+    private static <T> T resolve(Map<String, T> templates, String name, Locale locale) {
+        if (locale != null) {
+            if (!locale.getCountry().isEmpty()) {
+                T variant = templates.get(name + "_" + locale.getLanguage() + "_" + locale.getCountry());
+                if (variant != null) {
+                    return variant;
+                }
+            }
+            if (!locale.getLanguage().isEmpty()) {
+                T variant = templates.get(name + "_" + locale.getLanguage());
+                if (variant != null) {
+                    return variant;
+                }
+            }
+        }
+        return templates.get(name);
+    }
+}
@@ -27,6 +27,9 @@ public class EventService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private BandSearchService bandSearchService;
+
     public List<EventModel> getEventsByBand(Long bandId) {
         return eventRepository.findByBandIdOrderByDateAsc(bandId);
     }
@@ -42,6 +45,7 @@ public class EventService {
         eventDetails.setCreator(user);
 
         EventModel savedEvent = eventRepository.save(eventDetails);
+        bandSearchService.indexEvent(savedEvent);
 
         // Notify
         notificationService.createEventNotification(band, user, savedEvent, false);
@@ -69,6 +73,7 @@ public class EventService {
             event.setLocation(eventDetails.getLocation());
 
         EventModel updatedEvent = eventRepository.save(event);
+        bandSearchService.indexEvent(updatedEvent);
 
         // Notify modification
         notificationService.createEventNotification(event.getBand(), user, updatedEvent, true);
@@ -81,5 +86,6 @@ public class EventService {
         EventModel event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new ResourceNotFoundException("Event not found"));
         eventRepository.delete(event);
+        bandSearchService.removeEvents(List.of(eventId));
     }
 }
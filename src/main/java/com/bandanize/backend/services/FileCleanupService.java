@@ -0,0 +1,64 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.repositories.JobRepository.NewJob;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Deletes uploaded files from storage in the background.
+ * Each file is a {@value #JOB_TYPE} job on the {@link JobQueueService}, keyed
+ * by its path so a file is never queued twice; failed deletes are retried by
+ * the queue.
+ */
+@Service
+public class FileCleanupService implements JobHandler {
+
+    static final String JOB_TYPE = "file.delete";
+
+    private final JobQueueService jobQueueService;
+    private final FileStorageService fileStorageService;
+
+    public FileCleanupService(JobQueueService jobQueueService, FileStorageService fileStorageService) {
+        this.jobQueueService = jobQueueService;
+        this.fileStorageService = fileStorageService;
+    }
+
+    /**
+     * Queues the uploaded files among {@code urls} for deletion. URLs that are
+     * not uploads are ignored. Joins the caller's transaction, so the files are
+     * only deleted if it commits.
+     */
+    public void enqueueUrls(Collection<String> urls) {
+        Set<String> paths = new LinkedHashSet<>();
+        for (String url : urls) {
+            BandExportService.addMedia(paths, url);
+        }
+        if (paths.isEmpty()) {
+            return;
+        }
+        List<NewJob> jobs = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            jobs.add(new NewJob(JOB_TYPE, path, JOB_TYPE + ":" + path));
+        }
+        jobQueueService.enqueueAll(jobs);
+    }
+
+    @Override
+    public String type() {
+        return JOB_TYPE;
+    }
+
+    /**
+     * @param payload The file as {@code folder/filename}.
+     */
+    @Override
+    public void handle(String payload) {
+        int slash = payload.indexOf('/');
+        fileStorageService.delete(payload.substring(slash + 1), payload.substring(0, slash));
+    }
+}
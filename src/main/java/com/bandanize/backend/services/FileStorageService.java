@@ -3,10 +3,17 @@ package com.bandanize.backend.services;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.io.InputStream;
 
 public interface FileStorageService {
     String store(MultipartFile file, String folder);
 
+    /**
+     * Stores {@code content} under exactly {@code filename}, replacing any file
+     * with that name. For callers that pick a unique name themselves.
+     */
+    void store(InputStream content, String folder, String filename);
+
     Resource load(String filename, String folder);
 
     void delete(String filename, String folder);
@@ -0,0 +1,198 @@
+package com.bandanize.backend.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Weighted inverted index over short text documents.
+ * Each document is a set of fields with a ranking weight; a term's weight in a
+ * document is the sum of {@code fieldWeight * (1 + ln(tf))} over its fields.
+ * Queries are ANDed term by term, the last term also matches as a prefix (so
+ * results show up while the user is typing), and every matching term is
+ * scaled by its inverse document frequency.
+ * Text is folded to lowercase without accents, so "Canción" matches "cancion".
+ * Safe for concurrent readers and writers.
+ *
+ * @param <K> The document key type.
+ */
+public final class InvertedIndex<K> {
+
+    /** A piece of text to index together with its ranking weight. */
+    public record Field(String text, float weight) {
+    }
+
+    /** A matching document and its relevance score. */
+    public record Hit<K>(K key, float score) {
+    }
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_TERM_LENGTH = 2;
+    // Prefix matches rank below whole-word matches of the same term
+    private static final float PREFIX_FACTOR = 0.8f;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<K, Float>> postings = new TreeMap<>();
+    private final Map<K, Set<String>> documentTerms = new HashMap<>();
+
+    /**
+     * Adds a document, replacing any previous version with the same key.
+     */
+    public void put(K key, List<Field> fields) {
+        Map<String, Float> weights = new HashMap<>();
+        for (Field field : fields) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String term : tokenize(field.text())) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+            frequencies.forEach((term, tf) -> weights.merge(term,
+                    field.weight() * (1 + (float) Math.log(tf)), Float::sum));
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(key, weight));
+            documentTerms.put(key, weights.keySet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(K key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every document whose key matches the predicate.
+     *
+     * @return The removed keys.
+     */
+    public List<K> removeIf(Predicate<K> filter) {
+        lock.writeLock().lock();
+        try {
+            List<K> removed = documentTerms.keySet().stream().filter(filter).toList();
+            removed.forEach(this::removeLocked);
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the documents containing every query term, best match first.
+     *
+     * @param query Free text.
+     * @return The ranked hits (empty if the query has no indexable terms).
+     */
+    public List<Hit<K>> search(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<K, Float> scores = null;
+            for (int i = 0; i < terms.size(); i++) {
+                Map<K, Float> termScores = scoreTerm(terms.get(i), i == terms.size() - 1);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((key, score) -> score + termScores.get(key));
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            List<Hit<K>> hits = new ArrayList<>(scores.size());
+            scores.forEach((key, score) -> hits.add(new Hit<>(key, score)));
+            hits.sort(Comparator.comparingDouble((Hit<K> hit) -> hit.score()).reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lowercase, accent-free terms of at least two characters.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>();
+        for (String term : SEPARATORS.split(folded)) {
+            if (term.length() >= MIN_TERM_LENGTH) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private Map<K, Float> scoreTerm(String term, boolean allowPrefix) {
+        Map<String, Map<K, Float>> matches;
+        if (allowPrefix) {
+            matches = postings.subMap(term, true, term + Character.MAX_VALUE, false);
+        } else {
+            Map<K, Float> exact = postings.get(term);
+            matches = exact == null ? Collections.emptyMap() : Map.of(term, exact);
+        }
+
+        Map<K, Float> scores = new HashMap<>();
+        for (Map.Entry<String, Map<K, Float>> match : matches.entrySet()) {
+            Map<K, Float> documents = match.getValue();
+            float idf = (float) Math.log(1 + (double) documentTerms.size() / documents.size());
+            float factor = match.getKey().equals(term) ? idf : idf * PREFIX_FACTOR;
+            documents.forEach((key, weight) -> scores.merge(key, weight * factor, Math::max));
+        }
+        return scores;
+    }
+
+    private void removeLocked(K key) {
+        Set<String> terms = documentTerms.remove(key);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<K, Float> documents = postings.get(term);
+            if (documents != null) {
+                documents.remove(key);
+                if (documents.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.bandanize.backend.services;
+
+import java.util.List;
+
+/**
+ * Runs the jobs of one type, see {@link JobQueueService}.
+ * A job may run more than once (a failed attempt is retried, and a job whose
+ * node died mid-run is claimed again), so handlers must be idempotent.
+ */
+public interface JobHandler {
+
+    String type();
+
+    void handle(String payload) throws Exception;
+
+    /**
+     * Runs several jobs at once; only called if {@link #batchSize()} is above
+     * one. If it throws, every job in the batch counts as failed.
+     */
+    default void handleBatch(List<String> payloads) throws Exception {
+        for (String payload : payloads) {
+            handle(payload);
+        }
+    }
+
+    /**
+     * Most jobs handed to {@link #handleBatch} at once.
+     */
+    default int batchSize() {
+        return 1;
+    }
+
+    /**
+     * Attempts before the job is marked dead.
+     */
+    default int maxAttempts() {
+        return 8;
+    }
+}
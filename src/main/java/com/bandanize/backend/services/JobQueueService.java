@@ -0,0 +1,333 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.models.JobStatus;
+import com.bandanize.backend.repositories.JobRepository;
+import com.bandanize.backend.repositories.JobRepository.ClaimedJob;
+import com.bandanize.backend.repositories.JobRepository.NewJob;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Durable background jobs, stored in the {@code jobs} table (see
+ * {@link com.bandanize.backend.models.Job}) and run by the
+ * {@link JobHandler} bean registered for their type.
+ * <p>
+ * {@link #enqueue} joins the caller's transaction, so a job exists only if the
+ * change that needs it commits; the workers are woken once it does. A poller
+ * claims as many due jobs as there are idle workers, with
+ * {@code FOR UPDATE SKIP LOCKED} so several nodes can share the table without
+ * handing out a job twice, and holds each for a lease. A failed job is retried
+ * with exponential backoff until the handler's
+ * {@link JobHandler#maxAttempts()}, then marked dead and kept for inspection.
+ * Handlers with a {@link JobHandler#batchSize()} above one get up to that many
+ * jobs of their type at once, and the batch succeeds or fails as a whole.
+ * <p>
+ * Metrics: {@code jobs.runs} (tagged with type and outcome),
+ * {@code jobs.duration} (by type) and {@code jobs.queued} (by status).
+ */
+@Service
+public class JobQueueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobQueueService.class);
+
+    private static final Duration FIRST_RETRY = Duration.ofSeconds(30);
+    private static final Duration MAX_RETRY = Duration.ofHours(6);
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final JobRepository jobRepository;
+    private final ObjectProvider<JobHandler> handlerProvider;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration lease;
+    private final Duration retention;
+    private final String workerId = UUID.randomUUID().toString();
+
+    private final Semaphore idleWorkers;
+    private final ExecutorService workers;
+    private final ExecutorService poller = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "job-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean pollQueued = new AtomicBoolean();
+    private volatile boolean backlog;
+    private final Map<JobStatus, AtomicLong> queued = new EnumMap<>(JobStatus.class);
+    private volatile Map<String, JobHandler> handlers;
+
+    public JobQueueService(JobRepository jobRepository, ObjectProvider<JobHandler> handlerProvider,
+            MeterRegistry meterRegistry, PlatformTransactionManager transactionManager,
+            @Value("${app.jobs.workers:4}") int workerCount,
+            @Value("${app.jobs.lease-seconds:600}") long leaseSeconds,
+            @Value("${app.jobs.retention-hours:24}") long retentionHours) {
+        this.jobRepository = jobRepository;
+        this.handlerProvider = handlerProvider;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.retention = Duration.ofHours(retentionHours);
+        this.idleWorkers = new Semaphore(workerCount);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "job-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (JobStatus status : List.of(JobStatus.PENDING, JobStatus.RUNNING, JobStatus.DEAD)) {
+            AtomicLong count = new AtomicLong();
+            queued.put(status, count);
+            Gauge.builder("jobs.queued", count, AtomicLong::get).tag("status", status.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Queues a job. Joins the caller's transaction.
+     *
+     * @param idempotencyKey Optional; if a job with the same key is queued,
+     *                       running or finished recently, nothing is queued.
+     * @return false if the job was deduplicated.
+     */
+    public boolean enqueue(String type, String payload, String idempotencyKey) {
+        return enqueueAll(List.of(new NewJob(type, payload, idempotencyKey))) > 0;
+    }
+
+    /**
+     * Queues several jobs with one batched statement. Joins the caller's
+     * transaction.
+     *
+     * @return The number of jobs queued after deduplication.
+     */
+    public int enqueueAll(Collection<NewJob> jobs) {
+        int inserted = jobRepository.enqueue(jobs, LocalDateTime.now());
+        if (inserted > 0) {
+            wakeUpAfterCommit();
+        }
+        return inserted;
+    }
+
+    private void wakeUpAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            wakeUp();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeUp();
+            }
+        });
+    }
+
+    /**
+     * Asks the poller to claim due jobs, unless it is about to anyway.
+     */
+    public void wakeUp() {
+        if (pollQueued.compareAndSet(false, true)) {
+            poller.execute(() -> {
+                pollQueued.set(false);
+                poll();
+            });
+        }
+    }
+
+    /**
+     * Picks up jobs that became due through backoff, jobs queued on other
+     * nodes, and jobs whose lease expired.
+     */
+    @Scheduled(fixedDelayString = "${app.jobs.poll-interval-ms:5000}")
+    public void pollDueJobs() {
+        wakeUp();
+    }
+
+    /**
+     * Claims jobs for the idle workers and hands them over, until either runs
+     * out. Types whose handler takes batches are claimed separately, a batch
+     * per worker. Only runs on the poller thread.
+     */
+    void poll() {
+        Map<String, JobHandler> handlersByType = handlers();
+        Set<String> singleTypes = new HashSet<>();
+        boolean more = false;
+        for (JobHandler handler : handlersByType.values()) {
+            if (handler.batchSize() > 1) {
+                more |= claimAndRun(Set.of(handler.type()), handler.batchSize(), handlersByType);
+            } else {
+                singleTypes.add(handler.type());
+            }
+        }
+        more |= claimAndRun(singleTypes, 1, handlersByType);
+        backlog = more;
+    }
+
+    /**
+     * @return true if due jobs of {@code types} may be left because the
+     *         workers ran out.
+     */
+    private boolean claimAndRun(Set<String> types, int batchSize, Map<String, JobHandler> handlersByType) {
+        if (types.isEmpty()) {
+            return false;
+        }
+        while (true) {
+            int idle = idleWorkers.availablePermits();
+            if (idle == 0) {
+                // A finishing worker wakes the poller up again
+                return true;
+            }
+            int limit = idle * batchSize;
+            LocalDateTime now = LocalDateTime.now();
+            List<ClaimedJob> claimed;
+            try {
+                claimed = transactionTemplate.execute(status -> jobRepository.claim(types, workerId, limit, now,
+                        now.plus(lease)));
+            } catch (RuntimeException e) {
+                logger.warn("Failed to claim jobs: {}", e.getMessage());
+                return false;
+            }
+            if (claimed == null || claimed.isEmpty()) {
+                return false;
+            }
+            Map<String, List<ClaimedJob>> claimedByType = claimed.stream()
+                    .collect(Collectors.groupingBy(ClaimedJob::type));
+            claimedByType.forEach((type, jobs) -> {
+                for (int from = 0; from < jobs.size(); from += batchSize) {
+                    List<ClaimedJob> batch = jobs.subList(from, Math.min(from + batchSize, jobs.size()));
+                    idleWorkers.acquireUninterruptibly();
+                    workers.execute(() -> {
+                        try {
+                            run(batch, handlersByType.get(type));
+                        } finally {
+                            idleWorkers.release();
+                            if (backlog) {
+                                wakeUp();
+                            }
+                        }
+                    });
+                }
+            });
+            if (claimed.size() < limit) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Runs claimed jobs of one type, as a batch if there are several, and
+     * records the outcome of each.
+     */
+    void run(List<ClaimedJob> jobs, JobHandler handler) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Exception failure = null;
+        try {
+            if (jobs.size() == 1) {
+                handler.handle(jobs.get(0).payload());
+            } else {
+                handler.handleBatch(jobs.stream().map(ClaimedJob::payload).toList());
+            }
+        } catch (Exception e) {
+            failure = e;
+        }
+        sample.stop(meterRegistry.timer("jobs.duration", "type", jobs.get(0).type()));
+        for (ClaimedJob job : jobs) {
+            String outcome = failure == null ? succeeded(job) : failed(job, handler, describe(failure));
+            if (outcome == null) {
+                // Ran past its lease and was claimed again; the other run records the outcome
+                logger.warn("Job {} ({}) was claimed by another worker while running", job.id(), job.type());
+                outcome = "lost";
+            }
+            Counter.builder("jobs.runs").tag("type", job.type()).tag("outcome", outcome).register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    /**
+     * @return The outcome, or null if this worker no longer held the job.
+     */
+    private String succeeded(ClaimedJob job) {
+        return jobRepository.markDone(job.id(), workerId, LocalDateTime.now()) ? "success" : null;
+    }
+
+    private String failed(ClaimedJob job, JobHandler handler, String error) {
+        if (job.attempts() >= handler.maxAttempts()) {
+            logger.error("Job {} ({}) failed for good after {} attempts: {}", job.id(), job.type(), job.attempts(),
+                    error);
+            return jobRepository.markDead(job.id(), workerId, LocalDateTime.now(), error) ? "dead" : null;
+        }
+        logger.warn("Job {} ({}) failed on attempt {}: {}", job.id(), job.type(), job.attempts(), error);
+        return jobRepository.reschedule(job.id(), workerId, LocalDateTime.now().plus(retryDelay(job.attempts())),
+                error) ? "retry" : null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.jobs.maintenance-interval-ms:60000}")
+    public void maintain() {
+        int pruned = jobRepository.deleteDone(LocalDateTime.now().minus(retention));
+        if (pruned > 0) {
+            logger.debug("Pruned {} finished job(s)", pruned);
+        }
+        jobRepository.countByStatus().forEach((status, count) -> {
+            AtomicLong gauge = queued.get(status);
+            if (gauge != null) {
+                gauge.set(count);
+            }
+        });
+    }
+
+    /**
+     * Delay before the next attempt after {@code attempts} failed ones: thirty
+     * seconds, doubling each time, capped at six hours.
+     */
+    static Duration retryDelay(int attempts) {
+        Duration delay = FIRST_RETRY.multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 20));
+        return delay.compareTo(MAX_RETRY) > 0 ? MAX_RETRY : delay;
+    }
+
+    private Map<String, JobHandler> handlers() {
+        // Resolved lazily: handlers are usually services that also enqueue jobs
+        if (handlers == null) {
+            handlers = handlerProvider.orderedStream()
+                    .collect(Collectors.toUnmodifiableMap(JobHandler::type, Function.identity()));
+        }
+        return handlers;
+    }
+
+    private static String describe(Exception e) {
+        String message = e.getClass().getSimpleName() + ": " + e.getMessage();
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
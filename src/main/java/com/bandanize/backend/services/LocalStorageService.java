@@ -90,6 +90,20 @@ public class LocalStorageService implements FileStorageService {
         return uniqueFilename;
     }
 
+    @Override
+    public void store(InputStream content, String folder, String filename) {
+        if (filename.contains("..") || filename.contains("/") || filename.contains("\\") || folder.contains("..")) {
+            throw new RuntimeException("Cannot store file with relative path outside current directory " + filename);
+        }
+        try {
+            Path folderPath = this.rootLocation.resolve(folder);
+            Files.createDirectories(folderPath);
+            Files.copy(content, folderPath.resolve(filename), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file " + filename, e);
+        }
+    }
+
     @Override
     public Resource load(String filename, String folder) {
         try {
@@ -0,0 +1,178 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.models.UserModel;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Aho-Corasick automaton over the "@name" and "@username" patterns of a band's
+ * members.
+ * Finds every mention in a message in a single pass, independent of the number
+ * of members. Matching is case-insensitive, resolves overlapping candidates to
+ * the longest one (so "@Ana Maria" wins over "@Ana") and requires a word
+ * boundary on both sides (so "@Ana" does not match "@Anabel" or an email
+ * address).
+ * Instances are immutable and safe to share between threads.
+ */
+public final class MentionMatcher {
+
+    private static final class Node {
+        private final Map<Character, Node> next = new HashMap<>();
+        private Node fail;
+        // Nearest node on the fail chain (including this one) that ends a pattern
+        private Node output;
+        private int depth;
+        private Set<Long> memberIds = Collections.emptySet();
+
+        private boolean isTerminal() {
+            return !memberIds.isEmpty();
+        }
+    }
+
+    private static final MentionMatcher EMPTY = new MentionMatcher(new Node());
+
+    private final Node root;
+
+    private MentionMatcher(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Builds a matcher for the given members.
+     *
+     * @param members The band members that can be mentioned.
+     * @return The compiled matcher.
+     */
+    public static MentionMatcher build(Collection<UserModel> members) {
+        Node root = new Node();
+        boolean hasPatterns = false;
+        for (UserModel member : members) {
+            if (member.getId() == null) {
+                continue;
+            }
+            hasPatterns |= addPattern(root, member.getName(), member.getId());
+            hasPatterns |= addPattern(root, member.getUsername(), member.getId());
+        }
+        if (!hasPatterns) {
+            return EMPTY;
+        }
+        linkFailures(root);
+        return new MentionMatcher(root);
+    }
+
+    /**
+     * Returns the IDs of the members mentioned in the message, in order of
+     * appearance.
+     *
+     * @param message The chat message.
+     * @return The mentioned member IDs (empty if none).
+     */
+    public Set<Long> findMentions(String message) {
+        if (message == null || root.next.isEmpty() || message.indexOf('@') < 0) {
+            return Collections.emptySet();
+        }
+
+        int length = message.length();
+        // Longest valid match starting at each position
+        Node[] longestAt = new Node[length];
+        Node state = root;
+
+        for (int i = 0; i < length; i++) {
+            if (state == root) {
+                // Every pattern starts with '@', so skip straight to the next one
+                i = message.indexOf('@', i);
+                if (i < 0) {
+                    break;
+                }
+            }
+            char c = Character.toLowerCase(message.charAt(i));
+            while (state != root && !state.next.containsKey(c)) {
+                state = state.fail;
+            }
+            state = state.next.getOrDefault(c, root);
+
+            if (state.output == null || (i + 1 < length && isNameChar(message.charAt(i + 1)))) {
+                continue;
+            }
+            for (Node match = state.output; match != null; match = match.fail.output) {
+                int start = i - match.depth + 1;
+                if (start > 0 && isNameChar(message.charAt(start - 1))) {
+                    continue;
+                }
+                if (longestAt[start] == null || longestAt[start].depth < match.depth) {
+                    longestAt[start] = match;
+                }
+            }
+        }
+
+        Set<Long> mentioned = new LinkedHashSet<>();
+        for (int start = 0; start < length; start++) {
+            Node match = longestAt[start];
+            if (match != null) {
+                mentioned.addAll(match.memberIds);
+                start += match.depth - 1;
+            }
+        }
+        return mentioned;
+    }
+
+    private static boolean addPattern(Node root, String name, Long memberId) {
+        if (name == null || name.isBlank()) {
+            return false;
+        }
+        String pattern = "@" + name.trim();
+        Node node = root;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = Character.toLowerCase(pattern.charAt(i));
+            Node parent = node;
+            node = node.next.computeIfAbsent(c, k -> {
+                Node child = new Node();
+                child.depth = parent.depth + 1;
+                return child;
+            });
+        }
+        if (node.memberIds.isEmpty()) {
+            node.memberIds = new LinkedHashSet<>();
+        }
+        node.memberIds.add(memberId);
+        return true;
+    }
+
+    private static void linkFailures(Node root) {
+        root.fail = root;
+        Queue<Node> queue = new ArrayDeque<>();
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            child.output = child.isTerminal() ? child : null;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Map.Entry<Character, Node> edge : node.next.entrySet()) {
+                char c = edge.getKey();
+                Node child = edge.getValue();
+
+                Node fallback = node.fail;
+                while (fallback != root && !fallback.next.containsKey(c)) {
+                    fallback = fallback.fail;
+                }
+                Node target = fallback.next.get(c);
+                child.fail = (target != null && target != child) ? target : root;
+                child.output = child.isTerminal() ? child : child.fail.output;
+                queue.add(child);
+            }
+        }
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
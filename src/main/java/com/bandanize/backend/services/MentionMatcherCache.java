@@ -0,0 +1,68 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.models.BandModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches one {@link MentionMatcher} per band.
+ * Entries are rebuilt lazily on the next message after membership (or a
+ * member's name) changes; callers that modify membership must evict the band.
+ * Evictions take effect once the surrounding transaction commits, so a
+ * matcher built meanwhile from the old members is not kept. Entries also
+ * expire, so changes made on other nodes show up within the TTL.
+ */
+@Component
+public class MentionMatcherCache {
+
+    private record CachedMatcher(MentionMatcher matcher, long builtAt) {
+    }
+
+    private final Map<Long, CachedMatcher> matchers = new ConcurrentHashMap<>();
+
+    @Value("${app.chat.mention-matcher-ttl-ms:60000}")
+    private long ttlMillis;
+
+    /**
+     * Returns the cached matcher for the band, building it from the current
+     * members if needed.
+     */
+    public MentionMatcher get(BandModel band) {
+        long now = System.currentTimeMillis();
+        return matchers.compute(band.getId(), (id, cached) -> cached != null && now - cached.builtAt() < ttlMillis
+                ? cached
+                : new CachedMatcher(MentionMatcher.build(band.getUsers()), now)).matcher();
+    }
+
+    public void evict(Long bandId) {
+        if (bandId != null) {
+            afterCommit(() -> matchers.remove(bandId));
+        }
+    }
+
+    /**
+     * Drops every cached matcher, e.g. when a user is renamed and could be a
+     * member of any number of bands.
+     */
+    public void evictAll() {
+        afterCommit(matchers::clear);
+    }
+
+    // Also runs right away, so this transaction does not see an old matcher either
+    private static void afterCommit(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+}
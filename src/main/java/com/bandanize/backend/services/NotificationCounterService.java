@@ -0,0 +1,120 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.repositories.NotificationCounterRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unread notification counts per (band, member), kept in
+ * {@link NotificationCounterRepository} and cached per member.
+ * Writes join the caller's transaction and evict the affected members once it
+ * commits. Entries also expire after a short TTL, which bounds how stale a
+ * count can be after a change made on another node.
+ */
+@Service
+public class NotificationCounterService {
+
+    private record CachedCounts(Map<Long, Long> counts, long loadedAt) {
+    }
+
+    // Past this many cached members the cache starts over
+    private static final int MAX_CACHED_RECIPIENTS = 10_000;
+
+    private final NotificationCounterRepository notificationCounterRepository;
+    private final long ttlNanos;
+    private final Map<Long, CachedCounts> cache = new ConcurrentHashMap<>();
+
+    public NotificationCounterService(NotificationCounterRepository notificationCounterRepository,
+            @Value("${app.notifications.unread-cache-ttl-ms:5000}") long ttlMillis) {
+        this.notificationCounterRepository = notificationCounterRepository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    public void increment(Long bandId, Collection<Long> recipientIds) {
+        if (recipientIds.isEmpty()) {
+            return;
+        }
+        notificationCounterRepository.increment(bandId, recipientIds);
+        evictAfterCommit(List.copyOf(recipientIds));
+    }
+
+    public void reset(Long bandId, Long recipientId) {
+        notificationCounterRepository.reset(bandId, recipientId);
+        evictAfterCommit(List.of(recipientId));
+    }
+
+    /**
+     * Call before deleting the notifications.
+     */
+    public void subtractUnread(Collection<Long> notificationIds) {
+        if (notificationIds.isEmpty()) {
+            return;
+        }
+        notificationCounterRepository.subtractUnread(notificationIds);
+        evictAfterCommit(null);
+    }
+
+    /**
+     * Drops the user's counters and takes the notifications they caused out of
+     * everyone else's; call before deleting the user's notifications.
+     */
+    public void forgetUser(Long userId) {
+        notificationCounterRepository.subtractUnreadByActor(userId);
+        notificationCounterRepository.deleteByRecipient(userId);
+        evictAfterCommit(null);
+    }
+
+    public long getUnreadCount(Long bandId, Long recipientId) {
+        return getUnreadCounts(recipientId).getOrDefault(bandId, 0L);
+    }
+
+    /**
+     * The member's unread notification counts in each of their bands, by band
+     * id. Bands with nothing unread are left out.
+     */
+    public Map<Long, Long> getUnreadCounts(Long recipientId) {
+        long now = System.nanoTime();
+        CachedCounts cached = cache.get(recipientId);
+        if (cached != null && now - cached.loadedAt() < ttlNanos) {
+            return cached.counts();
+        }
+        Map<Long, Long> counts = Map.copyOf(notificationCounterRepository.findByRecipient(recipientId));
+        if (cache.size() >= MAX_CACHED_RECIPIENTS) {
+            cache.clear();
+        }
+        cache.put(recipientId, new CachedCounts(counts, now));
+        return counts;
+    }
+
+    /**
+     * @param recipientIds The members to evict, or null for everyone.
+     */
+    private void evictAfterCommit(List<Long> recipientIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(recipientIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(recipientIds);
+            }
+        });
+    }
+
+    private void evict(List<Long> recipientIds) {
+        if (recipientIds == null) {
+            cache.clear();
+        } else {
+            recipientIds.forEach(cache::remove);
+        }
+    }
+}
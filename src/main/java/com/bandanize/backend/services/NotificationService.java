@@ -4,15 +4,58 @@ import com.bandanize.backend.exceptions.ResourceNotFoundException;
 import com.bandanize.backend.models.*;
 import com.bandanize.backend.repositories.BandRepository;
 import com.bandanize.backend.repositories.NotificationRepository;
+import com.bandanize.backend.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * Band notifications. Events that notify the whole band are fanned out to
+ * the members by a {@value #JOB_TYPE} job, queued in the transaction of the
+ * change, so a request does not write a row per member. The fan-out runs in
+ * one transaction, so a failed attempt leaves nothing behind and is retried
+ * by the queue.
+ */
 @Service
-public class NotificationService {
+public class NotificationService implements JobHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    static final String JOB_TYPE = "notification.fanout";
+
+    /**
+     * Payload of a {@value #JOB_TYPE} job.
+     */
+    record FanOut(Long bandId, Long actorId, Notification.NotificationType type, Map<String, String> metadata,
+            String title, String message) {
+    }
+
+    /**
+     * Types that are coalesced: a repeat by the same actor within the digest
+     * window bumps the recipient's unread notification instead of adding a
+     * row, so adding 20 songs in a row leaves one "added 20 songs" entry.
+     */
+    private static final Set<Notification.NotificationType> DIGEST_TYPES = EnumSet.of(
+            Notification.NotificationType.SONG_ADDED,
+            Notification.NotificationType.TAB_CREATED,
+            Notification.NotificationType.LIST_CREATED);
 
     @Autowired
     private NotificationRepository notificationRepository;
@@ -20,8 +63,53 @@ public class NotificationService {
     @Autowired
     private BandRepository bandRepository;
 
-    public List<com.bandanize.backend.dtos.NotificationDTO> getProjectNotifications(Long projectId, Long userId) {
-        return notificationRepository.findByBandIdAndRecipientIdOrderByCreatedAtDesc(projectId, userId).stream()
+    @Autowired
+    private NotificationCounterService notificationCounterService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JobQueueService jobQueueService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.notifications.digest-window-minutes:10}")
+    private long digestWindowMinutes;
+
+    @Value("${app.notifications.retention-days:180}")
+    private long retentionDays;
+
+    @Value("${app.notifications.retention-batch-size:1000}")
+    private int retentionBatchSize;
+
+    /**
+     * A page of the user's notifications in the band, newest first.
+     *
+     * @param beforeId Id of the last notification of the previous page (null
+     *                 for the first page).
+     * @param limit    Maximum number of notifications (capped at 100).
+     */
+    public List<com.bandanize.backend.dtos.NotificationDTO> getProjectNotifications(Long projectId, Long userId,
+            Long beforeId, int limit) {
+        org.springframework.data.domain.Pageable page = org.springframework.data.domain.PageRequest.of(0,
+                Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        List<Notification> notifications;
+        if (beforeId == null) {
+            notifications = notificationRepository.findInbox(projectId, userId, page);
+        } else {
+            Notification cursor = notificationRepository.findById(beforeId).orElse(null);
+            if (cursor == null || !cursor.getRecipient().getId().equals(userId)) {
+                return List.of();
+            }
+            notifications = notificationRepository.findInboxBefore(projectId, userId, cursor.getCreatedAt(),
+                    cursor.getId(), page);
+        }
+        return notifications.stream()
                 .map(this::convertToDTO)
                 .collect(java.util.stream.Collectors.toList());
     }
@@ -37,17 +125,42 @@ public class NotificationService {
                     notification.getActor().getPhoto());
         }
 
+        String title = notification.getTitle();
+        String message = notification.getMessage();
+        int count = notification.getOccurrences();
+        if (count > 1 && notification.getActor() != null) {
+            String actorName = notification.getActor().getName();
+            switch (notification.getType()) {
+                case SONG_ADDED -> {
+                    title = "New Songs";
+                    message = actorName + " added " + count + " songs";
+                }
+                case TAB_CREATED -> {
+                    title = "New Tabs";
+                    message = actorName + " added " + count + " tabs";
+                }
+                case LIST_CREATED -> {
+                    title = "New Lists";
+                    message = actorName + " created " + count + " lists";
+                }
+                default -> {
+                }
+            }
+        }
+
         return new com.bandanize.backend.dtos.NotificationDTO(
                 notification.getId(),
                 notification.getType().name(),
                 notification.getMetadata(),
                 notification.getCreatedAt(),
                 actorDTO,
-                notification.getTitle(),
-                notification.getMessage(),
-                notification.isRead());
+                title,
+                message,
+                notification.isRead(),
+                count);
     }
 
+    @org.springframework.transaction.annotation.Transactional
     public void createListNotification(BandModel band, UserModel actor, SongListModel list) {
         createNotification(band, actor, Notification.NotificationType.LIST_CREATED,
                 Map.of("listName", list.getName()),
@@ -55,6 +168,7 @@ public class NotificationService {
                 actor.getName() + " created list " + list.getName());
     }
 
+    @org.springframework.transaction.annotation.Transactional
     public void createSongNotification(BandModel band, UserModel actor, SongModel song) {
         createNotification(band, actor, Notification.NotificationType.SONG_ADDED,
                 Map.of("songName", song.getName()),
@@ -62,6 +176,7 @@ public class NotificationService {
                 actor.getName() + " added song " + song.getName());
     }
 
+    @org.springframework.transaction.annotation.Transactional
     public void createMemberAddedNotification(BandModel band, UserModel actor, UserModel removedUser) {
         // Actor is the one who added/invited/accepted? Or the new member?
         // Typically "User accepted invitation".
@@ -72,6 +187,7 @@ public class NotificationService {
                 actor.getName() + " joined the band");
     }
 
+    @org.springframework.transaction.annotation.Transactional
     public void createChatMentionNotification(BandModel band, UserModel actor, UserModel mentionedUser) {
         // We only notify the mentioned user
         Notification notification = new Notification();
@@ -86,8 +202,10 @@ public class NotificationService {
         // notification.setCreatedAt(LocalDateTime.now());
 
         notificationRepository.save(notification);
+        notificationCounterService.increment(band.getId(), List.of(mentionedUser.getId()));
     }
 
+    @org.springframework.transaction.annotation.Transactional
     public void createEventNotification(BandModel band, UserModel actor, EventModel event, boolean isModification) {
         Notification.NotificationType type = isModification
                 ? Notification.NotificationType.EVENT_MODIFIED
@@ -100,6 +218,7 @@ public class NotificationService {
                 actor.getName() + " " + action + " event " + event.getName());
     }
 
+    @org.springframework.transaction.annotation.Transactional
     public void tabCreatedNotification(BandModel band, UserModel actor, TablatureModel tab) {
         createNotification(band, actor, Notification.NotificationType.TAB_CREATED,
                 Map.of("tabName", tab.getName(), "songName", tab.getSong().getName()),
@@ -107,15 +226,62 @@ public class NotificationService {
                 actor.getName() + " added tab " + tab.getName() + " to " + tab.getSong().getName());
     }
 
+    /**
+     * One notification for a whole bulk import instead of one per song.
+     */
+    @org.springframework.transaction.annotation.Transactional
+    public void createSongsImportedNotification(BandModel band, UserModel actor, SongListModel list, int songCount,
+            int tabCount) {
+        createNotification(band, actor, Notification.NotificationType.SONGS_IMPORTED,
+                Map.of("listName", list.getName(), "songCount", String.valueOf(songCount),
+                        "tabCount", String.valueOf(tabCount)),
+                "Songs Imported",
+                actor.getName() + " imported " + songCount + " songs into " + list.getName());
+    }
+
+    /**
+     * Queues the fan-out to every member but the actor. Joins the caller's
+     * transaction.
+     */
     private void createNotification(BandModel band, UserModel actor, Notification.NotificationType type,
             Map<String, String> metadata, String title, String message) {
+        jobQueueService.enqueue(JOB_TYPE, objectMapper.writeValueAsString(
+                new FanOut(band.getId(), actor.getId(), type, metadata, title, message)), null);
+    }
+
+    @Override
+    public String type() {
+        return JOB_TYPE;
+    }
+
+    @Override
+    public void handle(String payload) {
+        FanOut event = objectMapper.readValue(payload, FanOut.class);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            BandModel band = bandRepository.findById(event.bandId()).orElse(null);
+            UserModel actor = userRepository.findById(event.actorId()).orElse(null);
+            if (band == null || actor == null) {
+                // Deleted since; nobody left to tell
+                logger.debug("Dropping {} notification for band {}", event.type(), event.bandId());
+                return;
+            }
+            fanOut(band, actor, event.type(), event.metadata(), event.title(), event.message());
+        });
+    }
+
+    private void fanOut(BandModel band, UserModel actor, Notification.NotificationType type,
+            Map<String, String> metadata, String title, String message) {
 
         List<UserModel> recipients = band.getUsers();
 
+        // Recipients whose open digest absorbed this event get no new row
+        Set<Long> coalesced = DIGEST_TYPES.contains(type) ? coalesce(band, actor, type) : Set.of();
+        List<Long> notified = new ArrayList<>(recipients.size());
+
         for (UserModel recipient : recipients) {
             // Optional: Don't notify the actor of their own action?
             // Usually yes, skip actor.
-            if (recipient.getId().equals(actor.getId())) {
+            if (recipient.getId().equals(actor.getId()) || coalesced.contains(recipient.getId())) {
                 continue;
             }
 
@@ -129,14 +295,78 @@ public class NotificationService {
             notification.setMessage(message);
 
             notificationRepository.save(notification);
+            notified.add(recipient.getId());
+        }
+        notificationCounterService.increment(band.getId(), notified);
+    }
+
+    /**
+     * Adds the event to each recipient's unread notification of the same type
+     * by the same actor, if one was bumped within the digest window.
+     *
+     * @return The recipients whose notification took the event.
+     */
+    private Set<Long> coalesce(BandModel band, UserModel actor, Notification.NotificationType type) {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationRepository.OpenDigest> digests = notificationRepository.findOpenDigests(band.getId(),
+                actor.getId(), type, now.minusMinutes(digestWindowMinutes));
+        if (digests.isEmpty()) {
+            return Set.of();
+        }
+        List<Long> ids = new ArrayList<>(digests.size());
+        Set<Long> recipientIds = new HashSet<>();
+        for (NotificationRepository.OpenDigest digest : digests) {
+            ids.add(digest.getId());
+            recipientIds.add(digest.getRecipientId());
+        }
+        notificationRepository.addOccurrence(ids, now);
+        return recipientIds;
+    }
+
+    /**
+     * Deletes notifications older than the retention period, a bounded batch
+     * per statement so the table is never locked for long.
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.retention-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        org.springframework.data.domain.Pageable batch = org.springframework.data.domain.PageRequest.of(0,
+                retentionBatchSize);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int deleted = 0;
+        List<Long> ids;
+        do {
+            ids = notificationRepository.findIdsCreatedBefore(cutoff, batch);
+            if (!ids.isEmpty()) {
+                List<Long> expired = ids;
+                deleted += transaction.execute(status -> {
+                    notificationCounterService.subtractUnread(expired);
+                    return notificationRepository.deleteByIds(expired);
+                });
+            }
+        } while (ids.size() == retentionBatchSize);
+        if (deleted > 0) {
+            logger.info("Deleted {} notifications older than {} days", deleted, retentionDays);
         }
     }
 
     public long getUnreadCount(Long bandId, Long recipientId) {
-        return notificationRepository.countByBandIdAndRecipientIdAndIsReadFalse(bandId, recipientId);
+        return notificationCounterService.getUnreadCount(bandId, recipientId);
+    }
+
+    /**
+     * The user's unread notification counts in all of their bands, by band id.
+     * Bands with nothing unread are left out.
+     */
+    public Map<Long, Long> getUnreadCounts(Long recipientId) {
+        return notificationCounterService.getUnreadCounts(recipientId);
     }
 
+    @org.springframework.transaction.annotation.Transactional
     public void markAllAsRead(Long bandId, Long recipientId) {
+        // The counter first: its row lock orders this against concurrent inserts,
+        // which either commit before the notifications are marked or count again after
+        notificationCounterService.reset(bandId, recipientId);
         notificationRepository.markAllAsRead(bandId, recipientId);
     }
 }
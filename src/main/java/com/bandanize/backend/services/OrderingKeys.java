@@ -0,0 +1,108 @@
+package com.bandanize.backend.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fractional ordering keys (LexoRank-style) for user-ordered items.
+ * A key is a base-36 fraction written with the digits {@code 0-9a-z}; items are
+ * ordered by comparing their keys as strings, so an item can be moved between
+ * two neighbors by giving it a key that sorts between theirs, without touching
+ * any other row.
+ * Keys never end in {@code 0}, which guarantees there is always room below any
+ * key. Only lowercase letters and digits are used so that the order is the same
+ * in Java and under the database's text collation.
+ */
+public final class OrderingKeys {
+
+    private static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+
+    private OrderingKeys() {
+    }
+
+    /**
+     * Returns a key that sorts strictly between the two given keys.
+     *
+     * @param lower The key of the previous item, or null for the start of the
+     *              list.
+     * @param upper The key of the next item, or null for the end of the list.
+     * @return The new key, as short as possible.
+     * @throws IllegalArgumentException if a key is malformed or
+     *                                  {@code lower >= upper}.
+     */
+    public static String between(String lower, String upper) {
+        if ((lower != null && !isValid(lower)) || (upper != null && !isValid(upper))) {
+            throw new IllegalArgumentException("Malformed ordering key");
+        }
+        if (lower != null && upper != null && lower.compareTo(upper) >= 0) {
+            throw new IllegalArgumentException("Lower key must sort before upper key");
+        }
+
+        StringBuilder key = new StringBuilder();
+        boolean bounded = upper != null;
+        for (int i = 0;; i++) {
+            boolean lowerHasDigit = lower != null && i < lower.length();
+            int low = lowerHasDigit ? DIGITS.indexOf(lower.charAt(i)) : 0;
+            if (!bounded && key.length() > 0 && (!lowerHasDigit || low + 1 < BASE)) {
+                // Nothing above: step by one digit instead of halving, so repeated appends grow slowly
+                return key.append(DIGITS.charAt(low + 1)).toString();
+            }
+            int high = bounded ? DIGITS.indexOf(upper.charAt(i)) : BASE;
+            if (high - low > 1) {
+                return key.append(DIGITS.charAt((low + high) / 2)).toString();
+            }
+            key.append(DIGITS.charAt(low));
+            if (high - low == 1) {
+                // Any continuation of this prefix already sorts below the upper key
+                bounded = false;
+            }
+        }
+    }
+
+    /**
+     * Returns {@code count} ascending keys spread evenly over the key space, of
+     * equal length and with room for many insertions between neighbors.
+     */
+    public static List<String> evenlySpaced(int count) {
+        List<String> keys = new ArrayList<>(count);
+        if (count <= 0) {
+            return keys;
+        }
+        int width = 1;
+        long space = BASE;
+        while (space < (long) (count + 1) * BASE) {
+            width++;
+            space *= BASE;
+        }
+        for (int i = 0; i < count; i++) {
+            keys.add(encode((i + 1) * space / (count + 1), width));
+        }
+        return keys;
+    }
+
+    public static boolean isValid(String key) {
+        if (key == null || key.isEmpty() || key.charAt(key.length() - 1) == '0') {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (DIGITS.indexOf(key.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String encode(long value, int width) {
+        char[] digits = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            digits[i] = DIGITS.charAt((int) (value % BASE));
+            value /= BASE;
+        }
+        int length = width;
+        while (length > 1 && digits[length - 1] == '0') {
+            length--;
+        }
+        return new String(digits, 0, length);
+    }
+}
@@ -1,20 +1,77 @@
 package com.bandanize.backend.services;
 
+import com.bandanize.backend.services.EmailTemplates.RenderedEmail;
 import com.resend.Resend;
+import com.resend.core.exception.ResendException;
+import com.resend.core.net.RequestOptions;
+import com.resend.services.batch.model.BatchError;
+import com.resend.services.batch.model.CreateBatchEmailsResponse;
 import com.resend.services.emails.model.CreateEmailOptions;
-import com.resend.services.emails.model.CreateEmailResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Sends emails through Resend without making the caller wait for it.
+ * The {@code send*} methods render the email from its template (see
+ * {@link EmailTemplates}) in {@code app.mail.locale} and queue it as an
+ * {@value #JOB_TYPE} job in the caller's transaction, so they return in
+ * milliseconds and an email is only sent if the change that triggers it
+ * commits. The job workers send queued emails with Resend's batch endpoint, up
+ * to {@link #BATCH_SIZE} per request, at most
+ * {@code app.mail.requests-per-second} requests per node. A failed request is
+ * retried with the same idempotency key, so Resend does not send it twice: a
+ * single email is keyed by its own id, and a batch whose request fails is
+ * queued again as one job, so it is retried with the same emails and key
+ * instead of being regrouped. Emails Resend refuses are logged and dropped,
+ * since retrying them would fail the same way.
+ */
 @Service
-public class ResendEmailService implements EmailService {
+@ConditionalOnProperty(name = "app.mail.transport", havingValue = "resend", matchIfMissing = true)
+public class ResendEmailService implements EmailService, JobHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(ResendEmailService.class);
 
+    static final String JOB_TYPE = "email.send";
+    // Resend's batch endpoint limit
+    static final int BATCH_SIZE = 100;
+
+    /**
+     * A rendered email as stored in the job payload. The id doubles as the
+     * idempotency key.
+     */
+    record OutboundEmail(String id, String to, String subject, String html) {
+    }
+
+    /**
+     * Emails that went out in one batch request that failed, to be retried
+     * together under the same idempotency key.
+     */
+    record OutboundBatch(String key, List<OutboundEmail> emails) {
+    }
+
     private final Resend resend;
+    private final JobQueueService jobQueueService;
+    private final ObjectMapper objectMapper;
+    private final EmailTemplates emailTemplates;
+    private final Locale locale;
+    private final long requestIntervalNanos;
+    private long nextRequestAt = System.nanoTime();
 
     @Value("${resend.from.email}")
     private String fromEmail;
@@ -22,135 +79,191 @@ public class ResendEmailService implements EmailService {
     @Value("${app.frontend.url}")
     private String frontendUrl;
 
-    public ResendEmailService(@Value("${resend.api.key}") String apiKey) {
+    @Autowired
+    public ResendEmailService(@Value("${resend.api.key}") String apiKey, JobQueueService jobQueueService,
+            ObjectMapper objectMapper, EmailTemplates emailTemplates, @Value("${app.mail.locale:es}") String locale,
+            @Value("${app.mail.requests-per-second:2}") double requestsPerSecond) {
+        this(createClient(apiKey), jobQueueService, objectMapper, emailTemplates, Locale.forLanguageTag(locale),
+                requestsPerSecond);
+    }
+
+    ResendEmailService(Resend resend, JobQueueService jobQueueService, ObjectMapper objectMapper,
+            EmailTemplates emailTemplates, Locale locale, double requestsPerSecond) {
+        this.resend = resend;
+        this.jobQueueService = jobQueueService;
+        this.objectMapper = objectMapper;
+        this.emailTemplates = emailTemplates;
+        this.locale = locale;
+        this.requestIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+    }
+
+    private static Resend createClient(String apiKey) {
         if (apiKey == null || apiKey.isEmpty()) {
             logger.warn("Resend API key is missing. Email sending will fail.");
-            this.resend = null;
-        } else {
-            this.resend = new Resend(apiKey);
+            return null;
         }
-    }
-
-    private String getEmailTemplate(String content) {
-        String logoUrl = frontendUrl + "/apple-touch-icon.png";
-        return "<div style=\"font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif; max-width: 600px; margin: 0 auto; border: 1px solid #e0e0e0; border-radius: 12px; overflow: hidden; color: #333;\">"
-                +
-                "  <div style=\"background-color: #f8f9fa; padding: 20px; text-align: center; border-bottom: 1px solid #e0e0e0;\">"
-                +
-                "    <img src=\"" + logoUrl
-                + "\" alt=\"Bandanize Logo\" style=\"width: 64px; height: 64px; border-radius: 12px; margin-bottom: 10px;\">"
-                +
-                "    <h1 style=\"margin: 0; font-size: 24px; color: #1a1a1a;\">Bandanize</h1>" +
-                "  </div>" +
-                "  <div style=\"padding: 30px; line-height: 1.6; font-size: 16px;\">" +
-                content +
-                "  </div>" +
-                "  <div style=\"background-color: #f8f9fa; padding: 20px; text-align: center; font-size: 12px; color: #666; border-top: 1px solid #e0e0e0;\">"
-                +
-                "    <p style=\"margin: 0;\">&copy; 2026 Bandanize. Todos los derechos reservados.</p>" +
-                "  </div>" +
-                "</div>";
+        return new Resend(apiKey);
     }
 
     @Override
     public void sendPasswordReset(String to, String token) {
-        if (resend == null) {
-            logger.warn("Skipping email send: Resend client not initialized.");
-            return;
-        }
-
-        String resetLink = frontendUrl + "/reset-password?token=" + token;
+        enqueue(to, "password-reset", "resetLink", frontendUrl + "/reset-password?token=" + token);
+    }
 
-        String content = "<h3>Restablecer Contraseña</h3>" +
-                "<p>Has solicitado restablecer tu contraseña en Bandanize.</p>" +
-                "<p>Haz clic en el botón de abajo para elegir una nueva contraseña:</p>" +
-                "<p style=\"margin: 30px 0;\">" +
-                "  <a href=\"" + resetLink
-                + "\" style=\"background-color: #000; color: #fff; padding: 12px 24px; border-radius: 6px; text-decoration: none; font-weight: bold;\">Restablecer Contraseña</a>"
-                +
-                "</p>" +
-                "<p>Si no solicitaste este cambio, puedes ignorar este correo de forma segura.</p>";
+    @Override
+    public void sendBandInvitation(String to, String bandName, String inviterName, String inviteLink) {
+        enqueue(to, "band-invitation", "bandName", bandName, "inviterName", inviterName, "invitationsLink",
+                frontendUrl + "/invitations");
+    }
 
-        CreateEmailOptions params = CreateEmailOptions.builder()
-                .from(fromEmail)
-                .to(to)
-                .subject("Restablecer contraseña - Bandanize")
-                .html(getEmailTemplate(content))
-                .build();
+    @Override
+    public void sendVerificationEmail(String to, String token) {
+        enqueue(to, "verification", "verifyLink", frontendUrl + "/verify-email?token=" + token);
+    }
 
-        try {
-            CreateEmailResponse data = resend.emails().send(params);
-            logger.info("Password reset email sent. ID: " + data.getId());
-        } catch (Exception e) {
-            logger.error("Failed to send password reset email", e);
+    /**
+     * @param slots Slot names and values, alternating.
+     */
+    private void enqueue(String to, String template, String... slots) {
+        Map<String, String> values = new HashMap<>();
+        values.put("logoUrl", frontendUrl + "/apple-touch-icon.png");
+        for (int i = 0; i < slots.length; i += 2) {
+            values.put(slots[i], slots[i + 1]);
         }
+        RenderedEmail rendered = emailTemplates.render(template, locale, values);
+        OutboundEmail email = new OutboundEmail(UUID.randomUUID().toString(), to, rendered.subject(),
+                rendered.html());
+        jobQueueService.enqueue(JOB_TYPE, objectMapper.writeValueAsString(email), null);
     }
 
     @Override
-    public void sendBandInvitation(String to, String bandName, String inviterName, String inviteLink) {
-        if (resend == null) {
-            logger.warn("Skipping email send: Resend client not initialized.");
-            return;
-        }
+    public String type() {
+        return JOB_TYPE;
+    }
 
-        String content = "<h3>¡Te han invitado a unirte!</h3>" +
-                "<p>Hola,</p>" +
-                "<p><strong>" + inviterName + "</strong> te ha invitado a unirte a la banda <strong>" + bandName
-                + "</strong> en Bandanize.</p>" +
-                "<p>Haz clic en el botón de abajo para ver tus invitaciones y aceptar:</p>" +
-                "<p style=\"margin: 30px 0;\">" +
-                "  <a href=\"" + frontendUrl
-                + "/invitations\" style=\"background-color: #ca3e3e; color: #fff; padding: 12px 24px; border-radius: 6px; text-decoration: none; font-weight: bold;\">Ver Invitaciones</a>"
-                +
-                "</p>" +
-                "<p>Si aún no tienes cuenta, regístrate con este email para acceder.</p>";
-
-        CreateEmailOptions params = CreateEmailOptions.builder()
-                .from(fromEmail)
-                .to(to)
-                .subject("Invitación a unirte a " + bandName)
-                .html(getEmailTemplate(content))
-                .build();
+    @Override
+    public int batchSize() {
+        return BATCH_SIZE;
+    }
 
-        try {
-            CreateEmailResponse data = resend.emails().send(params);
-            logger.info("Band invitation email sent. ID: " + data.getId());
-        } catch (Exception e) {
-            logger.error("Failed to send band invitation email", e);
-        }
+    @Override
+    public void handle(String payload) throws ResendException, InterruptedException {
+        handleBatch(List.of(payload));
     }
 
     @Override
-    public void sendVerificationEmail(String to, String token) {
+    public void handleBatch(List<String> payloads) throws ResendException, InterruptedException {
         if (resend == null) {
-            logger.warn("Skipping email send: Resend client not initialized.");
+            logger.warn("Skipping {} email(s): Resend client not initialized.", payloads.size());
             return;
         }
+        List<OutboundEmail> emails = new ArrayList<>(payloads.size());
+        List<OutboundBatch> batches = new ArrayList<>();
+        for (String payload : payloads) {
+            if (objectMapper.readTree(payload).has("emails")) {
+                batches.add(objectMapper.readValue(payload, OutboundBatch.class));
+            } else {
+                emails.add(objectMapper.readValue(payload, OutboundEmail.class));
+            }
+        }
+        // Batches that failed before go first: if one fails again, the new emails are not sent yet either
+        for (OutboundBatch batch : batches) {
+            send(batch.emails(), batch.key());
+        }
+        if (emails.size() == 1) {
+            send(emails, emails.get(0).id());
+        } else if (!emails.isEmpty()) {
+            String key = UUID.nameUUIDFromBytes(emails.stream().map(OutboundEmail::id).sorted()
+                    .collect(Collectors.joining(",")).getBytes(StandardCharsets.UTF_8)).toString();
+            try {
+                send(emails, key);
+            } catch (ResendException e) {
+                // Resend may have accepted it; only a retry of this exact request is deduplicated
+                logger.warn("Batch of {} emails failed, queued for retry as one job: {}", emails.size(),
+                        e.getMessage());
+                jobQueueService.enqueue(JOB_TYPE, objectMapper.writeValueAsString(new OutboundBatch(key, emails)),
+                        JOB_TYPE + ":" + key);
+            }
+        }
+    }
 
-        String verifyLink = frontendUrl + "/verify-email?token=" + token;
-
-        String content = "<h3>Bienvenido a Bandanize</h3>" +
-                "<p>Gracias por registrarte. Por favor, verifica tu dirección de correo electrónico para activar tu cuenta:</p>"
-                +
-                "<p style=\"margin: 30px 0;\">" +
-                "  <a href=\"" + verifyLink
-                + "\" style=\"background-color: #000; color: #fff; padding: 12px 24px; border-radius: 6px; text-decoration: none; font-weight: bold;\">Verificar Email</a>"
-                +
-                "</p>" +
-                "<p>Este enlace expirará en 24 horas.</p>";
+    /**
+     * Sends the emails in one request under {@code key}.
+     *
+     * @throws ResendException if the request failed and may be retried.
+     */
+    private void send(List<OutboundEmail> emails, String key) throws ResendException, InterruptedException {
+        try {
+            throttle();
+            if (emails.size() == 1) {
+                OutboundEmail email = emails.get(0);
+                String id = resend.emails().send(toOptions(email), idempotencyKey(key)).getId();
+                logger.info("Email \"{}\" sent. ID: {}", email.subject(), id);
+                return;
+            }
+            List<CreateEmailOptions> options = emails.stream().map(this::toOptions).toList();
+            CreateBatchEmailsResponse response = resend.batch().send(options, idempotencyKey(key));
+            if (response.hasErrors()) {
+                // The rest of the batch went out; retrying these would fail the same way
+                for (BatchError error : response.getErrors()) {
+                    Integer index = error.getIndex();
+                    String to = index != null && index >= 0 && index < emails.size() ? emails.get(index).to() : "?";
+                    logger.error("Email to {} rejected by Resend: {}", to, error.getMessage());
+                }
+            }
+            logger.info("Sent {} emails in one batch", emails.size() - response.getErrorCount());
+        } catch (ResendException e) {
+            if (!isRejected(e)) {
+                throw e;
+            }
+            if (emails.size() == 1) {
+                // Retrying would fail the same way
+                logger.error("Email to {} rejected by Resend: {}", emails.get(0).to(), e.getMessage());
+                return;
+            }
+            // The whole batch was rejected, so nothing was sent; find the culprit by sending one by one
+            for (OutboundEmail email : emails) {
+                send(List.of(email), email.id());
+            }
+        }
+    }
 
-        CreateEmailOptions params = CreateEmailOptions.builder()
+    private CreateEmailOptions toOptions(OutboundEmail email) {
+        return CreateEmailOptions.builder()
                 .from(fromEmail)
-                .to(to)
-                .subject("Verifica tu cuenta de Bandanize")
-                .html(getEmailTemplate(content))
+                .to(email.to())
+                .subject(email.subject())
+                .html(email.html())
                 .build();
+    }
 
-        try {
-            CreateEmailResponse data = resend.emails().send(params);
-            logger.info("Verification email sent. ID: " + data.getId());
-        } catch (Exception e) {
-            logger.error("Failed to send verification email", e);
+    private static RequestOptions idempotencyKey(String key) {
+        return RequestOptions.builder().setIdempotencyKey(key).build();
+    }
+
+    /**
+     * Whether Resend refused the content of the request (invalid address,
+     * ...), so sending it again would fail the same way. Anything else,
+     * including a bad API key or sender (401, 403) and an idempotency
+     * conflict (409), fails the job so it is retried and, if it keeps
+     * failing, kept as dead.
+     */
+    private static boolean isRejected(ResendException e) {
+        Integer status = e.getStatusCode();
+        return status != null && (status == 400 || status == 422);
+    }
+
+    /**
+     * Spaces requests out to the configured rate. Callers queue up on the
+     * lock, so the rate holds across all workers of this node.
+     */
+    private synchronized void throttle() throws InterruptedException {
+        long now = System.nanoTime();
+        long wait = nextRequestAt - now;
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+            now += wait;
         }
+        nextRequestAt = now + requestIntervalNanos;
     }
 }
@@ -0,0 +1,367 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.exceptions.ResourceNotFoundException;
+import com.bandanize.backend.repositories.SongListRepository;
+import com.bandanize.backend.repositories.SongRepository;
+import com.bandanize.backend.repositories.TablatureRepository;
+import com.lowagie.text.Chunk;
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.FontFactory;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Exports song lists as printable setlist PDFs: a setlist page with keys and
+ * BPMs, then the tabs of each song.
+ * Rendered files are kept in a disk cache under a SHA-256 of everything they
+ * show. Songs are hashed by their fields and tabs by their version, so the
+ * check reads no tab content and any edit produces a new key; the file of the
+ * previous key is deleted when the new one is rendered. Files not served for
+ * a while are swept periodically. The file is opened before it is returned,
+ * so a download in progress is not affected if the file is deleted meanwhile.
+ */
+@Service
+public class SetlistPdfService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SetlistPdfService.class);
+
+    // Part of the hash: bump when the layout changes so cached files are re-rendered
+    private static final String LAYOUT_VERSION = "1";
+
+    private static final Font TITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 20);
+    private static final Font SUBTITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA, 12, Color.GRAY);
+    private static final Font HEADER_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 11);
+    private static final Font CELL_FONT = FontFactory.getFont(FontFactory.HELVETICA, 11);
+    private static final Font SONG_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16);
+    private static final Font TAB_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12);
+    private static final Font CONTENT_FONT = FontFactory.getFont(FontFactory.COURIER, 9);
+
+    /**
+     * A rendered setlist, open for reading; the caller must consume or close
+     * {@code content}. {@code hash} identifies its contents and can be used as
+     * an ETag.
+     */
+    public record SetlistPdf(Path file, InputStream content, long size, String hash, String fileName)
+            implements AutoCloseable {
+
+        @Override
+        public void close() {
+            try {
+                content.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close setlist PDF {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private record Song(Long id, String name, String key, Integer bpm, String originalBand) {
+    }
+
+    private record Tab(Long songId, Long id, Long version, String name, String instrument, String tuning) {
+    }
+
+    private final SongListRepository songListRepository;
+    private final SongRepository songRepository;
+    private final TablatureRepository tablatureRepository;
+    private final Path cacheDir;
+    private final Duration maxAge;
+
+    public SetlistPdfService(SongListRepository songListRepository, SongRepository songRepository,
+            TablatureRepository tablatureRepository,
+            @Value("${app.setlists.pdf-cache-dir:cache/setlists}") String cacheDir,
+            @Value("${app.setlists.pdf-cache-max-age-hours:168}") long maxAgeHours) {
+        this.songListRepository = songListRepository;
+        this.songRepository = songRepository;
+        this.tablatureRepository = tablatureRepository;
+        this.cacheDir = Paths.get(cacheDir);
+        this.maxAge = Duration.ofHours(maxAgeHours);
+    }
+
+    /**
+     * Returns the PDF of a song list, rendering it only if the list or its
+     * songs and tabs changed since it was last rendered. The returned PDF is
+     * already open, so it can still be read if a newer render or the sweep
+     * deletes its file.
+     */
+    public SetlistPdf export(Long listId) {
+        List<Object[]> listRows = songListRepository.findNameAndBandName(listId);
+        if (listRows.isEmpty()) {
+            throw new ResourceNotFoundException("SongList not found");
+        }
+        String listName = (String) listRows.get(0)[0];
+        String bandName = (String) listRows.get(0)[1];
+        List<Song> songs = new ArrayList<>();
+        for (Object[] row : songRepository.findSetlistRows(listId)) {
+            songs.add(new Song((Long) row[0], (String) row[1], (String) row[2], (Integer) row[3], (String) row[4]));
+        }
+        List<Tab> tabs = new ArrayList<>();
+        for (Object[] row : tablatureRepository.findSetlistRows(listId)) {
+            tabs.add(new Tab((Long) row[0], (Long) row[1], (Long) row[2], (String) row[3], (String) row[4],
+                    (String) row[5]));
+        }
+
+        String hash = hash(listName, bandName, songs, tabs);
+        Path dir = cacheDir.resolve(String.valueOf(listId));
+        Path file = dir.resolve(hash + ".pdf");
+        String fileName = fileName(listName);
+        try {
+            FileChannel cached = openIfExists(file);
+            if (cached != null) {
+                Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+                return new SetlistPdf(file, Channels.newInputStream(cached), cached.size(), hash, fileName);
+            }
+
+            Files.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, hash, ".tmp");
+            FileChannel rendered = null;
+            try {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    render(listId, listName, bandName, songs, tabs, out);
+                }
+                // Opened before the move, so the stream stays valid whatever happens to the file next
+                rendered = FileChannel.open(temp, StandardOpenOption.READ);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                deleteOtherVersions(dir, file);
+            } catch (IOException | RuntimeException e) {
+                if (rendered != null) {
+                    rendered.close();
+                }
+                throw e;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            logger.debug("Rendered setlist PDF for list {} ({})", listId, hash);
+            return new SetlistPdf(file, Channels.newInputStream(rendered), rendered.size(), hash, fileName);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export setlist " + listId, e);
+        }
+    }
+
+    private static FileChannel openIfExists(Path file) throws IOException {
+        try {
+            return FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Drops the cached PDFs of a song list, e.g. when it is deleted.
+     */
+    public void evict(Long listId) {
+        Path dir = cacheDir.resolve(String.valueOf(listId));
+        try {
+            deleteOtherVersions(dir, null);
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            logger.warn("Failed to evict setlist PDFs of list {}: {}", listId, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes cached PDFs that have not been served for longer than the
+     * configured maximum age (covers lists and bands deleted meanwhile).
+     */
+    @Scheduled(fixedDelayString = "${app.setlists.pdf-cache-sweep-interval-ms:3600000}")
+    public void sweep() {
+        if (!Files.isDirectory(cacheDir)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(maxAge);
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            files.filter(Files::isRegularFile).forEach(path -> {
+                try {
+                    if (Files.getLastModifiedTime(path).toInstant().isBefore(cutoff)) {
+                        Files.deleteIfExists(path);
+                    }
+                } catch (IOException e) {
+                    logger.debug("Failed to sweep {}: {}", path, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Failed to sweep setlist PDF cache: {}", e.getMessage());
+        }
+    }
+
+    private void render(Long listId, String listName, String bandName, List<Song> songs, List<Tab> tabs,
+            OutputStream out) {
+        Map<Long, String> contents = new HashMap<>();
+        if (!tabs.isEmpty()) {
+            for (Object[] row : tablatureRepository.findContentsBySongListId(listId)) {
+                contents.put((Long) row[0], (String) row[1]);
+            }
+        }
+        Map<Long, List<Tab>> tabsBySong = new HashMap<>();
+        for (Tab tab : tabs) {
+            tabsBySong.computeIfAbsent(tab.songId(), id -> new ArrayList<>()).add(tab);
+        }
+
+        Document document = new Document(PageSize.A4, 40, 40, 40, 40);
+        try {
+            // Pages are written to the stream as they are completed
+            PdfWriter.getInstance(document, out);
+            document.addTitle(listName);
+            document.open();
+
+            document.add(new Paragraph(listName, TITLE_FONT));
+            if (bandName != null) {
+                document.add(new Paragraph(bandName, SUBTITLE_FONT));
+            }
+            PdfPTable table = new PdfPTable(new float[] { 1, 9, 2, 2 });
+            table.setWidthPercentage(100);
+            table.setSpacingBefore(16);
+            table.setHeaderRows(1);
+            for (String header : new String[] { "#", "Song", "Key", "BPM" }) {
+                table.addCell(cell(header, HEADER_FONT));
+            }
+            for (int i = 0; i < songs.size(); i++) {
+                Song song = songs.get(i);
+                table.addCell(cell(String.valueOf(i + 1), CELL_FONT));
+                table.addCell(cell(song.originalBand() != null && !song.originalBand().isBlank()
+                        ? song.name() + " (" + song.originalBand() + ")"
+                        : song.name(), CELL_FONT));
+                table.addCell(cell(song.key(), CELL_FONT));
+                table.addCell(cell(song.bpm() != null ? String.valueOf(song.bpm()) : null, CELL_FONT));
+            }
+            document.add(table);
+
+            for (int i = 0; i < songs.size(); i++) {
+                Song song = songs.get(i);
+                List<Tab> songTabs = tabsBySong.getOrDefault(song.id(), List.of());
+                if (songTabs.isEmpty()) {
+                    continue;
+                }
+                document.newPage();
+                document.add(new Paragraph((i + 1) + ". " + song.name(), SONG_FONT));
+                String details = details(song.key() != null ? "Key " + song.key() : null,
+                        song.bpm() != null ? song.bpm() + " BPM" : null);
+                if (!details.isEmpty()) {
+                    document.add(new Paragraph(details, SUBTITLE_FONT));
+                }
+                for (Tab tab : songTabs) {
+                    Paragraph heading = new Paragraph(tab.name() != null ? tab.name() : "Tab", TAB_FONT);
+                    heading.setSpacingBefore(12);
+                    String tabDetails = details(tab.instrument(),
+                            tab.tuning() != null ? "Tuning " + tab.tuning() : null);
+                    if (!tabDetails.isEmpty()) {
+                        heading.add(new Chunk("  " + tabDetails, SUBTITLE_FONT));
+                    }
+                    document.add(heading);
+                    String content = contents.get(tab.id());
+                    if (content != null && !content.isBlank()) {
+                        Paragraph body = new Paragraph(content, CONTENT_FONT);
+                        body.setSpacingBefore(4);
+                        document.add(body);
+                    }
+                }
+            }
+        } catch (DocumentException e) {
+            throw new IllegalStateException("Failed to render setlist PDF", e);
+        } finally {
+            if (document.isOpen()) {
+                document.close();
+            }
+        }
+    }
+
+    private static PdfPCell cell(String text, Font font) {
+        PdfPCell cell = new PdfPCell(new Phrase(text != null ? text : "", font));
+        cell.setPadding(5);
+        cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
+        return cell;
+    }
+
+    private static String details(String... parts) {
+        List<String> present = new ArrayList<>();
+        for (String part : parts) {
+            if (part != null && !part.isBlank()) {
+                present.add(part);
+            }
+        }
+        return String.join(" · ", present);
+    }
+
+    private static String hash(String listName, String bandName, List<Song> songs, List<Tab> tabs) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        update(digest, LAYOUT_VERSION, listName, bandName);
+        for (Song song : songs) {
+            update(digest, "song", song.id(), song.name(), song.key(), song.bpm(), song.originalBand());
+        }
+        for (Tab tab : tabs) {
+            update(digest, "tab", tab.songId(), tab.id(), tab.version(), tab.name(), tab.instrument(), tab.tuning());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, Object... fields) {
+        for (Object field : fields) {
+            // Field separators keep ("ab", "c") and ("a", "bc") apart; null differs from "null"
+            digest.update(field != null ? Objects.toString(field).getBytes(StandardCharsets.UTF_8) : new byte[] { 0 });
+            digest.update((byte) 0x1f);
+        }
+        digest.update((byte) 0x1e);
+    }
+
+    private static void deleteOtherVersions(Path dir, Path keep) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.pdf")) {
+            for (Path file : files) {
+                if (!file.equals(keep)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static String fileName(String listName) {
+        String safe = listName != null ? listName.replaceAll("[^\\p{L}\\p{N} _-]", "").trim() : "";
+        return (safe.isEmpty() ? "setlist" : safe) + ".pdf";
+    }
+}
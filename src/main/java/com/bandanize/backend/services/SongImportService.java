@@ -0,0 +1,382 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.dtos.SongImportDTO;
+import com.bandanize.backend.dtos.SongImportProgressDTO;
+import com.bandanize.backend.dtos.SongImportProgressDTO.Status;
+import com.bandanize.backend.dtos.TabImportDTO;
+import com.bandanize.backend.exceptions.ResourceNotFoundException;
+import com.bandanize.backend.models.SongListModel;
+import com.bandanize.backend.models.UserModel;
+import com.bandanize.backend.repositories.SongImportRepository;
+import com.bandanize.backend.repositories.SongImportRepository.SongRow;
+import com.bandanize.backend.repositories.SongImportRepository.TabRow;
+import com.bandanize.backend.repositories.SongListRepository;
+import com.bandanize.backend.repositories.SongOrderRepository;
+import com.bandanize.backend.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk import of songs and their tabs into a song list.
+ * The body is read as a stream, one song per JSON line or CSV row, and written
+ * in chunks: each chunk is one transaction with one JDBC batch for its songs
+ * and one for its tabs, so memory use does not depend on the size of the
+ * import and a failure only loses the chunk it happened in. Invalid rows are
+ * skipped and reported. Progress is kept in the database, so it can be
+ * polled on any node while the import runs and only one import per list runs
+ * at a time, and the band gets a single notification for the whole import.
+ */
+@Service
+public class SongImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SongImportService.class);
+
+    public enum Format {
+        JSON_LINES, CSV
+    }
+
+    static final int CHUNK_SIZE = 200;
+    static final int MAX_REPORTED_ERRORS = 50;
+    private static final int MAX_COLUMN_LENGTH = 255;
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+    // A running import whose row was not updated for this long is assumed dead
+    static final Duration STALE_AFTER = Duration.ofMinutes(10);
+
+    private final SongListRepository songListRepository;
+    private final UserRepository userRepository;
+    private final SongOrderRepository songOrderRepository;
+    private final SongOrderRebalancer songOrderRebalancer;
+    private final SongImportRepository songImportRepository;
+    private final BandSearchService bandSearchService;
+    private final NotificationService notificationService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public SongImportService(SongListRepository songListRepository, UserRepository userRepository,
+            SongOrderRepository songOrderRepository, SongOrderRebalancer songOrderRebalancer,
+            SongImportRepository songImportRepository, BandSearchService bandSearchService,
+            NotificationService notificationService, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.songListRepository = songListRepository;
+        this.userRepository = userRepository;
+        this.songOrderRepository = songOrderRepository;
+        this.songOrderRebalancer = songOrderRebalancer;
+        this.songImportRepository = songImportRepository;
+        this.bandSearchService = bandSearchService;
+        this.notificationService = notificationService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    private final class ImportRun {
+        final Long listId;
+        final Long bandId;
+        final List<SongImportDTO> chunk = new ArrayList<>(CHUNK_SIZE);
+        final List<String> errors = new ArrayList<>();
+        long rowsRead;
+        int songsImported;
+        int tabsImported;
+        int errorCount;
+
+        ImportRun(Long listId, Long bandId) {
+            this.listId = listId;
+            this.bandId = bandId;
+        }
+
+        void accept(long row, SongImportDTO song) {
+            rowsRead = row;
+            String problem = validate(song);
+            if (problem != null) {
+                error(row, problem);
+                return;
+            }
+            chunk.add(song);
+            if (chunk.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void error(long row, String problem) {
+            rowsRead = row;
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(row > 0 ? "Row " + row + ": " + problem : problem);
+            }
+        }
+
+        void flush() {
+            if (!chunk.isEmpty()) {
+                tabsImported += writeChunk(bandId, listId, chunk);
+                songsImported += chunk.size();
+                chunk.clear();
+            }
+            publish(Status.RUNNING);
+        }
+
+        SongImportProgressDTO publish(Status status) {
+            SongImportProgressDTO progress = new SongImportProgressDTO(listId, status, rowsRead, songsImported,
+                    tabsImported, errorCount, List.copyOf(errors));
+            songImportRepository.updateImportRun(listId, new SongImportRepository.ImportRunRow(status.name(),
+                    rowsRead, songsImported, tabsImported, errorCount, objectMapper.writeValueAsString(errors),
+                    LocalDateTime.now()));
+            return progress;
+        }
+    }
+
+    /**
+     * Imports songs from {@code body} at the end of a song list. Returns when
+     * the whole body has been read.
+     *
+     * @param format {@link Format#JSON_LINES}: one {@link SongImportDTO} per
+     *               line. {@link Format#CSV}: a header row naming the columns
+     *               {@code name, bpm, songKey, originalBand, tabName,
+     *               tabInstrument, tabTuning, tabContent} (any order, only
+     *               {@code name} required), then one song per row with at
+     *               most one tab.
+     * @return The outcome; {@code FAILED} if the import stopped early, in
+     *         which case the chunks written before the failure are kept.
+     * @throws IllegalArgumentException if an import into the list is already
+     *                                  running.
+     */
+    public SongImportProgressDTO importSongs(Long listId, Long userId, InputStream body, Format format) {
+        Long bandId = transactionTemplate.execute(status -> songListRepository.findById(listId)
+                .orElseThrow(() -> new ResourceNotFoundException("SongList not found")).getBand().getId());
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (!songImportRepository.claimImportRun(listId, now, now.minus(STALE_AFTER))) {
+            throw new IllegalArgumentException("An import into this song list is already running");
+        }
+
+        ImportRun run = new ImportRun(listId, bandId);
+        Status outcome = Status.COMPLETED;
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            if (format == Format.CSV) {
+                readCsv(reader, run);
+            } else {
+                readJsonLines(reader, run);
+            }
+            run.flush();
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Song import into list {} aborted while reading: {}", listId, e.getMessage());
+            run.error(run.rowsRead + 1, "Could not read the request body");
+            outcome = Status.FAILED;
+        } catch (RuntimeException e) {
+            logger.error("Song import into list {} failed: {}", listId, e.getMessage(), e);
+            run.error(run.rowsRead, e instanceof IllegalArgumentException ? e.getMessage() : "Import failed");
+            outcome = Status.FAILED;
+        }
+
+        if (run.songsImported > 0) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    SongListModel list = songListRepository.findById(listId).orElse(null);
+                    UserModel user = userRepository.findById(userId).orElse(null);
+                    if (list != null && user != null) {
+                        notificationService.createSongsImportedNotification(list.getBand(), user, list,
+                                run.songsImported, run.tabsImported);
+                    }
+                });
+            } catch (RuntimeException e) {
+                logger.warn("Failed to notify about song import into list {}: {}", listId, e.getMessage());
+            }
+        }
+        logger.info("Imported {} songs and {} tabs into list {} ({} rows skipped)", run.songsImported,
+                run.tabsImported, listId, run.errorCount);
+        return run.publish(outcome);
+    }
+
+    /**
+     * Returns the progress of the running or last import into a list.
+     */
+    public SongImportProgressDTO getProgress(Long listId) {
+        SongImportRepository.ImportRunRow run = songImportRepository.findImportRun(listId)
+                .orElseThrow(() -> new ResourceNotFoundException("No import for this song list"));
+        Status status = Status.valueOf(run.status());
+        if (status == Status.RUNNING && run.updatedAt().isBefore(LocalDateTime.now().minus(STALE_AFTER))) {
+            // The node running it went away
+            status = Status.FAILED;
+        }
+        List<String> errors = run.errors() != null
+                ? objectMapper.readValue(run.errors(), new TypeReference<List<String>>() {
+                })
+                : List.of();
+        return new SongImportProgressDTO(listId, status, run.rowsRead(), run.songsImported(), run.tabsImported(),
+                run.errorCount(), errors);
+    }
+
+    private void readJsonLines(BufferedReader reader, ImportRun run) throws IOException {
+        long row = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (row == 1 && line.startsWith(BYTE_ORDER_MARK)) {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            SongImportDTO song;
+            try {
+                song = objectMapper.readValue(line, SongImportDTO.class);
+            } catch (JacksonException e) {
+                run.error(row, "Invalid JSON");
+                continue;
+            }
+            run.accept(row, song);
+        }
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i);
+            if (i == 0 && column.startsWith(BYTE_ORDER_MARK)) {
+                // Spreadsheet exports often start with one
+                column = column.substring(1);
+            }
+            columns.put(column.trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("name")) {
+            throw new IllegalArgumentException("CSV header must include a name column");
+        }
+
+        long row = 0;
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            row++;
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            SongImportDTO song = new SongImportDTO();
+            song.setName(field(fields, columns, "name"));
+            song.setSongKey(field(fields, columns, "songkey"));
+            song.setOriginalBand(field(fields, columns, "originalband"));
+            String bpm = field(fields, columns, "bpm");
+            if (bpm != null) {
+                try {
+                    song.setBpm(Integer.parseInt(bpm.trim()));
+                } catch (NumberFormatException e) {
+                    run.error(row, "Invalid bpm '" + bpm + "'");
+                    continue;
+                }
+            }
+            String tabName = field(fields, columns, "tabname");
+            String tabInstrument = field(fields, columns, "tabinstrument");
+            String tabTuning = field(fields, columns, "tabtuning");
+            String tabContent = field(fields, columns, "tabcontent");
+            if (tabName != null || tabInstrument != null || tabTuning != null || tabContent != null) {
+                song.getTabs().add(new TabImportDTO(tabName, tabInstrument, null, tabTuning, tabContent));
+            }
+            run.accept(row, song);
+        }
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    /**
+     * @return Why the song cannot be imported, or null if it can.
+     */
+    private static String validate(SongImportDTO song) {
+        if (song.getName() == null || song.getName().isBlank()) {
+            return "Song name is required";
+        }
+        if (tooLong(song.getName()) || tooLong(song.getSongKey()) || tooLong(song.getOriginalBand())) {
+            return "Song fields are limited to " + MAX_COLUMN_LENGTH + " characters";
+        }
+        for (TabImportDTO tab : song.getTabs()) {
+            if (tab == null || tab.getName() == null || tab.getName().isBlank()) {
+                return "Tab name is required";
+            }
+            if (tooLong(tab.getName()) || tooLong(tab.getInstrument()) || tooLong(tab.getInstrumentIcon())
+                    || tooLong(tab.getTuning())) {
+                return "Tab fields are limited to " + MAX_COLUMN_LENGTH + " characters";
+            }
+        }
+        return null;
+    }
+
+    private static boolean tooLong(String value) {
+        return value != null && value.length() > MAX_COLUMN_LENGTH;
+    }
+
+    /**
+     * Appends a chunk of songs to the list in one transaction.
+     *
+     * @return The number of tabs written.
+     */
+    private int writeChunk(Long bandId, Long listId, List<SongImportDTO> songs) {
+        Integer tabCount = transactionTemplate.execute(status -> {
+            songOrderRepository.lockSongList(listId);
+            String key = songOrderRepository.findLastSongKey(listId, null);
+            if (key != null && (!OrderingKeys.isValid(key) || key.length() >= SongOrderRebalancer.MAX_KEY_LENGTH)) {
+                songOrderRebalancer.rebalanceList(listId);
+                key = songOrderRepository.findLastSongKey(listId, null);
+            }
+            int orderIndex = songImportRepository.countSongs(listId);
+
+            List<SongRow> songRows = new ArrayList<>(songs.size());
+            for (SongImportDTO song : songs) {
+                key = OrderingKeys.between(key, null);
+                songRows.add(new SongRow(song.getName(), song.getBpm(), song.getSongKey(), song.getOriginalBand(),
+                        orderIndex++, key));
+            }
+            List<Long> songIds = songImportRepository.insertSongs(listId, songRows);
+
+            List<TabRow> tabRows = new ArrayList<>();
+            for (int i = 0; i < songs.size(); i++) {
+                for (TabImportDTO tab : songs.get(i).getTabs()) {
+                    tabRows.add(new TabRow(songIds.get(i), tab.getName(), tab.getInstrument(),
+                            tab.getInstrumentIcon(), tab.getTuning(), tab.getContent()));
+                }
+            }
+            List<Long> tabIds = songImportRepository.insertTabs(tabRows);
+
+            for (int i = 0; i < songs.size(); i++) {
+                SongImportDTO song = songs.get(i);
+                bandSearchService.indexSong(bandId, listId, songIds.get(i), song.getName(), song.getOriginalBand());
+            }
+            for (int i = 0; i < tabRows.size(); i++) {
+                TabRow tab = tabRows.get(i);
+                bandSearchService.indexTablature(bandId, listId, tab.songId(), tabIds.get(i), tab.name(),
+                        tab.content());
+            }
+            return tabRows.size();
+        });
+        return tabCount != null ? tabCount : 0;
+    }
+}
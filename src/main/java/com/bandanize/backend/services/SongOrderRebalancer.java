@@ -0,0 +1,91 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.repositories.SongOrderRepository;
+import com.bandanize.backend.repositories.SongOrderRepository.SongPosition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps song ordering keys healthy.
+ * Moving a song only rewrites its own {@link OrderingKeys} key, so keys grow
+ * longer when songs are repeatedly dropped into the same gap, and the dense
+ * {@code orderIndex} exposed to clients drifts from the real order. This job
+ * periodically finds such lists (plus legacy songs without a key, which makes
+ * the first run a backfill) and rewrites them in one batch per list.
+ */
+@Component
+public class SongOrderRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SongOrderRebalancer.class);
+
+    // Keys longer than this are respread evenly
+    static final int MAX_KEY_LENGTH = 24;
+
+    private final SongOrderRepository songOrderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public SongOrderRebalancer(SongOrderRepository songOrderRepository,
+            PlatformTransactionManager transactionManager) {
+        this.songOrderRepository = songOrderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${app.songs.rebalance-interval-ms:600000}")
+    public void rebalance() {
+        List<Long> listIds = songOrderRepository.findSongListsNeedingRebalance(MAX_KEY_LENGTH);
+        for (Long listId : listIds) {
+            try {
+                rebalanceList(listId);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to rebalance song list {}: {}", listId, e.getMessage());
+            }
+        }
+        if (!listIds.isEmpty()) {
+            logger.info("Rebalanced song order of {} list(s)", listIds.size());
+        }
+    }
+
+    /**
+     * Rewrites the keys of a list if any is missing, too long or duplicated,
+     * and realigns {@code orderIndex} with the key order. Only rows whose values
+     * change are written. Joins the caller's transaction if there is one.
+     */
+    public void rebalanceList(Long listId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            songOrderRepository.lockSongList(listId);
+            List<SongPosition> songs = songOrderRepository.findSongPositions(listId);
+
+            boolean respread = false;
+            String previousKey = null;
+            for (SongPosition song : songs) {
+                String key = song.sortKey();
+                if (key == null || key.length() > MAX_KEY_LENGTH || !OrderingKeys.isValid(key)
+                        || key.equals(previousKey)) {
+                    respread = true;
+                    break;
+                }
+                previousKey = key;
+            }
+            List<String> keys = respread ? OrderingKeys.evenlySpaced(songs.size()) : null;
+
+            List<SongPosition> changed = new ArrayList<>();
+            for (int i = 0; i < songs.size(); i++) {
+                SongPosition song = songs.get(i);
+                String key = respread ? keys.get(i) : song.sortKey();
+                if (!key.equals(song.sortKey()) || song.orderIndex() == null || song.orderIndex() != i) {
+                    changed.add(new SongPosition(song.id(), listId, key, i));
+                }
+            }
+            if (!changed.isEmpty()) {
+                songOrderRepository.updateSongPositions(changed);
+            }
+        });
+    }
+}
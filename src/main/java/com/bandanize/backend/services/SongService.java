@@ -27,6 +27,16 @@ public class SongService {
     private NotificationService notificationService;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private BandSearchService bandSearchService;
+    @Autowired
+    private SongOrderRepository songOrderRepository;
+    @Autowired
+    private SongOrderRebalancer songOrderRebalancer;
+    @Autowired
+    private SetlistPdfService setlistPdfService;
+    @Autowired
+    private FileCleanupService fileCleanupService;
 
     // --- SongList ---
     public SongListModel createSongList(Long bandId, Long userId, SongListModel songList) {
@@ -43,6 +53,7 @@ public class SongService {
         }
 
         SongListModel savedList = songListRepository.save(songList);
+        bandSearchService.indexSongList(savedList);
 
         notificationService.createListNotification(band, user, savedList);
         return savedList;
@@ -52,15 +63,55 @@ public class SongService {
         return songListRepository.findByBandId(bandId);
     }
 
+    /**
+     * Returns the band's song lists with song and tab headers only (no tab
+     * content or files). Always runs three queries, regardless of the number of
+     * lists, songs or tabs. Songs and tabs created between those queries, whose
+     * list or song was not read yet, are left out.
+     */
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public List<com.bandanize.backend.dtos.SongListIndexDTO> getSongListIndex(Long bandId) {
+        if (!bandRepository.existsById(bandId)) {
+            throw new ResourceNotFoundException("Band not found");
+        }
+        List<com.bandanize.backend.dtos.SongListIndexDTO> lists = songListRepository.findIndexByBandId(bandId);
+
+        java.util.Map<Long, com.bandanize.backend.dtos.SongListIndexDTO> listsById = new java.util.HashMap<>();
+        lists.forEach(list -> listsById.put(list.getId(), list));
+
+        java.util.Map<Long, com.bandanize.backend.dtos.SongHeaderDTO> songsById = new java.util.HashMap<>();
+        for (Object[] row : songRepository.findHeaderRowsByBandId(bandId)) {
+            com.bandanize.backend.dtos.SongHeaderDTO song = new com.bandanize.backend.dtos.SongHeaderDTO(
+                    (Long) row[1], (String) row[2], (Integer) row[3], (String) row[4], (Integer) row[5]);
+            com.bandanize.backend.dtos.SongListIndexDTO list = listsById.get((Long) row[0]);
+            if (list != null) {
+                songsById.put(song.getId(), song);
+                list.getSongs().add(song);
+            }
+        }
+
+        for (Object[] row : tablatureRepository.findHeaderRowsByBandId(bandId)) {
+            com.bandanize.backend.dtos.SongHeaderDTO song = songsById.get((Long) row[0]);
+            if (song != null) {
+                song.getTablatures().add(new com.bandanize.backend.dtos.TabHeaderDTO(
+                        (Long) row[1], (String) row[2], (String) row[3], (String) row[4]));
+            }
+        }
+        return lists;
+    }
+
     public SongListModel updateSongList(Long listId, SongListModel details) {
         SongListModel list = songListRepository.findById(listId)
                 .orElseThrow(() -> new ResourceNotFoundException("SongList not found"));
         if (details.getName() != null) {
             list.setName(details.getName());
         }
-        return songListRepository.save(list);
+        SongListModel savedList = songListRepository.save(list);
+        bandSearchService.indexSongList(savedList);
+        return savedList;
     }
 
+    @org.springframework.transaction.annotation.Transactional
     public void deleteSongList(Long listId) {
         SongListModel list = songListRepository.findById(listId)
                 .orElseThrow(() -> new ResourceNotFoundException("SongList not found"));
@@ -72,16 +123,21 @@ public class SongService {
         }
 
         songListRepository.delete(list);
+        bandSearchService.removeSongList(listId);
+        setlistPdfService.evict(listId);
     }
 
     // ...
 
     // --- Song ---
+    @org.springframework.transaction.annotation.Transactional
     public SongModel addSong(Long listId, Long userId, SongModel song) {
         SongListModel list = songListRepository.findById(listId)
                 .orElseThrow(() -> new ResourceNotFoundException("SongList not found"));
         UserModel user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        // Concurrent appends would otherwise read the same last key
+        songOrderRepository.lockSongList(listId);
 
         song.setSongList(list);
 
@@ -89,8 +145,10 @@ public class SongService {
         if (song.getOrderIndex() == null) {
             song.setOrderIndex(list.getSongs().size());
         }
+        song.setSortKey(nextKeyAtEnd(listId, null));
 
         SongModel savedSong = songRepository.save(song);
+        bandSearchService.indexSong(savedSong);
         notificationService.createSongNotification(list.getBand(), user, savedSong);
         return savedSong;
     }
@@ -126,9 +184,12 @@ public class SongService {
             song.setOriginalBand((String) updates.get("originalBand"));
         }
 
-        return songRepository.saveAndFlush(song);
+        SongModel savedSong = songRepository.saveAndFlush(song);
+        bandSearchService.indexSong(savedSong);
+        return savedSong;
     }
 
+    @org.springframework.transaction.annotation.Transactional
     public void deleteSong(Long songId) {
         SongModel song = songRepository.findById(songId)
                 .orElseThrow(() -> new ResourceNotFoundException("Song not found"));
@@ -136,74 +197,185 @@ public class SongService {
         cleanupSongFiles(song);
 
         songRepository.delete(song);
+        bandSearchService.removeSong(songId);
     }
 
+    /**
+     * Sets the order of the songs in a list with a single set-based update.
+     *
+     * @param listId  The ID of the song list.
+     * @param songIds Song IDs in their new order; each must belong to the list.
+     */
+    @org.springframework.transaction.annotation.Transactional
     public void reorderSongs(Long listId, List<Long> songIds) {
-        SongListModel list = songListRepository.findById(listId)
-                .orElseThrow(() -> new ResourceNotFoundException("SongList not found"));
+        if (!songListRepository.existsById(listId)) {
+            throw new ResourceNotFoundException("SongList not found");
+        }
+        songOrderRepository.lockSongList(listId);
+        List<Long> currentOrder = songOrderRepository.findSongPositions(listId).stream()
+                .map(SongOrderRepository.SongPosition::id)
+                .toList();
+        validateReorder(songIds, currentOrder, "song list");
+
+        // Songs missing from the request keep their relative order after the given ones
+        List<Long> order = new java.util.ArrayList<>(songIds);
+        java.util.Set<Long> requested = new java.util.HashSet<>(songIds);
+        currentOrder.stream().filter(id -> !requested.contains(id)).forEach(order::add);
+        songOrderRepository.reorderSongs(listId, order, OrderingKeys.evenlySpaced(order.size()));
+    }
 
-        // Setup a map for faster lookup or just iterate if list is small.
-        // Lists are usually small (< 100 songs), so iterating is fine but let's be
-        // safe.
-        // Actually we need to update the entities.
-
-        List<SongModel> songs = list.getSongs();
-        for (int i = 0; i < songIds.size(); i++) {
-            Long songId = songIds.get(i);
-            // find the song in the list
-            for (SongModel s : songs) {
-                if (s.getId().equals(songId)) {
-                    s.setOrderIndex(i);
-                    break;
-                }
+    /**
+     * Moves one song between two neighbors of the same list. Only the moved
+     * song's sort key is written; {@code orderIndex} values are realigned later
+     * by {@link SongOrderRebalancer}.
+     *
+     * @param songId   The ID of the song to move.
+     * @param afterId  The song that should end up right before it, or null for
+     *                 the start of the list.
+     * @param beforeId The song that should end up right after it, or null for
+     *                 the end of the list.
+     */
+    @org.springframework.transaction.annotation.Transactional
+    public void moveSong(Long songId, Long afterId, Long beforeId) {
+        if (songId.equals(afterId) || songId.equals(beforeId)) {
+            throw new IllegalArgumentException("A song cannot be its own neighbor");
+        }
+        Long listId = songOrderRepository.findSongPosition(songId)
+                .orElseThrow(() -> new ResourceNotFoundException("Song not found"))
+                .songListId();
+        songOrderRepository.lockSongList(listId);
+
+        String key = keyBetweenNeighbors(listId, songId, afterId, beforeId);
+        if (key == null) {
+            // Legacy, duplicate or exhausted keys around the target: respread the list once
+            songOrderRebalancer.rebalanceList(listId);
+            key = keyBetweenNeighbors(listId, songId, afterId, beforeId);
+            if (key == null) {
+                throw new IllegalArgumentException("The 'after' song must come before the 'before' song");
             }
         }
+        songOrderRepository.updateSongKey(songId, key);
+    }
+
+    private String keyBetweenNeighbors(Long listId, Long songId, Long afterId, Long beforeId) {
+        if (afterId == null && beforeId == null) {
+            return nextKeyAtEnd(listId, songId);
+        }
+        String lower = afterId != null ? neighborKey(listId, afterId) : null;
+        String upper = beforeId != null ? neighborKey(listId, beforeId) : null;
+        if ((afterId != null && lower == null) || (beforeId != null && upper == null)) {
+            return null;
+        }
+        if (beforeId == null) {
+            upper = songOrderRepository.findNextSongKey(listId, lower, songId);
+        } else if (afterId == null) {
+            lower = songOrderRepository.findPreviousSongKey(listId, upper, songId);
+        }
+        if ((lower != null && !OrderingKeys.isValid(lower)) || (upper != null && !OrderingKeys.isValid(upper))
+                || (lower != null && upper != null && lower.compareTo(upper) >= 0)) {
+            return null;
+        }
+        String key = OrderingKeys.between(lower, upper);
+        return key.length() <= SongOrderRebalancer.MAX_KEY_LENGTH ? key : null;
+    }
+
+    private String neighborKey(Long listId, Long neighborId) {
+        SongOrderRepository.SongPosition neighbor = songOrderRepository.findSongPosition(neighborId)
+                .orElseThrow(() -> new ResourceNotFoundException("Song not found"));
+        if (!listId.equals(neighbor.songListId())) {
+            throw new IllegalArgumentException("Item " + neighborId + " does not belong to this song list");
+        }
+        return neighbor.sortKey();
+    }
 
-        songListRepository.save(list);
+    private String nextKeyAtEnd(Long listId, Long excludedSongId) {
+        String last = songOrderRepository.findLastSongKey(listId, excludedSongId);
+        if (last != null && (!OrderingKeys.isValid(last) || last.length() >= SongOrderRebalancer.MAX_KEY_LENGTH)) {
+            songOrderRebalancer.rebalanceList(listId);
+            last = songOrderRepository.findLastSongKey(listId, excludedSongId);
+        }
+        return OrderingKeys.between(last, null);
     }
 
+    /**
+     * Sets the order of a band's song lists with a single set-based update.
+     *
+     * @param bandId  The ID of the band.
+     * @param listIds Song list IDs in their new order; each must belong to the
+     *                band.
+     */
+    @org.springframework.transaction.annotation.Transactional
     public void reorderSongLists(Long bandId, List<Long> listIds) {
-        BandModel band = bandRepository.findById(bandId)
-                .orElseThrow(() -> new ResourceNotFoundException("Band not found"));
+        if (!bandRepository.existsById(bandId)) {
+            throw new ResourceNotFoundException("Band not found");
+        }
+        validateReorder(listIds, songOrderRepository.findSongListIds(bandId), "band");
+        songOrderRepository.reorderSongLists(bandId, listIds);
+    }
 
-        List<SongListModel> lists = band.getSongLists();
-        for (int i = 0; i < listIds.size(); i++) {
-            Long listId = listIds.get(i);
-            for (SongListModel list : lists) {
-                if (list.getId().equals(listId)) {
-                    list.setOrderIndex(i);
-                    break;
-                }
+    private static void validateReorder(List<Long> requestedIds, List<Long> existingIds, String parent) {
+        if (requestedIds == null) {
+            throw new IllegalArgumentException("Order is required");
+        }
+        java.util.Set<Long> existing = new java.util.HashSet<>(existingIds);
+        java.util.Set<Long> seen = new java.util.HashSet<>();
+        for (Long id : requestedIds) {
+            if (id == null || !existing.contains(id)) {
+                throw new IllegalArgumentException("Item " + id + " does not belong to this " + parent);
+            }
+            if (!seen.add(id)) {
+                throw new IllegalArgumentException("Item " + id + " appears more than once");
             }
         }
-        bandRepository.save(band);
     }
 
     private void cleanupSongFiles(SongModel song) {
-        // Delete song files
+        List<String> urls = new java.util.ArrayList<>();
+        // Song files
         for (MediaFile file : song.getFiles()) {
-            deleteFileFromStorage(file.getUrl());
+            urls.add(file.getUrl());
         }
 
-        // Delete tablature files
+        // Tablature files
         for (TablatureModel tab : song.getTablatures()) {
             for (MediaFile file : tab.getFiles()) {
-                deleteFileFromStorage(file.getUrl());
+                urls.add(file.getUrl());
             }
         }
+        fileCleanupService.enqueueUrls(urls);
     }
 
     // --- Tablature ---
+    @org.springframework.transaction.annotation.Transactional
     public TablatureModel addTablature(Long songId, TablatureModel tab) {
         SongModel song = songRepository.findById(songId)
                 .orElseThrow(() -> new ResourceNotFoundException("Song not found"));
         tab.setSong(song);
-        return tablatureRepository.save(tab);
+        TablatureModel savedTab = tablatureRepository.save(tab);
+        bandSearchService.indexTablature(savedTab);
+        return savedTab;
     }
 
+    /**
+     * Returns a tab with its content loaded.
+     */
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public TablatureModel getTablature(Long tabId) {
+        TablatureModel tab = tablatureRepository.findById(tabId)
+                .orElseThrow(() -> new ResourceNotFoundException("Tablature not found"));
+        tab.getContent(); // Lazy attribute
+        return tab;
+    }
+
+    /**
+     * Updates a tablature. If {@code details} carries a version, the update is
+     * rejected when the tab has been modified since that version.
+     */
+    @org.springframework.transaction.annotation.Transactional
     public TablatureModel updateTablature(Long tabId, TablatureModel details) {
         TablatureModel tab = tablatureRepository.findById(tabId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tablature not found"));
+        checkVersion(tab, details.getVersion());
         if (details.getName() != null)
             tab.setName(details.getName());
         if (details.getInstrument() != null)
@@ -218,19 +390,53 @@ public class SongService {
             tab.setFiles(details.getFiles());
         }
         logger.debug("Saving tab update to DB for tabId: {}", tabId);
-        return tablatureRepository.saveAndFlush(tab);
+        TablatureModel savedTab = tablatureRepository.saveAndFlush(tab);
+        bandSearchService.indexTablature(savedTab);
+        return savedTab;
+    }
+
+    /**
+     * Applies text edits to a tab's content. The edits are expressed against
+     * {@code baseVersion}; if the tab has changed since, nothing is written and
+     * the client must refetch and rebase.
+     *
+     * @return The new version of the tab.
+     */
+    @org.springframework.transaction.annotation.Transactional
+    public com.bandanize.backend.dtos.TabVersionDTO patchTablatureContent(Long tabId,
+            com.bandanize.backend.dtos.TabContentPatchDTO patch) {
+        if (patch.getBaseVersion() == null) {
+            throw new IllegalArgumentException("baseVersion is required");
+        }
+        TablatureModel tab = tablatureRepository.findById(tabId)
+                .orElseThrow(() -> new ResourceNotFoundException("Tablature not found"));
+        checkVersion(tab, patch.getBaseVersion());
+
+        if (patch.getEdits() != null && !patch.getEdits().isEmpty()) {
+            tab.setContent(TextPatch.apply(tab.getContent(), patch.getEdits()));
+            tab = tablatureRepository.saveAndFlush(tab);
+            bandSearchService.indexTablature(tab);
+        }
+        return new com.bandanize.backend.dtos.TabVersionDTO(tab.getId(), tab.getVersion());
+    }
+
+    private static void checkVersion(TablatureModel tab, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(tab.getVersion())) {
+            throw new com.bandanize.backend.exceptions.VersionConflictException(
+                    "Tablature was modified (current version " + tab.getVersion() + ")");
+        }
     }
 
+    @org.springframework.transaction.annotation.Transactional
     public void deleteTablature(Long tabId) {
         TablatureModel tab = tablatureRepository.findById(tabId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tablature not found"));
 
         // Clean up files
-        for (MediaFile file : tab.getFiles()) {
-            deleteFileFromStorage(file.getUrl());
-        }
+        fileCleanupService.enqueueUrls(tab.getFiles().stream().map(MediaFile::getUrl).toList());
 
         tablatureRepository.delete(tab);
+        bandSearchService.removeTablature(tabId);
     }
 
     public SongModel addFileToSong(Long songId, MediaFile file) {
@@ -247,9 +453,7 @@ public class SongService {
         return tablatureRepository.save(tab);
     }
 
-    @Autowired
-    private StorageService storageService;
-
+    @org.springframework.transaction.annotation.Transactional
     public SongModel removeFileFromSong(Long songId, String fileUrl) {
         SongModel song = songRepository.findById(songId)
                 .orElseThrow(() -> new ResourceNotFoundException("Song not found"));
@@ -267,6 +471,7 @@ public class SongService {
         return songRepository.save(song);
     }
 
+    @org.springframework.transaction.annotation.Transactional
     public TablatureModel removeFileFromTablature(Long tabId, String fileUrl) {
         TablatureModel tab = tablatureRepository.findById(tabId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tablature not found"));
@@ -284,20 +489,10 @@ public class SongService {
         return tablatureRepository.save(tab);
     }
 
+    /**
+     * Queues an uploaded file for deletion once the transaction commits.
+     */
     private void deleteFileFromStorage(String fileUrl) {
-        // Expected URL format: /uploads/{folder}/{filename}
-        try {
-            String[] parts = fileUrl.split("/");
-            if (parts.length >= 2) {
-                String filename = parts[parts.length - 1];
-                String folder = parts[parts.length - 2];
-                storageService.deleteFile(filename, folder);
-            }
-        } catch (Exception e) {
-            // Log warning but don't fail the operation? Or fail?
-            // Failing is safer to keep consistency, but if file is already gone, maybe not.
-            // Let's let it throw for now.
-            throw new RuntimeException("Failed to delete file from storage: " + e.getMessage());
-        }
+        fileCleanupService.enqueueUrls(List.of(fileUrl));
     }
 }
@@ -0,0 +1,401 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.dtos.TabEditMessageDTO;
+import com.bandanize.backend.dtos.TextEditDTO;
+import com.bandanize.backend.exceptions.ResourceNotFoundException;
+import com.bandanize.backend.exceptions.VersionConflictException;
+import com.bandanize.backend.models.TablatureModel;
+import com.bandanize.backend.repositories.TablatureRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server side of collaborative tab editing.
+ * Every tab being edited has an in-memory document with a revision counter.
+ * Editors send their edits against the last revision they have seen; the
+ * server transforms them over the edits applied since (see
+ * {@link TextPatch#transform}), applies them as the next revision and relays
+ * them to the other editors. Clients transform their unacknowledged edits over
+ * the relayed ones with {@code afterOnTie = false}.
+ * The document is written to the database as a snapshot every few seconds
+ * while it changes, and when the last editor leaves, instead of on every edit.
+ * If the tab was saved elsewhere meanwhile, the edits not saved yet are
+ * rebased onto that version and the editors are reset to the result.
+ * Editors are checked to belong to the band when they join, and again every
+ * membership-check interval, not on every edit.
+ * <p>
+ * Documents live in the memory of one node. All editors of a tab must be
+ * routed to the same node (e.g. sticky routing on the tab id); editors on
+ * different nodes only see each other's edits when a snapshot conflicts.
+ */
+@Service
+public class TabCollaborationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TabCollaborationService.class);
+
+    // Edits kept for rebasing; clients further behind are reset
+    static final int MAX_HISTORY = 1000;
+
+    public static final String USER_ID_ATTRIBUTE = "userId";
+    public static final String USERNAME_ATTRIBUTE = "username";
+
+    private static final class TabDocument {
+        final Long tabId;
+        final Map<String, WebSocketSession> editors = new LinkedHashMap<>();
+        final ArrayDeque<List<TextEditDTO>> history = new ArrayDeque<>();
+        // Edits since savedContent, one entry per revision after savedRevision
+        final ArrayDeque<List<TextEditDTO>> unsaved = new ArrayDeque<>();
+        String content;
+        long revision;
+        String savedContent;
+        long savedRevision;
+        Long version;
+        // A snapshot is being written, outside the lock; saveRequested asks it to write again when done
+        boolean saving;
+        boolean saveRequested;
+        boolean closed;
+
+        TabDocument(TablatureModel tab) {
+            this.tabId = tab.getId();
+            this.content = tab.getContent() != null ? tab.getContent() : "";
+            this.savedContent = this.content;
+            this.version = tab.getVersion();
+        }
+    }
+
+    private final Map<Long, TabDocument> documents = new ConcurrentHashMap<>();
+    private final SongService songService;
+    private final TablatureRepository tablatureRepository;
+    private final ObjectMapper objectMapper;
+
+    public TabCollaborationService(SongService songService, TablatureRepository tablatureRepository,
+            ObjectMapper objectMapper) {
+        this.songService = songService;
+        this.tablatureRepository = tablatureRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Adds an editor to a tab, loading the tab if nobody is editing it yet, and
+     * sends it the current content.
+     *
+     * @param session A session that is safe to send to from several threads.
+     */
+    public void join(Long tabId, WebSocketSession session) {
+        if (!tablatureRepository.isBandMember(tabId, userId(session))) {
+            close(session, CloseStatus.POLICY_VIOLATION);
+            return;
+        }
+        while (true) {
+            TabDocument document = documents.get(tabId);
+            if (document == null) {
+                // Loaded outside the map's lock; if another editor loaded it meanwhile, theirs is used
+                TabDocument loaded = new TabDocument(songService.getTablature(tabId));
+                document = documents.putIfAbsent(tabId, loaded);
+                if (document == null) {
+                    document = loaded;
+                }
+            }
+            synchronized (document) {
+                if (document.closed) {
+                    continue;
+                }
+                document.editors.put(session.getId(), session);
+                TabEditMessageDTO init = new TabEditMessageDTO("init", document.revision);
+                init.setContent(document.content);
+                send(session, init);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Handles a message from an editor.
+     */
+    public void receive(Long tabId, String sessionId, TabEditMessageDTO message) {
+        TabDocument document = documents.get(tabId);
+        if (document == null) {
+            return;
+        }
+        synchronized (document) {
+            WebSocketSession session = document.editors.get(sessionId);
+            if (session == null) {
+                return;
+            }
+            if (!"op".equals(message.getType()) || message.getRevision() == null || message.getEdits() == null) {
+                send(session, error("Expected an op with a revision and edits"));
+                return;
+            }
+
+            long base = message.getRevision();
+            long oldest = document.revision - document.history.size();
+            if (base < oldest || base > document.revision) {
+                send(session, reset(document));
+                return;
+            }
+
+            List<TextEditDTO> edits = message.getEdits();
+            long skip = base - oldest;
+            try {
+                for (List<TextEditDTO> applied : document.history) {
+                    if (skip-- > 0) {
+                        continue;
+                    }
+                    edits = TextPatch.transform(edits, applied, true);
+                }
+                document.content = TextPatch.apply(document.content, edits);
+            } catch (IllegalArgumentException e) {
+                send(session, reset(document));
+                return;
+            }
+
+            document.revision++;
+            document.unsaved.addLast(edits);
+            document.history.addLast(edits);
+            if (document.history.size() > MAX_HISTORY) {
+                document.history.removeFirst();
+            }
+
+            TabEditMessageDTO ack = new TabEditMessageDTO("ack", document.revision);
+            ack.setOpId(message.getOpId());
+            send(session, ack);
+
+            TabEditMessageDTO op = new TabEditMessageDTO("op", document.revision);
+            op.setEdits(edits);
+            op.setUserId(userId(session));
+            op.setUsername((String) session.getAttributes().get(USERNAME_ATTRIBUTE));
+            for (WebSocketSession editor : document.editors.values()) {
+                if (editor != session) {
+                    send(editor, op);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes an editor. When the last one leaves, the document is saved and
+     * dropped from memory.
+     */
+    public void leave(Long tabId, String sessionId) {
+        TabDocument document = documents.get(tabId);
+        if (document == null) {
+            return;
+        }
+        boolean lastEditor;
+        synchronized (document) {
+            document.editors.remove(sessionId);
+            lastEditor = document.editors.isEmpty();
+        }
+        if (lastEditor) {
+            snapshot(document);
+            closeIfIdle(document);
+        }
+    }
+
+    /**
+     * Writes the documents changed since their last snapshot, and drops the
+     * ones nobody edits any more.
+     */
+    @Scheduled(fixedDelayString = "${app.tabs.snapshot-interval-ms:5000}")
+    public void snapshotAll() {
+        for (TabDocument document : documents.values()) {
+            snapshot(document);
+            closeIfIdle(document);
+        }
+    }
+
+    /**
+     * Disconnects the editors who no longer belong to the band of their tab,
+     * e.g. because they left it or were removed. The queries run outside the
+     * document locks.
+     */
+    @Scheduled(fixedDelayString = "${app.tabs.membership-check-interval-ms:30000}")
+    public void checkMembers() {
+        for (TabDocument document : documents.values()) {
+            List<WebSocketSession> editors;
+            synchronized (document) {
+                editors = List.copyOf(document.editors.values());
+            }
+            try {
+                Map<Long, Boolean> members = new HashMap<>();
+                for (WebSocketSession editor : editors) {
+                    if (!members.computeIfAbsent(userId(editor),
+                            userId -> tablatureRepository.isBandMember(document.tabId, userId))) {
+                        logger.info("Closing tab {} editing session of a user who left the band", document.tabId);
+                        leave(document.tabId, editor.getId());
+                        close(editor, CloseStatus.POLICY_VIOLATION);
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Failed to check the editors of tab {}: {}", document.tabId, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshotAll();
+    }
+
+    /**
+     * Saves the document. The database write happens outside the document
+     * lock, so editing goes on meanwhile; if another save is running, it is
+     * asked to save again once it is done.
+     */
+    private void snapshot(TabDocument document) {
+        boolean again = true;
+        while (again) {
+            String content;
+            long revision;
+            Long version;
+            synchronized (document) {
+                if (document.saving) {
+                    document.saveRequested = true;
+                    return;
+                }
+                if (document.closed || document.savedRevision == document.revision) {
+                    return;
+                }
+                document.saving = true;
+                document.saveRequested = false;
+                content = document.content;
+                revision = document.revision;
+                version = document.version;
+            }
+            try {
+                save(document, content, revision, version);
+            } finally {
+                synchronized (document) {
+                    document.saving = false;
+                    again = document.saveRequested;
+                }
+            }
+        }
+    }
+
+    private void save(TabDocument document, String content, long revision, Long version) {
+        try {
+            TablatureModel details = new TablatureModel();
+            details.setContent(content);
+            details.setVersion(version);
+            Long savedVersion = songService.updateTablature(document.tabId, details).getVersion();
+            synchronized (document) {
+                for (long saved = document.savedRevision; saved < revision; saved++) {
+                    document.unsaved.removeFirst();
+                }
+                document.savedContent = content;
+                document.savedRevision = revision;
+                document.version = savedVersion;
+            }
+        } catch (VersionConflictException e) {
+            logger.info("Tab {} changed outside the editing session, rebasing the unsaved edits", document.tabId);
+            TablatureModel tab = songService.getTablature(document.tabId);
+            synchronized (document) {
+                rebase(document, tab);
+            }
+        } catch (ResourceNotFoundException e) {
+            logger.info("Tab {} was deleted, closing its editing session", document.tabId);
+            List<WebSocketSession> editors;
+            synchronized (document) {
+                document.closed = true;
+                documents.remove(document.tabId, document);
+                editors = List.copyOf(document.editors.values());
+            }
+            editors.forEach(editor -> close(editor, CloseStatus.GOING_AWAY));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to save snapshot of tab {}: {}", document.tabId, e.getMessage());
+        }
+    }
+
+    /**
+     * Replays the edits not saved yet on top of the tab as it was saved
+     * elsewhere, and resets the editors to the result. The edits are
+     * transformed over the outside change as if both had been made
+     * concurrently.
+     */
+    private void rebase(TabDocument document, TablatureModel tab) {
+        String external = tab.getContent() != null ? tab.getContent() : "";
+        List<TextEditDTO> theirs = TextPatch.diff(document.savedContent, external);
+        String content = external;
+        try {
+            for (List<TextEditDTO> ours : document.unsaved) {
+                List<TextEditDTO> rebased = TextPatch.transform(ours, theirs, true);
+                theirs = TextPatch.transform(theirs, ours, false);
+                content = TextPatch.apply(content, rebased);
+            }
+        } catch (IllegalArgumentException e) {
+            logger.warn("Could not rebase the edits of tab {}, keeping the saved version", document.tabId);
+            content = external;
+        }
+
+        document.content = content;
+        document.version = tab.getVersion();
+        document.savedContent = external;
+        document.revision++;
+        document.history.clear();
+        document.unsaved.clear();
+        if (!content.equals(external)) {
+            document.unsaved.addLast(TextPatch.diff(external, content));
+        }
+        document.savedRevision = document.revision - document.unsaved.size();
+        TabEditMessageDTO reset = reset(document);
+        document.editors.values().forEach(editor -> send(editor, reset));
+    }
+
+    private void closeIfIdle(TabDocument document) {
+        synchronized (document) {
+            if (document.editors.isEmpty() && !document.saving && !document.closed
+                    && document.savedRevision == document.revision) {
+                document.closed = true;
+                documents.remove(document.tabId, document);
+            }
+        }
+    }
+
+    private static Long userId(WebSocketSession session) {
+        return (Long) session.getAttributes().get(USER_ID_ATTRIBUTE);
+    }
+
+    private static void close(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            logger.debug("Failed to close editor session: {}", e.getMessage());
+        }
+    }
+
+    private static TabEditMessageDTO reset(TabDocument document) {
+        TabEditMessageDTO reset = new TabEditMessageDTO("reset", document.revision);
+        reset.setContent(document.content);
+        return reset;
+    }
+
+    private static TabEditMessageDTO error(String message) {
+        TabEditMessageDTO error = new TabEditMessageDTO("error", null);
+        error.setMessage(message);
+        return error;
+    }
+
+    private void send(WebSocketSession session, TabEditMessageDTO message) {
+        try {
+            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(message)));
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Failed to send to editor session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.dtos.TextEditDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies a list of positional text edits in a single pass.
+ * All positions refer to the original text, so the cost is linear in the size
+ * of the text plus the edits, however many edits there are.
+ * Also provides the operational transformation used by collaborative editing
+ * to rebase one edit list over another made concurrently.
+ */
+public final class TextPatch {
+
+    private TextPatch() {
+    }
+
+    /**
+     * @param base  The original text (null is treated as empty).
+     * @param edits Edits sorted by position, non-overlapping.
+     * @return The edited text.
+     * @throws IllegalArgumentException if an edit is out of bounds, unsorted or
+     *                                  overlaps the previous one.
+     */
+    public static String apply(String base, List<TextEditDTO> edits) {
+        String text = base != null ? base : "";
+        if (edits == null || edits.isEmpty()) {
+            return text;
+        }
+
+        int growth = 0;
+        for (TextEditDTO edit : edits) {
+            growth += edit.getInsert() != null ? edit.getInsert().length() : 0;
+        }
+        StringBuilder result = new StringBuilder(text.length() + growth);
+        int copied = 0;
+        for (TextEditDTO edit : edits) {
+            int start = edit.getPosition();
+            // Compared without adding, so a huge deleteCount cannot overflow past the check
+            if (start < copied || start > text.length() || edit.getDeleteCount() < 0
+                    || edit.getDeleteCount() > text.length() - start) {
+                throw new IllegalArgumentException("Edit at position " + start + " is out of order or out of bounds");
+            }
+            int end = start + edit.getDeleteCount();
+            result.append(text, copied, start);
+            if (edit.getInsert() != null) {
+                result.append(edit.getInsert());
+            }
+            copied = end;
+        }
+        return result.append(text, copied, text.length()).toString();
+    }
+
+    /**
+     * The edits turning {@code from} into {@code to}: a single replacement of
+     * everything between their common prefix and suffix (none if they are
+     * equal).
+     */
+    public static List<TextEditDTO> diff(String from, String to) {
+        int prefix = 0;
+        int max = Math.min(from.length(), to.length());
+        while (prefix < max && from.charAt(prefix) == to.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < max - prefix
+                && from.charAt(from.length() - 1 - suffix) == to.charAt(to.length() - 1 - suffix)) {
+            suffix++;
+        }
+        if (prefix == from.length() && prefix == to.length()) {
+            return List.of();
+        }
+        return List.of(new TextEditDTO(prefix, from.length() - prefix - suffix,
+                to.substring(prefix, to.length() - suffix)));
+    }
+
+    /**
+     * Transforms {@code edits} so that it applies after {@code applied}, both
+     * having been made against the same text. Text deleted by both is deleted
+     * once, text inserted by {@code applied} is never deleted, and when both
+     * insert at the same point {@code afterOnTie} decides whose text comes
+     * first. Transforming A over B with {@code afterOnTie = true} and B over A
+     * with {@code false} converges to the same text.
+     *
+     * @param edits      The edits to rebase.
+     * @param applied    The concurrent edits that were applied first.
+     * @param afterOnTie Whether {@code edits} inserts after {@code applied} at
+     *                   the same position.
+     * @return The rebased edits, sorted and non-overlapping.
+     * @throws IllegalArgumentException if an edit has a negative position or
+     *                                  length, or ends past the largest int.
+     */
+    public static List<TextEditDTO> transform(List<TextEditDTO> edits, List<TextEditDTO> applied,
+            boolean afterOnTie) {
+        for (TextEditDTO edit : edits) {
+            if (edit.getPosition() < 0 || edit.getDeleteCount() < 0
+                    || edit.getDeleteCount() > Integer.MAX_VALUE - edit.getPosition()) {
+                throw new IllegalArgumentException("Edit at position " + edit.getPosition() + " is out of bounds");
+            }
+        }
+        if (applied == null || applied.isEmpty()) {
+            return edits;
+        }
+        applied = coalesce(applied);
+        List<TextEditDTO> result = new ArrayList<>();
+        for (TextEditDTO edit : coalesce(edits)) {
+            int start = edit.getPosition();
+            int end = start + edit.getDeleteCount();
+            String insert = edit.getInsert() != null ? edit.getInsert() : "";
+
+            int insertAt = mapInsertionPoint(start, applied, afterOnTie);
+            boolean insertPending = !insert.isEmpty();
+
+            // Characters of [start, end) that the applied edits did not delete, split around their insertions
+            int from = start;
+            for (TextEditDTO other : applied) {
+                int otherStart = other.getPosition();
+                int otherEnd = otherStart + other.getDeleteCount();
+                if (otherStart >= end) {
+                    break;
+                }
+                if (otherEnd <= from) {
+                    continue;
+                }
+                if (otherStart > from) {
+                    int position = mapSegmentStart(from, applied);
+                    if (insertPending && position == insertAt) {
+                        result.add(new TextEditDTO(position, otherStart - from, insert));
+                        insertPending = false;
+                    } else {
+                        addPending(result, insertPending, insertAt, insert);
+                        insertPending = false;
+                        result.add(new TextEditDTO(position, otherStart - from, ""));
+                    }
+                }
+                from = Math.max(from, otherEnd);
+            }
+            if (from < end) {
+                int position = mapSegmentStart(from, applied);
+                if (insertPending && position == insertAt) {
+                    result.add(new TextEditDTO(position, end - from, insert));
+                    insertPending = false;
+                } else {
+                    addPending(result, insertPending, insertAt, insert);
+                    insertPending = false;
+                    result.add(new TextEditDTO(position, end - from, ""));
+                }
+            }
+            addPending(result, insertPending, insertAt, insert);
+        }
+        return result;
+    }
+
+    /**
+     * Merges edits that touch (one starts where the previous one ends), so that
+     * no two edits of the same list compete for the same position.
+     */
+    private static List<TextEditDTO> coalesce(List<TextEditDTO> edits) {
+        List<TextEditDTO> merged = new ArrayList<>(edits.size());
+        TextEditDTO previous = null;
+        for (TextEditDTO edit : edits) {
+            String insert = edit.getInsert() != null ? edit.getInsert() : "";
+            if (previous != null && previous.getPosition() + previous.getDeleteCount() == edit.getPosition()) {
+                previous = new TextEditDTO(previous.getPosition(), previous.getDeleteCount() + edit.getDeleteCount(),
+                        previous.getInsert() + insert);
+                merged.set(merged.size() - 1, previous);
+            } else {
+                previous = new TextEditDTO(edit.getPosition(), edit.getDeleteCount(), insert);
+                merged.add(previous);
+            }
+        }
+        return merged;
+    }
+
+    private static void addPending(List<TextEditDTO> result, boolean pending, int position, String insert) {
+        if (pending) {
+            result.add(new TextEditDTO(position, 0, insert));
+        }
+    }
+
+    /**
+     * Maps the point where an edit inserts text through the applied edits.
+     */
+    private static int mapInsertionPoint(int point, List<TextEditDTO> applied, boolean afterOnTie) {
+        int shift = 0;
+        for (TextEditDTO other : applied) {
+            int otherStart = other.getPosition();
+            int otherEnd = otherStart + other.getDeleteCount();
+            int inserted = other.getInsert() != null ? other.getInsert().length() : 0;
+            if (otherStart < point && otherEnd <= point) {
+                shift += inserted - other.getDeleteCount();
+            } else if (otherStart < point || (otherStart == point && afterOnTie)) {
+                // Inside a deleted range, or tied: land right after the other insertion
+                return otherStart + shift + inserted;
+            } else {
+                break;
+            }
+        }
+        return point + shift;
+    }
+
+    /**
+     * Maps the start of a surviving (not deleted) range; insertions made at that
+     * point by the applied edits stay before it, so they are never deleted.
+     */
+    private static int mapSegmentStart(int point, List<TextEditDTO> applied) {
+        int shift = 0;
+        for (TextEditDTO other : applied) {
+            int otherEnd = other.getPosition() + other.getDeleteCount();
+            if (otherEnd > point || other.getPosition() > point) {
+                break;
+            }
+            shift += (other.getInsert() != null ? other.getInsert().length() : 0) - other.getDeleteCount();
+        }
+        return point + shift;
+    }
+}
@@ -35,9 +35,13 @@ public class UserService {
     private final ChatReadStatusRepository chatReadStatusRepository;
     private final EventRepository eventRepository;
     private final NotificationRepository notificationRepository;
+    private final NotificationCounterService notificationCounterService;
     private final org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
     private final EmailService emailService;
     private final JwtService jwtService;
+    private final MentionMatcherCache mentionMatcherCache;
+    private final BandSearchService bandSearchService;
+    private final BandDeletionService bandDeletionService;
 
     @Autowired
     public UserService(UserRepository userRepository,
@@ -47,9 +51,13 @@ public class UserService {
             ChatReadStatusRepository chatReadStatusRepository,
             EventRepository eventRepository,
             NotificationRepository notificationRepository,
+            NotificationCounterService notificationCounterService,
             org.springframework.security.crypto.password.PasswordEncoder passwordEncoder,
             EmailService emailService,
-            JwtService jwtService) {
+            JwtService jwtService,
+            MentionMatcherCache mentionMatcherCache,
+            BandSearchService bandSearchService,
+            BandDeletionService bandDeletionService) {
         this.userRepository = userRepository;
         this.bandRepository = bandRepository;
         this.bandInvitationRepository = bandInvitationRepository;
@@ -57,9 +65,13 @@ public class UserService {
         this.chatReadStatusRepository = chatReadStatusRepository;
         this.eventRepository = eventRepository;
         this.notificationRepository = notificationRepository;
+        this.notificationCounterService = notificationCounterService;
         this.passwordEncoder = passwordEncoder;
         this.emailService = emailService;
         this.jwtService = jwtService;
+        this.mentionMatcherCache = mentionMatcherCache;
+        this.bandSearchService = bandSearchService;
+        this.bandDeletionService = bandDeletionService;
     }
 
     /**
@@ -138,12 +150,20 @@ public class UserService {
         }
 
         UserModel updatedUser = userRepository.save(user);
+
+        // Names and usernames are mention targets in every band of the user
+        if (userDetails.getName() != null || userDetails.getUsername() != null) {
+            mentionMatcherCache.evictAll();
+        }
         return convertToDTO(updatedUser);
     }
 
     /**
      * Deletes a user by their ID.
-     * Removes the user from all associated bands before deletion.
+     * Everything that refers to the user is removed or detached with bulk
+     * statements, so the cost does not depend on how much the user has
+     * written. Bands the user owns are marked as deleted and purged in the
+     * background by {@link BandDeletionService}.
      *
      * @param id The ID of the user to delete.
      * @throws ResourceNotFoundException if the user is not found.
@@ -154,45 +174,36 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
 
         // 1. Delete all invitations for this user
-        bandInvitationRepository.deleteByInvitedUser(user);
+        bandInvitationRepository.deleteByInvitedUserId(id);
 
         // 2. Anonymize chat messages sent by this user
-        List<com.bandanize.backend.models.ChatMessageModel> messages = chatMessageRepository.findBySender(user);
-        for (com.bandanize.backend.models.ChatMessageModel msg : messages) {
-            msg.setSender(null);
-        }
-        chatMessageRepository.saveAll(messages);
+        int messages = chatMessageRepository.anonymizeSender(id);
 
         // 3. Delete chat read statuses for this user
-        chatReadStatusRepository.deleteByUserId(user.getId());
+        chatReadStatusRepository.deleteByUserId(id);
 
         // 4. Delete notifications where user is recipient or actor
-        notificationRepository.deleteByRecipient(user);
-        notificationRepository.deleteByActor(user);
+        notificationCounterService.forgetUser(id);
+        notificationRepository.deleteByRecipientOrActor(id);
 
         // 5. Delete events created by this user
-        eventRepository.deleteByCreatorId(user.getId());
-
-        // 6. Handle Bands
-        // We need to separate bands owned by the user vs bands the user is just a
-        // member of.
-        // Note: user.getBands() returns ALL bands the user is part of (owned + member).
-
-        List<BandModel> allBands = new java.util.ArrayList<>(user.getBands());
-
-        for (BandModel band : allBands) {
-            if (band.getOwner() != null && band.getOwner().getId().equals(user.getId())) {
-                // User is the owner -> Delete the band
-                bandRepository.delete(band);
-            } else {
-                // User is just a member -> Remove from band
-                band.getUsers().remove(user);
-                bandRepository.save(band);
-            }
+        bandSearchService.removeEvents(eventRepository.findIdsByCreatorId(id));
+        eventRepository.deleteByCreatorId(id);
+
+        // 6. Owned bands go to the deletion job; the user leaves every other band
+        List<Long> ownedBandIds = bandRepository.findIdsByOwnerId(id);
+        for (Long bandId : ownedBandIds) {
+            bandDeletionService.markDeleted(bandId);
+            bandSearchService.removeBand(bandId);
         }
+        bandRepository.clearOwner(id);
+        userRepository.removeFromAllBands(id);
 
         // 7. Delete the user
         userRepository.delete(user);
+        mentionMatcherCache.evictAll();
+        logger.info("Deleted user {}: {} chat messages anonymized, {} owned bands scheduled for deletion", id,
+                messages, ownedBandIds.size());
     }
 
     /**
@@ -0,0 +1,90 @@
+package com.bandanize.backend;
+
+import com.bandanize.backend.dtos.NotificationDTO;
+import com.bandanize.backend.models.BandModel;
+import com.bandanize.backend.models.Notification;
+import com.bandanize.backend.models.UserModel;
+import com.bandanize.backend.repositories.BandRepository;
+import com.bandanize.backend.repositories.NotificationRepository;
+import com.bandanize.backend.repositories.UserRepository;
+import com.bandanize.backend.services.NotificationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A page of the inbox is read with one statement, metadata and actors
+ * included.
+ */
+@SpringBootTest
+class NotificationInboxQueryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BandRepository bandRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UserModel createUser() {
+        String username = "inbox-" + UUID.randomUUID();
+        UserModel user = new UserModel();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setName("Inbox User");
+        user.setHashedPassword("password");
+        return userRepository.save(user);
+    }
+
+    @Test
+    void getProjectNotifications_PageIsOneStatement() {
+        UserModel recipient = createUser();
+        List<UserModel> actors = List.of(createUser(), createUser(), createUser());
+        BandModel band = new BandModel();
+        band.setName("Inbox Band");
+        band = bandRepository.save(band);
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Notification notification = new Notification();
+            notification.setBand(band);
+            notification.setActor(actors.get(i % actors.size()));
+            notification.setRecipient(recipient);
+            notification.setType(Notification.NotificationType.SONG_ADDED);
+            notification.setMetadata(Map.of("songId", String.valueOf(i), "songName", "Song \"" + i + "\""));
+            notification.setTitle("New Song");
+            notification.setMessage("A song was added");
+            notifications.add(notification);
+        }
+        notificationRepository.saveAll(notifications);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long statements = statistics.getPrepareStatementCount();
+
+        List<NotificationDTO> page = notificationService.getProjectNotifications(band.getId(), recipient.getId(),
+                null, 50);
+
+        assertThat(statistics.getPrepareStatementCount() - statements).isEqualTo(1);
+        assertThat(page).hasSize(20);
+        assertThat(page).allSatisfy(notification -> {
+            assertThat(notification.getActor()).isNotNull();
+            assertThat(notification.getMetadata()).containsOnlyKeys("songId", "songName");
+        });
+    }
+}
@@ -0,0 +1,169 @@
+package com.bandanize.backend;
+
+import com.bandanize.backend.config.HibernateConfig;
+import com.bandanize.backend.models.BandModel;
+import com.bandanize.backend.models.UserModel;
+import com.bandanize.backend.repositories.BandRepository;
+import com.bandanize.backend.repositories.UserRepository;
+import com.bandanize.backend.services.BandDeletionService;
+import com.bandanize.backend.services.BandService;
+import com.bandanize.backend.services.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads go through the second-level cache and still see every update.
+ */
+@SpringBootTest
+class SecondLevelCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BandRepository bandRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BandService bandService;
+
+    @Autowired
+    private BandDeletionService bandDeletionService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private UserModel createUser() {
+        String username = "cache-" + UUID.randomUUID();
+        UserModel user = new UserModel();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setName("Cached User");
+        user.setHashedPassword("password");
+        return userRepository.save(user);
+    }
+
+    private Long createBand(UserModel... members) {
+        return transaction.execute(status -> {
+            BandModel band = new BandModel();
+            band.setName("Cached Band");
+            band.setRrss(new HashMap<>(Map.of("instagram", "https://instagram.com/old")));
+            band.setUsers(new ArrayList<>());
+            for (UserModel member : members) {
+                band.getUsers().add(userRepository.findById(member.getId()).orElseThrow());
+            }
+            return bandRepository.save(band).getId();
+        });
+    }
+
+    // Loads the band with its members and links, in a fresh session
+    private BandModel readBand(Long bandId) {
+        return transaction.execute(status -> bandRepository.findById(bandId).map(band -> {
+            band.getUsers().size();
+            band.getRrss().size();
+            return band;
+        }).orElse(null));
+    }
+
+    @Test
+    void band_SecondReadIsServedFromCache() {
+        Long bandId = createBand(createUser());
+        readBand(bandId);
+        long hits = statistics.getDomainDataRegionStatistics(HibernateConfig.BAND_REGION).getHitCount();
+        long memberHits = statistics.getDomainDataRegionStatistics(HibernateConfig.BAND_USERS_REGION).getHitCount();
+
+        readBand(bandId);
+
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateConfig.BAND_REGION).getHitCount())
+                .isGreaterThan(hits);
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateConfig.BAND_USERS_REGION).getHitCount())
+                .isGreaterThan(memberHits);
+    }
+
+    @Test
+    void updateBand_IsSeenThroughCache() {
+        Long bandId = createBand(createUser());
+        readBand(bandId);
+
+        BandModel details = new BandModel();
+        details.setName("Renamed Band");
+        details.setRrss(new HashMap<>(Map.of("youtube", "https://youtube.com/new")));
+        bandService.updateBand(bandId, details);
+
+        BandModel band = readBand(bandId);
+        assertThat(band.getName()).isEqualTo("Renamed Band");
+        assertThat(band.getRrss()).containsOnlyKeys("youtube");
+    }
+
+    @Test
+    void updateUser_UsernameLookupFollowsRename() {
+        UserModel user = createUser();
+        String oldUsername = user.getUsername();
+        userRepository.findByUsername(oldUsername);
+        long naturalIdHits = statistics.getNaturalIdCacheHitCount();
+        assertThat(userRepository.findByUsername(oldUsername)).isPresent();
+        assertThat(statistics.getNaturalIdCacheHitCount()).isGreaterThan(naturalIdHits);
+
+        UserModel details = new UserModel();
+        details.setUsername(oldUsername + "-renamed");
+        details.setName("Renamed User");
+        // As in a request, where the session stays open while the DTO is built
+        transaction.executeWithoutResult(status -> userService.updateUser(user.getId(), details));
+
+        assertThat(userRepository.findByUsername(oldUsername)).isEmpty();
+        assertThat(userRepository.findByUsername(oldUsername + "-renamed"))
+                .hasValueSatisfying(found -> assertThat(found.getName()).isEqualTo("Renamed User"));
+    }
+
+    @Test
+    void markDeleted_HidesCachedBand() {
+        Long bandId = createBand(createUser());
+        readBand(bandId);
+
+        bandDeletionService.markDeleted(bandId);
+
+        assertThat(readBand(bandId)).isNull();
+    }
+
+    @Test
+    void removeFromAllBands_UpdatesCachedMembers() {
+        UserModel stays = createUser();
+        UserModel leaves = createUser();
+        Long bandId = createBand(stays, leaves);
+        assertThat(readBand(bandId).getUsers()).hasSize(2);
+
+        userRepository.removeFromAllBands(leaves.getId());
+
+        List<UserModel> members = readBand(bandId).getUsers();
+        assertThat(members).extracting(UserModel::getId).containsExactly(stays.getId());
+    }
+}
@@ -0,0 +1,72 @@
+package com.bandanize.backend.benchmarks;
+
+import com.bandanize.backend.models.UserModel;
+import com.bandanize.backend.services.MentionMatcher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous per-member {@code contains("@" + name)} scan with the
+ * precompiled {@link MentionMatcher} automaton.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MentionMatcherBenchmark {
+
+    @Param({ "5", "50" })
+    private int members;
+
+    @Param({ "80", "2000" })
+    private int messageLength;
+
+    private List<UserModel> band;
+    private MentionMatcher matcher;
+    private String message;
+
+    @Setup
+    public void setUp() {
+        band = new ArrayList<>();
+        for (int i = 0; i < members; i++) {
+            UserModel user = new UserModel();
+            user.setId((long) i);
+            user.setUsername("member" + i);
+            user.setName("Member Number " + i);
+            band.add(user);
+        }
+        matcher = MentionMatcher.build(band);
+
+        StringBuilder text = new StringBuilder("@Member Number 1 ");
+        while (text.length() < messageLength) {
+            text.append("the chorus needs another take after the bridge, ");
+        }
+        message = text.append("@member3").toString();
+    }
+
+    @Benchmark
+    public void naiveContains(Blackhole blackhole) {
+        for (UserModel member : band) {
+            String mention = "@" + member.getName();
+            if (message.contains(mention)) {
+                blackhole.consume(member.getId());
+            }
+        }
+    }
+
+    @Benchmark
+    public void automaton(Blackhole blackhole) {
+        blackhole.consume(matcher.findMentions(message));
+    }
+
+    @Benchmark
+    public MentionMatcher buildAutomaton() {
+        return MentionMatcher.build(band);
+    }
+}
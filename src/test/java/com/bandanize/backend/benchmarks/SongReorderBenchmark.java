@@ -0,0 +1,76 @@
+package com.bandanize.backend.benchmarks;
+
+import com.bandanize.backend.config.DatabaseFeatures;
+import com.bandanize.backend.repositories.SongOrderRepository;
+import com.bandanize.backend.services.OrderingKeys;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reordering a 500-song list on an in-memory H2 database: one UPDATE per song
+ * (what dirty checking of the loaded aggregate issues) versus the set-based
+ * {@link SongOrderRepository}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SongReorderBenchmark {
+
+    private static final long LIST_ID = 1L;
+
+    @Param({ "500" })
+    private int songs;
+
+    private JdbcTemplate jdbcTemplate;
+    private SongOrderRepository songOrderRepository;
+    private List<Long> order;
+    private List<String> keys;
+
+    @Setup
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:reorder;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS song_model");
+        jdbcTemplate.execute("CREATE TABLE song_model (id BIGINT PRIMARY KEY, song_list_id BIGINT, "
+                + "order_index INT, sort_key VARCHAR(64), name VARCHAR(255))");
+
+        order = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= songs; id++) {
+            order.add(id);
+            rows.add(new Object[] { id, LIST_ID, (int) id - 1, null, "Song " + id });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO song_model VALUES (?, ?, ?, ?, ?)", rows);
+        keys = OrderingKeys.evenlySpaced(songs);
+        songOrderRepository = new SongOrderRepository(jdbcTemplate, new DatabaseFeatures(dataSource));
+    }
+
+    @Setup(Level.Invocation)
+    public void shuffle() {
+        Collections.reverse(order);
+    }
+
+    @Benchmark
+    public int updatePerRow() {
+        int updated = 0;
+        for (int i = 0; i < order.size(); i++) {
+            updated += jdbcTemplate.update("UPDATE song_model SET order_index = ? WHERE id = ?", i, order.get(i));
+        }
+        return updated;
+    }
+
+    @Benchmark
+    public int setBased() {
+        return songOrderRepository.reorderSongs(LIST_ID, order, keys);
+    }
+}
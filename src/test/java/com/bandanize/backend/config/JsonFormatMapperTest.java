@@ -0,0 +1,26 @@
+package com.bandanize.backend.config;
+
+import com.bandanize.backend.models.Notification;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonFormatMapperTest {
+
+    private final JsonFormatMapper mapper = new JsonFormatMapper();
+
+    @Test
+    void metadata_RoundTrips() throws Exception {
+        Type type = Notification.class.getDeclaredField("metadata").getGenericType();
+        Map<String, String> metadata = Map.of("songName", "\"Canción\" <1>", "songId", "42");
+
+        String json = mapper.toString(metadata, type);
+        Map<String, String> read = mapper.fromString(json, type);
+
+        assertEquals(metadata, read);
+        assertEquals(String.class, read.values().iterator().next().getClass());
+    }
+}
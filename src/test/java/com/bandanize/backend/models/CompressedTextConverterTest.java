@@ -0,0 +1,38 @@
+package com.bandanize.backend.models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedTextConverterTest {
+
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+
+    @Test
+    void longText_StoredCompressedAndRestored() {
+        String tab = "e|---0---3---5---|\nB|---1---3---5---|\n".repeat(100);
+
+        String stored = converter.convertToDatabaseColumn(tab);
+
+        assertTrue(stored.startsWith("gz:"));
+        assertTrue(stored.length() < tab.length() / 4);
+        assertEquals(tab, converter.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    void shortText_StoredAsIs() {
+        assertEquals("Am G C", converter.convertToDatabaseColumn("Am G C"));
+        assertEquals("Am G C", converter.convertToEntityAttribute("Am G C"));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    void textStartingWithPrefix_RoundTrips() {
+        String stored = converter.convertToDatabaseColumn("gz: not compressed");
+
+        assertEquals("gz: not compressed", converter.convertToEntityAttribute(stored));
+        // Rows written before compression existed are returned unchanged
+        assertEquals("gz: legacy row", converter.convertToEntityAttribute("gz: legacy row"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.repositories.BandDeletionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BandDeletionServiceTest {
+
+    private static final Long BAND_ID = 10L;
+
+    @Mock
+    private BandDeletionRepository bandDeletionRepository;
+    @Mock
+    private FileCleanupService fileCleanupService;
+    @Mock
+    private SetlistPdfService setlistPdfService;
+    @Mock
+    private JobQueueService jobQueueService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BandDeletionService bandDeletionService;
+
+    @BeforeEach
+    void setUp() {
+        bandDeletionService = new BandDeletionService(bandDeletionRepository, fileCleanupService, setlistPdfService,
+                jobQueueService, transactionManager);
+    }
+
+    @Test
+    void markDeleted_AlreadyMarked_ReturnsFalse() {
+        when(bandDeletionRepository.markDeleted(eq(BAND_ID), any())).thenReturn(false);
+
+        assertFalse(bandDeletionService.markDeleted(BAND_ID));
+        verify(bandDeletionRepository, never()).deleteMemberships(any());
+        verifyNoInteractions(jobQueueService);
+    }
+
+    @Test
+    void markDeleted_QueuesPurgeKeyedByBand() {
+        when(bandDeletionRepository.markDeleted(eq(BAND_ID), any())).thenReturn(true);
+
+        assertTrue(bandDeletionService.markDeleted(BAND_ID));
+        verify(bandDeletionRepository).deleteMemberships(BAND_ID);
+        verify(bandDeletionRepository).deleteInvitations(BAND_ID);
+        verify(jobQueueService).enqueue(BandDeletionService.JOB_TYPE, "10", "band.purge:10");
+    }
+
+    @Test
+    void purgeBand_DeletesSlicesChildTablesFirst() {
+        // Two slices of songs, one of chat messages
+        when(bandDeletionRepository.findSongBound(BAND_ID, BandDeletionService.BATCH_SIZE)).thenReturn(500L, 900L,
+                null);
+        when(bandDeletionRepository.findSongFileUrls(eq(BAND_ID), anyLong()))
+                .thenReturn(List.of("/uploads/audio/a.mp3"));
+        when(bandDeletionRepository.deleteSongs(eq(BAND_ID), anyLong())).thenReturn(500, 400);
+        when(bandDeletionRepository.findSongListIds(BAND_ID)).thenReturn(List.of(3L));
+        when(bandDeletionRepository.findChatMessageBound(BAND_ID, BandDeletionService.BATCH_SIZE)).thenReturn(70L,
+                (Long) null);
+        when(bandDeletionRepository.deleteChatMessages(BAND_ID, 70L)).thenReturn(70);
+        when(bandDeletionRepository.findNotificationBound(BAND_ID, BandDeletionService.BATCH_SIZE)).thenReturn(null);
+        when(bandDeletionRepository.findEventBound(BAND_ID, BandDeletionService.BATCH_SIZE)).thenReturn(null);
+        when(bandDeletionRepository.findPhoto(BAND_ID)).thenReturn("/uploads/images/p.png");
+
+        bandDeletionService.purgeBand(BAND_ID);
+
+        InOrder order = inOrder(bandDeletionRepository, fileCleanupService);
+        order.verify(fileCleanupService).enqueueUrls(List.of("/uploads/audio/a.mp3"));
+        order.verify(bandDeletionRepository).deleteSongs(BAND_ID, 500L);
+        order.verify(bandDeletionRepository).deleteSongs(BAND_ID, 900L);
+        order.verify(bandDeletionRepository).deleteSongLists(BAND_ID);
+        order.verify(bandDeletionRepository).deleteChatMessages(BAND_ID, 70L);
+        order.verify(fileCleanupService).enqueueUrls(List.of("/uploads/images/p.png"));
+        order.verify(bandDeletionRepository).deleteBand(BAND_ID);
+        verify(bandDeletionRepository, never()).deleteNotifications(any(), any());
+        verify(setlistPdfService).evict(3L);
+    }
+
+    @Test
+    void handle_FailedSliceLeavesBandForRetry() {
+        when(bandDeletionRepository.findSongBound(BAND_ID, BandDeletionService.BATCH_SIZE)).thenReturn(500L);
+        when(bandDeletionRepository.findSongFileUrls(BAND_ID, 500L)).thenReturn(List.of());
+        when(bandDeletionRepository.deleteSongs(BAND_ID, 500L)).thenThrow(new IllegalStateException("lock timeout"));
+
+        assertThrows(IllegalStateException.class, () -> bandDeletionService.handle("10"));
+        verify(bandDeletionRepository, never()).deleteBand(any());
+    }
+}
@@ -0,0 +1,157 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.models.BandModel;
+import com.bandanize.backend.repositories.BandExportRepository;
+import com.bandanize.backend.repositories.BandRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BandExportServiceTest {
+
+    private static final Long BAND_ID = 1L;
+
+    @Mock
+    private BandRepository bandRepository;
+    @Mock
+    private BandExportRepository bandExportRepository;
+    @Mock
+    private FileStorageService fileStorageService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BandExportService bandExportService;
+
+    @BeforeEach
+    void setUp() {
+        bandExportService = new BandExportService(bandRepository, bandExportRepository, fileStorageService,
+                new ObjectMapper(), transactionManager);
+    }
+
+    @Test
+    void prepareExport_NonMember_Denied() {
+        BandModel band = new BandModel();
+        band.setName("The Band");
+        when(bandRepository.findById(BAND_ID)).thenReturn(Optional.of(band));
+        when(bandExportRepository.isMember(BAND_ID, 2L)).thenReturn(false);
+
+        assertThrows(AccessDeniedException.class, () -> bandExportService.prepareExport(BAND_ID, 2L));
+    }
+
+    @Test
+    void prepareExport_Member_FileNameFromBandName() {
+        BandModel band = new BandModel();
+        band.setName("The Band!");
+        when(bandRepository.findById(BAND_ID)).thenReturn(Optional.of(band));
+        when(bandExportRepository.isMember(BAND_ID, 2L)).thenReturn(true);
+
+        assertEquals("The-Band-export.zip", bandExportService.prepareExport(BAND_ID, 2L));
+    }
+
+    @Test
+    void export_WritesDataEntriesThenReferencedMedia() throws Exception {
+        doAnswer(rows(Map.of("name", "The Band", "photo", "/api/uploads/images/logo.png")))
+                .when(bandExportRepository).streamBand(eq(BAND_ID), any());
+        doAnswer(rows(Map.of("id", 5, "name", "Intro"))).when(bandExportRepository).streamSongs(eq(BAND_ID), any());
+        doAnswer(rows(Map.of("songId", 5, "url", "https://cdn.example.com/api/uploads/audio/take1.mp3")))
+                .when(bandExportRepository).streamSongFiles(eq(BAND_ID), any());
+        doAnswer(rows(Map.of("id", 1, "message", "hi"), Map.of("id", 2, "message", "there")))
+                .when(bandExportRepository).streamChatMessages(eq(BAND_ID), any());
+        when(fileStorageService.load("logo.png", "images")).thenReturn(new ByteArrayResource(new byte[] { 1, 2 }));
+        when(fileStorageService.load("take1.mp3", "audio")).thenThrow(new RuntimeException("Could not read file"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bandExportService.export(BAND_ID, out);
+
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(Set.of("band.json", "songlists.jsonl", "songs.jsonl", "song-files.jsonl", "tabs.jsonl",
+                "tab-files.jsonl", "events.jsonl", "chat.jsonl", "media/images/logo.png"), entries.keySet());
+        assertTrue(entries.get("band.json").contains("\"formatVersion\":1"));
+        assertEquals(2, entries.get("chat.jsonl").split("\n").length);
+        assertEquals(2, entries.get("media/images/logo.png").length());
+    }
+
+    @Test
+    void export_WritesToClientOnlyAfterTransactionEnds() throws Exception {
+        // More than the output buffer holds, so the old export wrote while still reading
+        doAnswer(invocation -> {
+            Consumer<Map<String, Object>> consumer = invocation.getArgument(1);
+            for (int i = 0; i < 5000; i++) {
+                consumer.accept(new LinkedHashMap<>(Map.of("id", i, "message", UUID.randomUUID().toString())));
+            }
+            return null;
+        }).when(bandExportRepository).streamChatMessages(eq(BAND_ID), any());
+        AtomicBoolean committed = new AtomicBoolean();
+        doAnswer(invocation -> {
+            committed.set(true);
+            return null;
+        }).when(transactionManager).commit(any());
+        OutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                assertTrue(committed.get(), "Wrote to the client inside the transaction");
+                super.write(b, off, len);
+            }
+        };
+
+        bandExportService.export(BAND_ID, out);
+
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void addMedia_OnlyKnownFolders() {
+        Set<String> media = new LinkedHashSet<>();
+
+        BandExportService.addMedia(media, "/uploads/videos/clip.mp4?download=1");
+        BandExportService.addMedia(media, "/uploads/../secret");
+        BandExportService.addMedia(media, "https://example.com/other/photo.png");
+        BandExportService.addMedia(media, null);
+
+        assertEquals(Set.of("videos/clip.mp4"), media);
+    }
+
+    @SafeVarargs
+    private static Answer<Void> rows(Map<String, Object>... rows) {
+        return invocation -> {
+            Consumer<Map<String, Object>> consumer = invocation.getArgument(1);
+            for (Map<String, Object> row : rows) {
+                consumer.accept(new LinkedHashMap<>(row));
+            }
+            return null;
+        };
+    }
+}
@@ -0,0 +1,286 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.dtos.BandDTO;
+import com.bandanize.backend.dtos.BandImportResultDTO;
+import com.bandanize.backend.models.BandModel;
+import com.bandanize.backend.models.UserModel;
+import com.bandanize.backend.repositories.BandImportRepository;
+import com.bandanize.backend.repositories.BandImportRepository.ChatMessageRow;
+import com.bandanize.backend.repositories.BandImportRepository.EventRow;
+import com.bandanize.backend.repositories.BandImportRepository.FileRow;
+import com.bandanize.backend.repositories.BandImportRepository.SongRow;
+import com.bandanize.backend.repositories.SongImportRepository;
+import com.bandanize.backend.repositories.SongImportRepository.TabRow;
+import com.bandanize.backend.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BandImportServiceTest {
+
+    private static final Long USER_ID = 7L;
+    private static final Long BAND_ID = 40L;
+    private static final long IN_MEMORY_PLUS_HALF = BandImportService.IN_MEMORY_MEDIA_LIMIT * 3L / 2;
+    private static final String OLD_AUDIO = "123e4567-e89b-12d3-a456-426614174000_demo.mp3";
+
+    @Mock
+    private BandService bandService;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private BandImportRepository bandImportRepository;
+    @Mock
+    private SongImportRepository songImportRepository;
+    @Mock
+    private BandSearchService bandSearchService;
+    @Mock
+    private FileStorageService fileStorageService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BandImportService bandImportService;
+
+    @BeforeEach
+    void setUp() {
+        bandImportService = service(1024 * 1024 * 1024, 1024 * 1024 * 1024);
+    }
+
+    private BandImportService service(long maxMediaFileBytes, long maxMediaBytes) {
+        return new BandImportService(bandService, userRepository, bandImportRepository, songImportRepository,
+                bandSearchService, fileStorageService, new ObjectMapper(), transactionManager, 2, maxMediaFileBytes,
+                maxMediaBytes);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bandImportService.shutdown();
+    }
+
+    @Test
+    void importBand_RemapsIdsAndRewritesMediaUrls() throws IOException {
+        stubBandCreation();
+        AtomicLong ids = new AtomicLong(100);
+        when(bandImportRepository.insertSongLists(eq(BAND_ID), anyList()))
+                .thenAnswer(invocation -> generated(ids, invocation.getArgument(1)));
+        when(bandImportRepository.insertSongs(anyList()))
+                .thenAnswer(invocation -> generated(ids, invocation.getArgument(0)));
+        when(songImportRepository.insertTabs(anyList()))
+                .thenAnswer(invocation -> generated(ids, invocation.getArgument(0)));
+
+        byte[] archive = zip(Map.of(
+                "band.json", "{\"formatVersion\":1,\"name\":\"The Band\",\"members\":[]}",
+                "songlists.jsonl", "{\"id\":1,\"name\":\"Gig\",\"orderIndex\":0}\n",
+                "songs.jsonl", "{\"id\":10,\"songListId\":1,\"name\":\"Intro\",\"sortKey\":\"a0\"}\n"
+                        + "{\"id\":11,\"songListId\":99,\"name\":\"Orphan\"}\n",
+                "song-files.jsonl", "{\"songId\":10,\"name\":\"demo.mp3\",\"type\":\"audio\","
+                        + "\"url\":\"http://old.host/uploads/audio/" + OLD_AUDIO + "\"}\n",
+                "tabs.jsonl", "{\"id\":20,\"songId\":10,\"name\":\"Guitar\",\"content\":\"e|--0--|\"}\n",
+                "media/audio/" + OLD_AUDIO, "sound",
+                "media/audio/unreferenced.mp3", "ignored"));
+
+        BandImportResultDTO result = bandImportService.importBand(USER_ID, new ByteArrayInputStream(archive));
+
+        assertEquals(BAND_ID, result.getBandId());
+        assertEquals(1, result.getSongLists());
+        assertEquals(1, result.getSongs());
+        assertEquals(1, result.getTabs());
+        assertEquals(1, result.getSkippedRows());
+        assertEquals(1, result.getMediaFiles());
+
+        ArgumentCaptor<List<SongRow>> songs = ArgumentCaptor.captor();
+        verify(bandImportRepository).insertSongs(songs.capture());
+        assertEquals(100L, songs.getValue().get(0).songListId());
+        ArgumentCaptor<List<TabRow>> tabs = ArgumentCaptor.captor();
+        verify(songImportRepository).insertTabs(tabs.capture());
+        assertEquals(101L, tabs.getValue().get(0).songId());
+        verify(bandSearchService).indexTablature(BAND_ID, 100L, 101L, 102L, "Guitar", "e|--0--|");
+
+        ArgumentCaptor<List<FileRow>> files = ArgumentCaptor.captor();
+        verify(bandImportRepository).insertSongFiles(files.capture());
+        String url = files.getValue().get(0).url();
+        assertTrue(url.startsWith("/uploads/audio/"), url);
+        assertTrue(url.endsWith("_demo.mp3"));
+        assertFalse(url.contains(OLD_AUDIO));
+        String storedName = url.substring(url.lastIndexOf('/') + 1);
+        verify(fileStorageService).store(any(InputStream.class), eq("audio"), eq(storedName));
+        verify(fileStorageService, never()).store(any(InputStream.class), anyString(), contains("unreferenced"));
+    }
+
+    @Test
+    void importBand_DeletesPartialBandOnFailure() throws IOException {
+        stubBandCreation();
+        when(bandImportRepository.insertSongLists(eq(BAND_ID), anyList()))
+                .thenThrow(new IllegalStateException("database down"));
+
+        byte[] archive = zip(Map.of(
+                "band.json", "{\"formatVersion\":1,\"name\":\"The Band\"}",
+                "songlists.jsonl", "{\"id\":1,\"name\":\"Gig\"}\n"));
+
+        assertThrows(IllegalStateException.class,
+                () -> bandImportService.importBand(USER_ID, new ByteArrayInputStream(archive)));
+        verify(bandService).deleteBand(BAND_ID, USER_ID);
+    }
+
+    @Test
+    void importBand_MediaFileOverLimit_IsRejected() throws IOException {
+        bandImportService.shutdown();
+        bandImportService = service(IN_MEMORY_PLUS_HALF, Long.MAX_VALUE);
+        stubBandCreation();
+
+        byte[] archive = zip(Map.of(
+                "band.json", "{\"formatVersion\":1,\"name\":\"The Band\","
+                        + "\"photo\":\"/uploads/images/big.png\"}",
+                "media/images/big.png", "x".repeat(2 * BandImportService.IN_MEMORY_MEDIA_LIMIT)));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> bandImportService.importBand(USER_ID, new ByteArrayInputStream(archive)));
+        assertTrue(e.getMessage().startsWith("Media file images/big.png is larger than"), e.getMessage());
+        verify(fileStorageService, never()).store(any(InputStream.class), anyString(), anyString());
+        verify(bandService).deleteBand(BAND_ID, USER_ID);
+    }
+
+    @Test
+    void importBand_MediaOverTotalLimit_IsRejected() throws IOException {
+        bandImportService.shutdown();
+        bandImportService = service(100, 8);
+        stubBandCreation();
+
+        AtomicLong ids = new AtomicLong(100);
+        when(bandImportRepository.insertSongLists(eq(BAND_ID), anyList()))
+                .thenAnswer(invocation -> generated(ids, invocation.getArgument(1)));
+        when(bandImportRepository.insertSongs(anyList()))
+                .thenAnswer(invocation -> generated(ids, invocation.getArgument(0)));
+
+        byte[] archive = zip(Map.of(
+                "band.json", "{\"formatVersion\":1,\"name\":\"The Band\",\"photo\":\"/uploads/images/a.png\"}",
+                "songlists.jsonl", "{\"id\":1,\"name\":\"Gig\"}\n",
+                "songs.jsonl", "{\"id\":10,\"songListId\":1,\"name\":\"Intro\"}\n",
+                "song-files.jsonl", "{\"songId\":10,\"name\":\"b.mp3\",\"url\":\"/uploads/audio/b.mp3\"}\n",
+                "media/images/a.png", "12345",
+                "media/audio/b.mp3", "67890"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> bandImportService.importBand(USER_ID, new ByteArrayInputStream(archive)));
+        assertEquals("Media files are larger than 8 bytes in total", e.getMessage());
+    }
+
+    @Test
+    void importBand_AttributesOnlyTheImportingUser() throws IOException {
+        stubBandCreation();
+        UserModel importer = new UserModel();
+        importer.setId(USER_ID);
+        importer.setUsername("ana");
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(importer));
+        when(bandImportRepository.insertEvents(eq(BAND_ID), anyList())).thenReturn(List.of(300L, 301L));
+
+        byte[] archive = zip(Map.of(
+                "band.json", "{\"formatVersion\":1,\"name\":\"The Band\",\"members\":"
+                        + "[{\"id\":1,\"username\":\"ana\"},{\"id\":2,\"username\":\"joe\"}]}",
+                "events.jsonl", "{\"name\":\"Gig\",\"date\":\"2024-05-01T20:00:00\",\"creatorId\":1}\n"
+                        + "{\"name\":\"Rehearsal\",\"date\":\"2024-05-02T20:00:00\",\"creatorId\":2}\n",
+                "chat.jsonl", "{\"senderUsername\":\"ana\",\"message\":\"hi\"}\n"
+                        + "{\"senderUsername\":\"joe\",\"message\":\"not me\"}\n"));
+
+        bandImportService.importBand(USER_ID, new ByteArrayInputStream(archive));
+
+        ArgumentCaptor<List<EventRow>> events = ArgumentCaptor.captor();
+        verify(bandImportRepository).insertEvents(eq(BAND_ID), events.capture());
+        assertEquals(Arrays.asList(USER_ID, null),
+                events.getValue().stream().map(EventRow::creatorId).toList());
+        ArgumentCaptor<List<ChatMessageRow>> messages = ArgumentCaptor.captor();
+        verify(bandImportRepository).insertChatMessages(eq(BAND_ID), messages.capture());
+        assertEquals(Arrays.asList(USER_ID, null),
+                messages.getValue().stream().map(ChatMessageRow::senderId).toList());
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    void importBand_OversizedBandJson_IsRejected() throws IOException {
+        byte[] archive = zip(Map.of("band.json", "{\"formatVersion\":1,\"description\":\""
+                + "x".repeat(BandImportService.MAX_BAND_JSON_BYTES) + "\"}"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> bandImportService.importBand(USER_ID, new ByteArrayInputStream(archive)));
+        assertTrue(e.getMessage().startsWith("band.json is larger than"), e.getMessage());
+        verify(bandService, never()).createBandWithUser(anyLong(), any());
+    }
+
+    @Test
+    void importBand_RejectsArchiveWithoutBandFirst() throws IOException {
+        byte[] archive = zip(Map.of("songlists.jsonl", "{\"id\":1,\"name\":\"Gig\"}\n"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> bandImportService.importBand(USER_ID, new ByteArrayInputStream(archive)));
+        verify(bandService, never()).createBandWithUser(anyLong(), any());
+        verify(bandService, never()).deleteBand(anyLong(), anyLong());
+    }
+
+    @Test
+    void newMediaName_ReplacesUniquePrefixAndSanitizes() {
+        String name = BandImportService.newMediaName("images/" + OLD_AUDIO.replace("demo.mp3", "my photo.png"));
+        assertTrue(name.matches("[0-9a-f-]{36}_my_photo\\.png"), name);
+        assertFalse(BandImportService.newMediaName("files/../x..y").contains(".."));
+    }
+
+    private void stubBandCreation() {
+        BandDTO band = new BandDTO();
+        band.setId(BAND_ID);
+        when(bandService.createBandWithUser(eq(USER_ID), any(BandModel.class))).thenReturn(band);
+    }
+
+    private static List<Long> generated(AtomicLong ids, List<?> rows) {
+        List<Long> result = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            result.add(ids.getAndIncrement());
+        }
+        return result;
+    }
+
+    /**
+     * Builds an archive with band.json first and media last, like the export.
+     */
+    private static byte[] zip(Map<String, String> entries) throws IOException {
+        Map<String, String> ordered = new LinkedHashMap<>();
+        List.of("band.json", "songlists.jsonl", "songs.jsonl", "song-files.jsonl", "tabs.jsonl").forEach(name -> {
+            if (entries.containsKey(name)) {
+                ordered.put(name, entries.get(name));
+            }
+        });
+        entries.forEach(ordered::putIfAbsent);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, String> entry : ordered.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,100 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.dtos.BandSearchResultDTO;
+import com.bandanize.backend.repositories.BandRepository;
+import com.bandanize.backend.repositories.EventRepository;
+import com.bandanize.backend.repositories.SongListRepository;
+import com.bandanize.backend.repositories.SongRepository;
+import com.bandanize.backend.repositories.TablatureRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BandSearchServiceTest {
+
+    @Mock
+    private BandRepository bandRepository;
+    @Mock
+    private SongListRepository songListRepository;
+    @Mock
+    private SongRepository songRepository;
+    @Mock
+    private TablatureRepository tablatureRepository;
+    @Mock
+    private EventRepository eventRepository;
+
+    @InjectMocks
+    private BandSearchService bandSearchService;
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    private List<String> titles(Long bandId, String query) {
+        return bandSearchService.search(bandId, query, null, 0, 50).getResults().stream()
+                .map(BandSearchResultDTO::getTitle).toList();
+    }
+
+    @Test
+    void rebuild_WalksBandsAndDropsDeletedOnes() {
+        when(bandRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of(10L, 20L));
+        when(bandRepository.findIdsAfter(eq(20L), any())).thenReturn(List.of());
+        when(songListRepository.findSearchRowsByBandId(10L)).thenReturn(rows(new Object[] { 1L, 10L, "Summer Tour" }));
+        when(songListRepository.findSearchRowsByBandId(20L)).thenReturn(rows(new Object[] { 2L, 20L, "Winter Tour" }));
+        bandSearchService.rebuild();
+        assertEquals(List.of("Winter Tour"), titles(20L, "tour"));
+
+        // Band 20 was deleted on another node
+        when(bandRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of(10L));
+        when(bandRepository.findIdsAfter(eq(10L), any())).thenReturn(List.of());
+        bandSearchService.rebuild();
+
+        assertEquals(List.of("Summer Tour"), titles(10L, "tour"));
+        assertTrue(titles(20L, "tour").isEmpty());
+    }
+
+    @Test
+    void rebuild_ReplacesDocumentsChangedElsewhere() {
+        bandSearchService.indexSongList(10L, 1L, "Old Name");
+        when(bandRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of(10L));
+        when(bandRepository.findIdsAfter(eq(10L), any())).thenReturn(List.of());
+        when(songListRepository.findSearchRowsByBandId(10L)).thenReturn(rows(new Object[] { 1L, 10L, "New Name" }));
+
+        bandSearchService.rebuild();
+
+        assertEquals(List.of("New Name"), titles(10L, "name"));
+        assertTrue(titles(10L, "old").isEmpty());
+    }
+
+    @Test
+    void rebuild_LiveUpdateWhileReading_RereadsBand() {
+        when(bandRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of(10L));
+        when(bandRepository.findIdsAfter(eq(10L), any())).thenReturn(List.of());
+        when(songListRepository.findSearchRowsByBandId(10L))
+                .thenReturn(rows(new Object[] { 1L, 10L, "Setlist" }))
+                .thenReturn(rows(new Object[] { 1L, 10L, "Setlist" }, new Object[] { 2L, 10L, "Covers" }));
+        // A list created on this node commits while the first read is in flight
+        when(eventRepository.findSearchRowsByBandId(10L)).thenAnswer(invocation -> {
+            if (mockingDetails(eventRepository).getInvocations().size() == 1) {
+                bandSearchService.indexSongList(10L, 2L, "Covers");
+            }
+            return rows();
+        });
+
+        bandSearchService.rebuild();
+
+        verify(songListRepository, times(2)).findSearchRowsByBandId(10L);
+        assertEquals(List.of("Covers"), titles(10L, "covers"));
+    }
+}
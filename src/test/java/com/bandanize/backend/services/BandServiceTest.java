@@ -36,10 +36,7 @@ class BandServiceTest {
     private BandInvitationRepository invitationRepository;
 
     @Mock
-    private SongService songService;
-
-    @Mock
-    private StorageService storageService;
+    private BandDeletionService bandDeletionService;
 
     @Mock
     private EmailService emailService;
@@ -47,6 +44,12 @@ class BandServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private MentionMatcherCache mentionMatcherCache;
+
+    @Mock
+    private BandSearchService bandSearchService;
+
     @InjectMocks
     private BandService bandService;
 
@@ -283,6 +286,29 @@ class BandServiceTest {
                 () -> bandService.removeMember(10L, 1L, 1L)); // trying to remove owner
     }
 
+    // ── deleteBand ──────────────────────────────────────────────────
+
+    @Test
+    void deleteBand_Owner_MarksBandForPurge() {
+        when(bandRepository.findById(10L)).thenReturn(Optional.of(band));
+        when(bandDeletionService.markDeleted(10L)).thenReturn(true);
+
+        bandService.deleteBand(10L, 1L);
+
+        verify(bandDeletionService).markDeleted(10L);
+        verify(mentionMatcherCache).evict(10L);
+        verify(bandSearchService).removeBand(10L);
+        verify(bandRepository, never()).delete(any());
+    }
+
+    @Test
+    void deleteBand_NonOwner_ThrowsAccessDenied() {
+        when(bandRepository.findById(10L)).thenReturn(Optional.of(band));
+
+        assertThrows(AccessDeniedException.class, () -> bandService.deleteBand(10L, 2L));
+        verify(bandDeletionService, never()).markDeleted(any());
+    }
+
     // ── getBandsByUsername ───────────────────────────────────────────
 
     @Test
@@ -0,0 +1,85 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.config.DatabaseFeatures;
+import com.bandanize.backend.repositories.BandRepository;
+import com.bandanize.backend.repositories.ChatReadStatusRepository;
+import com.bandanize.backend.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatReadStatusBufferTest {
+
+    @Mock
+    private ChatReadStatusRepository chatReadStatusRepository;
+
+    @Mock
+    private BandRepository bandRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private DatabaseFeatures databaseFeatures;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ChatReadStatusBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new ChatReadStatusBuffer(chatReadStatusRepository, bandRepository, userRepository,
+                databaseFeatures, transactionManager);
+    }
+
+    @Test
+    void record_RepeatedCalls_FlushSingleUpsertWithLatestTimestamp() {
+        when(databaseFeatures.isPostgres()).thenReturn(true);
+        LocalDateTime first = LocalDateTime.of(2026, 1, 1, 10, 0);
+        LocalDateTime latest = first.plusSeconds(30);
+
+        buffer.record(10L, 2L, first);
+        buffer.record(10L, 2L, latest);
+        buffer.record(10L, 2L, first.plusSeconds(5)); // out of order, must not go backwards
+
+        buffer.flush();
+
+        verify(chatReadStatusRepository, times(1)).upsertLastReadAt(10L, 2L, latest);
+        assertTrue(buffer.getPending(10L, 2L).isEmpty());
+    }
+
+    @Test
+    void getPending_ReturnsBufferedValueBeforeFlush() {
+        LocalDateTime readAt = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+        buffer.record(10L, 2L, readAt);
+
+        assertEquals(readAt, buffer.getPending(10L, 2L).orElseThrow());
+        assertTrue(buffer.getPending(10L, 3L).isEmpty());
+    }
+
+    @Test
+    void flush_WriteFails_KeepsEntryForRetry() {
+        when(databaseFeatures.isPostgres()).thenReturn(true);
+        when(chatReadStatusRepository.upsertLastReadAt(anyLong(), anyLong(), any()))
+                .thenThrow(new RuntimeException("connection lost"));
+        LocalDateTime readAt = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+        buffer.record(10L, 2L, readAt);
+        buffer.flush();
+
+        assertEquals(readAt, buffer.getPending(10L, 2L).orElseThrow());
+    }
+}
@@ -0,0 +1,107 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.config.DatabaseFeatures;
+import com.bandanize.backend.dtos.ChatSearchPageDTO;
+import com.bandanize.backend.models.ChatMessageModel;
+import com.bandanize.backend.models.UserModel;
+import com.bandanize.backend.repositories.ChatMessageRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatServiceTest {
+
+    @Mock
+    private ChatMessageRepository chatMessageRepository;
+
+    @Mock
+    private DatabaseFeatures databaseFeatures;
+
+    @InjectMocks
+    private ChatService chatService;
+
+    private static ChatMessageModel message(Long id, String text) {
+        UserModel sender = new UserModel();
+        sender.setId(1L);
+        sender.setName("Ana");
+        ChatMessageModel message = new ChatMessageModel();
+        message.setId(id);
+        message.setSender(sender);
+        message.setMessage(text);
+        message.setTimestamp(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(id));
+        return message;
+    }
+
+    @Test
+    void searchMessages_WithoutPostgres_HighlightsSubstringAndEscapesHtml() {
+        when(databaseFeatures.isPostgres()).thenReturn(false);
+        when(chatMessageRepository.searchBySubstring(10L, "riff", PageRequest.of(0, 20)))
+                .thenReturn(List.of(message(5L, "<b>New</b> RIFF and riff")));
+
+        ChatSearchPageDTO page = chatService.searchMessages(10L, "  riff ", null, 20);
+
+        assertEquals(1, page.getResults().size());
+        assertEquals("&lt;b&gt;New&lt;/b&gt; <mark>RIFF</mark> and <mark>riff</mark>",
+                page.getResults().get(0).getHighlight());
+        assertEquals("Ana", page.getResults().get(0).getSenderName());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void searchMessages_LowerCaseChangesLength_KeepsOffsets() {
+        when(databaseFeatures.isPostgres()).thenReturn(false);
+        // 'İ' lower-cases to two chars, which used to shift every later match
+        when(chatMessageRepository.searchBySubstring(10L, "ab", PageRequest.of(0, 20)))
+                .thenReturn(List.of(message(5L, "İİ ab")));
+
+        ChatSearchPageDTO page = chatService.searchMessages(10L, "ab", null, 20);
+
+        assertEquals("İİ <mark>ab</mark>", page.getResults().get(0).getHighlight());
+    }
+
+    @Test
+    void searchMessages_FullPage_ReturnsCursorAndResumesBeforeIt() {
+        when(databaseFeatures.isPostgres()).thenReturn(false);
+        when(chatMessageRepository.searchBySubstring(10L, "gig", PageRequest.of(0, 2)))
+                .thenReturn(List.of(message(9L, "gig"), message(8L, "gig")));
+        ChatMessageModel cursor = message(8L, "gig");
+        when(chatMessageRepository.findById(8L)).thenReturn(Optional.of(cursor));
+        when(chatMessageRepository.searchBySubstringBefore(10L, "gig", cursor.getTimestamp(), 8L,
+                PageRequest.of(0, 2))).thenReturn(List.of(message(3L, "gig")));
+
+        ChatSearchPageDTO first = chatService.searchMessages(10L, "gig", null, 2);
+        ChatSearchPageDTO second = chatService.searchMessages(10L, "gig", first.getNextCursor(), 2);
+
+        assertEquals(8L, first.getNextCursor());
+        assertEquals(List.of(3L), second.getResults().stream().map(r -> r.getId()).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void searchMessages_UnknownCursor_ReturnsEmptyPage() {
+        when(databaseFeatures.isPostgres()).thenReturn(false);
+        when(chatMessageRepository.findById(99L)).thenReturn(Optional.empty());
+
+        ChatSearchPageDTO page = chatService.searchMessages(10L, "gig", 99L, 20);
+
+        assertTrue(page.getResults().isEmpty());
+        verify(chatMessageRepository, never()).searchBySubstringBefore(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void searchMessages_BlankQuery_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> chatService.searchMessages(10L, " ", null, 20));
+    }
+}
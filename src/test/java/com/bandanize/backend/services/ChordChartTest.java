@@ -0,0 +1,59 @@
+package com.bandanize.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChordChartTest {
+
+    @Test
+    void chordPro_TransposedAndKeyDirectiveUpdated() {
+        ChordChart chart = ChordChart.parse("{title: Wonderwall}\n{key: Em}\n[Em7]Today is [G]gonna be the [Dsus4]day");
+
+        String rendered = chart.transpose(5, false, "Am", null).render(ChordChart.Format.CHORDPRO);
+
+        assertEquals("Em", chart.key());
+        assertEquals("{title: Wonderwall}\n{key: Am}\n[Am7]Today is [C]gonna be the [Gsus4]day", rendered);
+    }
+
+    @Test
+    void chordOverLyrics_AlignmentKeptWhenChordsGrow() {
+        String text = "G     C D\nHello my friend";
+
+        String rendered = ChordChart.parse(text).transpose(1, false, null, null).render(ChordChart.Format.TEXT);
+
+        assertEquals("G#    C# D#\nHello my  friend", rendered);
+    }
+
+    @Test
+    void chordOverLyrics_ToChordPro() {
+        String rendered = ChordChart.parse("Am     F\nLet it be").render(ChordChart.Format.CHORDPRO);
+
+        assertEquals("[Am]Let it [F]be", rendered);
+    }
+
+    @Test
+    void slashChordsAndFlats() {
+        assertEquals("Bb/D", ChordChart.transposeChord("A/C#", 1, true));
+        assertEquals("Ebmaj7", ChordChart.transposeChord("Dmaj7", 1, true));
+        assertEquals("C#m7b5", ChordChart.transposeChord("Cm7b5", 1, false));
+        assertEquals("Verse", ChordChart.transposeChord("Verse", 1, false));
+        assertTrue(ChordChart.usesFlats(ChordChart.semitone("F"), false));
+        assertTrue(ChordChart.usesFlats(ChordChart.semitone("Dm"), true));
+        assertFalse(ChordChart.usesFlats(ChordChart.semitone("E"), false));
+    }
+
+    @Test
+    void tabStavesAndCapo() {
+        String text = "e|---0---|\nB|---1---|\nAm\n\nC";
+        ChordChart chart = ChordChart.parse(text);
+
+        String rendered = chart.transpose(2, false, null, 2).render(ChordChart.Format.CHORDPRO);
+
+        assertEquals(List.of("Am", "C"), chart.chords());
+        assertEquals("Am", chart.firstChordKey());
+        assertEquals("{capo: 2}\ne|---0---|\nB|---1---|\n[Bm]\n\n[D]", rendered);
+    }
+}
@@ -0,0 +1,38 @@
+package com.bandanize.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @Test
+    void quotedFields_WithCommasQuotesAndLineBreaks() throws Exception {
+        CsvReader csv = new CsvReader(new StringReader(
+                "name,tabContent\r\n\"Hello, World\",\"e|--0--|\r\nB|--1--|\"\r\n\"Say \"\"hi\"\"\",\n"));
+
+        assertEquals(List.of("name", "tabContent"), csv.next());
+        assertEquals(List.of("Hello, World", "e|--0--|\r\nB|--1--|"), csv.next());
+        assertEquals(List.of("Say \"hi\"", ""), csv.next());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void lastRecordWithoutLineBreak() throws Exception {
+        CsvReader csv = new CsvReader(new StringReader("a,b\nc,d"));
+
+        assertEquals(List.of("a", "b"), csv.next());
+        assertEquals(List.of("c", "d"), csv.next());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void unterminatedQuote_Throws() throws Exception {
+        CsvReader csv = new CsvReader(new StringReader("\"open,field\n"));
+
+        assertThrows(IllegalArgumentException.class, csv::next);
+    }
+}
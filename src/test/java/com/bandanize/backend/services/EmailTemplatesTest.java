@@ -0,0 +1,72 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.services.EmailTemplates.RenderedEmail;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailTemplatesTest {
+
+    private final EmailTemplates templates = new EmailTemplates();
+
+    @Test
+    void compile_SubstitutesAndEscapesSlots() {
+        EmailTemplate template = EmailTemplate.compile("<b>{{ name }}</b> joined {{band}}{{missing}}.");
+
+        assertEquals(List.of("name", "band", "missing"), template.getSlots());
+        assertEquals("Ana and Ana", EmailTemplate.compile("{{name}} and {{name}}").render(Map.of("name", "Ana")));
+        assertEquals("<b>Ana &amp; &lt;Co&gt;</b> joined &quot;Los Rayos&quot;.",
+                template.render(Map.of("name", "Ana & <Co>", "band", "\"Los Rayos\"")));
+    }
+
+    @Test
+    void compile_UnclosedSlot_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("Hi {{name"));
+    }
+
+    @Test
+    void render_WrapsBodyInLayoutWithSubject() {
+        RenderedEmail email = templates.render("band-invitation", Locale.forLanguageTag("es"),
+                Map.of("bandName", "Los Rayos", "inviterName", "Ana", "invitationsLink", "http://x/invitations",
+                        "logoUrl", "http://x/logo.png"));
+
+        assertEquals("Invitación a unirte a Los Rayos", email.subject());
+        assertTrue(email.html().startsWith("<div style="));
+        assertTrue(email.html().contains("<strong>Ana</strong> te ha invitado"));
+        assertTrue(email.html().contains("<img src=\"http://x/logo.png\""));
+        assertTrue(email.html().contains("Todos los derechos reservados"));
+    }
+
+    @Test
+    void render_EscapesBodyButNotSubject() {
+        RenderedEmail email = templates.render("band-invitation", Locale.forLanguageTag("en"),
+                Map.of("bandName", "Guns N' Roses & Co", "inviterName", "Ana", "invitationsLink",
+                        "http://x/invitations", "logoUrl", "http://x/logo.png"));
+
+        assertEquals("Invitation to join Guns N' Roses & Co", email.subject());
+        assertTrue(email.html().contains("Guns N&#39; Roses &amp; Co"));
+    }
+
+    @Test
+    void render_FallsBackToClosestVariant() {
+        RenderedEmail english = templates.render("verification", Locale.forLanguageTag("en-GB"),
+                Map.of("verifyLink", "http://x/verify"));
+        RenderedEmail fallback = templates.render("verification", Locale.forLanguageTag("fr"),
+                Map.of("verifyLink", "http://x/verify"));
+
+        assertEquals("Verify your Bandanize account", english.subject());
+        assertTrue(english.html().contains("All rights reserved"));
+        assertEquals("Verifica tu cuenta de Bandanize", fallback.subject());
+    }
+
+    @Test
+    void render_UnknownTemplate_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> templates.render("nope", Locale.ROOT, Map.of()));
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(templates, "variants")).isEmpty());
+    }
+}
@@ -38,6 +38,9 @@ class EventServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private BandSearchService bandSearchService;
+
     @InjectMocks
     private EventService eventService;
 
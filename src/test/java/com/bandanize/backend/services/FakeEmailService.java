@@ -0,0 +1,44 @@
+package com.bandanize.backend.services;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records emails instead of sending them. Replaces {@link ResendEmailService}
+ * when {@code app.mail.transport=fake}, as in the test configuration.
+ */
+@Service
+@ConditionalOnProperty(name = "app.mail.transport", havingValue = "fake")
+public class FakeEmailService implements EmailService {
+
+    public record SentEmail(String kind, String to, List<String> args) {
+    }
+
+    private final List<SentEmail> sent = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void sendPasswordReset(String to, String token) {
+        sent.add(new SentEmail("passwordReset", to, List.of(token)));
+    }
+
+    @Override
+    public void sendBandInvitation(String to, String bandName, String inviterName, String inviteLink) {
+        sent.add(new SentEmail("bandInvitation", to, List.of(bandName, inviterName, String.valueOf(inviteLink))));
+    }
+
+    @Override
+    public void sendVerificationEmail(String to, String token) {
+        sent.add(new SentEmail("verification", to, List.of(token)));
+    }
+
+    public List<SentEmail> getSent() {
+        return sent;
+    }
+
+    public void clear() {
+        sent.clear();
+    }
+}
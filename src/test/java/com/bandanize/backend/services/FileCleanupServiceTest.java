@@ -0,0 +1,51 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.repositories.JobRepository.NewJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FileCleanupServiceTest {
+
+    @Mock
+    private JobQueueService jobQueueService;
+    @Mock
+    private FileStorageService fileStorageService;
+
+    private FileCleanupService fileCleanupService;
+
+    @BeforeEach
+    void setUp() {
+        fileCleanupService = new FileCleanupService(jobQueueService, fileStorageService);
+    }
+
+    @Test
+    void enqueueUrls_QueuesOnlyUploadsKeyedByPath() {
+        fileCleanupService.enqueueUrls(List.of("http://host/uploads/audio/a.mp3?x=1", "https://youtube.com/watch",
+                "/uploads/audio/a.mp3"));
+
+        verify(jobQueueService).enqueueAll(List.of(
+                new NewJob(FileCleanupService.JOB_TYPE, "audio/a.mp3", "file.delete:audio/a.mp3")));
+    }
+
+    @Test
+    void enqueueUrls_NoUploads_QueuesNothing() {
+        fileCleanupService.enqueueUrls(List.of("https://youtube.com/watch"));
+
+        verifyNoInteractions(jobQueueService);
+    }
+
+    @Test
+    void handle_DeletesFileFromStorage() {
+        fileCleanupService.handle("images/b.png");
+
+        verify(fileStorageService).delete("b.png", "images");
+    }
+}
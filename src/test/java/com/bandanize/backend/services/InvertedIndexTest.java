@@ -0,0 +1,66 @@
+package com.bandanize.backend.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private InvertedIndex<String> index;
+
+    private static List<InvertedIndex.Field> fields(String title, String body) {
+        return List.of(new InvertedIndex.Field(title, 3.0f), new InvertedIndex.Field(body, 1.0f));
+    }
+
+    private List<String> keys(String query) {
+        return index.search(query).stream().map(InvertedIndex.Hit::key).toList();
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex<>();
+        index.put("wonderwall", fields("Wonderwall", "Today is gonna be the day"));
+        index.put("cancion", fields("Canción del mariachi", "Soy un hombre muy honrado"));
+        index.put("intro", fields("Intro riff", "Wonderwall intro in Em7"));
+    }
+
+    @Test
+    void search_TitleMatchRanksAboveContentMatch() {
+        assertEquals(List.of("wonderwall", "intro"), keys("wonderwall"));
+    }
+
+    @Test
+    void search_AllTermsRequired() {
+        assertEquals(List.of("intro"), keys("wonderwall intro"));
+        assertTrue(keys("wonderwall mariachi").isEmpty());
+    }
+
+    @Test
+    void search_LastTermMatchesPrefix() {
+        assertEquals(List.of("cancion"), keys("maria"));
+        assertEquals(List.of("cancion"), keys("mariachi del"));
+        assertTrue(keys("mari hombre").isEmpty());
+    }
+
+    @Test
+    void search_IgnoresCaseAndAccents() {
+        assertEquals(List.of("cancion"), keys("CANCION"));
+    }
+
+    @Test
+    void put_ReplacesPreviousVersion() {
+        index.put("wonderwall", fields("Champagne Supernova", ""));
+        assertEquals(List.of("intro"), keys("wonderwall"));
+        assertEquals(List.of("wonderwall"), keys("supernova"));
+    }
+
+    @Test
+    void removeIf_RemovesMatchingDocuments() {
+        assertEquals(List.of("intro"), index.removeIf(key -> key.startsWith("in")));
+        assertEquals(2, index.size());
+        assertTrue(keys("riff").isEmpty());
+    }
+}
@@ -0,0 +1,131 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.repositories.JobRepository;
+import com.bandanize.backend.repositories.JobRepository.ClaimedJob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobQueueServiceTest {
+
+    @Mock
+    private JobRepository jobRepository;
+    @Mock
+    private ObjectProvider<JobHandler> handlerProvider;
+    @Mock
+    private JobHandler handler;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private JobQueueService jobQueueService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jobQueueService = new JobQueueService(jobRepository, handlerProvider, meterRegistry, transactionManager, 2,
+                600, 24);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobQueueService.shutdown();
+    }
+
+    @Test
+    void run_Success_MarksDone() throws Exception {
+        when(jobRepository.markDone(eq(1L), anyString(), any())).thenReturn(true);
+
+        jobQueueService.run(List.of(new ClaimedJob(1L, "test", "payload", 1)), handler);
+
+        verify(handler).handle("payload");
+        assertEquals(1.0, meterRegistry.counter("jobs.runs", "type", "test", "outcome", "success").count());
+    }
+
+    @Test
+    void run_LeaseTakenOver_RecordsNothing() throws Exception {
+        when(jobRepository.markDone(eq(1L), anyString(), any())).thenReturn(false);
+
+        jobQueueService.run(List.of(new ClaimedJob(1L, "test", "payload", 1)), handler);
+
+        assertEquals(0.0, meterRegistry.counter("jobs.runs", "type", "test", "outcome", "success").count());
+        assertEquals(1.0, meterRegistry.counter("jobs.runs", "type", "test", "outcome", "lost").count());
+    }
+
+    @Test
+    void run_Failure_ReschedulesWithBackoff() throws Exception {
+        when(handler.maxAttempts()).thenReturn(8);
+        doThrow(new IllegalStateException("storage down")).when(handler).handle("payload");
+        when(jobRepository.reschedule(eq(1L), anyString(), any(), eq("IllegalStateException: storage down")))
+                .thenReturn(true);
+
+        jobQueueService.run(List.of(new ClaimedJob(1L, "test", "payload", 3)), handler);
+
+        verify(jobRepository, never()).markDone(any(), any(), any());
+        assertEquals(1.0, meterRegistry.counter("jobs.runs", "type", "test", "outcome", "retry").count());
+    }
+
+    @Test
+    void run_LastAttemptFails_MarksDead() throws Exception {
+        when(handler.maxAttempts()).thenReturn(3);
+        doThrow(new IllegalStateException("storage down")).when(handler).handle("payload");
+
+        jobQueueService.run(List.of(new ClaimedJob(1L, "test", "payload", 3)), handler);
+
+        verify(jobRepository).markDead(eq(1L), anyString(), any(), eq("IllegalStateException: storage down"));
+        verify(jobRepository, never()).reschedule(any(), any(), any(), any());
+    }
+
+    @Test
+    void poll_ClaimsOnlyRegisteredTypesForIdleWorkers() throws Exception {
+        when(handler.type()).thenReturn("test");
+        when(handlerProvider.orderedStream()).thenReturn(Stream.of(handler));
+        when(jobRepository.claim(eq(java.util.Set.of("test")), anyString(), eq(2), any(), any()))
+                .thenReturn(List.of(new ClaimedJob(1L, "test", "a", 1)));
+
+        jobQueueService.poll();
+
+        verify(handler, timeout(1000)).handle("a");
+        ArgumentCaptor<String> claimedBy = ArgumentCaptor.forClass(String.class);
+        verify(jobRepository).claim(any(), claimedBy.capture(), anyInt(), any(), any());
+        verify(jobRepository, timeout(1000)).markDone(eq(1L), eq(claimedBy.getValue()), any());
+    }
+
+    @Test
+    void poll_HandsBatchingHandlerItsJobsTogether() throws Exception {
+        when(handler.type()).thenReturn("mail");
+        when(handler.batchSize()).thenReturn(10);
+        when(handlerProvider.orderedStream()).thenReturn(Stream.of(handler));
+        when(jobRepository.claim(eq(java.util.Set.of("mail")), anyString(), eq(20), any(), any()))
+                .thenReturn(List.of(new ClaimedJob(1L, "mail", "a", 1), new ClaimedJob(2L, "mail", "b", 1)));
+
+        jobQueueService.poll();
+
+        verify(handler, timeout(1000)).handleBatch(List.of("a", "b"));
+        verify(jobRepository, timeout(1000)).markDone(eq(2L), anyString(), any());
+        verify(handler, never()).handle(any());
+    }
+
+    @Test
+    void retryDelay_DoublesUpToCap() {
+        assertEquals(Duration.ofSeconds(30), JobQueueService.retryDelay(1));
+        assertEquals(Duration.ofMinutes(2), JobQueueService.retryDelay(3));
+        assertEquals(Duration.ofHours(6), JobQueueService.retryDelay(30));
+    }
+}
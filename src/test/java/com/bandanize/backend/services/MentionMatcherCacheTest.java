@@ -0,0 +1,69 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.models.BandModel;
+import com.bandanize.backend.models.UserModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MentionMatcherCacheTest {
+
+    private MentionMatcherCache cache;
+    private BandModel band;
+
+    private static UserModel member(long id, String username) {
+        UserModel user = new UserModel();
+        user.setId(id);
+        user.setUsername(username);
+        user.setName(username);
+        return user;
+    }
+
+    @BeforeEach
+    void setUp() {
+        cache = new MentionMatcherCache();
+        ReflectionTestUtils.setField(cache, "ttlMillis", 60000L);
+        band = new BandModel();
+        band.setId(10L);
+        band.setUsers(new ArrayList<>(List.of(member(1L, "ana"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evict_InTransaction_DropsMatcherBuiltBeforeCommit() {
+        cache.get(band);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evict(10L);
+        // A concurrent message still sees the old members and caches them
+        cache.get(band);
+        band.getUsers().add(member(2L, "joe"));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(Set.of(2L), cache.get(band).findMentions("@joe"));
+    }
+
+    @Test
+    void get_ExpiredEntry_IsRebuilt() {
+        ReflectionTestUtils.setField(cache, "ttlMillis", 0L);
+        cache.get(band);
+        band.getUsers().add(member(2L, "joe"));
+
+        assertEquals(Set.of(2L), cache.get(band).findMentions("@joe"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.models.UserModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MentionMatcherTest {
+
+    private MentionMatcher matcher;
+
+    private static UserModel member(long id, String username, String name) {
+        UserModel user = new UserModel();
+        user.setId(id);
+        user.setUsername(username);
+        user.setName(name);
+        return user;
+    }
+
+    @BeforeEach
+    void setUp() {
+        matcher = MentionMatcher.build(List.of(
+                member(1L, "ana", "Ana"),
+                member(2L, "anabel", "Anabel"),
+                member(3L, "am", "Ana Maria"),
+                member(4L, "drummer_joe", "Joe")));
+    }
+
+    @Test
+    void findMentions_ExactName_Matches() {
+        assertEquals(Set.of(1L), matcher.findMentions("Hey @Ana, rehearsal at 8"));
+    }
+
+    @Test
+    void findMentions_PrefixOfAnotherName_OnlyMatchesLongest() {
+        assertEquals(Set.of(2L), matcher.findMentions("@Anabel bring the capo"));
+        assertEquals(Set.of(3L), matcher.findMentions("@Ana Maria bring the capo"));
+    }
+
+    @Test
+    void findMentions_ByUsernameAndCaseInsensitive() {
+        assertEquals(Set.of(4L, 1L), matcher.findMentions("@DRUMMER_JOE and @ana are late"));
+    }
+
+    @Test
+    void findMentions_NoWordBoundary_DoesNotMatch() {
+        assertTrue(matcher.findMentions("write to ana@ana.com").isEmpty());
+        assertTrue(matcher.findMentions("@Anastasia is not in the band").isEmpty());
+    }
+
+    @Test
+    void findMentions_NoAtSign_ReturnsEmpty() {
+        assertTrue(matcher.findMentions("Ana Maria is here").isEmpty());
+    }
+
+    @Test
+    void build_NoMembers_MatchesNothing() {
+        assertTrue(MentionMatcher.build(List.of()).findMentions("@Ana").isEmpty());
+    }
+}
@@ -0,0 +1,71 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.repositories.NotificationCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationCounterServiceTest {
+
+    @Mock
+    private NotificationCounterRepository notificationCounterRepository;
+
+    private NotificationCounterService notificationCounterService;
+
+    @BeforeEach
+    void setUp() {
+        notificationCounterService = new NotificationCounterService(notificationCounterRepository, 60_000);
+    }
+
+    @Test
+    void getUnreadCount_CachesCountsOfAllBands() {
+        when(notificationCounterRepository.findByRecipient(2L)).thenReturn(Map.of(10L, 3L, 11L, 1L));
+
+        assertEquals(3L, notificationCounterService.getUnreadCount(10L, 2L));
+        assertEquals(1L, notificationCounterService.getUnreadCount(11L, 2L));
+        assertEquals(0L, notificationCounterService.getUnreadCount(12L, 2L));
+
+        verify(notificationCounterRepository, times(1)).findByRecipient(2L);
+    }
+
+    @Test
+    void increment_EvictsRecipients() {
+        when(notificationCounterRepository.findByRecipient(2L)).thenReturn(Map.of(10L, 3L)).thenReturn(Map.of(10L, 4L));
+        notificationCounterService.getUnreadCount(10L, 2L);
+
+        notificationCounterService.increment(10L, List.of(2L));
+
+        verify(notificationCounterRepository).increment(10L, List.of(2L));
+        assertEquals(4L, notificationCounterService.getUnreadCount(10L, 2L));
+    }
+
+    @Test
+    void reset_EvictsRecipient() {
+        when(notificationCounterRepository.findByRecipient(2L)).thenReturn(Map.of(10L, 3L)).thenReturn(Map.of());
+        notificationCounterService.getUnreadCount(10L, 2L);
+
+        notificationCounterService.reset(10L, 2L);
+
+        verify(notificationCounterRepository).reset(10L, 2L);
+        assertEquals(0L, notificationCounterService.getUnreadCount(10L, 2L));
+    }
+
+    @Test
+    void expiredEntry_IsReloaded() {
+        notificationCounterService = new NotificationCounterService(notificationCounterRepository, 0);
+        when(notificationCounterRepository.findByRecipient(2L)).thenReturn(Map.of(10L, 3L)).thenReturn(Map.of(10L, 5L));
+
+        notificationCounterService.getUnreadCount(10L, 2L);
+
+        assertEquals(5L, notificationCounterService.getUnreadCount(10L, 2L));
+    }
+}
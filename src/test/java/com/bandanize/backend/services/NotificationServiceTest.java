@@ -3,19 +3,25 @@ package com.bandanize.backend.services;
 import com.bandanize.backend.models.*;
 import com.bandanize.backend.repositories.BandRepository;
 import com.bandanize.backend.repositories.NotificationRepository;
+import com.bandanize.backend.repositories.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import tools.jackson.databind.ObjectMapper;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +33,21 @@ class NotificationServiceTest {
     @Mock
     private BandRepository bandRepository;
 
+    @Mock
+    private NotificationCounterService notificationCounterService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JobQueueService jobQueueService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private org.springframework.transaction.PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private NotificationService notificationService;
 
@@ -59,6 +80,17 @@ class NotificationServiceTest {
         band.setId(10L);
         band.setName("Test Band");
         band.setUsers(new ArrayList<>(List.of(actor, recipient1, recipient2)));
+        lenient().when(bandRepository.findById(10L)).thenReturn(Optional.of(band));
+        lenient().when(userRepository.findById(1L)).thenReturn(Optional.of(actor));
+    }
+
+    /**
+     * Runs the fan-out job the last call queued, like a worker would.
+     */
+    private void runFanOut() {
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jobQueueService).enqueue(eq(NotificationService.JOB_TYPE), payload.capture(), isNull());
+        notificationService.handle(payload.getValue());
     }
 
     // ── createNotification (via createSongNotification) ─────────────
@@ -69,12 +101,14 @@ class NotificationServiceTest {
         song.setName("Test Song");
 
         notificationService.createSongNotification(band, actor, song);
+        runFanOut();
 
         // Should save 2 notifications (for recipient1 and recipient2), NOT for actor
         verify(notificationRepository, times(2)).save(notificationCaptor.capture());
 
         List<Notification> saved = notificationCaptor.getAllValues();
         assertTrue(saved.stream().noneMatch(n -> n.getRecipient().getId().equals(actor.getId())));
+        verify(notificationCounterService).increment(10L, List.of(2L, 3L));
     }
 
     @Test
@@ -83,6 +117,7 @@ class NotificationServiceTest {
         list.setName("Setlist 1");
 
         notificationService.createListNotification(band, actor, list);
+        runFanOut();
 
         verify(notificationRepository, times(2)).save(notificationCaptor.capture());
 
@@ -99,6 +134,30 @@ class NotificationServiceTest {
         });
     }
 
+    @Test
+    void createNotification_QueuesFanOutInsteadOfWritingRows() {
+        SongModel song = new SongModel();
+        song.setName("Test Song");
+
+        notificationService.createSongNotification(band, actor, song);
+
+        verify(jobQueueService).enqueue(eq(NotificationService.JOB_TYPE), anyString(), isNull());
+        verifyNoInteractions(notificationRepository, notificationCounterService);
+    }
+
+    @Test
+    void handle_BandDeletedSinceQueued_WritesNothing() {
+        SongModel song = new SongModel();
+        song.setName("Test Song");
+        notificationService.createSongNotification(band, actor, song);
+        when(bandRepository.findById(10L)).thenReturn(Optional.empty());
+
+        runFanOut();
+
+        verify(notificationRepository, never()).save(any());
+        verifyNoInteractions(notificationCounterService);
+    }
+
     @Test
     void createNotification_SingleMemberBand_NoNotifications() {
         // Band with only the actor — nobody to notify
@@ -108,10 +167,107 @@ class NotificationServiceTest {
         song.setName("Solo Song");
 
         notificationService.createSongNotification(band, actor, song);
+        runFanOut();
 
         verify(notificationRepository, never()).save(any());
     }
 
+    // ── digests ─────────────────────────────────────────────────────
+
+    @Test
+    void createSongNotification_OpenDigest_BumpsItInsteadOfSaving() {
+        NotificationRepository.OpenDigest digest = mock(NotificationRepository.OpenDigest.class);
+        when(digest.getId()).thenReturn(100L);
+        when(digest.getRecipientId()).thenReturn(2L);
+        when(notificationRepository.findOpenDigests(eq(10L), eq(1L),
+                eq(Notification.NotificationType.SONG_ADDED), any())).thenReturn(List.of(digest));
+
+        SongModel song = new SongModel();
+        song.setName("Second Song");
+        notificationService.createSongNotification(band, actor, song);
+        runFanOut();
+
+        verify(notificationRepository).addOccurrence(eq(List.of(100L)), any());
+        // recipient1 already had a digest; only recipient2 gets a new row
+        verify(notificationRepository, times(1)).save(notificationCaptor.capture());
+        assertEquals(3L, notificationCaptor.getValue().getRecipient().getId());
+        // The digest was already unread, so only the new row is counted
+        verify(notificationCounterService).increment(10L, List.of(3L));
+    }
+
+    @Test
+    void createEventNotification_IsNeverCoalesced() {
+        EventModel event = new EventModel();
+        event.setName("Gig");
+
+        notificationService.createEventNotification(band, actor, event, false);
+        runFanOut();
+
+        verify(notificationRepository, never()).findOpenDigests(any(), any(), any(), any());
+        verify(notificationRepository, never()).addOccurrence(any(), any());
+    }
+
+    @Test
+    void getProjectNotifications_DigestSummarizesCount() {
+        Notification digest = new Notification();
+        digest.setActor(actor);
+        digest.setType(Notification.NotificationType.SONG_ADDED);
+        digest.setTitle("New Song");
+        digest.setMessage("Actor User added song First");
+        digest.setOccurrences(20);
+        when(notificationRepository.findInbox(eq(10L), eq(2L), any())).thenReturn(List.of(digest));
+
+        com.bandanize.backend.dtos.NotificationDTO dto = notificationService.getProjectNotifications(10L, 2L, null, 50)
+                .get(0);
+
+        assertEquals(20, dto.getCount());
+        assertEquals("New Songs", dto.getTitle());
+        assertEquals("Actor User added 20 songs", dto.getMessage());
+    }
+
+    // ── paging / retention ──────────────────────────────────────────
+
+    @Test
+    void getProjectNotifications_Before_ContinuesAfterCursor() {
+        Notification cursor = new Notification();
+        cursor.setId(7L);
+        cursor.setRecipient(recipient1);
+        when(notificationRepository.findById(7L)).thenReturn(java.util.Optional.of(cursor));
+
+        notificationService.getProjectNotifications(10L, 2L, 7L, 1000);
+
+        verify(notificationRepository).findInboxBefore(10L, 2L, cursor.getCreatedAt(), 7L,
+                org.springframework.data.domain.PageRequest.of(0, 100));
+    }
+
+    @Test
+    void getProjectNotifications_OtherUsersCursor_ReturnsNothing() {
+        Notification cursor = new Notification();
+        cursor.setId(7L);
+        cursor.setRecipient(recipient2);
+        when(notificationRepository.findById(7L)).thenReturn(java.util.Optional.of(cursor));
+
+        assertTrue(notificationService.getProjectNotifications(10L, 2L, 7L, 50).isEmpty());
+        verify(notificationRepository, never()).findInboxBefore(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void purgeExpired_DeletesInBatchesUntilShortBatch() {
+        org.springframework.test.util.ReflectionTestUtils.setField(notificationService, "retentionBatchSize", 2);
+        when(notificationRepository.findIdsCreatedBefore(any(), any()))
+                .thenReturn(List.of(1L, 2L)).thenReturn(List.of(3L));
+        when(notificationRepository.deleteByIds(any())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        notificationService.purgeExpired();
+
+        InOrder order = inOrder(notificationCounterService, notificationRepository);
+        order.verify(notificationCounterService).subtractUnread(List.of(1L, 2L));
+        order.verify(notificationRepository).deleteByIds(List.of(1L, 2L));
+        order.verify(notificationCounterService).subtractUnread(List.of(3L));
+        order.verify(notificationRepository).deleteByIds(List.of(3L));
+        verify(notificationRepository, times(2)).findIdsCreatedBefore(any(), any());
+    }
+
     // ── createChatMentionNotification ───────────────────────────────
 
     @Test
@@ -124,6 +280,7 @@ class NotificationServiceTest {
         assertEquals(recipient1, saved.getRecipient());
         assertEquals(actor, saved.getActor());
         assertEquals(Notification.NotificationType.CHAT_MENTION, saved.getType());
+        verify(notificationCounterService).increment(10L, List.of(2L));
     }
 
     // ── createEventNotification ─────────────────────────────────────
@@ -134,6 +291,7 @@ class NotificationServiceTest {
         event.setName("Gig");
 
         notificationService.createEventNotification(band, actor, event, false);
+        runFanOut();
 
         verify(notificationRepository, times(2)).save(notificationCaptor.capture());
         notificationCaptor.getAllValues()
@@ -146,6 +304,7 @@ class NotificationServiceTest {
         event.setName("Gig Updated");
 
         notificationService.createEventNotification(band, actor, event, true);
+        runFanOut();
 
         verify(notificationRepository, times(2)).save(notificationCaptor.capture());
         notificationCaptor.getAllValues()
@@ -155,8 +314,8 @@ class NotificationServiceTest {
     // ── getUnreadCount / markAllAsRead ───────────────────────────────
 
     @Test
-    void getUnreadCount_DelegatesToRepository() {
-        when(notificationRepository.countByBandIdAndRecipientIdAndIsReadFalse(10L, 2L)).thenReturn(5L);
+    void getUnreadCount_ReadsCounter() {
+        when(notificationCounterService.getUnreadCount(10L, 2L)).thenReturn(5L);
 
         long count = notificationService.getUnreadCount(10L, 2L);
 
@@ -164,9 +323,11 @@ class NotificationServiceTest {
     }
 
     @Test
-    void markAllAsRead_DelegatesToRepository() {
+    void markAllAsRead_ResetsCounterThenMarks() {
         notificationService.markAllAsRead(10L, 2L);
 
-        verify(notificationRepository).markAllAsRead(10L, 2L);
+        InOrder order = inOrder(notificationCounterService, notificationRepository);
+        order.verify(notificationCounterService).reset(10L, 2L);
+        order.verify(notificationRepository).markAllAsRead(10L, 2L);
     }
 }
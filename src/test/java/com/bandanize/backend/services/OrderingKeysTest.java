@@ -0,0 +1,68 @@
+package com.bandanize.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderingKeysTest {
+
+    @Test
+    void between_EmptyList_ReturnsMiddleKey() {
+        assertEquals("i", OrderingKeys.between(null, null));
+    }
+
+    @Test
+    void between_ReturnsKeyStrictlyBetweenNeighbors() {
+        String[][] cases = { { "a", "c" }, { "a", "b" }, { "a", "a1" }, { "az", "b" }, { null, "1" }, { "z", null } };
+        for (String[] bounds : cases) {
+            String key = OrderingKeys.between(bounds[0], bounds[1]);
+            assertTrue(OrderingKeys.isValid(key), key);
+            assertTrue(bounds[0] == null || bounds[0].compareTo(key) < 0, key);
+            assertTrue(bounds[1] == null || key.compareTo(bounds[1]) < 0, key);
+        }
+    }
+
+    @Test
+    void between_RepeatedInsertsStayOrdered() {
+        // Always insert right after the first item, the worst case for key growth
+        List<String> keys = new ArrayList<>(List.of("h", "t"));
+        for (int i = 0; i < 200; i++) {
+            keys.add(1, OrderingKeys.between(keys.get(0), keys.get(1)));
+        }
+        for (int i = 1; i < keys.size(); i++) {
+            assertTrue(keys.get(i - 1).compareTo(keys.get(i)) < 0);
+        }
+    }
+
+    @Test
+    void between_AppendsStayOrderedAndShort() {
+        String key = null;
+        for (int i = 0; i < 500; i++) {
+            String next = OrderingKeys.between(key, null);
+            assertTrue(key == null || key.compareTo(next) < 0, next);
+            key = next;
+        }
+        assertTrue(key.length() <= 16, key);
+    }
+
+    @Test
+    void between_InvalidBounds_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> OrderingKeys.between("b", "a"));
+        assertThrows(IllegalArgumentException.class, () -> OrderingKeys.between("a0", null));
+        assertThrows(IllegalArgumentException.class, () -> OrderingKeys.between("A", null));
+    }
+
+    @Test
+    void evenlySpaced_ReturnsAscendingValidKeys() {
+        List<String> keys = OrderingKeys.evenlySpaced(500);
+        assertEquals(500, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertTrue(OrderingKeys.isValid(keys.get(i)));
+            assertTrue(keys.get(i).length() <= 3);
+            assertTrue(i == 0 || keys.get(i - 1).compareTo(keys.get(i)) < 0);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.services.ResendEmailService.OutboundEmail;
+import com.resend.Resend;
+import com.resend.core.exception.ResendException;
+import com.resend.core.net.RequestOptions;
+import com.resend.services.batch.Batch;
+import com.resend.services.batch.model.BatchError;
+import com.resend.services.batch.model.CreateBatchEmailsResponse;
+import com.resend.services.emails.Emails;
+import com.resend.services.emails.model.CreateEmailOptions;
+import com.resend.services.emails.model.CreateEmailResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResendEmailServiceTest {
+
+    @Mock
+    private Resend resend;
+    @Mock
+    private Emails emails;
+    @Mock
+    private Batch batch;
+    @Mock
+    private JobQueueService jobQueueService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ResendEmailService emailService;
+
+    @BeforeEach
+    void setUp() {
+        // No throttling in tests
+        emailService = new ResendEmailService(resend, jobQueueService, objectMapper, new EmailTemplates(),
+                Locale.forLanguageTag("es"), 1_000_000);
+        ReflectionTestUtils.setField(emailService, "fromEmail", "support@bandanize.dev");
+        ReflectionTestUtils.setField(emailService, "frontendUrl", "http://localhost:5173");
+    }
+
+    @Test
+    void sendVerificationEmail_QueuesRenderedEmailWithoutCallingResend() {
+        emailService.sendVerificationEmail("ana@example.com", "tok123");
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jobQueueService).enqueue(eq(ResendEmailService.JOB_TYPE), payload.capture(), isNull());
+        OutboundEmail email = objectMapper.readValue(payload.getValue(), OutboundEmail.class);
+        assertEquals("ana@example.com", email.to());
+        assertEquals("Verifica tu cuenta de Bandanize", email.subject());
+        assertTrue(email.html().contains("/verify-email?token=tok123"));
+        assertTrue(email.html().contains("http://localhost:5173/apple-touch-icon.png"));
+        assertNotNull(email.id());
+        verifyNoInteractions(resend);
+    }
+
+    @Test
+    void handleBatch_SendsOneBatchRequest() throws Exception {
+        when(resend.batch()).thenReturn(batch);
+        when(batch.send(anyList(), any(RequestOptions.class))).thenReturn(new CreateBatchEmailsResponse());
+
+        emailService.handleBatch(List.of(payload("1", "a@example.com"), payload("2", "b@example.com")));
+
+        ArgumentCaptor<List<CreateEmailOptions>> sent = ArgumentCaptor.captor();
+        verify(batch).send(sent.capture(), any(RequestOptions.class));
+        assertEquals(2, sent.getValue().size());
+        verify(resend, never()).emails();
+    }
+
+    @Test
+    void handleBatch_RejectedBatch_SendsOneByOneAndDropsTheBadEmail() throws Exception {
+        when(resend.batch()).thenReturn(batch);
+        when(resend.emails()).thenReturn(emails);
+        when(batch.send(anyList(), any(RequestOptions.class)))
+                .thenThrow(new ResendException(422, "Invalid `to` field"));
+        when(emails.send(any(CreateEmailOptions.class), any(RequestOptions.class))).thenAnswer(invocation -> {
+            CreateEmailOptions options = invocation.getArgument(0);
+            if (options.getTo().contains("bad")) {
+                throw new ResendException(422, "Invalid `to` field");
+            }
+            return new CreateEmailResponse("id-1");
+        });
+
+        emailService.handleBatch(List.of(payload("1", "a@example.com"), payload("2", "bad")));
+
+        verify(emails, times(2)).send(any(CreateEmailOptions.class), any(RequestOptions.class));
+    }
+
+    @Test
+    void handleBatch_Outage_FailsForRetry() throws Exception {
+        when(resend.emails()).thenReturn(emails);
+        when(emails.send(any(CreateEmailOptions.class), any(RequestOptions.class)))
+                .thenThrow(new ResendException(503, "Service unavailable"));
+
+        assertThrows(ResendException.class, () -> emailService.handleBatch(List.of(payload("1", "a@example.com"))));
+    }
+
+    @Test
+    void handleBatch_BadApiKey_FailsForRetryWithoutSendingOneByOne() throws Exception {
+        when(resend.batch()).thenReturn(batch);
+        ArgumentCaptor<String> retry = ArgumentCaptor.forClass(String.class);
+        when(batch.send(anyList(), any(RequestOptions.class)))
+                .thenThrow(new ResendException(401, "API key is invalid"));
+
+        emailService.handleBatch(List.of(payload("1", "a@example.com"), payload("2", "b@example.com")));
+
+        verify(jobQueueService).enqueue(eq(ResendEmailService.JOB_TYPE), retry.capture(), anyString());
+        verify(resend, never()).emails();
+        assertThrows(ResendException.class, () -> emailService.handleBatch(List.of(retry.getValue())));
+    }
+
+    @Test
+    void handleBatch_Forbidden_FailsForRetry() throws Exception {
+        when(resend.emails()).thenReturn(emails);
+        when(emails.send(any(CreateEmailOptions.class), any(RequestOptions.class)))
+                .thenThrow(new ResendException(403, "The domain is not verified"));
+
+        assertThrows(ResendException.class, () -> emailService.handleBatch(List.of(payload("1", "a@example.com"))));
+    }
+
+    @Test
+    void handleBatch_BatchOutage_QueuesTheSameBatchForRetry() throws Exception {
+        when(resend.batch()).thenReturn(batch);
+        ArgumentCaptor<RequestOptions> keys = ArgumentCaptor.forClass(RequestOptions.class);
+        when(batch.send(anyList(), keys.capture()))
+                .thenThrow(new ResendException(503, "Service unavailable"))
+                .thenReturn(new CreateBatchEmailsResponse());
+        when(resend.emails()).thenReturn(emails);
+        when(emails.send(any(CreateEmailOptions.class), any(RequestOptions.class)))
+                .thenReturn(new CreateEmailResponse("id-3"));
+
+        emailService.handleBatch(List.of(payload("1", "a@example.com"), payload("2", "b@example.com")));
+
+        ArgumentCaptor<String> retry = ArgumentCaptor.forClass(String.class);
+        verify(jobQueueService).enqueue(eq(ResendEmailService.JOB_TYPE), retry.capture(), anyString());
+        // Retried alongside a new email, the failed batch still goes out as it was
+        emailService.handleBatch(List.of(retry.getValue(), payload("3", "c@example.com")));
+
+        ArgumentCaptor<List<CreateEmailOptions>> sent = ArgumentCaptor.captor();
+        verify(batch, times(2)).send(sent.capture(), any(RequestOptions.class));
+        assertEquals(List.of(List.of("a@example.com"), List.of("b@example.com")),
+                sent.getAllValues().get(1).stream().map(CreateEmailOptions::getTo).toList());
+        assertEquals(keys.getAllValues().get(0).getIdempotencyKey(), keys.getAllValues().get(1).getIdempotencyKey());
+        ArgumentCaptor<RequestOptions> singleKey = ArgumentCaptor.forClass(RequestOptions.class);
+        verify(emails).send(any(CreateEmailOptions.class), singleKey.capture());
+        assertEquals("3", singleKey.getValue().getIdempotencyKey());
+    }
+
+    @Test
+    void handleBatch_PartialErrors_AreNotRetried() throws Exception {
+        when(resend.batch()).thenReturn(batch);
+        when(batch.send(anyList(), any(RequestOptions.class))).thenReturn(
+                new CreateBatchEmailsResponse(List.of(), List.of(new BatchError(1, "Invalid `to` field"))));
+
+        emailService.handleBatch(List.of(payload("1", "a@example.com"), payload("2", "bad")));
+
+        verify(batch).send(anyList(), any(RequestOptions.class));
+        verifyNoInteractions(jobQueueService);
+    }
+
+    private String payload(String id, String to) {
+        return objectMapper.writeValueAsString(new OutboundEmail(id, to, "Subject", "<p>Hi</p>"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.exceptions.ResourceNotFoundException;
+import com.bandanize.backend.repositories.SongListRepository;
+import com.bandanize.backend.repositories.SongRepository;
+import com.bandanize.backend.repositories.TablatureRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SetlistPdfServiceTest {
+
+    private static final Long LIST_ID = 3L;
+
+    @Mock
+    private SongListRepository songListRepository;
+
+    @Mock
+    private SongRepository songRepository;
+
+    @Mock
+    private TablatureRepository tablatureRepository;
+
+    @TempDir
+    Path cacheDir;
+
+    private SetlistPdfService setlistPdfService;
+
+    @BeforeEach
+    void setUp() {
+        setlistPdfService = new SetlistPdfService(songListRepository, songRepository, tablatureRepository,
+                cacheDir.toString(), 168);
+        lenient().when(songListRepository.findNameAndBandName(LIST_ID)).thenReturn(rows(new Object[] { "Gig", "The Band" }));
+        lenient().when(songRepository.findSetlistRows(LIST_ID)).thenReturn(rows(
+                new Object[] { 1L, "Intro", "Am", 120, null },
+                new Object[] { 2L, "Hit", "G", 98, "Someone" }));
+        lenient().when(tablatureRepository.findSetlistRows(LIST_ID)).thenReturn(rows(
+                new Object[] { 1L, 10L, 0L, "Lead", "Guitar", "EADGBE" }));
+        lenient().when(tablatureRepository.findContentsBySongListId(LIST_ID)).thenReturn(rows(
+                new Object[] { 10L, "e|---0---|\nB|---1---|" }));
+    }
+
+    @Test
+    void export_RendersOnceThenServesFromCache() throws Exception {
+        try (SetlistPdfService.SetlistPdf first = setlistPdfService.export(LIST_ID);
+                SetlistPdfService.SetlistPdf second = setlistPdfService.export(LIST_ID)) {
+            assertEquals(first.file(), second.file());
+            assertEquals("Gig.pdf", first.fileName());
+            byte[] bytes = first.content().readAllBytes();
+            assertEquals("%PDF", new String(bytes, 0, 4));
+            assertEquals(bytes.length, second.size());
+            assertArrayEquals(bytes, second.content().readAllBytes());
+        }
+        verify(tablatureRepository, times(1)).findContentsBySongListId(LIST_ID);
+    }
+
+    @Test
+    void export_TabEdited_RerendersAndDropsStaleFile() throws Exception {
+        try (SetlistPdfService.SetlistPdf before = setlistPdfService.export(LIST_ID)) {
+            when(tablatureRepository.findSetlistRows(LIST_ID)).thenReturn(rows(
+                    new Object[] { 1L, 10L, 1L, "Lead", "Guitar", "EADGBE" }));
+
+            try (SetlistPdfService.SetlistPdf after = setlistPdfService.export(LIST_ID)) {
+                assertNotEquals(before.hash(), after.hash());
+                assertFalse(Files.exists(before.file()));
+                assertTrue(Files.exists(after.file()));
+                // A download of the old version that already started still completes
+                assertEquals(before.size(), before.content().readAllBytes().length);
+            }
+        }
+    }
+
+    @Test
+    void evict_RemovesCachedFiles() {
+        SetlistPdfService.SetlistPdf pdf = setlistPdfService.export(LIST_ID);
+        pdf.close();
+
+        setlistPdfService.evict(LIST_ID);
+
+        assertFalse(Files.exists(pdf.file()));
+    }
+
+    @Test
+    void export_MissingList_Throws() {
+        when(songListRepository.findNameAndBandName(99L)).thenReturn(List.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> setlistPdfService.export(99L));
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
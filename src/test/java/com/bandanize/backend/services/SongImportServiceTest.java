@@ -0,0 +1,212 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.dtos.SongImportProgressDTO;
+import com.bandanize.backend.models.BandModel;
+import com.bandanize.backend.models.SongListModel;
+import com.bandanize.backend.models.UserModel;
+import com.bandanize.backend.repositories.SongImportRepository;
+import com.bandanize.backend.repositories.SongListRepository;
+import com.bandanize.backend.repositories.SongOrderRepository;
+import com.bandanize.backend.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SongImportServiceTest {
+
+    private static final Long LIST_ID = 5L;
+    private static final Long USER_ID = 7L;
+
+    @Mock
+    private SongListRepository songListRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private SongOrderRepository songOrderRepository;
+    @Mock
+    private SongOrderRebalancer songOrderRebalancer;
+    @Mock
+    private SongImportRepository songImportRepository;
+    @Mock
+    private BandSearchService bandSearchService;
+    @Mock
+    private NotificationService notificationService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SongImportService songImportService;
+    private SongListModel list;
+    private UserModel user;
+
+    @BeforeEach
+    void setUp() {
+        songImportService = new SongImportService(songListRepository, userRepository, songOrderRepository,
+                songOrderRebalancer, songImportRepository, bandSearchService, notificationService,
+                new ObjectMapper(), transactionManager);
+
+        BandModel band = new BandModel();
+        band.setId(1L);
+        list = new SongListModel();
+        list.setId(LIST_ID);
+        list.setName("Gig");
+        list.setBand(band);
+        user = new UserModel();
+        user.setId(USER_ID);
+        user.setName("Alice");
+
+        lenient().when(songListRepository.findById(LIST_ID)).thenReturn(Optional.of(list));
+        lenient().when(userRepository.existsById(USER_ID)).thenReturn(true);
+        lenient().when(songImportRepository.claimImportRun(eq(LIST_ID), any(), any())).thenReturn(true);
+        lenient().when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+
+        AtomicLong ids = new AtomicLong(100);
+        lenient().when(songImportRepository.insertSongs(eq(LIST_ID), anyList())).thenAnswer(invocation -> {
+            List<Long> generated = new ArrayList<>();
+            for (int i = 0; i < ((List<?>) invocation.getArgument(1)).size(); i++) {
+                generated.add(ids.incrementAndGet());
+            }
+            return generated;
+        });
+        lenient().when(songImportRepository.insertTabs(anyList())).thenAnswer(invocation -> {
+            List<Long> generated = new ArrayList<>();
+            for (int i = 0; i < ((List<?>) invocation.getArgument(0)).size(); i++) {
+                generated.add(ids.incrementAndGet());
+            }
+            return generated;
+        });
+    }
+
+    @Test
+    void importSongs_JsonLines_WritesInChunksAndNotifiesOnce() {
+        StringBuilder body = new StringBuilder();
+        int songCount = SongImportService.CHUNK_SIZE + 5;
+        for (int i = 0; i < songCount; i++) {
+            body.append("{\"name\":\"Song ").append(i).append("\",\"bpm\":120,")
+                    .append("\"tabs\":[{\"name\":\"Lead\",\"content\":\"e|--").append(i).append("--|\"}]}\n");
+        }
+
+        SongImportProgressDTO result = songImportService.importSongs(LIST_ID, USER_ID, stream(body.toString()),
+                SongImportService.Format.JSON_LINES);
+
+        assertEquals(SongImportProgressDTO.Status.COMPLETED, result.getStatus());
+        assertEquals(songCount, result.getSongsImported());
+        assertEquals(songCount, result.getTabsImported());
+        assertEquals(0, result.getErrorCount());
+        verify(songImportRepository, times(2)).insertSongs(eq(LIST_ID), anyList());
+        verify(songOrderRepository, times(2)).lockSongList(LIST_ID);
+        verify(notificationService).createSongsImportedNotification(list.getBand(), user, list, songCount,
+                songCount);
+        ArgumentCaptor<SongImportRepository.ImportRunRow> runs = ArgumentCaptor
+                .forClass(SongImportRepository.ImportRunRow.class);
+        verify(songImportRepository, atLeastOnce()).updateImportRun(eq(LIST_ID), runs.capture());
+        assertEquals("COMPLETED", runs.getValue().status());
+        assertEquals(songCount, runs.getValue().songsImported());
+    }
+
+    @Test
+    void importSongs_RunningElsewhere_IsRejected() {
+        when(songImportRepository.claimImportRun(eq(LIST_ID), any(), any())).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> songImportService.importSongs(LIST_ID, USER_ID,
+                stream("{\"name\":\"Song\"}\n"), SongImportService.Format.JSON_LINES));
+        verify(songImportRepository, never()).insertSongs(any(), anyList());
+        verify(songImportRepository, never()).updateImportRun(any(), any());
+    }
+
+    @Test
+    void importSongs_CsvWithByteOrderMark_FindsNameColumn() {
+        SongImportProgressDTO result = songImportService.importSongs(LIST_ID, USER_ID,
+                stream("\uFEFFname,bpm\nFirst,100\n"), SongImportService.Format.CSV);
+
+        assertEquals(SongImportProgressDTO.Status.COMPLETED, result.getStatus());
+        assertEquals(1, result.getSongsImported());
+        assertEquals(0, result.getErrorCount());
+    }
+
+    @Test
+    void getProgress_ReadsRunFromDatabase() {
+        when(songImportRepository.findImportRun(LIST_ID)).thenReturn(Optional.of(new SongImportRepository.ImportRunRow(
+                "RUNNING", 10, 8, 3, 2, "[\"Row 4: Song name is required\"]", LocalDateTime.now())));
+
+        SongImportProgressDTO progress = songImportService.getProgress(LIST_ID);
+
+        assertEquals(SongImportProgressDTO.Status.RUNNING, progress.getStatus());
+        assertEquals(8, progress.getSongsImported());
+        assertEquals(List.of("Row 4: Song name is required"), progress.getErrors());
+    }
+
+    @Test
+    void getProgress_RunNotUpdatedForLong_IsReportedFailed() {
+        when(songImportRepository.findImportRun(LIST_ID)).thenReturn(Optional.of(new SongImportRepository.ImportRunRow(
+                "RUNNING", 10, 8, 3, 0, "[]",
+                LocalDateTime.now().minus(SongImportService.STALE_AFTER).minusMinutes(1))));
+
+        assertEquals(SongImportProgressDTO.Status.FAILED, songImportService.getProgress(LIST_ID).getStatus());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void importSongs_Csv_SkipsInvalidRowsAndAppendsKeysInOrder() {
+        when(songOrderRepository.findLastSongKey(LIST_ID, null)).thenReturn("m");
+        when(songImportRepository.countSongs(LIST_ID)).thenReturn(3);
+        String csv = "name,bpm,tabName,tabContent\n"
+                + "First,100,,\n"
+                + "Second,fast,,\n"
+                + ",90,,\n"
+                + "Third,,Rhythm,\"Am\nLet it be\"\n";
+
+        SongImportProgressDTO result = songImportService.importSongs(LIST_ID, USER_ID, stream(csv),
+                SongImportService.Format.CSV);
+
+        assertEquals(2, result.getSongsImported());
+        assertEquals(1, result.getTabsImported());
+        assertEquals(2, result.getErrorCount());
+        assertEquals(List.of("Row 2: Invalid bpm 'fast'", "Row 3: Song name is required"), result.getErrors());
+
+        ArgumentCaptor<List<SongImportRepository.SongRow>> songs = ArgumentCaptor.forClass(List.class);
+        verify(songImportRepository).insertSongs(eq(LIST_ID), songs.capture());
+        SongImportRepository.SongRow first = songs.getValue().get(0);
+        SongImportRepository.SongRow third = songs.getValue().get(1);
+        assertEquals(3, first.orderIndex());
+        assertEquals(4, third.orderIndex());
+        assertTrue("m".compareTo(first.sortKey()) < 0 && first.sortKey().compareTo(third.sortKey()) < 0);
+
+        ArgumentCaptor<List<SongImportRepository.TabRow>> tabs = ArgumentCaptor.forClass(List.class);
+        verify(songImportRepository).insertTabs(tabs.capture());
+        assertEquals("Am\nLet it be", tabs.getValue().get(0).content());
+    }
+
+    @Test
+    void importSongs_NothingValid_NoNotification() {
+        SongImportProgressDTO result = songImportService.importSongs(LIST_ID, USER_ID,
+                stream("not json\n{\"bpm\":90}\n"), SongImportService.Format.JSON_LINES);
+
+        assertEquals(SongImportProgressDTO.Status.COMPLETED, result.getStatus());
+        assertEquals(0, result.getSongsImported());
+        assertEquals(2, result.getErrorCount());
+        verify(songImportRepository, never()).insertSongs(any(), anyList());
+        verifyNoInteractions(notificationService);
+    }
+
+    private static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
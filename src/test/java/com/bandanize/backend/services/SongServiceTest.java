@@ -0,0 +1,274 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.dtos.SongListIndexDTO;
+import com.bandanize.backend.exceptions.ResourceNotFoundException;
+import com.bandanize.backend.models.BandModel;
+import com.bandanize.backend.models.SongListModel;
+import com.bandanize.backend.models.SongModel;
+import com.bandanize.backend.models.TablatureModel;
+import com.bandanize.backend.models.UserModel;
+import com.bandanize.backend.repositories.BandRepository;
+import com.bandanize.backend.repositories.SongListRepository;
+import com.bandanize.backend.repositories.SongOrderRepository;
+import com.bandanize.backend.repositories.SongRepository;
+import com.bandanize.backend.repositories.TablatureRepository;
+import com.bandanize.backend.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SongServiceTest {
+
+    @Mock
+    private SongListRepository songListRepository;
+    @Mock
+    private SongRepository songRepository;
+    @Mock
+    private TablatureRepository tablatureRepository;
+    @Mock
+    private BandRepository bandRepository;
+    @Mock
+    private SongOrderRepository songOrderRepository;
+    @Mock
+    private SongOrderRebalancer songOrderRebalancer;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private BandSearchService bandSearchService;
+    @Mock
+    private NotificationService notificationService;
+
+    @InjectMocks
+    private SongService songService;
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    private static SongOrderRepository.SongPosition position(Long id, String sortKey) {
+        return new SongOrderRepository.SongPosition(id, 1L, sortKey, 0);
+    }
+
+    @Test
+    void getSongListIndex_NestsSongAndTabHeaders() {
+        when(bandRepository.existsById(10L)).thenReturn(true);
+        when(songListRepository.findIndexByBandId(10L)).thenReturn(List.of(new SongListIndexDTO(1L, "Setlist", 0)));
+        when(songRepository.findHeaderRowsByBandId(10L))
+                .thenReturn(rows(new Object[] { 1L, 100L, "Intro", 120, "Em", 0 }));
+        when(tablatureRepository.findHeaderRowsByBandId(10L))
+                .thenReturn(rows(new Object[] { 100L, 1000L, "Guitar", "guitar", "icon" }));
+
+        List<SongListIndexDTO> index = songService.getSongListIndex(10L);
+
+        assertEquals(1, index.size());
+        assertEquals("Intro", index.get(0).getSongs().get(0).getName());
+        assertEquals(1000L, index.get(0).getSongs().get(0).getTablatures().get(0).getId());
+    }
+
+    @Test
+    void getSongListIndex_RowsOfUnreadParents_AreSkipped() {
+        when(bandRepository.existsById(10L)).thenReturn(true);
+        when(songListRepository.findIndexByBandId(10L)).thenReturn(List.of(new SongListIndexDTO(1L, "Setlist", 0)));
+        // List 2 and song 200 were created after the lists were read
+        when(songRepository.findHeaderRowsByBandId(10L)).thenReturn(rows(
+                new Object[] { 1L, 100L, "Intro", null, null, 0 },
+                new Object[] { 2L, 200L, "New", null, null, 0 }));
+        when(tablatureRepository.findHeaderRowsByBandId(10L)).thenReturn(rows(
+                new Object[] { 200L, 2000L, "Bass", "bass", null },
+                new Object[] { 300L, 3000L, "Keys", "keys", null }));
+
+        List<SongListIndexDTO> index = songService.getSongListIndex(10L);
+
+        assertEquals(List.of(100L), index.get(0).getSongs().stream().map(song -> song.getId()).toList());
+        assertTrue(index.get(0).getSongs().get(0).getTablatures().isEmpty());
+    }
+
+    @Test
+    void getSongListIndex_UnknownBand_Throws() {
+        when(bandRepository.existsById(10L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> songService.getSongListIndex(10L));
+    }
+
+    @Test
+    void getTablature_LoadsContent() {
+        TablatureModel tab = new TablatureModel();
+        tab.setId(1000L);
+        tab.setContent("e|--0--|");
+        when(tablatureRepository.findById(1000L)).thenReturn(Optional.of(tab));
+
+        assertEquals("e|--0--|", songService.getTablature(1000L).getContent());
+    }
+
+    @Test
+    void getTablature_Unknown_Throws() {
+        when(tablatureRepository.findById(1000L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> songService.getTablature(1000L));
+    }
+
+    @Test
+    void reorderSongs_AppendsSongsLeftOut() {
+        when(songListRepository.existsById(1L)).thenReturn(true);
+        when(songOrderRepository.findSongPositions(1L))
+                .thenReturn(List.of(position(100L, "a0"), position(101L, "a1"), position(102L, "a2")));
+
+        songService.reorderSongs(1L, List.of(102L, 100L));
+
+        verify(songOrderRepository).lockSongList(1L);
+        verify(songOrderRepository).reorderSongs(1L, List.of(102L, 100L, 101L), OrderingKeys.evenlySpaced(3));
+    }
+
+    @Test
+    void reorderSongs_ForeignSong_IsRejected() {
+        when(songListRepository.existsById(1L)).thenReturn(true);
+        when(songOrderRepository.findSongPositions(1L)).thenReturn(List.of(position(100L, "a0")));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> songService.reorderSongs(1L, List.of(100L, 999L)));
+
+        assertEquals("Item 999 does not belong to this song list", e.getMessage());
+        verify(songOrderRepository, never()).reorderSongs(any(), any(), any());
+    }
+
+    @Test
+    void reorderSongs_DuplicateSong_IsRejected() {
+        when(songListRepository.existsById(1L)).thenReturn(true);
+        when(songOrderRepository.findSongPositions(1L))
+                .thenReturn(List.of(position(100L, "a0"), position(101L, "a1")));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> songService.reorderSongs(1L, List.of(100L, 100L)));
+
+        assertEquals("Item 100 appears more than once", e.getMessage());
+        verify(songOrderRepository, never()).reorderSongs(any(), any(), any());
+    }
+
+    @Test
+    void reorderSongLists_ForeignList_IsRejected() {
+        when(bandRepository.existsById(10L)).thenReturn(true);
+        when(songOrderRepository.findSongListIds(10L)).thenReturn(List.of(1L, 2L));
+
+        assertThrows(IllegalArgumentException.class, () -> songService.reorderSongLists(10L, List.of(2L, 3L)));
+        verify(songOrderRepository, never()).reorderSongLists(any(), any());
+    }
+
+    @Test
+    void reorderSongLists_DuplicateList_IsRejected() {
+        when(bandRepository.existsById(10L)).thenReturn(true);
+        when(songOrderRepository.findSongListIds(10L)).thenReturn(List.of(1L, 2L));
+
+        assertThrows(IllegalArgumentException.class, () -> songService.reorderSongLists(10L, List.of(1L, 1L)));
+        verify(songOrderRepository, never()).reorderSongLists(any(), any());
+    }
+
+    @Test
+    void reorderSongLists_ValidOrder_IsWritten() {
+        when(bandRepository.existsById(10L)).thenReturn(true);
+        when(songOrderRepository.findSongListIds(10L)).thenReturn(List.of(1L, 2L));
+
+        songService.reorderSongLists(10L, List.of(2L, 1L));
+
+        verify(songOrderRepository).reorderSongLists(10L, List.of(2L, 1L));
+    }
+
+    @Test
+    void addSong_LocksListBeforeReadingLastKey() {
+        BandModel band = new BandModel();
+        band.setId(10L);
+        SongListModel list = new SongListModel();
+        list.setId(1L);
+        list.setBand(band);
+        when(songListRepository.findById(1L)).thenReturn(Optional.of(list));
+        when(userRepository.findById(5L)).thenReturn(Optional.of(new UserModel()));
+        String last = OrderingKeys.evenlySpaced(1).get(0);
+        when(songOrderRepository.findLastSongKey(1L, null)).thenReturn(last);
+        when(songRepository.save(any(SongModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        SongModel song = songService.addSong(1L, 5L, new SongModel());
+
+        InOrder inOrder = inOrder(songOrderRepository);
+        inOrder.verify(songOrderRepository).lockSongList(1L);
+        inOrder.verify(songOrderRepository).findLastSongKey(1L, null);
+        assertEquals(OrderingKeys.between(last, null), song.getSortKey());
+    }
+
+    @Test
+    void moveSong_BetweenNeighbors_WritesOnlyItsKey() {
+        List<String> keys = OrderingKeys.evenlySpaced(3);
+        when(songOrderRepository.findSongPosition(102L))
+                .thenReturn(Optional.of(new SongOrderRepository.SongPosition(102L, 1L, keys.get(2), 2)));
+        when(songOrderRepository.findSongPosition(100L)).thenReturn(Optional.of(position(100L, keys.get(0))));
+        when(songOrderRepository.findSongPosition(101L)).thenReturn(Optional.of(position(101L, keys.get(1))));
+
+        songService.moveSong(102L, 100L, 101L);
+
+        verify(songOrderRepository).lockSongList(1L);
+        verify(songOrderRepository).updateSongKey(102L, OrderingKeys.between(keys.get(0), keys.get(1)));
+        verify(songOrderRebalancer, never()).rebalanceList(any());
+    }
+
+    @Test
+    void moveSong_ToStart_UsesKeyBeforeFirstSong() {
+        List<String> keys = OrderingKeys.evenlySpaced(2);
+        when(songOrderRepository.findSongPosition(101L)).thenReturn(Optional.of(position(101L, keys.get(1))));
+        when(songOrderRepository.findSongPosition(100L)).thenReturn(Optional.of(position(100L, keys.get(0))));
+        when(songOrderRepository.findPreviousSongKey(1L, keys.get(0), 101L)).thenReturn(null);
+
+        songService.moveSong(101L, null, 100L);
+
+        verify(songOrderRepository).updateSongKey(101L, OrderingKeys.between(null, keys.get(0)));
+    }
+
+    @Test
+    void moveSong_NeighborsWithoutKeys_RebalancesOnce() {
+        List<String> keys = OrderingKeys.evenlySpaced(3);
+        when(songOrderRepository.findSongPosition(102L)).thenReturn(Optional.of(position(102L, null)));
+        // Legacy rows before the rebalance, spread keys after it
+        when(songOrderRepository.findSongPosition(100L))
+                .thenReturn(Optional.of(position(100L, null)))
+                .thenReturn(Optional.of(position(100L, keys.get(0))));
+        when(songOrderRepository.findSongPosition(101L)).thenReturn(Optional.of(position(101L, keys.get(1))));
+
+        songService.moveSong(102L, 100L, 101L);
+
+        verify(songOrderRebalancer).rebalanceList(1L);
+        verify(songOrderRepository).updateSongKey(102L, OrderingKeys.between(keys.get(0), keys.get(1)));
+    }
+
+    @Test
+    void moveSong_NeighborFromAnotherList_IsRejected() {
+        when(songOrderRepository.findSongPosition(102L)).thenReturn(Optional.of(position(102L, "a")));
+        when(songOrderRepository.findSongPosition(200L))
+                .thenReturn(Optional.of(new SongOrderRepository.SongPosition(200L, 2L, "b", 0)));
+
+        assertThrows(IllegalArgumentException.class, () -> songService.moveSong(102L, 200L, null));
+        verify(songOrderRepository, never()).updateSongKey(any(), anyString());
+    }
+
+    @Test
+    void moveSong_OwnNeighbor_IsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> songService.moveSong(102L, 102L, null));
+        verifyNoInteractions(songOrderRepository);
+    }
+
+    @Test
+    void moveSong_UnknownSong_Throws() {
+        when(songOrderRepository.findSongPosition(102L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> songService.moveSong(102L, null, null));
+    }
+}
@@ -0,0 +1,209 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.dtos.TabEditMessageDTO;
+import com.bandanize.backend.dtos.TextEditDTO;
+import com.bandanize.backend.exceptions.VersionConflictException;
+import com.bandanize.backend.models.TablatureModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import com.bandanize.backend.repositories.TablatureRepository;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TabCollaborationServiceTest {
+
+    private static final Long TAB_ID = 7L;
+
+    @Mock
+    private SongService songService;
+
+    @Mock
+    private TablatureRepository tablatureRepository;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    private TabCollaborationService tabCollaborationService;
+
+    @BeforeEach
+    void setUp() {
+        TablatureModel tab = new TablatureModel();
+        tab.setId(TAB_ID);
+        tab.setContent("Am G");
+        tab.setVersion(0L);
+        lenient().when(songService.getTablature(TAB_ID)).thenReturn(tab);
+        lenient().when(tablatureRepository.isBandMember(eq(TAB_ID), any())).thenReturn(true);
+        tabCollaborationService = new TabCollaborationService(songService, tablatureRepository, objectMapper);
+    }
+
+    @Test
+    void concurrentEdits_AreSequencedAndSavedOnce() throws Exception {
+        List<TabEditMessageDTO> aliceInbox = new ArrayList<>();
+        List<TabEditMessageDTO> bobInbox = new ArrayList<>();
+        tabCollaborationService.join(TAB_ID, session("alice", aliceInbox));
+        tabCollaborationService.join(TAB_ID, session("bob", bobInbox));
+        TablatureModel saved = new TablatureModel();
+        saved.setVersion(1L);
+        when(songService.updateTablature(eq(TAB_ID), any())).thenReturn(saved);
+
+        // Both edit revision 0; Bob's edit is rebased over Alice's
+        tabCollaborationService.receive(TAB_ID, "alice", op(0, "a1", new TextEditDTO(2, 0, " F")));
+        tabCollaborationService.receive(TAB_ID, "bob", op(0, "b1", new TextEditDTO(2, 0, " C")));
+        tabCollaborationService.snapshotAll();
+        tabCollaborationService.snapshotAll();
+
+        assertEquals("ack", aliceInbox.get(1).getType());
+        assertEquals(1L, aliceInbox.get(1).getRevision());
+        assertEquals("op", aliceInbox.get(2).getType());
+        assertEquals(4, aliceInbox.get(2).getEdits().get(0).getPosition());
+        assertEquals("op", bobInbox.get(1).getType());
+        assertEquals("ack", bobInbox.get(2).getType());
+        assertEquals(2L, bobInbox.get(2).getRevision());
+
+        ArgumentCaptor<TablatureModel> details = ArgumentCaptor.forClass(TablatureModel.class);
+        verify(songService, times(1)).updateTablature(eq(TAB_ID), details.capture());
+        assertEquals("Am F C G", details.getValue().getContent());
+        assertEquals(0L, details.getValue().getVersion());
+    }
+
+    @Test
+    void invalidEdit_ResetsSender() throws Exception {
+        List<TabEditMessageDTO> inbox = new ArrayList<>();
+        tabCollaborationService.join(TAB_ID, session("alice", inbox));
+
+        tabCollaborationService.receive(TAB_ID, "alice", op(0, "a1", new TextEditDTO(10, 0, "x")));
+        tabCollaborationService.receive(TAB_ID, "alice", op(5, "a2", new TextEditDTO(0, 0, "x")));
+
+        assertEquals("reset", inbox.get(1).getType());
+        assertEquals("Am G", inbox.get(1).getContent());
+        assertEquals("reset", inbox.get(2).getType());
+        tabCollaborationService.leave(TAB_ID, "alice");
+        verify(songService, never()).updateTablature(any(), any());
+    }
+
+    @Test
+    void snapshotConflict_RebasesUnsavedEditsAndResetsEditors() throws Exception {
+        List<TabEditMessageDTO> inbox = new ArrayList<>();
+        tabCollaborationService.join(TAB_ID, session("alice", inbox));
+        tabCollaborationService.receive(TAB_ID, "alice", op(0, "a1", new TextEditDTO(4, 0, " D")));
+        TablatureModel external = new TablatureModel();
+        external.setContent("Am G C");
+        external.setVersion(3L);
+        TablatureModel saved = new TablatureModel();
+        saved.setVersion(4L);
+        when(songService.updateTablature(eq(TAB_ID), any()))
+                .thenThrow(new VersionConflictException("modified"))
+                .thenReturn(saved);
+        when(songService.getTablature(TAB_ID)).thenReturn(external);
+
+        tabCollaborationService.snapshotAll();
+
+        TabEditMessageDTO reset = inbox.get(inbox.size() - 1);
+        assertEquals("reset", reset.getType());
+        assertEquals("Am G C D", reset.getContent());
+        assertEquals(2L, reset.getRevision());
+
+        // The rebased edit is still unsaved and goes out with the outside version
+        tabCollaborationService.snapshotAll();
+        ArgumentCaptor<TablatureModel> details = ArgumentCaptor.forClass(TablatureModel.class);
+        verify(songService, times(2)).updateTablature(eq(TAB_ID), details.capture());
+        assertEquals("Am G C D", details.getValue().getContent());
+        assertEquals(3L, details.getValue().getVersion());
+    }
+
+    @Test
+    void snapshot_EditorsKeepEditingWhileItIsWritten() throws Exception {
+        List<TabEditMessageDTO> inbox = new ArrayList<>();
+        tabCollaborationService.join(TAB_ID, session("alice", inbox));
+        tabCollaborationService.receive(TAB_ID, "alice", op(0, "a1", new TextEditDTO(4, 0, " D")));
+        TablatureModel saved = new TablatureModel();
+        saved.setVersion(1L);
+        when(songService.updateTablature(eq(TAB_ID), any())).thenAnswer(invocation -> {
+            // Another thread edits while the first snapshot is being written
+            Thread editor = new Thread(() -> tabCollaborationService.receive(TAB_ID, "alice",
+                    op(1, "a2", new TextEditDTO(0, 0, "x"))));
+            editor.start();
+            editor.join(5000);
+            assertFalse(editor.isAlive());
+            return saved;
+        }).thenReturn(saved);
+
+        tabCollaborationService.snapshotAll();
+        tabCollaborationService.snapshotAll();
+
+        ArgumentCaptor<TablatureModel> details = ArgumentCaptor.forClass(TablatureModel.class);
+        verify(songService, times(2)).updateTablature(eq(TAB_ID), details.capture());
+        assertEquals("Am G D", details.getAllValues().get(0).getContent());
+        assertEquals("xAm G D", details.getAllValues().get(1).getContent());
+        assertEquals(1L, details.getAllValues().get(1).getVersion());
+    }
+
+    @Test
+    void removedMember_IsDisconnectedByMembershipCheck() throws Exception {
+        List<TabEditMessageDTO> inbox = new ArrayList<>();
+        WebSocketSession session = session("alice", inbox);
+        tabCollaborationService.join(TAB_ID, session);
+        when(tablatureRepository.isBandMember(eq(TAB_ID), any())).thenReturn(false);
+
+        tabCollaborationService.checkMembers();
+        tabCollaborationService.receive(TAB_ID, "alice", op(0, "a1", new TextEditDTO(0, 0, "x")));
+
+        verify(session).close(CloseStatus.POLICY_VIOLATION);
+        assertEquals(1, inbox.size());
+        verify(songService, never()).updateTablature(any(), any());
+    }
+
+    @Test
+    void edits_DoNotQueryMembership() throws Exception {
+        tabCollaborationService.join(TAB_ID, session("alice", new ArrayList<>()));
+
+        tabCollaborationService.receive(TAB_ID, "alice", op(0, "a1", new TextEditDTO(0, 0, "x")));
+        tabCollaborationService.receive(TAB_ID, "alice", op(1, "a2", new TextEditDTO(0, 0, "y")));
+
+        verify(tablatureRepository, times(1)).isBandMember(eq(TAB_ID), any());
+    }
+
+    @Test
+    void join_NonMember_IsRejected() throws Exception {
+        when(tablatureRepository.isBandMember(eq(TAB_ID), any())).thenReturn(false);
+        WebSocketSession session = session("alice", new ArrayList<>());
+
+        tabCollaborationService.join(TAB_ID, session);
+
+        verify(session).close(CloseStatus.POLICY_VIOLATION);
+        verify(songService, never()).getTablature(any());
+    }
+
+    private WebSocketSession session(String id, List<TabEditMessageDTO> inbox) throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        lenient().when(session.getId()).thenReturn(id);
+        lenient().when(session.getAttributes()).thenReturn(new HashMap<>());
+        lenient().doAnswer(invocation -> inbox.add(objectMapper.readValue(
+                invocation.<TextMessage>getArgument(0).getPayload(), TabEditMessageDTO.class)))
+                .when(session).sendMessage(any());
+        return session;
+    }
+
+    private static TabEditMessageDTO op(long revision, String opId, TextEditDTO edit) {
+        TabEditMessageDTO message = new TabEditMessageDTO("op", revision);
+        message.setOpId(opId);
+        message.setEdits(List.of(edit));
+        return message;
+    }
+}
@@ -0,0 +1,125 @@
+package com.bandanize.backend.services;
+
+import com.bandanize.backend.dtos.TextEditDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextPatchTest {
+
+    @Test
+    void apply_MultipleEdits_PositionsReferToBaseText() {
+        String base = "e|---0---|\nB|---1---|";
+        List<TextEditDTO> edits = List.of(
+                new TextEditDTO(5, 1, "3"),
+                new TextEditDTO(10, 0, "\nG|---0---|"),
+                new TextEditDTO(16, 1, "2"));
+
+        assertEquals("e|---3---|\nG|---0---|\nB|---2---|", TextPatch.apply(base, edits));
+    }
+
+    @Test
+    void apply_NullBase_TreatedAsEmpty() {
+        assertEquals("Intro", TextPatch.apply(null, List.of(new TextEditDTO(0, 0, "Intro"))));
+    }
+
+    @Test
+    void apply_DeleteOnly() {
+        assertEquals("Am G", TextPatch.apply("Am F G", List.of(new TextEditDTO(2, 2, null))));
+    }
+
+    @Test
+    void apply_OverlappingOrOutOfBounds_Throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TextPatch.apply("abcdef", List.of(new TextEditDTO(2, 3, "x"), new TextEditDTO(3, 0, "y"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> TextPatch.apply("abc", List.of(new TextEditDTO(2, 5, ""))));
+        assertThrows(IllegalArgumentException.class,
+                () -> TextPatch.apply("abc", List.of(new TextEditDTO(-1, 0, "x"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> TextPatch.apply("abc", List.of(new TextEditDTO(4, 0, "x"))));
+    }
+
+    @Test
+    void apply_HugeDeleteCount_ThrowsInsteadOfOverflowing() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TextPatch.apply("abc", List.of(new TextEditDTO(2, Integer.MAX_VALUE, ""))));
+        assertThrows(IllegalArgumentException.class, () -> TextPatch.transform(
+                List.of(new TextEditDTO(2, Integer.MAX_VALUE, "")), List.of(new TextEditDTO(0, 0, "x")), true));
+    }
+
+    @Test
+    void diff_ReplacesOnlyTheChangedMiddle() {
+        assertEquals(List.of(), TextPatch.diff("Am G", "Am G"));
+        List<TextEditDTO> edits = TextPatch.diff("Am F G", "Am C G");
+        assertEquals(1, edits.size());
+        assertEquals(3, edits.get(0).getPosition());
+        assertEquals(1, edits.get(0).getDeleteCount());
+        assertEquals("Am C G", TextPatch.apply("Am F G", edits));
+        assertEquals("aaa", TextPatch.apply("aa", TextPatch.diff("aa", "aaa")));
+        assertEquals("", TextPatch.apply("abc", TextPatch.diff("abc", "")));
+    }
+
+    @Test
+    void transform_ConcurrentInsertsAtSamePoint_TieBreakDecidesOrder() {
+        String base = "Am G";
+        List<TextEditDTO> mine = List.of(new TextEditDTO(2, 0, " F"));
+        List<TextEditDTO> theirs = List.of(new TextEditDTO(2, 0, " C"));
+
+        String viaTheirs = TextPatch.apply(TextPatch.apply(base, theirs), TextPatch.transform(mine, theirs, true));
+        String viaMine = TextPatch.apply(TextPatch.apply(base, mine), TextPatch.transform(theirs, mine, false));
+
+        assertEquals("Am C F G", viaTheirs);
+        assertEquals(viaTheirs, viaMine);
+    }
+
+    @Test
+    void transform_OverlappingDeletes_DeletedOnce() {
+        String base = "0123456789";
+        List<TextEditDTO> mine = List.of(new TextEditDTO(2, 4, ""));
+        List<TextEditDTO> theirs = List.of(new TextEditDTO(4, 4, "x"));
+
+        String result = TextPatch.apply(TextPatch.apply(base, theirs), TextPatch.transform(mine, theirs, true));
+
+        assertEquals("01x89", result);
+    }
+
+    @Test
+    void transform_RandomConcurrentEdits_Converge() {
+        Random random = new Random(42);
+        for (int round = 0; round < 5000; round++) {
+            String base = randomText(random, random.nextInt(12));
+            List<TextEditDTO> a = randomEdits(random, base.length());
+            List<TextEditDTO> b = randomEdits(random, base.length());
+
+            String viaB = TextPatch.apply(TextPatch.apply(base, b), TextPatch.transform(a, b, true));
+            String viaA = TextPatch.apply(TextPatch.apply(base, a), TextPatch.transform(b, a, false));
+
+            assertEquals(viaA, viaB, "base=" + base + " round=" + round);
+        }
+    }
+
+    private static List<TextEditDTO> randomEdits(Random random, int length) {
+        List<TextEditDTO> edits = new ArrayList<>();
+        int position = 0;
+        while (position <= length && random.nextInt(3) > 0) {
+            int start = position + random.nextInt(length - position + 1);
+            int deleteCount = random.nextInt(length - start + 1);
+            edits.add(new TextEditDTO(start, deleteCount, randomText(random, random.nextInt(3))));
+            position = start + deleteCount;
+        }
+        return edits;
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+}
@@ -2,13 +2,12 @@ package com.bandanize.backend.services;
 
 import com.bandanize.backend.dtos.UserDTO;
 import com.bandanize.backend.exceptions.ResourceNotFoundException;
-import com.bandanize.backend.models.BandModel;
-import com.bandanize.backend.models.ChatMessageModel;
 import com.bandanize.backend.models.UserModel;
 import com.bandanize.backend.repositories.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -48,6 +47,9 @@ class UserServiceTest {
     @Mock
     private NotificationRepository notificationRepository;
 
+    @Mock
+    private NotificationCounterService notificationCounterService;
+
     @Mock
     private PasswordEncoder passwordEncoder;
 
@@ -57,6 +59,15 @@ class UserServiceTest {
     @Mock
     private JwtService jwtService;
 
+    @Mock
+    private MentionMatcherCache mentionMatcherCache;
+
+    @Mock
+    private BandSearchService bandSearchService;
+
+    @Mock
+    private BandDeletionService bandDeletionService;
+
     @InjectMocks
     private UserService userService;
 
@@ -192,56 +203,41 @@ class UserServiceTest {
 
     @Test
     void deleteUser_Success_CleansUpAllRelations() {
-        // Setup: user owns one band and is a member of another
-        BandModel ownedBand = new BandModel();
-        ownedBand.setId(10L);
-        ownedBand.setOwner(user);
-
-        UserModel otherOwner = new UserModel();
-        otherOwner.setId(2L);
-        BandModel memberBand = new BandModel();
-        memberBand.setId(20L);
-        memberBand.setOwner(otherOwner);
-        memberBand.setUsers(new ArrayList<>(List.of(otherOwner, user)));
-
-        user.setBands(new ArrayList<>(List.of(ownedBand, memberBand)));
-
+        // Setup: user owns one band and is a member of others
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(chatMessageRepository.findBySender(user)).thenReturn(new ArrayList<>());
+        when(eventRepository.findIdsByCreatorId(1L)).thenReturn(List.of(5L));
+        when(bandRepository.findIdsByOwnerId(1L)).thenReturn(List.of(10L));
 
         userService.deleteUser(1L);
 
         // Verify cleanup order
-        verify(bandInvitationRepository).deleteByInvitedUser(user);
-        verify(chatMessageRepository).findBySender(user);
-        verify(chatReadStatusRepository).deleteByUserId(1L);
-        verify(notificationRepository).deleteByRecipient(user);
-        verify(notificationRepository).deleteByActor(user);
-        verify(eventRepository).deleteByCreatorId(1L);
-        verify(bandRepository).delete(ownedBand); // owned band deleted
-        verify(bandRepository).save(memberBand); // member band saved after removal
-        verify(userRepository).delete(user);
-
-        // User should have been removed from memberBand's user list
-        assertFalse(memberBand.getUsers().contains(user));
+        InOrder order = inOrder(bandInvitationRepository, chatMessageRepository, chatReadStatusRepository,
+                notificationCounterService, notificationRepository, eventRepository, bandDeletionService, bandRepository, userRepository);
+        order.verify(bandInvitationRepository).deleteByInvitedUserId(1L);
+        order.verify(chatMessageRepository).anonymizeSender(1L);
+        order.verify(chatReadStatusRepository).deleteByUserId(1L);
+        order.verify(notificationCounterService).forgetUser(1L); // before the notifications it counts are gone
+        order.verify(notificationRepository).deleteByRecipientOrActor(1L);
+        order.verify(eventRepository).deleteByCreatorId(1L);
+        order.verify(bandDeletionService).markDeleted(10L); // owned band handed to the deletion job
+        order.verify(bandRepository).clearOwner(1L);
+        order.verify(userRepository).removeFromAllBands(1L); // left the bands it was a member of
+        order.verify(userRepository).delete(user);
+        verify(bandSearchService).removeEvents(List.of(5L));
+        verify(bandSearchService).removeBand(10L);
+        verify(bandRepository, never()).delete(any());
     }
 
     @Test
-    void deleteUser_AnonymizesChatMessages() {
-        ChatMessageModel msg1 = new ChatMessageModel();
-        msg1.setSender(user);
-        ChatMessageModel msg2 = new ChatMessageModel();
-        msg2.setSender(user);
-
-        user.setBands(new ArrayList<>());
+    void deleteUser_AnonymizesChatMessagesInBulk() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(chatMessageRepository.findBySender(user)).thenReturn(List.of(msg1, msg2));
+        when(chatMessageRepository.anonymizeSender(1L)).thenReturn(50_000);
 
         userService.deleteUser(1L);
 
-        assertNull(msg1.getSender());
-        assertNull(msg2.getSender());
-        verify(chatMessageRepository).saveAll(List.of(msg1, msg2));
+        verify(chatMessageRepository).anonymizeSender(1L);
+        verify(chatMessageRepository, never()).saveAll(any());
+        verify(chatMessageRepository, never()).findAll();
     }
 
     @Test